@@ -0,0 +1,290 @@
+package org.yazanghafir.tollcalculator.codegen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Generates the lookup tables of the bundled configuration as Java source, run by the codegen
+ * profile before the application is compiled.
+ *
+ * It is launched as a single source file, so it cannot use the classes of the application and
+ * reads the JSON as a tree. The generated class builds the default fee schedule and the tariff
+ * schedules from one fee per minute of the day, the vehicle type index in a table size in which
+ * no two types collide, and registers itself as the GeneratedConfiguration service. Invalid
+ * schedules and vehicle types that cannot be placed without collisions fail the build.
+ *
+ * Usage: ConfigurationTableGenerator resourceDirectory sourceDirectory serviceDirectory
+ */
+public final class ConfigurationTableGenerator {
+
+    private static final String PACKAGE = "org.yazanghafir.tollcalculator.infrastructure.configuration.generated";
+    private static final String CLASS_NAME = "GeneratedConfigurationTables";
+    private static final String SERVICE = "org.yazanghafir.tollcalculator.infrastructure.configuration.GeneratedConfiguration";
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_TABLE_SIZE = 1 << 16;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringBuilder out = new StringBuilder();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("Usage: ConfigurationTableGenerator resourceDirectory sourceDirectory serviceDirectory");
+        }
+        Path resources = Path.of(args[0]);
+        Path sources = Path.of(args[1]).resolve(PACKAGE.replace('.', '/'));
+        Path services = Path.of(args[2]).resolve("META-INF/services");
+
+        String source = new ConfigurationTableGenerator().generate(
+                resources.resolve("TollFees.json"), resources.resolve("VehicleTypes.json"), resources.resolve("Tariffs.json"));
+        Files.createDirectories(sources);
+        Files.writeString(sources.resolve(CLASS_NAME + ".java"), source);
+        Files.createDirectories(services);
+        Files.writeString(services.resolve(SERVICE), PACKAGE + "." + CLASS_NAME + "\n");
+        System.out.println("Generated " + PACKAGE + "." + CLASS_NAME + " from " + resources);
+    }
+
+    private String generate(Path tollFeesFile, Path vehicleTypesFile, Path tariffsFile) throws IOException {
+        byte[] tollFees = Files.readAllBytes(tollFeesFile);
+        byte[] vehicleTypes = Files.readAllBytes(vehicleTypesFile);
+        byte[] tariffs = Files.readAllBytes(tariffsFile);
+        JsonNode tariffList = objectMapper.readTree(tariffs).path("tariffs");
+
+        line("package " + PACKAGE + ";");
+        line("");
+        line("import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;");
+        line("import org.yazanghafir.tollcalculator.domain.configuration.Tariff;");
+        line("import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;");
+        line("import org.yazanghafir.tollcalculator.domain.entities.TariffIndex;");
+        line("import org.yazanghafir.tollcalculator.domain.entities.TollFeeTable;");
+        line("import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;");
+        line("import org.yazanghafir.tollcalculator.infrastructure.configuration.GeneratedConfiguration;");
+        line("");
+        line("import java.util.Arrays;");
+        line("import java.util.List;");
+        line("");
+        line("/**");
+        line(" * Generated from TollFees.json, VehicleTypes.json and Tariffs.json by ConfigurationTableGenerator, do not edit.");
+        line(" */");
+        line("public final class " + CLASS_NAME + " implements GeneratedConfiguration {");
+        line("");
+        line("    @Override");
+        line("    public long getChecksum(ConfigurationFilePath filePathType) {");
+        line("        return switch (filePathType) {");
+        line("            case TOLL_FEES -> " + checksum(tollFees) + "L;");
+        line("            case VEHICLE_TYPES -> " + checksum(vehicleTypes) + "L;");
+        line("            case TARIFFS -> " + checksum(tariffs) + "L;");
+        line("            default -> -1;");
+        line("        };");
+        line("    }");
+        line("");
+        line("    @Override");
+        line("    public TollFeeTable getTollFeeTable() {");
+        line("        return TollFeeTable.of(tollFees());");
+        line("    }");
+        line("");
+        generateVehicleTypeIndex(objectMapper.readTree(vehicleTypes).path("vehicleTypes"));
+        generateTariffIndex(tariffList);
+        generateFeeMethod("tollFees", "TollFees.json", objectMapper.readTree(tollFees).path("tollFees"));
+        for (int i = 0; i < tariffList.size(); i++) {
+            generateFeeMethod("tariffFees" + i, tariffName(tariffList.get(i), i) + " in Tariffs.json",
+                    tariffList.get(i).path("tollFees"));
+        }
+        out.setLength(out.length() - 1); // No blank line before the closing brace
+        line("}");
+        return out.toString();
+    }
+
+    private void generateVehicleTypeIndex(JsonNode vehicleTypes) {
+        List<String> names = new ArrayList<>();
+        line("    @Override");
+        line("    public VehicleTypeIndex getVehicleTypeIndex() {");
+        line("        return VehicleTypeIndex.compilePerfect(List.of(");
+        for (int i = 0; i < vehicleTypes.size(); i++) {
+            JsonNode type = vehicleTypes.get(i);
+            if (type.path("vehicleType").isTextual()) {
+                names.add(type.path("vehicleType").asText());
+            }
+            line("                new VehicleType(" + string(type.path("vehicleType"))
+                    + ", " + (type.path("isTollFreeVehicle").isNull() || type.path("isTollFreeVehicle").isMissingNode()
+                    ? "null" : String.valueOf(type.path("isTollFreeVehicle").asBoolean()))
+                    + ", " + string(type.path("vehicleClass")) + ")" + (i + 1 < vehicleTypes.size() ? "," : ""));
+        }
+        line("        ), " + perfectTableSize(names) + ");");
+        line("    }");
+        line("");
+    }
+
+    private void generateTariffIndex(JsonNode tariffs) {
+        line("    @Override");
+        line("    public TariffIndex getTariffIndex() {");
+        line("        return TariffIndex.compile(List.of(");
+        for (int i = 0; i < tariffs.size(); i++) {
+            JsonNode tariff = tariffs.get(i);
+            line("                new Tariff(" + string(tariff.path("name")) + ", " + stringList(tariff.path("zones"))
+                    + ", " + stringList(tariff.path("vehicleClasses")) + ", " + tariff.path("maxDailyFee").asInt()
+                    + ", null)" + (i + 1 < tariffs.size() ? "," : ""));
+        }
+        line("        ), List.of(");
+        for (int i = 0; i < tariffs.size(); i++) {
+            line("                TollFeeTable.of(tariffFees" + i + "())" + (i + 1 < tariffs.size() ? "," : ""));
+        }
+        line("        ));");
+        line("    }");
+        line("");
+    }
+
+    private void generateFeeMethod(String methodName, String source, JsonNode tollFees) {
+        int[] fees = compileFees(source, tollFees);
+        line("    private static int[] " + methodName + "() {");
+        line("        int[] fees = new int[" + MINUTES_PER_DAY + "];");
+        for (int start = 0; start < MINUTES_PER_DAY; ) {
+            int end = start;
+            while (end + 1 < MINUTES_PER_DAY && fees[end + 1] == fees[start]) {
+                end++;
+            }
+            if (fees[start] != 0) {
+                line("        Arrays.fill(fees, " + start + ", " + (end + 1) + ", " + fees[start] + "); // " + describe(start, end));
+            }
+            start = end + 1;
+        }
+        line("        return fees;");
+        line("    }");
+        line("");
+    }
+
+    /**
+     * Compiles the fee ranges into one fee per minute, with the same rules as TollFeeTable.compile.
+     */
+    private static int[] compileFees(String source, JsonNode tollFees) {
+        int[] fees = new int[MINUTES_PER_DAY];
+        Arrays.fill(fees, -1);
+        List<String> problems = new ArrayList<>();
+        for (JsonNode tollFee : tollFees) {
+            int feeAmount = tollFee.path("feeAmount").asInt();
+            for (JsonNode timePoint : tollFee.path("timePoints")) {
+                String[] parts = timePoint.asText().split("-");
+                if (parts.length != 2) {
+                    problems.add("invalid time range format " + timePoint.asText());
+                    continue;
+                }
+                int start = toMinuteOfDay(LocalTime.parse(parts[0]));
+                int end = toMinuteOfDay(LocalTime.parse(parts[1]));
+                if (end < start || feeAmount < 0) {
+                    problems.add("invalid range " + timePoint.asText());
+                    continue;
+                }
+                for (int minute = start; minute <= end; minute++) {
+                    if (fees[minute] != -1) {
+                        problems.add("overlapping ranges at " + describe(minute, minute));
+                    }
+                    fees[minute] = feeAmount;
+                }
+            }
+        }
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            if (fees[minute] == -1) {
+                problems.add("no fee configured for " + describe(minute, minute));
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid toll fee configuration in " + source + ": "
+                    + String.join("; ", problems.subList(0, Math.min(problems.size(), 10))) + ".");
+        }
+        return fees;
+    }
+
+    /**
+     * Finds the smallest table, at most half full, in which no two vehicle types share a slot.
+     */
+    private static int perfectTableSize(List<String> names) {
+        List<String> distinct = new ArrayList<>();
+        for (String name : names) {
+            if (distinct.stream().noneMatch(name::equalsIgnoreCase)) {
+                distinct.add(name);
+            }
+        }
+        for (int tableSize = Integer.highestOneBit(Math.max(distinct.size(), 1) * 2) << 1;
+             tableSize <= MAX_TABLE_SIZE; tableSize <<= 1) {
+            boolean[] used = new boolean[tableSize];
+            boolean collision = false;
+            for (String name : distinct) {
+                int slot = hash(name) & (tableSize - 1);
+                collision |= used[slot];
+                used[slot] = true;
+            }
+            if (!collision) {
+                return tableSize;
+            }
+        }
+        throw new IllegalStateException("The vehicle types cannot be placed without collisions in a table of up to "
+                + MAX_TABLE_SIZE + " slots.");
+    }
+
+    // Must match CaseInsensitiveNames.hash, VehicleTypeIndex.compilePerfect rejects a table that does not
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long checksum(byte[] content) {
+        CRC32 checksum = new CRC32();
+        checksum.update(content);
+        return checksum.getValue();
+    }
+
+    private static String tariffName(JsonNode tariff, int index) {
+        return tariff.path("name").isTextual() ? tariff.path("name").asText() : "tariff " + (index + 1);
+    }
+
+    private static String stringList(JsonNode values) {
+        if (!values.isArray()) {
+            return "null";
+        }
+        List<String> strings = new ArrayList<>();
+        for (JsonNode value : values) {
+            strings.add(string(value));
+        }
+        return "List.of(" + String.join(", ", strings) + ")";
+    }
+
+    private static String string(JsonNode value) {
+        if (!value.isTextual()) {
+            return "null";
+        }
+        StringBuilder literal = new StringBuilder("\"");
+        for (char c : value.asText().toCharArray()) {
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private static int toMinuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static String describe(int startMinute, int endMinute) {
+        return LocalTime.of(startMinute / 60, startMinute % 60) + "-" + LocalTime.of(endMinute / 60, endMinute % 60);
+    }
+
+    private void line(String text) {
+        out.append(text).append('\n');
+    }
+}
@@ -0,0 +1,113 @@
+package org.yazanghafir.tollcalculator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yazanghafir.tollcalculator.application.handler.ITollAccumulator;
+import org.yazanghafir.tollcalculator.application.handler.PersistentTollAccumulator;
+import org.yazanghafir.tollcalculator.application.handler.TollAccumulator;
+import org.yazanghafir.tollcalculator.application.query.TariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.query.TollFreeCalendar;
+import org.yazanghafir.tollcalculator.application.query.VehicleTypeRegistry;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares adding live passages to the running totals on the heap with adding them to the
+ * memory-mapped store. Every plate passes once an hour on consecutive weekdays, so the number of
+ * open vehicle days grows during an iteration; run with -prof gc to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DailyTollStoreBenchmark {
+
+    private static final long MILLIS_PER_HOUR = 60 * 60 * 1000L;
+    private static final long FIRST_DAY_MILLIS = LocalDate.of(2024, 8, 26) // a Monday
+            .atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    @Param({"heap", "mapped"})
+    private String store;
+
+    @Param({"100000"})
+    private int plateCount;
+
+    private String[] plates;
+    private Path storeDirectory;
+    private ITollAccumulator accumulator;
+    private long passage;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        plates = new String[plateCount];
+        for (int i = 0; i < plateCount; i++) {
+            plates[i] = "ABC" + i;
+        }
+        storeDirectory = Files.createTempDirectory("toll-store-benchmark");
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        VehicleTypeRegistry vehicleTypeRegistry = new VehicleTypeRegistry(new ConfigurationLoader<>());
+        TollFreeValidator tollFreeValidator = new TollFreeValidator(
+                new TollFreeCalendar(new ConfigurationLoader<>()), vehicleTypeRegistry);
+        TollFeeAmountRetriever tollFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+        TariffRegistry tariffRegistry = new TariffRegistry(new ConfigurationLoader<>(), vehicleTypeRegistry);
+        int retentionDays = 1_000_000; // Every generated day is still open
+
+        accumulator = store.equals("mapped")
+                ? new PersistentTollAccumulator(tollFreeValidator, tollFeeRetriever, tariffRegistry, retentionDays,
+                        storeDirectory.resolve("daily-tolls-" + System.nanoTime() + ".dat").toString(), plateCount * 4)
+                : new TollAccumulator(tollFreeValidator, tollFeeRetriever, tariffRegistry, retentionDays);
+        passage = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws IOException {
+        if (accumulator instanceof PersistentTollAccumulator persistent) {
+            persistent.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        try (var files = Files.list(storeDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(storeDirectory);
+    }
+
+    @Benchmark
+    public int addPassage() {
+        long n = passage++;
+        int plate = (int) (n % plateCount);
+        long hour = n / plateCount;
+        long day = hour / 24;
+        long weekday = day / 5 * 7 + day % 5; // Skip the weekends
+        return accumulator.addPassage(plates[plate], "Car",
+                FIRST_DAY_MILLIS + weekday * 24 * MILLIS_PER_HOUR + (hour % 24) * MILLIS_PER_HOUR).getTollFee();
+    }
+}
@@ -0,0 +1,127 @@
+package org.yazanghafir.tollcalculator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yazanghafir.tollcalculator.application.handler.InvoicingHandler;
+import org.yazanghafir.tollcalculator.application.handler.TollCalculator;
+import org.yazanghafir.tollcalculator.application.query.TariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.query.TollFreeCalendar;
+import org.yazanghafir.tollcalculator.application.query.VehicleTypeRegistry;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.responses.InvoicingResponse;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how monthly invoicing of a passage log scales with the workers of the fork-join
+ * pool. The log is read in one byte range per worker, so reading, sorting and calculating all
+ * run in parallel; with a run size below the log size every range also spills and merges runs.
+ * Compare the scores of the parallelism values on a machine with at least that many cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InvoicingBenchmark {
+
+    private static final String[] TYPES = {"Car", "Car", "Car", "Motorbike", "Truck"};
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"1000000"})
+    private int passageCount;
+
+    @Param({"250000"})
+    private int runSize;
+
+    private Path directory;
+    private Path input;
+    private Path output;
+    private InvoicingHandler invoicingHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TollFeeAmountRetriever tollFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+        VehicleTypeRegistry vehicleTypeRegistry = new VehicleTypeRegistry(new ConfigurationLoader<>());
+        TollFreeValidator tollFreeValidator = new TollFreeValidator(new TollFreeCalendar(new ConfigurationLoader<>()), vehicleTypeRegistry);
+        TariffRegistry tariffRegistry = new TariffRegistry(new ConfigurationLoader<>(), vehicleTypeRegistry);
+        TollCalculator tollCalculator = new TollCalculator(tollFreeValidator, tollFeeRetriever, tariffRegistry);
+        TollCalculatorRequestValidator requestValidator = new TollCalculatorRequestValidator(vehicleTypeRegistry, tariffRegistry);
+
+        directory = Files.createTempDirectory("invoicing-benchmark");
+        input = directory.resolve("passages.csv");
+        output = directory.resolve("invoices.csv");
+        invoicingHandler = new InvoicingHandler(requestValidator, tollCalculator, runSize, directory.toString(),
+                parallelism, 65536);
+        writeLog();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public long invoice() {
+        InvoicingResponse response = invoicingHandler.invoice(input, output);
+        if (!response.isSuccess()) {
+            throw new IllegalStateException(response.getMessage());
+        }
+        return response.getTotalTollFee();
+    }
+
+    /**
+     * Writes about ten passages per vehicle day on the weekdays of one month, in random plate order.
+     */
+    private void writeLog() throws IOException {
+        Random random = new Random(42);
+        PassageGenerator generator = new PassageGenerator(42);
+        int plateCount = Math.max(1, passageCount / 200);
+        LocalDate firstDay = LocalDate.of(2024, 9, 2); // A Monday
+
+        try (BufferedWriter writer = Files.newBufferedWriter(input)) {
+            writer.write("vehiclePlate,vehicleType,vehicleDateTime");
+            writer.newLine();
+            for (int written = 0; written < passageCount; ) {
+                int plate = random.nextInt(plateCount);
+                LocalDate day = firstDay.plusDays(random.nextInt(4) * 7L + random.nextInt(5));
+                for (Date passage : generator.passages(day, Math.min(10, passageCount - written))) {
+                    writer.write("P" + plate + "," + TYPES[plate % TYPES.length] + ","
+                            + passage.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime());
+                    writer.newLine();
+                    written++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.yazanghafir.tollcalculator.benchmark;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates passage times for one vehicle and day, clustered around the morning and
+ * afternoon rush hours of the toll schedule with some traffic spread over the daytime.
+ */
+final class PassageGenerator {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final Random random;
+
+    PassageGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    List<Date> passages(LocalDate day, int count) {
+        List<Date> passages = new ArrayList<>(count);
+        long startOfDay = day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        for (int i = 0; i < count; i++) {
+            double minuteOfDay;
+            double distribution = random.nextDouble();
+            if (distribution < 0.35) {
+                minuteOfDay = 7.5 * 60 + random.nextGaussian() * 45; // morning rush around 07:30
+            } else if (distribution < 0.70) {
+                minuteOfDay = 16.5 * 60 + random.nextGaussian() * 60; // afternoon rush around 16:30
+            } else {
+                minuteOfDay = 5 * 60 + random.nextDouble() * 17 * 60; // daytime traffic 05:00-22:00
+            }
+
+            minuteOfDay = Math.max(0, Math.min(MINUTES_PER_DAY - 1, minuteOfDay));
+            passages.add(new Date(startOfDay + (long) (minuteOfDay * 60_000) + random.nextInt(60_000)));
+        }
+
+        return passages;
+    }
+}
@@ -0,0 +1,105 @@
+package org.yazanghafir.tollcalculator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.datetime.DateFormatter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+import org.yazanghafir.tollcalculator.infrastructure.web.PassagesBinaryFormat;
+import org.yazanghafir.tollcalculator.infrastructure.web.PassagesBinaryHttpMessageConverter;
+import org.yazanghafir.tollcalculator.infrastructure.web.PassagesJsonHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the passages of one vehicle from date-time request parameters, as the
+ * query-parameter endpoint does, with reading them from a JSON or binary request body. Each
+ * benchmark ends with the sorted {@link Passages} the calculation starts from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestFormatBenchmark {
+
+    @Param({"20", "200", "1000"})
+    private int passageCount;
+
+    private DateFormatter dateFormatter;
+    private PassagesJsonHttpMessageConverter jsonConverter;
+    private PassagesBinaryHttpMessageConverter binaryConverter;
+
+    private String[] dateParameters;
+    private byte[] jsonBody;
+    private byte[] binaryBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dateFormatter = new DateFormatter();
+        dateFormatter.setIso(DateTimeFormat.ISO.DATE_TIME);
+        ObjectMapper objectMapper = new ObjectMapper();
+        jsonConverter = new PassagesJsonHttpMessageConverter(objectMapper.getFactory(), Integer.MAX_VALUE);
+        binaryConverter = new PassagesBinaryHttpMessageConverter(Integer.MAX_VALUE);
+
+        List<Date> passages = new PassageGenerator(42).passages(LocalDate.of(2024, 8, 26), passageCount); // a Monday
+        long[] passageTimes = new long[passages.size()];
+        dateParameters = new String[passages.size()];
+        for (int i = 0; i < passageTimes.length; i++) {
+            passageTimes[i] = passages.get(i).getTime();
+            dateParameters[i] = dateFormatter.print(passages.get(i), Locale.ROOT);
+        }
+
+        TollCalculatorPassagesRequest request = new TollCalculatorPassagesRequest("ABC123", "Car", passageTimes);
+        jsonBody = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        PassagesBinaryFormat.write(request, binary);
+        binaryBody = binary.toByteArray();
+    }
+
+    @Benchmark
+    public Passages dateParameters() throws ParseException {
+        List<Date> dates = new ArrayList<>(dateParameters.length);
+        for (String dateParameter : dateParameters) {
+            dates.add(dateFormatter.parse(dateParameter, Locale.ROOT));
+        }
+        return Passages.fromDates(dates);
+    }
+
+    @Benchmark
+    public Passages jsonBody() throws IOException {
+        TollCalculatorPassagesRequest request = jsonConverter.read(TollCalculatorPassagesRequest.class,
+                new MockHttpInputMessage(jsonBody));
+        return Passages.fromEpochMillis(request.getPassageTimes());
+    }
+
+    @Benchmark
+    public Passages binaryBody() throws IOException {
+        TollCalculatorPassagesRequest request = binaryConverter.read(TollCalculatorPassagesRequest.class,
+                new MockHttpInputMessage(binaryBody));
+        return Passages.fromEpochMillis(request.getPassageTimes());
+    }
+}
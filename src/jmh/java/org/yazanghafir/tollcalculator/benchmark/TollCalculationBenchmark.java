@@ -0,0 +1,116 @@
+package org.yazanghafir.tollcalculator.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yazanghafir.tollcalculator.api.TollCalculatorController;
+import org.yazanghafir.tollcalculator.application.handler.TollAccumulator;
+import org.yazanghafir.tollcalculator.application.handler.TollCalculator;
+import org.yazanghafir.tollcalculator.application.handler.TollCalculatorBatchProcessor;
+import org.yazanghafir.tollcalculator.application.handler.TollCalculatorRequestHandler;
+import org.yazanghafir.tollcalculator.application.handler.TollPassageRequestHandler;
+import org.yazanghafir.tollcalculator.application.query.TariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.query.TollFreeCalendar;
+import org.yazanghafir.tollcalculator.application.query.VehicleTypeRegistry;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the stages of a single-vehicle toll calculation for a weekday
+ * with a growing number of passages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TollCalculationBenchmark {
+
+    @Param({"1", "20", "200", "1000"})
+    private int passageCount;
+
+    private TollCalculator tollCalculator;
+    private TollFreeValidator tollFreeValidator;
+    private TollCalculatorRequestValidator requestValidator;
+    private TollCalculatorController controller;
+    private ExecutorService executor;
+
+    private List<Date> passages;
+    private Vehicle vehicle;
+    private Vehicle heavyVehicle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TollFeeAmountRetriever tollFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+        VehicleTypeRegistry vehicleTypeRegistry = new VehicleTypeRegistry(new ConfigurationLoader<>());
+        tollFreeValidator = new TollFreeValidator(new TollFreeCalendar(new ConfigurationLoader<>()), vehicleTypeRegistry);
+        TariffRegistry tariffRegistry = new TariffRegistry(new ConfigurationLoader<>(), vehicleTypeRegistry);
+        tollCalculator = new TollCalculator(tollFreeValidator, tollFeeRetriever, tariffRegistry);
+        requestValidator = new TollCalculatorRequestValidator(vehicleTypeRegistry, tariffRegistry);
+
+        executor = Executors.newSingleThreadExecutor();
+        TollCalculatorRequestHandler requestHandler = new TollCalculatorRequestHandler(requestValidator, tollCalculator);
+        controller = new TollCalculatorController(requestHandler,
+                new TollCalculatorBatchProcessor(requestHandler, executor, 1),
+                new TollPassageRequestHandler(requestValidator, new TollAccumulator(tollFreeValidator, tollFeeRetriever, tariffRegistry, 1)),
+                new ObjectMapper());
+
+        passages = new PassageGenerator(42).passages(LocalDate.of(2024, 8, 26), passageCount); // a Monday
+        vehicle = new Vehicle("ABC123", "Car", passages);
+        heavyVehicle = new Vehicle("ABC123", "Truck", Passages.fromDates(passages), "Example");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int calculateToll() {
+        return tollCalculator.calculateToll(vehicle);
+    }
+
+    @Benchmark
+    public int calculateTollWithTariff() {
+        return tollCalculator.calculateToll(heavyVehicle);
+    }
+
+    @Benchmark
+    public boolean isTollFree() {
+        return tollFreeValidator.isTollFree(vehicle);
+    }
+
+    @Benchmark
+    public String validateRequest() {
+        return requestValidator.validateRequest("Car", passages);
+    }
+
+    @Benchmark
+    public TollCalculatorResponse controllerEndToEnd() {
+        return controller.calculateToll("ABC123", "Car", passages, null);
+    }
+}
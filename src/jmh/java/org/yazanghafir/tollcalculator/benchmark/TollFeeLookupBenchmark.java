@@ -0,0 +1,66 @@
+package org.yazanghafir.tollcalculator.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single fee lookup for passage times spread like real traffic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TollFeeLookupBenchmark {
+
+    private static final int TIME_COUNT = 1024;
+
+    private TollFeeAmountRetriever tollFeeRetriever;
+    private LocalTime[] times;
+    private int[] minutesOfDay;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tollFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+
+        List<Date> passages = new PassageGenerator(7).passages(LocalDate.of(2024, 8, 26), TIME_COUNT);
+        times = new LocalTime[TIME_COUNT];
+        minutesOfDay = new int[TIME_COUNT];
+        for (int i = 0; i < TIME_COUNT; i++) {
+            times[i] = passages.get(i).toInstant().atZone(ZoneId.systemDefault()).toLocalTime();
+            minutesOfDay[i] = times[i].getHour() * 60 + times[i].getMinute();
+        }
+    }
+
+    @Benchmark
+    public int getTollFeeAmountByTime() {
+        position = (position + 1) & (TIME_COUNT - 1);
+        return tollFeeRetriever.getTollFeeAmount(times[position]);
+    }
+
+    @Benchmark
+    public int getTollFeeAmountByMinute() {
+        position = (position + 1) & (TIME_COUNT - 1);
+        return tollFeeRetriever.getTollFeeAmount(minutesOfDay[position]);
+    }
+}
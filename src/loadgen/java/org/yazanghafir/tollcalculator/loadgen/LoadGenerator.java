@@ -0,0 +1,214 @@
+package org.yazanghafir.tollcalculator.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives POST /api/toll/vehicle of a locally running service with synthetic fleet traffic and
+ * reports the latency percentiles and errors.
+ *
+ * The requests are generated up front by {@link TrafficModel} and sent open-loop at the target
+ * rate by {@link OpenLoopDriver}, first for the warm-up and then for the measured run. Options
+ * are given as --name=value:
+ * <ul>
+ *     <li>url: the service, only localhost is accepted (http://localhost:8080)</li>
+ *     <li>rate: requests per second (200)</li>
+ *     <li>duration, warmup: the length of the measured run and of the warm-up (60s, 10s)</li>
+ *     <li>fleet: the number of vehicles (10000)</li>
+ *     <li>days: the date range of the passages (2024-01-01..2024-12-31)</li>
+ *     <li>mix: the vehicle types in percent, e.g. Car:85,Truck:8 (mostly cars)</li>
+ *     <li>max-passages: the highest number of passages of a vehicle day (20)</li>
+ *     <li>format: json for a JSON body, params for the date-time parameters (json)</li>
+ *     <li>requests: the number of generated requests, reused in turn (10000)</li>
+ *     <li>max-in-flight: the outstanding requests before further ones are dropped (10000)</li>
+ *     <li>seed: the seed of the traffic (42)</li>
+ *     <li>histogram-log: a file the interval histograms are written to, for HdrHistogram's tools</li>
+ * </ul>
+ */
+public final class LoadGenerator {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
+            .withZone(ZoneId.systemDefault());
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        Map<String, String> options = parseOptions(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        if (!isLocalhost(url.getHost())) {
+            throw new IllegalArgumentException("The load generator only drives a service on localhost, not " + url.getHost() + ".");
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        String[] days = options.getOrDefault("days", "2024-01-01..2024-12-31").split("\\.\\.");
+        boolean json = !"params".equals(options.getOrDefault("format", "json"));
+        int requestCount = Integer.parseInt(options.getOrDefault("requests", "10000"));
+
+        TrafficModel trafficModel = TrafficModel.create(
+                Integer.parseInt(options.getOrDefault("fleet", "10000")),
+                options.containsKey("mix") ? parseMix(options.get("mix")) : TrafficModel.defaultVehicleMix(),
+                LocalDate.parse(days[0]),
+                LocalDate.parse(days[days.length - 1]),
+                Integer.parseInt(options.getOrDefault("max-passages", "20")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+
+        List<HttpRequest> requests = new ArrayList<>(requestCount);
+        int tollFreeDays = 0;
+        long passages = 0;
+        for (int i = 0; i < requestCount; i++) {
+            TrafficModel.VehicleDay vehicleDay = trafficModel.nextVehicleDay();
+            requests.add(json ? jsonRequest(url, vehicleDay) : paramsRequest(url, vehicleDay));
+            tollFreeDays += vehicleDay.isTollFreeDay() ? 1 : 0;
+            passages += vehicleDay.passageTimes().length;
+        }
+        System.out.printf(Locale.ROOT, "Generated %d vehicle days with %.1f passages on average, %.1f%% on toll-free days.%n",
+                requestCount, (double) passages / requestCount, 100.0 * tollFreeDays / requestCount);
+
+        OpenLoopDriver driver = new OpenLoopDriver(Integer.parseInt(options.getOrDefault("max-in-flight", "10000")),
+                Duration.ofSeconds(10));
+        if (!warmup.isZero()) {
+            System.out.printf(Locale.ROOT, "Warming up for %ds at %.0f requests/s against %s%n", warmup.toSeconds(), rate, url);
+            driver.run(requests, rate, warmup, REPORT_INTERVAL_NANOS, interval -> { });
+            driver.reset();
+        }
+
+        System.out.printf(Locale.ROOT, "Measuring for %ds at %.0f requests/s against %s%n", duration.toSeconds(), rate, url);
+        HistogramLogWriter logWriter = options.containsKey("histogram-log")
+                ? new HistogramLogWriter(options.get("histogram-log"))
+                : null;
+        if (logWriter != null) {
+            logWriter.outputLogFormatVersion();
+            logWriter.outputStartTime(System.currentTimeMillis());
+            logWriter.outputLegend();
+        }
+        Histogram responseTimes = new Histogram(3);
+        long start = System.nanoTime();
+        driver.run(requests, rate, duration, REPORT_INTERVAL_NANOS, interval -> {
+            responseTimes.add(interval);
+            if (logWriter != null) {
+                logWriter.outputIntervalHistogram(interval);
+            }
+            System.out.printf(Locale.ROOT, "%6.1fs  %6d responses  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms%n",
+                    (System.nanoTime() - start) / 1e9, interval.getTotalCount(),
+                    millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)),
+                    millis(interval.getMaxValue()));
+        });
+        long elapsedNanos = System.nanoTime() - start;
+        if (logWriter != null) {
+            logWriter.close();
+        }
+
+        report(driver, responseTimes, driver.getServiceTimes(), elapsedNanos);
+        System.exit(0);
+    }
+
+    private static void report(OpenLoopDriver driver, Histogram responseTimes, Histogram serviceTimes, long elapsedNanos) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Sent %d, completed %d, rejected %d, HTTP errors %d, failures %d, dropped %d%n",
+                driver.getSent(), driver.getCompleted(), driver.getRejected(), driver.getHttpErrors(),
+                driver.getFailures(), driver.getDropped());
+        System.out.printf(Locale.ROOT, "Achieved %.1f responses/s%n", responseTimes.getTotalCount() / (elapsedNanos / 1e9));
+        System.out.println();
+        System.out.println("Percentile      Response time (ms)   Service time (ms)");
+        for (double percentile : new double[]{50, 90, 99, 99.9, 99.99}) {
+            System.out.printf(Locale.ROOT, "%-10s %20.2f %19.2f%n", "p" + formatPercentile(percentile),
+                    millis(responseTimes.getValueAtPercentile(percentile)),
+                    millis(serviceTimes.getValueAtPercentile(percentile)));
+        }
+        System.out.printf(Locale.ROOT, "%-10s %20.2f %19.2f%n", "max",
+                millis(responseTimes.getMaxValue()), millis(serviceTimes.getMaxValue()));
+    }
+
+    private static HttpRequest jsonRequest(URI url, TrafficModel.VehicleDay vehicleDay) {
+        String body = "{\"vehiclePlate\":\"" + vehicleDay.vehiclePlate() + "\",\"vehicleType\":\"" + vehicleDay.vehicleType()
+                + "\",\"passageTimes\":" + Arrays.toString(vehicleDay.passageTimes()).replace(" ", "") + "}";
+        return HttpRequest.newBuilder(url.resolve("/api/toll/vehicle"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest paramsRequest(URI url, TrafficModel.VehicleDay vehicleDay) {
+        StringBuilder query = new StringBuilder("/api/toll/vehicle?vehiclePlate=").append(encode(vehicleDay.vehiclePlate()))
+                .append("&vehicleType=").append(encode(vehicleDay.vehicleType()));
+        for (long passageTime : vehicleDay.passageTimes()) {
+            query.append("&vehicleDateTimes=").append(encode(DATE_TIME.format(Instant.ofEpochMilli(passageTime))));
+        }
+        return HttpRequest.newBuilder(url.resolve(query.toString()))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Options are given as --name=value, not " + arg + ".");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> shares = new LinkedHashMap<>();
+        for (String share : mix.split(",")) {
+            String[] typeAndPercent = share.split(":");
+            shares.put(typeAndPercent[0].trim(), Integer.parseInt(typeAndPercent[1].trim()));
+        }
+        return shares;
+    }
+
+    /**
+     * Parses a duration such as 90s, 5m or 500ms.
+     */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Durations are given as e.g. 90s, 5m or 500ms, not " + value + ".");
+        };
+    }
+
+    private static boolean isLocalhost(String host) {
+        return "localhost".equals(host) || "127.0.0.1".equals(host) || "[::1]".equals(host) || "::1".equals(host);
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
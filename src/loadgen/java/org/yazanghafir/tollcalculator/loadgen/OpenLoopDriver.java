@@ -0,0 +1,163 @@
+package org.yazanghafir.tollcalculator.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Sends requests at a fixed rate, whether or not the earlier ones have been answered.
+ *
+ * Every request has an intended start time on the schedule, and its response time is measured
+ * from that time rather than from when it was actually sent. A stalled service therefore shows
+ * up as the delay of every request that should have been sent during the stall, instead of
+ * holding the generator back and hiding it (coordinated omission). The service time, measured
+ * from the actual send, is recorded next to it; the two only differ when the generator falls
+ * behind its schedule. Requests beyond the in-flight limit are not sent and counted as dropped.
+ */
+final class OpenLoopDriver {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final HttpClient httpClient;
+    private final int maxInFlight;
+
+    private final Recorder responseTimes = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Recorder serviceTimes = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder httpErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    OpenLoopDriver(int maxInFlight, Duration timeout) {
+        this.maxInFlight = maxInFlight;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Sends the requests in turn at the given rate until the duration has passed.
+     *
+     * @param requests      The requests, reused from the start when all are sent.
+     * @param ratePerSecond The target rate.
+     * @param duration      How long to send.
+     * @param intervalNanos How often the interval consumer is called, e.g. for progress reports.
+     * @param onInterval    Called with the response times recorded since its last call, and once more at the end.
+     */
+    void run(List<HttpRequest> requests, double ratePerSecond, Duration duration, long intervalNanos,
+             Consumer<Histogram> onInterval) {
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long nextInterval = start + intervalNanos;
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * periodNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (System.nanoTime() >= nextInterval) {
+                onInterval.accept(responseTimes.getIntervalHistogram());
+                nextInterval += intervalNanos;
+            }
+
+            if (inFlight.get() >= maxInFlight) {
+                dropped.increment();
+                continue;
+            }
+            send(requests.get((int) (i % requests.size())), intendedStart);
+        }
+
+        // Wait for the answers of the requests still in flight
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        onInterval.accept(responseTimes.getIntervalHistogram());
+    }
+
+    /**
+     * Forgets everything recorded so far, e.g. after the warm-up.
+     */
+    void reset() {
+        responseTimes.reset();
+        serviceTimes.reset();
+        for (LongAdder counter : List.of(sent, completed, rejected, httpErrors, failures, dropped)) {
+            counter.reset();
+        }
+    }
+
+    private void send(HttpRequest request, long intendedStart) {
+        inFlight.incrementAndGet();
+        sent.increment();
+        long actualStart = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+            long now = System.nanoTime();
+            responseTimes.recordValue(Math.min(now - intendedStart, HIGHEST_TRACKABLE_NANOS));
+            serviceTimes.recordValue(Math.min(now - actualStart, HIGHEST_TRACKABLE_NANOS));
+            if (error != null) {
+                failures.increment();
+                if (failures.sum() == 1) {
+                    System.err.println("Error sending a request to " + request.uri() + ". Error: " + error);
+                }
+            } else if (response.statusCode() != 200) {
+                httpErrors.increment();
+            } else if (new String(response.body(), StandardCharsets.UTF_8).contains("\"success\":false")) {
+                rejected.increment();
+            } else {
+                completed.increment();
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    /**
+     * Returns the service times recorded since the last reset.
+     */
+    Histogram getServiceTimes() {
+        return serviceTimes.getIntervalHistogram();
+    }
+
+    long getSent() {
+        return sent.sum();
+    }
+
+    long getCompleted() {
+        return completed.sum();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    long getHttpErrors() {
+        return httpErrors.sum();
+    }
+
+    long getFailures() {
+        return failures.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+}
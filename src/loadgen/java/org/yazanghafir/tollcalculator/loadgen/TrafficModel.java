@@ -0,0 +1,161 @@
+package org.yazanghafir.tollcalculator.loadgen;
+
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.query.TollFreeCalendar;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleTypes;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic passage traffic for a fleet of vehicles, derived from the bundled configuration.
+ *
+ * Passage times follow the toll schedule: the weight of a minute grows with the square of its
+ * fee in TollFees.json, so the rush hours with the highest fees get the most traffic, on top of
+ * a daytime base load and a little night traffic. Every vehicle has a fixed plate and a type
+ * drawn from the configured vehicle types by the given mix. Days are drawn evenly from a date
+ * range, so weekends, holidays and the days before holidays appear as often as in the calendar.
+ */
+final class TrafficModel {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final String[] plates;
+    private final String[] vehicleTypes;
+    private final double[] minuteWeights;
+    private final LocalDate firstDay;
+    private final int dayCount;
+    private final int maxPassages;
+    private final TollFreeCalendar tollFreeCalendar;
+    private final Random random;
+
+    private TrafficModel(String[] plates, String[] vehicleTypes, double[] minuteWeights, LocalDate firstDay, int dayCount,
+                         int maxPassages, TollFreeCalendar tollFreeCalendar, Random random) {
+        this.plates = plates;
+        this.vehicleTypes = vehicleTypes;
+        this.minuteWeights = minuteWeights;
+        this.firstDay = firstDay;
+        this.dayCount = dayCount;
+        this.maxPassages = maxPassages;
+        this.tollFreeCalendar = tollFreeCalendar;
+        this.random = random;
+    }
+
+    /**
+     * Builds the traffic model.
+     *
+     * @param fleetSize   The number of vehicles.
+     * @param vehicleMix  The share of every vehicle type in percent, e.g. {Car=85, Truck=8}.
+     * @param firstDay    The first day of the date range.
+     * @param lastDay     The last day of the date range, inclusive.
+     * @param maxPassages The highest number of passages of a vehicle day.
+     * @param seed        The seed of the random generator, the same seed gives the same traffic.
+     * @return The traffic model.
+     * @throws IllegalArgumentException if the mix names a type that is not configured.
+     */
+    static TrafficModel create(int fleetSize, Map<String, Integer> vehicleMix, LocalDate firstDay, LocalDate lastDay,
+                               int maxPassages, long seed) {
+        Random random = new Random(seed);
+        List<String> configuredTypes = new ArrayList<>();
+        new ConfigurationLoader<VehicleTypes>().loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class)
+                .ifPresent(types -> types.getVehicleTypes().stream().map(VehicleType::getVehicleType).forEach(configuredTypes::add));
+        for (String type : vehicleMix.keySet()) {
+            if (!configuredTypes.contains(type)) {
+                throw new IllegalArgumentException("Vehicle type " + type + " is not configured. Configured types are: "
+                        + String.join(", ", configuredTypes) + ".");
+            }
+        }
+
+        // The fleet is assigned by the mix, so the shares are exact rather than sampled
+        String[] plates = new String[fleetSize];
+        String[] vehicleTypes = new String[fleetSize];
+        int totalShare = vehicleMix.values().stream().mapToInt(Integer::intValue).sum();
+        int vehicle = 0;
+        for (Map.Entry<String, Integer> share : vehicleMix.entrySet()) {
+            int count = (int) Math.round(fleetSize * (double) share.getValue() / totalShare);
+            for (int i = 0; i < count && vehicle < fleetSize; i++) {
+                vehicleTypes[vehicle++] = share.getKey();
+            }
+        }
+        String firstType = vehicleMix.keySet().iterator().next();
+        while (vehicle < fleetSize) {
+            vehicleTypes[vehicle++] = firstType; // Rounding remainder
+        }
+        for (int i = 0; i < fleetSize; i++) {
+            plates[i] = String.format("LG%06d", i);
+        }
+
+        TollFeeAmountRetriever tollFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+        double[] minuteWeights = new double[MINUTES_PER_DAY];
+        double cumulative = 0;
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            int fee = tollFeeRetriever.getTollFeeAmount(minute);
+            double baseLoad = minute >= 5 * 60 && minute < 22 * 60 ? 25 : 2;
+            cumulative += baseLoad + fee * fee;
+            minuteWeights[minute] = cumulative;
+        }
+
+        int dayCount = (int) (lastDay.toEpochDay() - firstDay.toEpochDay()) + 1;
+        if (dayCount <= 0) {
+            throw new IllegalArgumentException("The last day must not be before the first day.");
+        }
+        return new TrafficModel(plates, vehicleTypes, minuteWeights, firstDay, dayCount, maxPassages,
+                new TollFreeCalendar(new ConfigurationLoader<>()), random);
+    }
+
+    /**
+     * The default mix: mostly cars, some trucks and an even share of the toll-free types.
+     */
+    static Map<String, Integer> defaultVehicleMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("Car", 85);
+        mix.put("Truck", 8);
+        for (String type : List.of("Motorbike", "Tractor", "Emergency", "Diplomat", "Foreign", "Military")) {
+            mix.put(type, 1);
+        }
+        return mix;
+    }
+
+    /**
+     * Generates the passages of one vehicle day.
+     */
+    VehicleDay nextVehicleDay() {
+        int vehicle = random.nextInt(plates.length);
+        LocalDate day = firstDay.plusDays(random.nextInt(dayCount));
+
+        // Most vehicles pass a few times a day, some many times
+        int passageCount = 1;
+        while (passageCount < maxPassages && random.nextDouble() < 0.7) {
+            passageCount++;
+        }
+
+        long startOfDay = day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long[] passageTimes = new long[passageCount];
+        for (int i = 0; i < passageCount; i++) {
+            passageTimes[i] = startOfDay + sampleMinute() * 60_000L + random.nextInt(60_000);
+        }
+        Arrays.sort(passageTimes);
+        return new VehicleDay(plates[vehicle], vehicleTypes[vehicle], passageTimes, tollFreeCalendar.isTollFreeDate(day));
+    }
+
+    private int sampleMinute() {
+        double target = random.nextDouble() * minuteWeights[MINUTES_PER_DAY - 1];
+        int index = Arrays.binarySearch(minuteWeights, target);
+        return index >= 0 ? index : Math.min(-index - 1, MINUTES_PER_DAY - 1);
+    }
+
+    /**
+     * The passages of one vehicle day, in epoch milliseconds.
+     */
+    record VehicleDay(String vehiclePlate, String vehicleType, long[] passageTimes, boolean isTollFreeDay) {
+    }
+}
@@ -0,0 +1,82 @@
+package org.yazanghafir.tollcalculator;
+
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditLogReader;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Command line tool that prints the toll calculations and live passages of the audit log, one
+ * line per record followed by one line per day with its passages, hour windows and total.
+ *
+ * Usage: TollCalculatorAuditReader &lt;directory|segment ...&gt; [--plate=vehiclePlate]
+ */
+public class TollCalculatorAuditReader {
+
+    public static void main(String[] args) throws IOException {
+        String plate = null;
+        List<Path> segments = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--plate=")) {
+                plate = arg.substring("--plate=".length());
+            } else if (Files.isDirectory(Path.of(arg))) {
+                segments.addAll(AuditLogReader.listSegments(Path.of(arg)));
+            } else {
+                segments.add(Path.of(arg));
+            }
+        }
+        if (segments.isEmpty()) {
+            System.err.println("Usage: TollCalculatorAuditReader <directory|segment ...> [--plate=vehiclePlate]");
+            System.exit(2);
+        }
+
+        String plateFilter = plate;
+        long[] counts = new long[3]; // Calculations, passages and discarded records
+        for (Path segment : segments) {
+            boolean complete = AuditLogReader.read(segment, record -> {
+                if (record.getKind() == AuditRecord.Kind.GAP) {
+                    counts[2] += record.getDroppedRecords();
+                    System.out.println("#" + record.getSequence() + " " + Instant.ofEpochMilli(record.getTimestampMillis())
+                            + " GAP " + record.getDroppedRecords() + " records were not written");
+                } else if (plateFilter == null || plateFilter.equals(record.getVehiclePlate())) {
+                    counts[record.getKind() == AuditRecord.Kind.PASSAGE ? 1 : 0]++;
+                    print(record);
+                }
+            });
+            if (!complete) {
+                System.err.println(segment + " ends with an incomplete or damaged record, the rest of the segment was skipped.");
+            }
+        }
+
+        System.out.println();
+        System.out.println("Calculations:        " + counts[0]);
+        System.out.println("Passages:            " + counts[1]);
+        System.out.println("Records not written: " + counts[2]);
+    }
+
+    private static void print(AuditRecord record) {
+        System.out.println("#" + record.getSequence() + " " + Instant.ofEpochMilli(record.getTimestampMillis())
+                + " " + record.getVehiclePlate() + " " + record.getVehicleType()
+                + (record.getZone() != null ? " zone " + record.getZone() : "")
+                + (record.getKind() == AuditRecord.Kind.PASSAGE ? " passage" : " total " + record.getTotalTollFee() + " SEK"));
+        for (AuditRecord.Day day : record.getDays()) {
+            StringJoiner passages = new StringJoiner(",");
+            for (int millisOfDay : day.getPassageMillisOfDay()) {
+                passages.add(LocalTime.ofNanoOfDay(millisOfDay * 1_000_000L).toString());
+            }
+            String charge = switch (day.getExemption()) {
+                case VEHICLE_TYPE -> " toll-free vehicle type";
+                case DAY -> " toll-free day";
+                case NONE -> record.getKind() == AuditRecord.Kind.PASSAGE ? " running total" : " windows " + day.describeWindows();
+            };
+            System.out.println("    " + day.getDate() + " " + day.getTollFee() + " SEK" + charge + " passages " + passages);
+        }
+    }
+}
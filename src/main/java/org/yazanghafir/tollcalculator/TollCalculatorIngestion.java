@@ -0,0 +1,54 @@
+package org.yazanghafir.tollcalculator;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.yazanghafir.tollcalculator.application.handler.IPassageIngestionHandler;
+import org.yazanghafir.tollcalculator.domain.responses.IngestionResponse;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Command line entry point that calculates the daily tolls of a gantry passage log
+ * without starting the web server.
+ *
+ * Usage: TollCalculatorIngestion &lt;input.csv|input.ndjson&gt; &lt;output.csv&gt; [--property=value ...]
+ */
+public class TollCalculatorIngestion {
+
+    public static void main(String[] args) {
+        String[] files = Arrays.stream(args).filter(arg -> !arg.startsWith("--")).toArray(String[]::new);
+        if (files.length != 2) {
+            System.err.println("Usage: TollCalculatorIngestion <input.csv|input.ndjson> <output.csv> [--property=value ...]");
+            System.exit(2);
+        }
+
+        IngestionResponse response;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TollCalculatorApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run(args)) {
+            response = context.getBean(IPassageIngestionHandler.class).ingest(Path.of(files[0]), Path.of(files[1]));
+        }
+
+        if (!response.isSuccess()) {
+            System.err.println(response.getMessage());
+            System.exit(1);
+        }
+
+        System.out.println(response.getMessage());
+        System.out.println("Passages:           " + response.getPassages());
+        System.out.println("Rejected passages:  " + response.getRejectedPassages());
+        System.out.println("Rejected rows:      " + response.getRejectedRows());
+        long readPassages = response.getPassages() + response.getDuplicatePassages();
+        System.out.printf(Locale.ROOT, "Duplicate passages: %d (%.2f%%)%n", response.getDuplicatePassages(),
+                readPassages == 0 ? 0.0 : 100.0 * response.getDuplicatePassages() / readPassages);
+        System.out.println("Daily totals:       " + response.getVehicleDays());
+        System.out.println("Spilled runs:       " + response.getSpilledRuns());
+        System.out.println("Elapsed:            " + response.getElapsedMillis() + " ms");
+        System.out.println("Throughput:         " + response.getPassagesPerSecond() + " passages/s");
+    }
+}
@@ -0,0 +1,53 @@
+package org.yazanghafir.tollcalculator;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.yazanghafir.tollcalculator.application.handler.IInvoicingHandler;
+import org.yazanghafir.tollcalculator.domain.responses.InvoicingResponse;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Command line entry point that builds the monthly invoice lines of a gantry passage log
+ * without starting the web server.
+ *
+ * Usage: TollCalculatorInvoicing &lt;input.csv|input.ndjson&gt; &lt;invoices.csv&gt; [--property=value ...]
+ */
+public class TollCalculatorInvoicing {
+
+    public static void main(String[] args) {
+        String[] files = Arrays.stream(args).filter(arg -> !arg.startsWith("--")).toArray(String[]::new);
+        if (files.length != 2) {
+            System.err.println("Usage: TollCalculatorInvoicing <input.csv|input.ndjson> <invoices.csv> [--property=value ...]");
+            System.exit(2);
+        }
+
+        InvoicingResponse response;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TollCalculatorApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run(args)) {
+            response = context.getBean(IInvoicingHandler.class).invoice(Path.of(files[0]), Path.of(files[1]));
+        }
+
+        if (!response.isSuccess()) {
+            System.err.println(response.getMessage());
+            System.exit(1);
+        }
+
+        System.out.println(response.getMessage());
+        System.out.println("Passages:          " + response.getPassages());
+        System.out.println("Rejected passages: " + response.getRejectedPassages());
+        System.out.println("Rejected rows:     " + response.getRejectedRows());
+        System.out.println("Invoice lines:     " + response.getInvoiceLines());
+        System.out.println("Vehicle days:      " + response.getVehicleDays());
+        System.out.println("Total toll fee:    " + response.getTotalTollFee() + " SEK");
+        System.out.println("Partitions:        " + response.getPartitions());
+        System.out.println("Spilled runs:      " + response.getSpilledRuns());
+        System.out.println("Elapsed:           " + response.getElapsedMillis() + " ms");
+        System.out.println("Throughput:        " + response.getPassagesPerSecond() + " passages/s");
+    }
+}
@@ -0,0 +1,48 @@
+package org.yazanghafir.tollcalculator.api;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.yazanghafir.tollcalculator.application.handler.IClusterRequestHandler;
+import org.yazanghafir.tollcalculator.domain.responses.ClusterResponse;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cluster")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ClusterController {
+
+    private final IClusterRequestHandler clusterRequestHandler;
+
+    public ClusterController(IClusterRequestHandler clusterRequestHandler) {
+        this.clusterRequestHandler = clusterRequestHandler;
+    }
+
+    /**
+     * Shows the nodes of the partitioned deployment and the share of the plates this node owns.
+     */
+    @GetMapping
+    public ClusterResponse getCluster() {
+        return clusterRequestHandler.getCluster();
+    }
+
+    /**
+     * Replaces the node list of this node, e.g. ["http://localhost:8081", "http://localhost:8082"],
+     * and hands the vehicle days it no longer owns to their new owner. Send the same list to
+     * every node. Answers 409 if the vehicle days of this node cannot be handed off.
+     */
+    @PutMapping("/nodes")
+    public ClusterResponse updateNodes(@RequestBody List<String> nodes) {
+        try {
+            return clusterRequestHandler.updateNodes(nodes);
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage(), ex);
+        }
+    }
+}
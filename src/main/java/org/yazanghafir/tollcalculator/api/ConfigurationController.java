@@ -0,0 +1,34 @@
+package org.yazanghafir.tollcalculator.api;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationObject;
+import org.yazanghafir.tollcalculator.domain.responses.ConfigurationResponse;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/configuration")
+public class ConfigurationController {
+
+    private final ConfigurationLoader<ConfigurationObject> configLoader;
+
+    public ConfigurationController(ConfigurationLoader<ConfigurationObject> configLoader) {
+        this.configLoader = configLoader;
+    }
+
+    /**
+     * Lists the configuration snapshots currently in use with their version, load time and source.
+     */
+    @GetMapping
+    public List<ConfigurationResponse> getConfigurations() {
+        return configLoader.getSnapshots().stream()
+                .sorted(Comparator.comparing(snapshot -> snapshot.getFilePathType().ordinal()))
+                .map(snapshot -> new ConfigurationResponse(snapshot.getFilePathType().getFilePath(),
+                        snapshot.getVersion(), snapshot.getLoadedAt(), snapshot.getSource()))
+                .toList();
+    }
+}
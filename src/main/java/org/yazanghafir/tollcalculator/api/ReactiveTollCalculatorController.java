@@ -0,0 +1,144 @@
+package org.yazanghafir.tollcalculator.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.yazanghafir.tollcalculator.application.handler.ITollCalculatorRequestHandler;
+import org.yazanghafir.tollcalculator.application.handler.ITollPassageRequestHandler;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.requests.TollPassageRequest;
+import org.yazanghafir.tollcalculator.infrastructure.web.PassagesBinaryFormat;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorBatchResponse;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking variant of {@link TollCalculatorController} on WebFlux and Netty, active with
+ * spring.main.web-application-type=reactive. It calls the same request handlers, so validation
+ * and calculation are identical in both APIs.
+ */
+@RestController
+@RequestMapping("/api/toll")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTollCalculatorController {
+
+    private final ITollCalculatorRequestHandler requestHandler;
+    private final ITollPassageRequestHandler passageRequestHandler;
+    private final ObjectMapper objectMapper;
+    private final Scheduler scheduler;
+    private final int maxInFlight;
+
+    public ReactiveTollCalculatorController(ITollCalculatorRequestHandler requestHandler,
+                                            ITollPassageRequestHandler passageRequestHandler,
+                                            ObjectMapper objectMapper,
+                                            @Qualifier("tollCalculatorScheduler") Scheduler scheduler,
+                                            @Value("${toll.batch.max-in-flight:1024}") int maxInFlight) {
+        this.requestHandler = requestHandler;
+        this.passageRequestHandler = passageRequestHandler;
+        this.objectMapper = objectMapper;
+        this.scheduler = scheduler;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @PostMapping("/vehicle")
+    public Mono<TollCalculatorResponse> calculateToll(
+            @RequestParam String vehiclePlate,
+            @RequestParam String vehicleType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) List<Date> vehicleDateTimes,
+            @RequestParam(required = false) String zone) {
+
+        return Mono.fromCallable(() -> requestHandler.handleRequest(
+                        new TollCalculatorRequest(vehiclePlate, vehicleType, vehicleDateTimes, zone)))
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Same as {@link TollCalculatorController#calculateToll(TollCalculatorPassagesRequest)}. A JSON
+     * body is bound by the standard Jackson decoder, a binary one by the PassagesBinaryDecoder.
+     */
+    @PostMapping(value = "/vehicle",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, PassagesBinaryFormat.MEDIA_TYPE_VALUE})
+    public Mono<TollCalculatorResponse> calculateToll(@RequestBody TollCalculatorPassagesRequest request) {
+        return Mono.fromCallable(() -> requestHandler.handleRequest(request))
+                .subscribeOn(scheduler);
+    }
+
+    @PostMapping("/passage")
+    public Mono<TollCalculatorResponse> addPassage(
+            @RequestParam String vehiclePlate,
+            @RequestParam String vehicleType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date vehicleDateTime) {
+
+        return Mono.fromCallable(() -> passageRequestHandler.handlePassage(
+                        new TollPassageRequest(vehiclePlate, vehicleType, vehicleDateTime)))
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Calculates the toll for a stream of vehicle requests, sent as a JSON array or
+     * newline-delimited JSON, and streams one result per vehicle back as NDJSON or, with
+     * Accept: text/event-stream, as server-sent events. Results carry the index of their
+     * request since they are emitted in completion order.
+     *
+     * At most maxInFlight requests are read ahead of the results written, so a producer that
+     * sends faster than the results are consumed is slowed down through the connection instead
+     * of being buffered. An item that is well-formed JSON but cannot be bound to a request
+     * produces an error result for its index and the batch continues. Malformed JSON ends the
+     * stream with an error result for the index at which decoding stopped.
+     */
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<TollCalculatorBatchResponse> calculateTollBatch(@RequestBody Flux<JsonNode> requests) {
+        AtomicInteger index = new AtomicInteger();
+
+        // Decoding errors are turned into a last item before the fan-out, so results still in flight are kept
+        return requests
+                .map(request -> calculate(index.getAndIncrement(), request))
+                .onErrorResume(ex -> Mono.just(Mono.just(invalidItem(index.get(), describe(ex)))))
+                .flatMap(result -> result, maxInFlight);
+    }
+
+    private static String describe(Throwable ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        if (cause instanceof JsonProcessingException jsonException) {
+            return "Malformed batch body. " + jsonException.getOriginalMessage();
+        }
+        return cause.getMessage();
+    }
+
+    private Mono<TollCalculatorBatchResponse> calculate(int index, JsonNode item) {
+        TollCalculatorRequest request;
+        try {
+            request = TollCalculatorBatchReader.bind(objectMapper, item);
+        } catch (IllegalArgumentException ex) {
+            return Mono.just(invalidItem(index, ex.getMessage()));
+        }
+        return Mono.fromCallable(() -> new TollCalculatorBatchResponse(
+                        index, request.getVehiclePlate(), requestHandler.handleRequest(request)))
+                .subscribeOn(scheduler);
+    }
+
+    private static TollCalculatorBatchResponse invalidItem(int index, String error) {
+        return new TollCalculatorBatchResponse(index, null,
+                new TollCalculatorResponse(0, false, "Invalid batch item. Error: " + error));
+    }
+}
@@ -0,0 +1,115 @@
+package org.yazanghafir.tollcalculator.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily reads vehicle requests from a batch body, which is either a JSON array
+ * or newline-delimited JSON objects. Only one item is held in memory at a time.
+ *
+ * An item that is well-formed JSON but cannot be bound to a request fails on its
+ * own and reading continues with the next item. Malformed JSON ends the batch,
+ * since the position of the following item cannot be recovered.
+ */
+class TollCalculatorBatchReader implements Iterator<TollCalculatorRequest> {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private boolean arrayMode;
+    private boolean started;
+    private boolean finished;
+    private JsonToken currentToken;
+
+    TollCalculatorBatchReader(ObjectMapper objectMapper, InputStream inputStream) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(inputStream);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) {
+            return false;
+        }
+        if (currentToken != null) {
+            return true;
+        }
+
+        try {
+            currentToken = parser.nextToken();
+            if (!started) {
+                started = true;
+                if (currentToken == JsonToken.START_ARRAY) {
+                    arrayMode = true;
+                    currentToken = parser.nextToken();
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            finish();
+            throw new IllegalArgumentException("Malformed batch body. " + ex.getOriginalMessage(), ex);
+        } catch (IOException ex) {
+            finish();
+            throw new UncheckedIOException(ex);
+        }
+
+        if (currentToken == null || (arrayMode && currentToken == JsonToken.END_ARRAY)) {
+            finish();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public TollCalculatorRequest next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        JsonNode item;
+        try {
+            item = objectMapper.readTree(parser);
+        } catch (JsonProcessingException ex) {
+            finish();
+            throw new IllegalArgumentException("Malformed batch body. " + ex.getOriginalMessage(), ex);
+        } catch (IOException ex) {
+            finish();
+            throw new UncheckedIOException(ex);
+        } finally {
+            currentToken = null;
+        }
+        return bind(objectMapper, item);
+    }
+
+    /**
+     * Binds one batch item to a vehicle request.
+     *
+     * @throws IllegalArgumentException if the item is not an object or cannot be bound.
+     */
+    static TollCalculatorRequest bind(ObjectMapper objectMapper, JsonNode item) {
+        // A null or a value other than an object fails on its own, like an item that cannot be bound
+        if (item == null || !item.isObject()) {
+            throw new IllegalArgumentException("Expected a vehicle request object, not "
+                    + (item == null ? "nothing" : item.getNodeType().toString().toLowerCase()) + ".");
+        }
+
+        try {
+            return objectMapper.treeToValue(item, TollCalculatorRequest.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException(ex.getOriginalMessage(), ex);
+        }
+    }
+
+    private void finish() {
+        finished = true;
+        currentToken = null;
+    }
+}
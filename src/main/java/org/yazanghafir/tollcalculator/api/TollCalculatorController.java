@@ -1,59 +1,110 @@
 package org.yazanghafir.tollcalculator.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.yazanghafir.tollcalculator.application.handler.TollCalculator;
-import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
-import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
-import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.yazanghafir.tollcalculator.application.handler.ITollCalculatorBatchProcessor;
+import org.yazanghafir.tollcalculator.application.handler.ITollCalculatorRequestHandler;
+import org.yazanghafir.tollcalculator.application.handler.ITollPassageRequestHandler;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.requests.TollPassageRequest;
 import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+import org.yazanghafir.tollcalculator.infrastructure.web.PassagesBinaryFormat;
 
-import java.time.LocalTime;
-import java.time.ZoneId;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/toll")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TollCalculatorController {
 
-    private final TollCalculatorRequestValidator requestValidator;
-    private final TollCalculator tollCalculator;
+    private final ITollCalculatorRequestHandler requestHandler;
+    private final ITollCalculatorBatchProcessor batchProcessor;
+    private final ITollPassageRequestHandler passageRequestHandler;
+    private final ObjectMapper objectMapper;
 
-    public TollCalculatorController(TollCalculatorRequestValidator requestValidator, TollCalculator tollCalculator) {
-        this.requestValidator = requestValidator;
-        this.tollCalculator = tollCalculator;
+    public TollCalculatorController(ITollCalculatorRequestHandler requestHandler,
+                                    ITollCalculatorBatchProcessor batchProcessor,
+                                    ITollPassageRequestHandler passageRequestHandler,
+                                    ObjectMapper objectMapper) {
+        this.requestHandler = requestHandler;
+        this.batchProcessor = batchProcessor;
+        this.passageRequestHandler = passageRequestHandler;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/vehicle")
     public TollCalculatorResponse calculateToll(
             @RequestParam String vehiclePlate,
             @RequestParam String vehicleType,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) List<Date> vehicleDateTimes) {
-
-        try
-        {
-            // Validate both vehicle type and date times
-            String validationMessage = requestValidator.validateRequest(vehicleType, vehicleDateTimes);
-            if (validationMessage != null) {
-                return new TollCalculatorResponse(0, false, validationMessage);
-            }
-
-            // Create a vehicle object from the request parameters
-            Vehicle vehicle = new Vehicle(vehiclePlate, vehicleType, vehicleDateTimes);
-
-            // Calculate the total toll fee for the vehicle
-            int totalTollFee = tollCalculator.calculateToll(vehicle);
-
-            // Return the total toll fee as a response
-            return new TollCalculatorResponse(
-                    totalTollFee, true, "Total toll fee: " + totalTollFee + " SEK");
-        }
-        catch (Exception ex)
-        {
-            return new TollCalculatorResponse(
-                    0, false, "Error processing the request. Error: " + ex.getMessage());
-        }
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) List<Date> vehicleDateTimes,
+            @RequestParam(required = false) String zone) {
+
+        return requestHandler.handleRequest(new TollCalculatorRequest(vehiclePlate, vehicleType, vehicleDateTimes, zone));
+    }
+
+    /**
+     * Calculates the toll for a vehicle whose passage times are sent in the request body as
+     * epoch milliseconds, either as JSON or in the compact binary format of
+     * {@link PassagesBinaryFormat}. Meant for vehicles with many passages, where the date-time
+     * parameters of the endpoint above make the request large and slow to parse.
+     */
+    @PostMapping(value = "/vehicle",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, PassagesBinaryFormat.MEDIA_TYPE_VALUE})
+    public TollCalculatorResponse calculateToll(@RequestBody TollCalculatorPassagesRequest request) {
+        return requestHandler.handleRequest(request);
+    }
+
+    /**
+     * Adds a single live passage to the running total of its vehicle and day and returns
+     * the updated total, without resending the earlier passages of the day.
+     */
+    @PostMapping("/passage")
+    public TollCalculatorResponse addPassage(
+            @RequestParam String vehiclePlate,
+            @RequestParam String vehicleType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date vehicleDateTime) {
+
+        return passageRequestHandler.handlePassage(new TollPassageRequest(vehiclePlate, vehicleType, vehicleDateTime));
+    }
+
+    /**
+     * Calculates the toll for many vehicles in one request. The body is either a JSON array
+     * of vehicle requests or newline-delimited JSON, and one result line is streamed back per
+     * vehicle as soon as it is calculated. Results carry the index of their request since they
+     * are written in completion order.
+     */
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> calculateTollBatch(HttpServletRequest request) throws IOException {
+        InputStream body = request.getInputStream();
+
+        StreamingResponseBody responseBody = outputStream -> {
+            TollCalculatorBatchReader reader = new TollCalculatorBatchReader(objectMapper, body);
+            batchProcessor.processBatch(reader, result -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(result));
+                    outputStream.write('\n');
+                    outputStream.flush();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(responseBody);
     }
-}
\ No newline at end of file
+}
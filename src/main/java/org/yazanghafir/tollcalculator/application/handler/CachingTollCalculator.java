@@ -0,0 +1,237 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.validation.ITollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationObject;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Caches the daily totals of {@link TollCalculator}, so a vehicle day that is submitted again,
+ * e.g. on a retry or a reconciliation, is not recalculated.
+ *
+ * An entry is keyed by the vehicle type, its tariff, the day and the passage times of that day,
+ * and by the versions of the toll fee, vehicle type and toll-free day configurations. Tariffs
+ * are compiled anew when they are reloaded, so neither a reloaded configuration nor a different
+ * zone ever serves a total calculated with another schedule, and the old entries age out of the
+ * cache. Zones that share a tariff also share its entries. The cache holds at most
+ * toll.cache.maximum-size days and evicts with Caffeine's frequency-based policy; its hits,
+ * misses and evictions are exposed as the cache.* meters of the "toll.daily-fees" cache.
+ *
+ * Requests with more passages than toll.cache.maximum-passages are passed to the calculator
+ * without the cache, since they are unlikely to repeat, their keys would be large and the
+ * calculator splits them over threads.
+ */
+@Service
+@Primary
+public class CachingTollCalculator implements ITollCalculator, MeterBinder {
+
+    private final ITollCalculator tollCalculator;
+    private final ITollFreeValidator tollFreeValidator;
+    private final ITariffRegistry tariffRegistry;
+    private final ConfigurationLoader<ConfigurationObject> configLoader;
+    private final int maximumPassages;
+    private final Cache<DailyTollKey, Integer> dailyFees;
+
+    private Timer calculateTollTimer = TollMetrics.UNBOUND_TIMER;
+    private DistributionSummary passagesPerRequest = TollMetrics.UNBOUND_SUMMARY;
+    private DistributionSummary dailyFeeSummary = TollMetrics.UNBOUND_SUMMARY;
+
+    public CachingTollCalculator(@Qualifier("tollCalculator") ITollCalculator tollCalculator,
+                                 ITollFreeValidator tollFreeValidator,
+                                 ITariffRegistry tariffRegistry,
+                                 ConfigurationLoader<ConfigurationObject> configLoader,
+                                 @Value("${toll.cache.maximum-size:100000}") long maximumSize,
+                                 @Value("${toll.cache.maximum-passages:256}") int maximumPassages) {
+        this.tollCalculator = tollCalculator;
+        this.tollFreeValidator = tollFreeValidator;
+        this.tariffRegistry = tariffRegistry;
+        this.configLoader = configLoader;
+        this.maximumPassages = maximumPassages;
+
+        if (maximumSize > 0) {
+            this.dailyFees = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .recordStats()
+                    .build();
+        } else {
+            this.dailyFees = null; // Disabled
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        calculateTollTimer = TollMetrics.stageTimer(registry, "calculate-toll");
+        passagesPerRequest = TollMetrics.passagesPerRequest(registry);
+        dailyFeeSummary = TollMetrics.dailyFee(registry);
+        if (dailyFees != null) {
+            CaffeineCacheMetrics.monitor(registry, dailyFees, "toll.daily-fees");
+        }
+    }
+
+    @Override
+    public int calculateToll(Vehicle vehicle) {
+        int totalFee = 0;
+        for (DailyTollFee dailyTollFee : calculateDailyTolls(vehicle)) {
+            totalFee += dailyTollFee.getTollFee();
+        }
+        return totalFee;
+    }
+
+    @Override
+    public List<DailyTollFee> calculateDailyTolls(Vehicle vehicle) {
+        if (dailyFees == null || vehicle.getPassages().size() > maximumPassages) {
+            return tollCalculator.calculateDailyTolls(vehicle);
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            passagesPerRequest.record(vehicle.getPassages().size());
+            return calculateDailyTolls(vehicle.getVehicleType(), vehicle.getZone(), vehicle.getPassages());
+        } finally {
+            TollMetrics.recordSince(calculateTollTimer, startNanos);
+        }
+    }
+
+    @Override
+    public List<DailyTollFee> calculateDailyTolls(String vehicleType, Passages passages) {
+        return calculateDailyTolls(vehicleType, null, passages);
+    }
+
+    /**
+     * Same as {@link TollCalculator#calculateDailyTolls(String, String, Passages)}, with the total
+     * of every day taken from the cache when the same vehicle day was calculated before.
+     */
+    @Override
+    public List<DailyTollFee> calculateDailyTolls(String vehicleType, String zone, Passages passages) {
+        if (dailyFees == null || passages.size() > maximumPassages) {
+            return tollCalculator.calculateDailyTolls(vehicleType, zone, passages);
+        }
+
+        // Read the versions before calculating, a reload publishes its version only after the new tables are in use
+        long tollFeesVersion = configLoader.getVersion(ConfigurationFilePath.TOLL_FEES);
+        long vehicleTypesVersion = configLoader.getVersion(ConfigurationFilePath.VEHICLE_TYPES);
+        long tollFreeDaysVersion = configLoader.getVersion(ConfigurationFilePath.TOLL_FREE_DAYS);
+        if (tollFeesVersion == 0 || vehicleTypesVersion == 0 || tollFreeDaysVersion == 0) {
+            return tollCalculator.calculateDailyTolls(vehicleType, zone, passages); // Not loaded yet, the calculation loads them
+        }
+
+        // The days are calculated with this tariff, so it is part of their keys
+        TollTariff tariff = tariffRegistry.findTariff(zone, vehicleType);
+
+        int dayCount = passages.getDayCount();
+        List<DailyTollFee> dailyTollFees = new ArrayList<>(dayCount);
+        for (int day = 0; day < dayCount; day++) {
+            DailyTollKey key = new DailyTollKey(vehicleType, tariff, passages, day,
+                    tollFeesVersion, vehicleTypesVersion, tollFreeDaysVersion);
+            int dayIndex = day;
+            int dailyFee = dailyFees.get(key, missing -> calculateDailyFee(vehicleType, tariff, passages, dayIndex));
+
+            dailyTollFees.add(new DailyTollFee(passages.getDate(day), dailyFee));
+            dailyFeeSummary.record(dailyFee);
+        }
+        return dailyTollFees;
+    }
+
+    @Override
+    public int calculateDayToll(Passages passages, int day) {
+        return tollCalculator.calculateDayToll(passages, day);
+    }
+
+    @Override
+    public int calculateDayToll(TollTariff tariff, Passages passages, int day) {
+        return tollCalculator.calculateDayToll(tariff, passages, day);
+    }
+
+    @Override
+    public int calculateDailyToll(Passages passages, int fromIndex, int toIndex) {
+        return tollCalculator.calculateDailyToll(passages, fromIndex, toIndex);
+    }
+
+    private int calculateDailyFee(String vehicleType, TollTariff tariff, Passages passages, int day) {
+        if (tollFreeValidator.isTollFreeVehicle(vehicleType)) {
+            return 0; // Toll-free vehicle, so the total fee of every day is 0
+        }
+        return tollCalculator.calculateDayToll(tariff, passages, day);
+    }
+
+    /**
+     * Identifies one vehicle day. The passage times are kept as milliseconds of the day rather
+     * than a hash of them, since the one-hour rule depends on the exact times and two different
+     * days must never share a total.
+     */
+    private static final class DailyTollKey {
+        private final String vehicleType;
+        private final TollTariff tariff;
+        private final long epochDay;
+        private final int[] millisOfDay;
+        private final long tollFeesVersion;
+        private final long vehicleTypesVersion;
+        private final long tollFreeDaysVersion;
+        private final int hash;
+
+        private DailyTollKey(String vehicleType, TollTariff tariff, Passages passages, int day,
+                             long tollFeesVersion, long vehicleTypesVersion, long tollFreeDaysVersion) {
+            this.vehicleType = vehicleType;
+            this.tariff = tariff;
+            this.epochDay = passages.getEpochDay(day);
+            this.tollFeesVersion = tollFeesVersion;
+            this.vehicleTypesVersion = vehicleTypesVersion;
+            this.tollFreeDaysVersion = tollFreeDaysVersion;
+
+            int dayStart = passages.getDayStart(day);
+            long startOfDay = epochDay * 24 * 60 * 60_000L;
+            this.millisOfDay = new int[passages.getDayEnd(day) - dayStart];
+            for (int i = 0; i < millisOfDay.length; i++) {
+                millisOfDay[i] = (int) (passages.getLocalEpochMillis(dayStart + i) - startOfDay);
+            }
+
+            int h = vehicleType.hashCode();
+            h = 31 * h + System.identityHashCode(tariff);
+            h = 31 * h + Long.hashCode(epochDay);
+            h = 31 * h + Arrays.hashCode(millisOfDay);
+            h = 31 * h + Long.hashCode(tollFeesVersion);
+            h = 31 * h + Long.hashCode(vehicleTypesVersion);
+            h = 31 * h + Long.hashCode(tollFreeDaysVersion);
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof DailyTollKey key
+                    && hash == key.hash
+                    && tariff == key.tariff
+                    && epochDay == key.epochDay
+                    && tollFeesVersion == key.tollFeesVersion
+                    && vehicleTypesVersion == key.vehicleTypesVersion
+                    && tollFreeDaysVersion == key.tollFreeDaysVersion
+                    && vehicleType.equals(key.vehicleType)
+                    && Arrays.equals(millisOfDay, key.millisOfDay);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
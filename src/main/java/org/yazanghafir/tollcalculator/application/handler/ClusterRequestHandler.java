@@ -0,0 +1,128 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleDayPassages;
+import org.yazanghafir.tollcalculator.domain.responses.ClusterResponse;
+import org.yazanghafir.tollcalculator.infrastructure.cluster.ClusterClient;
+import org.yazanghafir.tollcalculator.infrastructure.cluster.ClusterMembership;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Service
+public class ClusterRequestHandler implements IClusterRequestHandler, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterRequestHandler.class);
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ITollAccumulator tollAccumulator;
+
+    private Counter handedOffCounter = TollMetrics.UNBOUND_COUNTER;
+
+    public ClusterRequestHandler(ClusterMembership membership, ClusterClient clusterClient, ITollAccumulator tollAccumulator) {
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+        this.tollAccumulator = tollAccumulator;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        handedOffCounter = Counter.builder("toll.cluster.handoff")
+                .description("Vehicle days handed off to their new owner after a node list change")
+                .register(registry);
+    }
+
+    @Override
+    public ClusterResponse getCluster() {
+        return response(0, 0);
+    }
+
+    /**
+     * Replaces the node list of this node and hands the open vehicle days of the plates it no
+     * longer owns to their new owner, by sending their passages to its passage endpoint. The
+     * list has to be replaced on every node; since the ring is consistent, only the plates
+     * between the points of the added or removed nodes move.
+     *
+     * A vehicle day whose owner cannot be reached is kept here and reported in the response,
+     * it is not lost but its plate is now routed to the new owner, so its total is incomplete
+     * until the hand-off is repeated by sending the node list again.
+     *
+     * @param nodes The new node URLs.
+     * @return The cluster state with the number of handed off and failed vehicle days.
+     * @throws IllegalStateException if the node list changes while the toll accumulator holds
+     *                               open vehicle days that it cannot hand off.
+     */
+    @Override
+    public ClusterResponse updateNodes(List<String> nodes) {
+        if (!(tollAccumulator instanceof IHandOffTollAccumulator handOffAccumulator)) {
+            if (tollAccumulator.getOpenVehicleDays() > 0 && !membership.hasNodes(nodes)) {
+                throw new IllegalStateException("The node list cannot be changed while the toll store holds "
+                        + tollAccumulator.getOpenVehicleDays() + " open vehicle days, since they cannot be handed off.");
+            }
+            membership.updateNodes(nodes);
+            return response(0, 0);
+        }
+        membership.updateNodes(nodes);
+
+        int handedOff = 0;
+        int failed = 0;
+        for (VehicleDayPassages vehicleDay : handOffAccumulator.removeVehicleDays(plate -> !membership.isLocal(plate))) {
+            if (handOff(vehicleDay)) {
+                handedOff++;
+            } else {
+                failed++;
+            }
+        }
+        handedOffCounter.increment(handedOff);
+        if (failed > 0) {
+            LOGGER.warn("{} vehicle days could not be handed off and are kept on {}, send the node list again to retry.",
+                    failed, membership.getSelf());
+        }
+        return response(handedOff, failed);
+    }
+
+    private boolean handOff(VehicleDayPassages vehicleDay) {
+        String owner = membership.ownerOf(vehicleDay.getVehiclePlate());
+        long[] passageTimes = vehicleDay.getLocalEpochMillis();
+        int sent = 0;
+        try {
+            for (; sent < passageTimes.length; sent++) {
+                clusterClient.sendPassage(owner, vehicleDay.getVehiclePlate(), vehicleDay.getVehicleType(),
+                        toInstant(passageTimes[sent]));
+            }
+            return true;
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.warn("Error handing off {} to {}. Error: {}", vehicleDay.getVehiclePlate(), owner, ex.getMessage());
+            // Kept until the next hand-off, which removes it again since this node no longer owns the plate
+            for (int i = sent; i < passageTimes.length; i++) {
+                tollAccumulator.addPassage(vehicleDay.getVehiclePlate(), vehicleDay.getVehicleType(), passageTimes[i]);
+            }
+            return false;
+        }
+    }
+
+    private ClusterResponse response(int handedOffVehicleDays, int failedVehicleDays) {
+        return new ClusterResponse(membership.getSelf(), membership.getRing().getNodes(),
+                membership.getRoutingMode().name().toLowerCase(), membership.getRing().getShare(membership.getSelf()),
+                tollAccumulator.getOpenVehicleDays(), handedOffVehicleDays, failedVehicleDays);
+    }
+
+    private static Instant toInstant(long localEpochMillis) {
+        LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(Math.floorDiv(localEpochMillis, 1000L),
+                (int) Math.floorMod(localEpochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+        return localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
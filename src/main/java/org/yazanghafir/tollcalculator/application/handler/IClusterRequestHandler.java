@@ -0,0 +1,11 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.responses.ClusterResponse;
+
+import java.util.List;
+
+public interface IClusterRequestHandler {
+    ClusterResponse getCluster();
+
+    ClusterResponse updateNodes(List<String> nodes);
+}
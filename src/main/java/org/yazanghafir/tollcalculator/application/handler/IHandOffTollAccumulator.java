@@ -0,0 +1,10 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.entities.VehicleDayPassages;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+public interface IHandOffTollAccumulator extends ITollAccumulator {
+    List<VehicleDayPassages> removeVehicleDays(Predicate<String> vehiclePlateFilter);
+}
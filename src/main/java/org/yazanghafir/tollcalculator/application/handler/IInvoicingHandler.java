@@ -0,0 +1,9 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.responses.InvoicingResponse;
+
+import java.nio.file.Path;
+
+public interface IInvoicingHandler {
+    InvoicingResponse invoice(Path input, Path output);
+}
@@ -0,0 +1,9 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.responses.IngestionResponse;
+
+import java.nio.file.Path;
+
+public interface IPassageIngestionHandler {
+    IngestionResponse ingest(Path input, Path output);
+}
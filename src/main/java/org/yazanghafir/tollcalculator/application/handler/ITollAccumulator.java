@@ -0,0 +1,11 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+
+public interface ITollAccumulator {
+    DailyTollFee addPassage(String vehiclePlate, String vehicleType, long localEpochMillis);
+
+    void evictClosedDays();
+
+    int getOpenVehicleDays();
+}
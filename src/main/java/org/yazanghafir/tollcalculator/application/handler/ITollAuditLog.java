@@ -0,0 +1,12 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+
+import java.util.List;
+
+public interface ITollAuditLog {
+    void record(Vehicle vehicle, List<DailyTollFee> dailyTollFees);
+
+    void recordPassage(String vehiclePlate, String vehicleType, long localEpochMillis, DailyTollFee dailyTollFee);
+}
@@ -1,7 +1,24 @@
 package org.yazanghafir.tollcalculator.application.handler;
 
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
 import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
 
+import java.util.List;
+
 public interface ITollCalculator {
     int calculateToll(Vehicle vehicle);
+
+    List<DailyTollFee> calculateDailyTolls(Vehicle vehicle);
+
+    List<DailyTollFee> calculateDailyTolls(String vehicleType, Passages passages);
+
+    List<DailyTollFee> calculateDailyTolls(String vehicleType, String zone, Passages passages);
+
+    int calculateDayToll(Passages passages, int day);
+
+    int calculateDayToll(TollTariff tariff, Passages passages, int day);
+
+    int calculateDailyToll(Passages passages, int fromIndex, int toIndex);
 }
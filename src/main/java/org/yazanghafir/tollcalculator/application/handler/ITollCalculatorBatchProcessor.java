@@ -0,0 +1,11 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorBatchResponse;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public interface ITollCalculatorBatchProcessor {
+    void processBatch(Iterator<TollCalculatorRequest> requests, Consumer<TollCalculatorBatchResponse> resultConsumer);
+}
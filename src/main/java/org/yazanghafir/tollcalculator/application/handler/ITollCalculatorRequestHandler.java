@@ -0,0 +1,11 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+public interface ITollCalculatorRequestHandler {
+    TollCalculatorResponse handleRequest(TollCalculatorRequest request);
+
+    TollCalculatorResponse handleRequest(TollCalculatorPassagesRequest request);
+}
@@ -0,0 +1,8 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.yazanghafir.tollcalculator.domain.requests.TollPassageRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+public interface ITollPassageRequestHandler {
+    TollCalculatorResponse handlePassage(TollPassageRequest request);
+}
@@ -0,0 +1,421 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passage;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.responses.InvoicingResponse;
+import org.yazanghafir.tollcalculator.infrastructure.ingestion.PassageLogFormat;
+import org.yazanghafir.tollcalculator.infrastructure.ingestion.PassageLogReader;
+import org.yazanghafir.tollcalculator.infrastructure.ingestion.PassageRunSorter;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Rolls a gantry passage log up into monthly invoice lines per vehicle on a fork-join pool.
+ *
+ * Reading, sorting and calculating run on the workers of the pool: the log is read in byte
+ * ranges and sorted in runs per range, and the sorted plate months are calculated in
+ * partitions. Only merging the sorted runs and writing the lines is done by the calling
+ * thread. The pool has toll.invoicing.parallelism workers, one per processor by default.
+ */
+@Service
+public class InvoicingHandler implements IInvoicingHandler, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvoicingHandler.class);
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    // The plate months a task calculates itself instead of splitting them further
+    private static final int LEAF_PLATE_MONTHS = 64;
+
+    private final TollCalculatorRequestValidator requestValidator;
+    private final ITollCalculator tollCalculator;
+    private final int runSize;
+    private final String spillDirectory;
+    private final int parallelism;
+    private final int partitionPassages;
+
+    private Counter rejectedRowsCounter = TollMetrics.UNBOUND_COUNTER;
+
+    // Every vehicle day of a log is calculated once, so the uncached calculator is used
+    public InvoicingHandler(TollCalculatorRequestValidator requestValidator,
+                            @Qualifier("tollCalculator") ITollCalculator tollCalculator,
+                            @Value("${toll.ingestion.run-size:1000000}") int runSize,
+                            @Value("${toll.ingestion.spill-directory:}") String spillDirectory,
+                            @Value("${toll.invoicing.parallelism:0}") int parallelism,
+                            @Value("${toll.invoicing.partition-passages:65536}") int partitionPassages) {
+        this.requestValidator = requestValidator;
+        this.tollCalculator = tollCalculator;
+        this.runSize = runSize;
+        this.spillDirectory = spillDirectory;
+        this.parallelism = parallelism;
+        this.partitionPassages = partitionPassages;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        rejectedRowsCounter = TollMetrics.rejectedRows(registry, "invoicing");
+    }
+
+    /**
+     * Builds the monthly invoice lines of every vehicle in a gantry passage log.
+     *
+     * The log is split into one byte range per worker. Each range is read by its own task
+     * into its own sorter, which sorts and spills its runs of toll.ingestion.run-size divided
+     * by the number of ranges passages, and the runs of all ranges are merged by plate and
+     * time. The sorted passages are cut into partitions of about toll.invoicing.partition-passages
+     * passages at plate month boundaries, and every partition is handed to the pool as a task
+     * that splits its plate months in halves, so idle workers steal work from the other
+     * partitions in flight. The daily totals of a plate month come from the toll calculator
+     * and are rolled up into one "vehiclePlate,vehicleType,month,tollDays,tollFee" line.
+     * Partitions are written in order as they complete and at most two per worker are held at
+     * a time, so the output is streamed to the file. Rows that cannot be parsed and passages of
+     * an unknown vehicle type are rejected; the rows skipped by all readers are reported once,
+     * with the first of them. Failures are reported in the response instead of being thrown.
+     *
+     * @param input  The passage log, CSV or NDJSON depending on the file extension.
+     * @param output The file the invoice lines are written to.
+     * @return The invoicing response with the counts and the throughput in passages per second.
+     */
+    @Override
+    public InvoicingResponse invoice(Path input, Path output) {
+        long startTime = System.nanoTime();
+        Path spillPath = spillDirectory.isBlank() ? Path.of(System.getProperty("java.io.tmpdir")) : Path.of(spillDirectory);
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        List<PassageRunSorter> sorters = new ArrayList<>();
+
+        try (BufferedWriter writer = Files.newBufferedWriter(output)) {
+            long[] ranges = PassageLogReader.split(input, pool.getParallelism());
+            PassageLogReader[] readers = new PassageLogReader[ranges.length - 1];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new PassageLogReader();
+                sorters.add(new PassageRunSorter(Math.max(1, runSize / readers.length), spillPath));
+            }
+            pool.invoke(new ReadTask(input, PassageLogFormat.fromPath(input), ranges, readers, sorters, 0, readers.length));
+
+            writer.write("vehiclePlate,vehicleType,month,tollDays,tollFee");
+            writer.newLine();
+            InvoicePartitioner partitioner = new InvoicePartitioner(pool, writer);
+            PassageRunSorter.forEachSorted(sorters, partitioner::add);
+            partitioner.finish();
+
+            long rows = 0;
+            long rejectedRows = 0;
+            String firstRejection = null;
+            for (PassageLogReader reader : readers) {
+                rows += reader.getRows();
+                rejectedRows += reader.getRejectedRows();
+                if (firstRejection == null) {
+                    firstRejection = reader.getFirstRejection(); // The readers are in file order
+                }
+            }
+            if (rejectedRows > 0) {
+                rejectedRowsCounter.increment(rejectedRows);
+                LOGGER.warn("Skipped {} rows of {} that could not be parsed, the first {}",
+                        rejectedRows, input, firstRejection);
+            }
+            int spilledRuns = 0;
+            for (PassageRunSorter sorter : sorters) {
+                spilledRuns += sorter.getSpilledRuns();
+            }
+
+            long passages = rows - rejectedRows;
+            long elapsedMillis = Math.max(1, (System.nanoTime() - startTime) / 1_000_000);
+            long passagesPerSecond = passages * 1000 / elapsedMillis;
+            return new InvoicingResponse(true,
+                    "Invoiced " + passages + " passages into " + partitioner.invoiceLines + " monthly invoice lines in "
+                            + elapsedMillis + " ms (" + passagesPerSecond + " passages/s).",
+                    passages, rejectedRows + partitioner.rejectedPassages, rejectedRows, partitioner.invoiceLines,
+                    partitioner.vehicleDays, partitioner.totalTollFee, partitioner.partitions, spilledRuns,
+                    elapsedMillis, passagesPerSecond);
+        } catch (IOException | RuntimeException ex) {
+            InvoicingResponse response = new InvoicingResponse();
+            response.setMessage("Error invoicing " + input + ". Error: " + ex.getMessage());
+            return response;
+        } finally {
+            pool.shutdownNow();
+            for (PassageRunSorter sorter : sorters) {
+                try {
+                    sorter.close();
+                } catch (IOException ex) {
+                    // The spilled runs are temporary files, a run that cannot be removed is left behind
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a range of the byte ranges of a log, splitting it in halves until every task reads
+     * one range into its own sorter and sorts the passages it keeps in memory.
+     */
+    private static final class ReadTask extends RecursiveAction {
+
+        private final Path input;
+        private final PassageLogFormat format;
+        private final long[] ranges;
+        private final PassageLogReader[] readers;
+        private final List<PassageRunSorter> sorters;
+        private final int from;
+        private final int to;
+
+        private ReadTask(Path input, PassageLogFormat format, long[] ranges, PassageLogReader[] readers,
+                         List<PassageRunSorter> sorters, int from, int to) {
+            this.input = input;
+            this.format = format;
+            this.ranges = ranges;
+            this.readers = readers;
+            this.sorters = sorters;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ReadTask(input, format, ranges, readers, sorters, from, middle),
+                        new ReadTask(input, format, ranges, readers, sorters, middle, to));
+                return;
+            }
+
+            PassageRunSorter sorter = sorters.get(from);
+            try {
+                readers[from].read(input, format, ranges[from], ranges[from + 1], sorter::add);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex.getMessage(), ex);
+            }
+            sorter.sortCurrentRun();
+        }
+    }
+
+    /**
+     * The sorted passages of consecutive plate months, and once its task has completed, their
+     * invoice lines. Plate month i has the passages from starts[i] to starts[i + 1].
+     */
+    private static final class InvoicePartition {
+
+        private String[] vehiclePlates = new String[64];
+        private String[] vehicleTypes = new String[64];
+        private YearMonth[] months = new YearMonth[64];
+        private int[] starts = new int[65];
+        private long[] passageTimes;
+        private int plateMonths;
+        private int passageCount;
+
+        private String[] lines;
+        private int[] vehicleDays;
+        private int[] tollFees;
+        private ForkJoinTask<?> task;
+
+        private InvoicePartition(int partitionPassages) {
+            this.passageTimes = new long[Math.max(partitionPassages, 64)];
+        }
+
+        private void openPlateMonth(String vehiclePlate, String vehicleType, YearMonth month) {
+            if (plateMonths == vehiclePlates.length) {
+                vehiclePlates = Arrays.copyOf(vehiclePlates, plateMonths * 2);
+                vehicleTypes = Arrays.copyOf(vehicleTypes, plateMonths * 2);
+                months = Arrays.copyOf(months, plateMonths * 2);
+                starts = Arrays.copyOf(starts, plateMonths * 2 + 1);
+            }
+            vehiclePlates[plateMonths] = vehiclePlate;
+            vehicleTypes[plateMonths] = vehicleType;
+            months[plateMonths] = month;
+            starts[plateMonths] = passageCount;
+        }
+
+        private void addPassage(long localEpochMillis) {
+            if (passageCount == passageTimes.length) {
+                passageTimes = Arrays.copyOf(passageTimes, passageCount * 2);
+            }
+            passageTimes[passageCount++] = localEpochMillis;
+        }
+
+        private void closePlateMonth() {
+            starts[++plateMonths] = passageCount;
+        }
+
+        private void discardPlateMonth() {
+            passageCount = starts[plateMonths];
+        }
+    }
+
+    /**
+     * Calculates the invoice lines of a range of plate months of a partition, splitting the
+     * range in halves until it is small enough to calculate directly.
+     */
+    private final class InvoiceTask extends RecursiveAction {
+
+        private final InvoicePartition partition;
+        private final int from;
+        private final int to;
+
+        private InvoiceTask(InvoicePartition partition, int from, int to) {
+            this.partition = partition;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_PLATE_MONTHS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new InvoiceTask(partition, from, middle), new InvoiceTask(partition, middle, to));
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                long[] passageTimes = Arrays.copyOfRange(partition.passageTimes, partition.starts[i], partition.starts[i + 1]);
+                List<DailyTollFee> dailyTollFees = tollCalculator.calculateDailyTolls(
+                        partition.vehicleTypes[i], Passages.fromSortedLocalEpochMillis(passageTimes));
+
+                int tollDays = 0;
+                int tollFee = 0;
+                for (DailyTollFee dailyTollFee : dailyTollFees) {
+                    tollDays += dailyTollFee.getTollFee() > 0 ? 1 : 0;
+                    tollFee += dailyTollFee.getTollFee();
+                }
+                partition.vehicleDays[i] = dailyTollFees.size();
+                partition.tollFees[i] = tollFee;
+                partition.lines[i] = partition.vehiclePlates[i] + "," + partition.vehicleTypes[i] + ","
+                        + partition.months[i] + "," + tollDays + "," + tollFee;
+            }
+        }
+    }
+
+    /**
+     * Collects the sorted passages into partitions, submits every full partition to the pool
+     * and writes the completed partitions in order.
+     */
+    private final class InvoicePartitioner {
+
+        private final ForkJoinPool pool;
+        private final BufferedWriter writer;
+        private final int maxInFlight;
+        private final Deque<InvoicePartition> inFlight = new ArrayDeque<>();
+        private final Map<String, Boolean> validVehicleTypes = new HashMap<>();
+
+        private InvoicePartition partition = new InvoicePartition(partitionPassages);
+        private String vehiclePlate;
+        private boolean plateMonthOpen;
+        private boolean plateMonthRejected;
+        private YearMonth month;
+        private long monthStartMillis;
+        private long monthEndMillis;
+
+        private long invoiceLines;
+        private long vehicleDays;
+        private long totalTollFee;
+        private long rejectedPassages;
+        private int partitions;
+
+        private InvoicePartitioner(ForkJoinPool pool, BufferedWriter writer) {
+            this.pool = pool;
+            this.writer = writer;
+            this.maxInFlight = 2 * pool.getParallelism();
+        }
+
+        private void add(Passage passage) {
+            long localEpochMillis = passage.getLocalEpochMillis();
+            boolean otherMonth = localEpochMillis < monthStartMillis || localEpochMillis >= monthEndMillis;
+            if (plateMonthOpen && (otherMonth || !passage.getVehiclePlate().equals(vehiclePlate))) {
+                closePlateMonth();
+            }
+            if (!plateMonthOpen) {
+                if (otherMonth) {
+                    month = YearMonth.from(LocalDate.ofEpochDay(Math.floorDiv(localEpochMillis, MILLIS_PER_DAY)));
+                    monthStartMillis = month.atDay(1).toEpochDay() * MILLIS_PER_DAY;
+                    monthEndMillis = month.plusMonths(1).atDay(1).toEpochDay() * MILLIS_PER_DAY;
+                }
+                vehiclePlate = passage.getVehiclePlate();
+                plateMonthRejected = !validVehicleTypes.computeIfAbsent(passage.getVehicleType(),
+                        type -> requestValidator.validateVehicleType(type) == null);
+                partition.openPlateMonth(vehiclePlate, passage.getVehicleType(), month);
+                plateMonthOpen = true;
+            }
+            partition.addPassage(localEpochMillis);
+        }
+
+        private void closePlateMonth() {
+            plateMonthOpen = false;
+            if (plateMonthRejected) {
+                rejectedPassages += partition.passageCount - partition.starts[partition.plateMonths];
+                partition.discardPlateMonth();
+                return;
+            }
+            partition.closePlateMonth();
+            if (partition.passageCount >= partitionPassages) {
+                submit();
+            }
+        }
+
+        private void submit() {
+            InvoicePartition submitted = partition;
+            submitted.lines = new String[submitted.plateMonths];
+            submitted.vehicleDays = new int[submitted.plateMonths];
+            submitted.tollFees = new int[submitted.plateMonths];
+            submitted.task = pool.submit(new InvoiceTask(submitted, 0, submitted.plateMonths));
+            inFlight.add(submitted);
+            partitions++;
+            partition = new InvoicePartition(partitionPassages);
+
+            // Wait for the oldest partition once the read-ahead limit is reached
+            while (inFlight.size() >= maxInFlight) {
+                writeOldest();
+            }
+        }
+
+        private void writeOldest() {
+            InvoicePartition completed = inFlight.poll();
+            completed.task.join();
+            try {
+                for (int i = 0; i < completed.plateMonths; i++) {
+                    writer.write(completed.lines[i]);
+                    writer.newLine();
+                    vehicleDays += completed.vehicleDays[i];
+                    totalTollFee += completed.tollFees[i];
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            invoiceLines += completed.plateMonths;
+        }
+
+        private void finish() {
+            if (plateMonthOpen) {
+                closePlateMonth();
+            }
+            if (partition.plateMonths > 0) {
+                submit();
+            }
+            while (!inFlight.isEmpty()) {
+                writeOldest();
+            }
+        }
+    }
+}
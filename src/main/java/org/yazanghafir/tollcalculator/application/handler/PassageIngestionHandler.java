@@ -0,0 +1,244 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passage;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.responses.IngestionResponse;
+import org.yazanghafir.tollcalculator.infrastructure.ingestion.PassageDeduplicator;
+import org.yazanghafir.tollcalculator.infrastructure.ingestion.PassageLogFormat;
+import org.yazanghafir.tollcalculator.infrastructure.ingestion.PassageLogReader;
+import org.yazanghafir.tollcalculator.infrastructure.ingestion.PassageRunSorter;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+public class PassageIngestionHandler implements IPassageIngestionHandler, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PassageIngestionHandler.class);
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private final TollCalculatorRequestValidator requestValidator;
+    private final ITollCalculator tollCalculator;
+    private final int runSize;
+    private final String spillDirectory;
+    private final long dedupWindowMillis;
+    private final long dedupGenerationMillis;
+    private final int dedupPassagesPerGeneration;
+    private final double dedupFalsePositiveRate;
+    private final int dedupExactEntries;
+
+    private Counter dedupUnique = TollMetrics.UNBOUND_COUNTER;
+    private Counter dedupDuplicate = TollMetrics.UNBOUND_COUNTER;
+    private Counter dedupUnconfirmed = TollMetrics.UNBOUND_COUNTER;
+    private Counter dedupLate = TollMetrics.UNBOUND_COUNTER;
+    private Counter rejectedRows = TollMetrics.UNBOUND_COUNTER;
+
+    /**
+     * Creates a handler that keeps duplicate gantry reports.
+     */
+    public PassageIngestionHandler(TollCalculatorRequestValidator requestValidator, ITollCalculator tollCalculator,
+                                   int runSize, String spillDirectory) {
+        this(requestValidator, tollCalculator, runSize, spillDirectory, 0, 0, 0, 0, 0);
+    }
+
+    // Every vehicle day of a log is calculated once, so the uncached calculator is used
+    @Autowired
+    public PassageIngestionHandler(TollCalculatorRequestValidator requestValidator,
+                                   @Qualifier("tollCalculator") ITollCalculator tollCalculator,
+                                   @Value("${toll.ingestion.run-size:1000000}") int runSize,
+                                   @Value("${toll.ingestion.spill-directory:}") String spillDirectory,
+                                   @Value("${toll.ingestion.dedup.window-ms:5000}") long dedupWindowMillis,
+                                   @Value("${toll.ingestion.dedup.generation-ms:60000}") long dedupGenerationMillis,
+                                   @Value("${toll.ingestion.dedup.passages-per-generation:1000000}") int dedupPassagesPerGeneration,
+                                   @Value("${toll.ingestion.dedup.false-positive-rate:0.01}") double dedupFalsePositiveRate,
+                                   @Value("${toll.ingestion.dedup.exact-entries:262144}") int dedupExactEntries) {
+        this.requestValidator = requestValidator;
+        this.tollCalculator = tollCalculator;
+        this.runSize = runSize;
+        this.spillDirectory = spillDirectory;
+        this.dedupWindowMillis = dedupWindowMillis;
+        this.dedupGenerationMillis = dedupGenerationMillis;
+        this.dedupPassagesPerGeneration = dedupPassagesPerGeneration;
+        this.dedupFalsePositiveRate = dedupFalsePositiveRate;
+        this.dedupExactEntries = dedupExactEntries;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        dedupUnique = dedupCounter(registry, "unique");
+        dedupDuplicate = dedupCounter(registry, "duplicate");
+        dedupUnconfirmed = Counter.builder("toll.ingestion.dedup.unconfirmed")
+                .description("Ingested passages matched by the duplicate filter but not by an exact key, and kept")
+                .register(registry);
+        dedupLate = Counter.builder("toll.ingestion.dedup.late")
+                .description("Ingested passages older than the duplicate filters, kept without a check")
+                .register(registry);
+        rejectedRows = TollMetrics.rejectedRows(registry, "ingestion");
+    }
+
+    /**
+     * Calculates the daily toll of every vehicle in a gantry passage log.
+     *
+     * The log is read once and sorted by plate and time with bounded memory, spilling sorted
+     * runs to disk when it holds more passages than one run. Repeated reports of a plate by the
+     * same gantry within the dedup window are dropped as they are read, before they are sorted
+     * (see {@link PassageDeduplicator}). The sorted passages of one plate
+     * and day are then run through the toll calculator and written to the output file as
+     * "vehiclePlate,vehicleType,date,tollFee" rows. Rows that cannot be parsed and passages of
+     * an unknown vehicle type are rejected. Failures are reported in the response instead of
+     * being thrown.
+     *
+     * @param input  The passage log, CSV or NDJSON depending on the file extension.
+     * @param output The file the daily totals are written to.
+     * @return The ingestion response with the counts and the throughput in passages per second.
+     */
+    @Override
+    public IngestionResponse ingest(Path input, Path output) {
+        long startTime = System.nanoTime();
+        Path spillPath = spillDirectory.isBlank() ? Path.of(System.getProperty("java.io.tmpdir")) : Path.of(spillDirectory);
+
+        try (PassageRunSorter sorter = new PassageRunSorter(runSize, spillPath);
+             BufferedWriter writer = Files.newBufferedWriter(output)) {
+            PassageLogReader reader = new PassageLogReader();
+            PassageDeduplicator deduplicator = dedupWindowMillis > 0
+                    ? new PassageDeduplicator(dedupWindowMillis, dedupGenerationMillis, dedupPassagesPerGeneration,
+                            dedupFalsePositiveRate, dedupExactEntries)
+                    : null;
+            reader.read(input, PassageLogFormat.fromPath(input), passage -> {
+                if (deduplicator == null || !deduplicator.isDuplicate(passage)) {
+                    sorter.add(passage);
+                }
+            });
+            recordRejectedRows(input, reader.getRejectedRows(), reader.getFirstRejection());
+            long duplicates = deduplicator != null ? deduplicator.getDuplicates() : 0;
+            if (deduplicator != null) {
+                recordDedupMetrics(deduplicator);
+            }
+
+            writer.write("vehiclePlate,vehicleType,date,tollFee");
+            writer.newLine();
+            DailyTollWriter dailyTollWriter = new DailyTollWriter(writer);
+            sorter.forEachSorted(dailyTollWriter::add);
+            dailyTollWriter.flush();
+
+            long passages = reader.getRows() - reader.getRejectedRows() - duplicates;
+            long elapsedMillis = Math.max(1, (System.nanoTime() - startTime) / 1_000_000);
+            long passagesPerSecond = passages * 1000 / elapsedMillis;
+            return new IngestionResponse(true,
+                    "Ingested " + passages + " passages into " + dailyTollWriter.vehicleDays + " daily totals in "
+                            + elapsedMillis + " ms (" + passagesPerSecond + " passages/s), "
+                            + duplicates + " duplicate passages dropped.",
+                    passages, reader.getRejectedRows() + dailyTollWriter.rejectedPassages, reader.getRejectedRows(),
+                    duplicates, dailyTollWriter.vehicleDays, sorter.getSpilledRuns(), elapsedMillis, passagesPerSecond);
+        } catch (IOException | RuntimeException ex) {
+            IngestionResponse response = new IngestionResponse();
+            response.setMessage("Error ingesting " + input + ". Error: " + ex.getMessage());
+            return response;
+        }
+    }
+
+    private void recordRejectedRows(Path input, long rows, String firstRejection) {
+        if (rows > 0) {
+            rejectedRows.increment(rows);
+            LOGGER.warn("Skipped {} rows of {} that could not be parsed, the first {}", rows, input, firstRejection);
+        }
+    }
+
+    private void recordDedupMetrics(PassageDeduplicator deduplicator) {
+        dedupUnique.increment(deduplicator.getChecked() - deduplicator.getDuplicates());
+        dedupDuplicate.increment(deduplicator.getDuplicates());
+        dedupUnconfirmed.increment(deduplicator.getUnconfirmed());
+        dedupLate.increment(deduplicator.getLate());
+    }
+
+    private static Counter dedupCounter(MeterRegistry registry, String result) {
+        return Counter.builder("toll.ingestion.dedup")
+                .description("Ingested passages checked for duplicate gantry reports")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Collects the sorted passages of one plate and day and writes their total when the next
+     * plate or day starts.
+     */
+    private final class DailyTollWriter {
+
+        private final BufferedWriter writer;
+        private final Map<String, Boolean> validVehicleTypes = new HashMap<>();
+
+        private String vehiclePlate;
+        private String vehicleType;
+        private long epochDay;
+        private long[] passageTimes = new long[64];
+        private int passageCount;
+
+        private long vehicleDays;
+        private long rejectedPassages;
+
+        private DailyTollWriter(BufferedWriter writer) {
+            this.writer = writer;
+        }
+
+        private void add(Passage passage) {
+            long day = Math.floorDiv(passage.getLocalEpochMillis(), MILLIS_PER_DAY);
+            if (passageCount > 0 && (day != epochDay || !passage.getVehiclePlate().equals(vehiclePlate))) {
+                flush();
+            }
+            if (passageCount == 0) {
+                vehiclePlate = passage.getVehiclePlate();
+                vehicleType = passage.getVehicleType();
+                epochDay = day;
+            }
+            if (passageCount == passageTimes.length) {
+                passageTimes = Arrays.copyOf(passageTimes, passageCount * 2);
+            }
+            passageTimes[passageCount++] = passage.getLocalEpochMillis();
+        }
+
+        private void flush() {
+            if (passageCount == 0) {
+                return;
+            }
+
+            boolean isValidType = validVehicleTypes.computeIfAbsent(vehicleType,
+                    type -> requestValidator.validateVehicleType(type) == null);
+            if (!isValidType) {
+                rejectedPassages += passageCount;
+                passageCount = 0;
+                return;
+            }
+
+            DailyTollFee dailyTollFee = tollCalculator
+                    .calculateDailyTolls(vehicleType, Passages.fromSortedLocalEpochMillis(Arrays.copyOf(passageTimes, passageCount)))
+                    .get(0);
+            try {
+                writer.write(vehiclePlate + "," + vehicleType + "," + dailyTollFee.getDate() + "," + dailyTollFee.getTollFee());
+                writer.newLine();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+
+            vehicleDays++;
+            passageCount = 0;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
+import org.yazanghafir.tollcalculator.infrastructure.store.MappedDailyTollStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Keeps the running toll totals of live passage events in a {@link MappedDailyTollStore}, so
+ * they survive a restart and millions of vehicle days are held outside the heap.
+ *
+ * Totals match {@link TollAccumulator}, with two differences: the fee of a passage is looked up
+ * in the tariff of its own vehicle type, since the store keeps no tariff per day, and a passage
+ * that arrives after {@value MappedDailyTollStore#RETAINED_PASSAGES} later passages of the same
+ * day is rejected. Closed days are removed by compacting the store file.
+ *
+ * The store keeps neither the vehicle type nor the folded passages of a day, so its vehicle
+ * days cannot be handed to another node and this accumulator is no {@link IHandOffTollAccumulator}.
+ * The node list of a partitioned deployment can only change while the store is empty.
+ *
+ * Enabled with toll.accumulator.store=mapped.
+ */
+@Service
+@ConditionalOnProperty(name = "toll.accumulator.store", havingValue = "mapped")
+public class PersistentTollAccumulator implements ITollAccumulator {
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private final TollFreeValidator tollFreeValidator;
+    private final TollFeeAmountRetriever tollFeeRetriever;
+    private final ITariffRegistry tariffRegistry;
+    private final MappedDailyTollStore store;
+    private final int retentionDays;
+    private final Clock clock;
+
+    @Autowired
+    public PersistentTollAccumulator(TollFreeValidator tollFreeValidator, TollFeeAmountRetriever tollFeeRetriever,
+                                     ITariffRegistry tariffRegistry,
+                                     @Value("${toll.accumulator.retention-days:1}") int retentionDays,
+                                     @Value("${toll.accumulator.store-file:data/daily-tolls.dat}") String storeFile,
+                                     @Value("${toll.accumulator.store-capacity:1000000}") int storeCapacity) {
+        this(tollFreeValidator, tollFeeRetriever, tariffRegistry,
+                MappedDailyTollStore.open(Path.of(storeFile), storeCapacity), retentionDays, Clock.systemDefaultZone());
+    }
+
+    PersistentTollAccumulator(TollFreeValidator tollFreeValidator, TollFeeAmountRetriever tollFeeRetriever,
+                              ITariffRegistry tariffRegistry, MappedDailyTollStore store, int retentionDays, Clock clock) {
+        this.tollFreeValidator = tollFreeValidator;
+        this.tollFeeRetriever = tollFeeRetriever;
+        this.tariffRegistry = tariffRegistry;
+        this.store = store;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+    }
+
+    /**
+     * Adds a passage to the stored running total of its vehicle and day.
+     *
+     * @param vehiclePlate     The plate of the vehicle.
+     * @param vehicleType      The type of the vehicle, the first passage of a day decides whether it is toll-free.
+     * @param localEpochMillis The passage time as local epoch milliseconds.
+     * @return The updated total fee of the day.
+     * @throws IllegalArgumentException if the day of the passage is older than the retention,
+     *                                  or the passage arrives too late to be applied.
+     */
+    @Override
+    public DailyTollFee addPassage(String vehiclePlate, String vehicleType, long localEpochMillis) {
+        long epochDay = Math.floorDiv(localEpochMillis, MILLIS_PER_DAY);
+        if (epochDay < oldestOpenDay()) {
+            throw new IllegalArgumentException("Passages on " + LocalDate.ofEpochDay(epochDay) + " are no longer accepted.");
+        }
+
+        int millisOfDay = (int) Math.floorMod(localEpochMillis, MILLIS_PER_DAY);
+        int minuteOfDay = millisOfDay / 60_000;
+        TollTariff tariff = tariffRegistry.findTariff(null, vehicleType);
+        int fee = tariff != null ? tariff.getFeeAmount(minuteOfDay) : tollFeeRetriever.getTollFeeAmount(minuteOfDay);
+        boolean isTollFree = tollFreeValidator.isTollFreeVehicle(vehicleType) || tollFreeValidator.isTollFreeDay(epochDay);
+        int maxDailyFee = tariff != null ? tariff.getMaxDailyFee() : TollCalculator.MAX_DAILY_FEE;
+
+        int total = store.addPassage(vehiclePlate, epochDay, millisOfDay, fee, isTollFree, maxDailyFee);
+        return new DailyTollFee(LocalDate.ofEpochDay(epochDay), total);
+    }
+
+    /**
+     * Removes the vehicle days that are older than the retention from the store file.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${toll.accumulator.eviction-interval-ms:600000}")
+    public void evictClosedDays() {
+        store.compact(oldestOpenDay());
+    }
+
+    @Override
+    public int getOpenVehicleDays() {
+        return store.size();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private long oldestOpenDay() {
+        return LocalDate.now(clock).toEpochDay() - retentionDays;
+    }
+}
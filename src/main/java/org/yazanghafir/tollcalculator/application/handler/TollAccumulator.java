@@ -0,0 +1,241 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleDayPassages;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Keeps a running toll total per vehicle and day for live passage events, so a new passage
+ * does not require the whole day to be sent and calculated again.
+ *
+ * Every vehicle day holds its current one-hour interval, the highest fee within it and the
+ * total of the intervals already closed. A passage that arrives in time order only updates
+ * these values. A passage that arrives late is inserted at its place and the day is replayed,
+ * which gives the same total as {@link TollCalculator#calculateDailyToll(TollTariff, Passages, int, int)}.
+ * The fee of a passage is looked up once when it arrives, in the tariff of the vehicle class that
+ * the first passage of the day selects. Live passages carry no zone, so the tariffs without a zone apply.
+ *
+ * Passages of the same vehicle day are applied one at a time, passages of different vehicle
+ * days in parallel. Vehicle days older than the retention are evicted and no longer accept passages.
+ * The totals are kept on the heap and lost on a restart, see {@link PersistentTollAccumulator}.
+ */
+@Service
+@ConditionalOnProperty(name = "toll.accumulator.store", havingValue = "heap", matchIfMissing = true)
+public class TollAccumulator implements IHandOffTollAccumulator {
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_HOUR = 60 * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private final TollFreeValidator tollFreeValidator;
+    private final TollFeeAmountRetriever tollFeeRetriever;
+    private final ITariffRegistry tariffRegistry;
+    private final int retentionDays;
+    private final Clock clock;
+
+    private final Map<VehicleDay, DailyTollState> dailyTollStates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TollAccumulator(TollFreeValidator tollFreeValidator, TollFeeAmountRetriever tollFeeRetriever,
+                           ITariffRegistry tariffRegistry,
+                           @Value("${toll.accumulator.retention-days:1}") int retentionDays) {
+        this(tollFreeValidator, tollFeeRetriever, tariffRegistry, retentionDays, Clock.systemDefaultZone());
+    }
+
+    TollAccumulator(TollFreeValidator tollFreeValidator, TollFeeAmountRetriever tollFeeRetriever,
+                    ITariffRegistry tariffRegistry, int retentionDays, Clock clock) {
+        this.tollFreeValidator = tollFreeValidator;
+        this.tollFeeRetriever = tollFeeRetriever;
+        this.tariffRegistry = tariffRegistry;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+    }
+
+    /**
+     * Adds a passage to the running total of its vehicle and day.
+     *
+     * @param vehiclePlate     The plate of the vehicle.
+     * @param vehicleType      The type of the vehicle, the first passage of a day decides it.
+     * @param localEpochMillis The passage time as local epoch milliseconds.
+     * @return The updated total fee of the day.
+     * @throws IllegalArgumentException if the day of the passage is older than the retention.
+     */
+    @Override
+    public DailyTollFee addPassage(String vehiclePlate, String vehicleType, long localEpochMillis) {
+        long epochDay = Math.floorDiv(localEpochMillis, MILLIS_PER_DAY);
+        if (epochDay < oldestOpenDay()) {
+            throw new IllegalArgumentException("Passages on " + LocalDate.ofEpochDay(epochDay) + " are no longer accepted.");
+        }
+
+        VehicleDay vehicleDay = new VehicleDay(vehiclePlate, epochDay);
+        int minuteOfDay = minuteOfDay(localEpochMillis);
+
+        while (true) {
+            DailyTollState state = dailyTollStates.computeIfAbsent(vehicleDay, key -> new DailyTollState(
+                    vehicleType,
+                    tollFreeValidator.isTollFreeVehicle(vehicleType) || tollFreeValidator.isTollFreeDay(epochDay),
+                    tariffRegistry.findTariff(null, vehicleType)));
+            int fee = state.tariff != null
+                    ? state.tariff.getFeeAmount(minuteOfDay)
+                    : tollFeeRetriever.getTollFeeAmount(minuteOfDay);
+            synchronized (state) {
+                if (!state.evicted) {
+                    return new DailyTollFee(LocalDate.ofEpochDay(epochDay), state.add(localEpochMillis, fee));
+                }
+            }
+            // Evicted while waiting for the lock, the next attempt sees a new state
+        }
+    }
+
+    /**
+     * Removes the vehicle days that are older than the retention.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${toll.accumulator.eviction-interval-ms:600000}")
+    public void evictClosedDays() {
+        long oldestOpenDay = oldestOpenDay();
+        for (Map.Entry<VehicleDay, DailyTollState> entry : dailyTollStates.entrySet()) {
+            if (entry.getKey().epochDay() < oldestOpenDay) {
+                DailyTollState state = entry.getValue();
+                synchronized (state) {
+                    state.evicted = true;
+                }
+                dailyTollStates.remove(entry.getKey(), state);
+            }
+        }
+    }
+
+    @Override
+    public int getOpenVehicleDays() {
+        return dailyTollStates.size();
+    }
+
+    /**
+     * Removes the vehicle days of the matching plates and returns their passages, e.g. to hand
+     * them off to another node. Passages that arrive for a removed day start a new one.
+     *
+     * @param vehiclePlateFilter Selects the plates to remove.
+     * @return The passages of the removed vehicle days.
+     */
+    @Override
+    public List<VehicleDayPassages> removeVehicleDays(Predicate<String> vehiclePlateFilter) {
+        List<VehicleDayPassages> removed = new ArrayList<>();
+        for (Map.Entry<VehicleDay, DailyTollState> entry : dailyTollStates.entrySet()) {
+            if (vehiclePlateFilter.test(entry.getKey().vehiclePlate())) {
+                DailyTollState state = entry.getValue();
+                synchronized (state) {
+                    if (state.evicted) {
+                        continue;
+                    }
+                    state.evicted = true;
+                    removed.add(new VehicleDayPassages(entry.getKey().vehiclePlate(), state.vehicleType,
+                            Arrays.copyOf(state.passageTimes, state.passageCount)));
+                }
+                dailyTollStates.remove(entry.getKey(), state);
+            }
+        }
+        return removed;
+    }
+
+    private long oldestOpenDay() {
+        return LocalDate.now(clock).toEpochDay() - retentionDays;
+    }
+
+    private static int minuteOfDay(long localEpochMillis) {
+        return (int) (Math.floorMod(localEpochMillis, MILLIS_PER_DAY) / MILLIS_PER_MINUTE);
+    }
+
+    private record VehicleDay(String vehiclePlate, long epochDay) {
+    }
+
+    /**
+     * Running total of one vehicle day, guarded by its own monitor.
+     */
+    private static final class DailyTollState {
+
+        private final String vehicleType;
+        private final boolean isTollFree;
+        private final TollTariff tariff;
+        private final int maxDailyFee;
+
+        private long[] passageTimes = new long[8];
+        private int[] fees = new int[8];
+        private int passageCount;
+
+        private long intervalEnd;
+        private int intervalMaxFee;
+        private int closedTotal;
+
+        private boolean evicted;
+
+        private DailyTollState(String vehicleType, boolean isTollFree, TollTariff tariff) {
+            this.vehicleType = vehicleType;
+            this.isTollFree = isTollFree;
+            this.tariff = tariff;
+            this.maxDailyFee = tariff != null ? tariff.getMaxDailyFee() : TollCalculator.MAX_DAILY_FEE;
+        }
+
+        private int add(long passageTime, int fee) {
+            if (isTollFree) {
+                return 0; // Toll-free, so the total fee of the day stays 0
+            }
+
+            if (passageCount == passageTimes.length) {
+                passageTimes = Arrays.copyOf(passageTimes, passageCount * 2);
+                fees = Arrays.copyOf(fees, passageCount * 2);
+            }
+
+            int index = passageCount;
+            while (index > 0 && passageTimes[index - 1] > passageTime) {
+                index--;
+            }
+            System.arraycopy(passageTimes, index, passageTimes, index + 1, passageCount - index);
+            System.arraycopy(fees, index, fees, index + 1, passageCount - index);
+            passageTimes[index] = passageTime;
+            fees[index] = fee;
+            passageCount++;
+
+            if (index == passageCount - 1) {
+                apply(passageTime, fee, index == 0);
+            } else {
+                // A late passage can move every interval boundary after it
+                closedTotal = 0;
+                intervalMaxFee = 0;
+                for (int i = 0; i < passageCount; i++) {
+                    apply(passageTimes[i], fees[i], i == 0);
+                }
+            }
+
+            return Math.min(closedTotal + intervalMaxFee, maxDailyFee);
+        }
+
+        private void apply(long passageTime, int fee, boolean isFirstPassage) {
+            if (isFirstPassage || passageTime >= intervalEnd) {
+                // The passage opens a new interval, the current one is closed
+                closedTotal += intervalMaxFee;
+                intervalEnd = passageTime + MILLIS_PER_HOUR;
+                intervalMaxFee = fee;
+            } else {
+                intervalMaxFee = Math.max(intervalMaxFee, fee);
+            }
+        }
+    }
+}
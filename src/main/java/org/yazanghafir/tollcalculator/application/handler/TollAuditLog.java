@@ -0,0 +1,244 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.validation.ITollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.TollFeeTable;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditLogAppender;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditLogWriter;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditOverflowPolicy;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes every toll calculation and live passage to an append-only audit log, for settling
+ * disputes.
+ *
+ * The request thread only captures the vehicle, its passages, the daily totals and the fee
+ * schedule of its tariff, and publishes them to an {@link AuditLogAppender}. The writer thread
+ * groups the passages of every day into the same hour windows as {@link TollCalculator} with
+ * the captured schedule, so the record shows the fee of each window next to the charged total
+ * without slowing down the request. Whether the vehicle type or a day charged 0 is toll-free
+ * is looked up on the request thread, with the configuration the calculation used; the windows
+ * of a toll-free day are left out. A live passage is recorded with the running total of its day
+ * after it and without windows, which depend on the passages of earlier records.
+ *
+ * Enabled with toll.audit.enabled=true, the segments are decoded by TollCalculatorAuditReader.
+ */
+@Service
+public class TollAuditLog implements ITollAuditLog, MeterBinder {
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+    private static final long MILLIS_PER_HOUR = 60 * 60_000L;
+
+    private final TollFeeAmountRetriever tollFeeRetriever;
+    private final ITariffRegistry tariffRegistry;
+    private final ITollFreeValidator tollFreeValidator;
+    private final AuditLogAppender<Calculation> appender;
+
+    @Autowired
+    public TollAuditLog(TollFeeAmountRetriever tollFeeRetriever, ITariffRegistry tariffRegistry,
+                        ITollFreeValidator tollFreeValidator,
+                        @Value("${toll.audit.enabled:false}") boolean enabled,
+                        @Value("${toll.audit.directory:data/audit}") String directory,
+                        @Value("${toll.audit.buffer-size:65536}") int bufferSize,
+                        @Value("${toll.audit.overflow:count}") String overflowPolicy,
+                        @Value("${toll.audit.batch-size:1024}") int batchSize,
+                        @Value("${toll.audit.segment-size-mb:64}") int segmentSizeMb,
+                        @Value("${toll.audit.fsync-interval-ms:10}") long fsyncIntervalMillis) {
+        this(tollFeeRetriever, tariffRegistry, tollFreeValidator,
+                enabled ? AuditLogWriter.open(Path.of(directory), segmentSizeMb * 1024L * 1024L) : null,
+                bufferSize, AuditOverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase()), batchSize,
+                fsyncIntervalMillis);
+    }
+
+    /**
+     * Creates an audit log that writes to the given log, or a disabled one if it is null.
+     */
+    TollAuditLog(TollFeeAmountRetriever tollFeeRetriever, ITariffRegistry tariffRegistry,
+                 ITollFreeValidator tollFreeValidator, AuditLogWriter writer, int bufferSize,
+                 AuditOverflowPolicy overflowPolicy, int batchSize, long fsyncIntervalMillis) {
+        this.tollFeeRetriever = tollFeeRetriever;
+        this.tariffRegistry = tariffRegistry;
+        this.tollFreeValidator = tollFreeValidator;
+        this.appender = writer != null
+                ? new AuditLogAppender<>(writer, this::toRecord, bufferSize, overflowPolicy, batchSize, fsyncIntervalMillis)
+                : null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (appender != null) {
+            appender.bindTo(registry);
+        }
+    }
+
+    /**
+     * Publishes a calculation to be written by the writer thread. Whether it is written when
+     * the buffer is full depends on toll.audit.overflow.
+     *
+     * @param vehicle       The vehicle, its passages are not changed afterwards.
+     * @param dailyTollFees The total of every day of the passages, in date order.
+     */
+    @Override
+    public void record(Vehicle vehicle, List<DailyTollFee> dailyTollFees) {
+        if (appender == null) {
+            return;
+        }
+        TollTariff tariff = tariffRegistry != null ? tariffRegistry.findTariff(vehicle.getZone(), vehicle.getVehicleType()) : null;
+        appender.publish(new Calculation(AuditRecord.Kind.CALCULATION, System.currentTimeMillis(),
+                vehicle.getVehiclePlate(), vehicle.getVehicleType(), vehicle.getZone(), vehicle.getPassages(),
+                dailyTollFees, exemptions(vehicle.getVehicleType(), dailyTollFees),
+                tariff != null ? tariff.getFeeTable() : tollFeeRetriever.getTollFeeTable(),
+                tariff != null ? tariff.getMaxDailyFee() : TollCalculator.MAX_DAILY_FEE));
+    }
+
+    /**
+     * Publishes a live passage with the running total of its day after it.
+     *
+     * @param vehiclePlate     The plate of the vehicle.
+     * @param vehicleType      The type of the vehicle.
+     * @param localEpochMillis The passage time as local epoch milliseconds.
+     * @param dailyTollFee     The running total of the day of the passage.
+     */
+    @Override
+    public void recordPassage(String vehiclePlate, String vehicleType, long localEpochMillis, DailyTollFee dailyTollFee) {
+        if (appender == null) {
+            return;
+        }
+        List<DailyTollFee> dailyTollFees = List.of(dailyTollFee);
+        appender.publish(new Calculation(AuditRecord.Kind.PASSAGE, System.currentTimeMillis(), vehiclePlate, vehicleType,
+                null, Passages.fromSortedLocalEpochMillis(new long[]{localEpochMillis}), dailyTollFees,
+                exemptions(vehicleType, dailyTollFees), null, 0));
+    }
+
+    /**
+     * Writes the calculations already published and closes the log.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (appender != null) {
+            appender.close();
+        }
+    }
+
+    /**
+     * Returns the exemption of every day, only days charged 0 are looked up in the calendar.
+     */
+    private AuditRecord.Exemption[] exemptions(String vehicleType, List<DailyTollFee> dailyTollFees) {
+        AuditRecord.Exemption[] exemptions = new AuditRecord.Exemption[dailyTollFees.size()];
+        boolean tollFreeVehicle = tollFreeValidator.isTollFreeVehicle(vehicleType);
+        for (int day = 0; day < exemptions.length; day++) {
+            DailyTollFee dailyTollFee = dailyTollFees.get(day);
+            if (tollFreeVehicle) {
+                exemptions[day] = AuditRecord.Exemption.VEHICLE_TYPE;
+            } else if (dailyTollFee.getTollFee() == 0 && tollFreeValidator.isTollFreeDate(dailyTollFee.getDate())) {
+                exemptions[day] = AuditRecord.Exemption.DAY;
+            } else {
+                exemptions[day] = AuditRecord.Exemption.NONE;
+            }
+        }
+        return exemptions;
+    }
+
+    private AuditRecord toRecord(Calculation calculation) {
+        Passages passages = calculation.passages;
+        List<AuditRecord.Day> days = new ArrayList<>(passages.getDayCount());
+        for (int day = 0; day < passages.getDayCount(); day++) {
+            days.add(toDay(calculation, day));
+        }
+        if (calculation.kind == AuditRecord.Kind.PASSAGE) {
+            return AuditRecord.passage(calculation.timestampMillis, calculation.vehiclePlate, calculation.vehicleType,
+                    days.get(0));
+        }
+        return AuditRecord.calculation(calculation.timestampMillis, calculation.vehiclePlate, calculation.vehicleType,
+                calculation.zone, days);
+    }
+
+    // Groups the passages of a day into hour windows like TollCalculator.calculateDailyToll
+    private static AuditRecord.Day toDay(Calculation calculation, int day) {
+        Passages passages = calculation.passages;
+        int fromIndex = passages.getDayStart(day);
+        int toIndex = passages.getDayEnd(day);
+        long epochDay = passages.getEpochDay(day);
+        long dayStartMillis = epochDay * MILLIS_PER_DAY;
+
+        int[] passageMillisOfDay = new int[toIndex - fromIndex];
+        for (int index = fromIndex; index < toIndex; index++) {
+            passageMillisOfDay[index - fromIndex] = (int) (passages.getLocalEpochMillis(index) - dayStartMillis);
+        }
+
+        int[] windowStarts = new int[passageMillisOfDay.length];
+        int[] windowFees = new int[passageMillisOfDay.length];
+        int windowCount = 0;
+        int windowTotal = 0;
+        int index = fromIndex;
+        // The fee table of a live passage is not captured, since it is recorded without windows
+        boolean groupWindows = calculation.kind == AuditRecord.Kind.CALCULATION;
+        while (groupWindows && index < toIndex && windowTotal < calculation.maxDailyFee) {
+            long windowEnd = passages.getLocalEpochMillis(index) + MILLIS_PER_HOUR;
+            windowStarts[windowCount] = (int) (passages.getLocalEpochMillis(index) - dayStartMillis);
+            int windowMaxFee = 0;
+            for (; index < toIndex && passages.getLocalEpochMillis(index) < windowEnd; index++) {
+                windowMaxFee = Math.max(windowMaxFee, calculation.feeTable.getFeeAmount(passages.getMinuteOfDay(index)));
+            }
+            windowFees[windowCount++] = windowMaxFee;
+            windowTotal += windowMaxFee;
+        }
+
+        int tollFee = day < calculation.dailyTollFees.size() ? calculation.dailyTollFees.get(day).getTollFee() : 0;
+        AuditRecord.Exemption exemption = day < calculation.exemptions.length
+                ? calculation.exemptions[day] : AuditRecord.Exemption.NONE;
+        if (exemption != AuditRecord.Exemption.NONE) {
+            windowCount = 0;
+        }
+        return new AuditRecord.Day(epochDay, tollFee, exemption, passageMillisOfDay,
+                Arrays.copyOf(windowStarts, windowCount), Arrays.copyOf(windowFees, windowCount));
+    }
+
+    /**
+     * A calculation or a live passage as captured on the request thread.
+     */
+    private static final class Calculation {
+        private final AuditRecord.Kind kind;
+        private final long timestampMillis;
+        private final String vehiclePlate;
+        private final String vehicleType;
+        private final String zone;
+        private final Passages passages;
+        private final List<DailyTollFee> dailyTollFees;
+        private final AuditRecord.Exemption[] exemptions;
+        private final TollFeeTable feeTable;
+        private final int maxDailyFee;
+
+        private Calculation(AuditRecord.Kind kind, long timestampMillis, String vehiclePlate, String vehicleType, String zone,
+                            Passages passages, List<DailyTollFee> dailyTollFees, AuditRecord.Exemption[] exemptions,
+                            TollFeeTable feeTable, int maxDailyFee) {
+            this.kind = kind;
+            this.timestampMillis = timestampMillis;
+            this.vehiclePlate = vehiclePlate;
+            this.vehicleType = vehicleType;
+            this.zone = zone;
+            this.passages = passages;
+            this.dailyTollFees = dailyTollFees;
+            this.exemptions = exemptions;
+            this.feeTable = feeTable;
+            this.maxDailyFee = maxDailyFee;
+        }
+    }
+}
@@ -1,81 +1,233 @@
 package org.yazanghafir.tollcalculator.application.handler;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
 import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
 import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.TollFeeTable;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
 import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
-public class TollCalculator implements ITollCalculator {
+public class TollCalculator implements ITollCalculator, MeterBinder {
+
+    public static final int MAX_DAILY_FEE = 60;
+
+    private static final long MILLIS_PER_HOUR = 60 * 60_000L;
+
+    // Below this many passages splitting the days over threads costs more than it saves
+    private static final int PARALLEL_PASSAGE_THRESHOLD = 4096;
 
     private final TollFreeValidator tollFreeValidator;
     private final TollFeeAmountRetriever tollFeeRetriever;
+    private final ITariffRegistry tariffRegistry;
 
+    private Timer calculateTollTimer = TollMetrics.UNBOUND_TIMER;
+    private DistributionSummary passagesPerRequest = TollMetrics.UNBOUND_SUMMARY;
+    private DistributionSummary dailyFeeSummary = TollMetrics.UNBOUND_SUMMARY;
+    private Counter feeLookups = TollMetrics.UNBOUND_COUNTER;
+
+    /**
+     * Creates a calculator without tariffs, every vehicle pays the default toll fee schedule
+     * and daily maximum.
+     */
     public TollCalculator(TollFreeValidator tollFreeValidator, TollFeeAmountRetriever tollFeeRetriever) {
+        this(tollFreeValidator, tollFeeRetriever, null);
+    }
+
+    @Autowired
+    public TollCalculator(TollFreeValidator tollFreeValidator, TollFeeAmountRetriever tollFeeRetriever,
+                          ITariffRegistry tariffRegistry) {
         this.tollFreeValidator = tollFreeValidator;
         this.tollFeeRetriever = tollFeeRetriever;
+        this.tariffRegistry = tariffRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        calculateTollTimer = TollMetrics.stageTimer(registry, "calculate-toll");
+        passagesPerRequest = TollMetrics.passagesPerRequest(registry);
+        dailyFeeSummary = TollMetrics.dailyFee(registry);
+        feeLookups = Counter.builder("toll.fee.lookups")
+                .description("Toll fee lookups by passage time")
+                .register(registry);
     }
 
     /**
-     * This method calculates the total fees per vehicle per day.
-     * It first checks if it is Toll free day or vehicle, then the total fee is 0
-     * Then it order the passage dates. Then it start with the first passage date
-     * and calculate the maximum fee that should be paid for all passages during
-     * 1 hour from the first passage and add that to the total fee.
-     * Then we jump one hour ahead and find the first passage after this hour, start
-     * from it and repeat the process until reaching the latest passage time and finally
-     * return the total fee. It the total exceeds 60 it returns 60.
+     * This method calculates the total fees of a vehicle over all days it passed.
+     * It is the sum of the daily totals from {@link #calculateDailyTolls(Vehicle)}.
      *
      * @param vehicle      The vehicle object.
      * @return The calculated total amount fees that should be paid
      */
     @Override
     public int calculateToll(Vehicle vehicle) {
-        // Check if the vehicle type or any of the dates are toll-free
-        if (tollFreeValidator.isTollFree(vehicle)) {
-            return 0; // Toll-free, so the total fee is 0
+        int totalFee = 0;
+        for (DailyTollFee dailyTollFee : calculateDailyTolls(vehicle)) {
+            totalFee += dailyTollFee.getTollFee();
+        }
+        return totalFee;
+    }
+
+    /**
+     * This method calculates the total fees per vehicle per day.
+     * The passages of the vehicle are already sorted and split into days in local time.
+     * Every day is calculated on its own: it is 0 for a toll-free vehicle or day, otherwise
+     * {@link #calculateDailyToll(TollTariff, Passages, int, int)} applies the one-hour rule and
+     * the daily maximum of the tariff of its zone and vehicle class. Large inputs calculate the days in parallel.
+     *
+     * @param vehicle      The vehicle object.
+     * @return The total fee of every day with passages, in date order
+     */
+    @Override
+    public List<DailyTollFee> calculateDailyTolls(Vehicle vehicle) {
+        long startNanos = System.nanoTime();
+        try {
+            passagesPerRequest.record(vehicle.getPassages().size());
+            return calculateDailyTolls(vehicle.getVehicleType(), vehicle.getZone(), vehicle.getPassages());
+        } finally {
+            TollMetrics.recordSince(calculateTollTimer, startNanos);
         }
+    }
 
-        // Convert vehicleDateTimes to LocalDateTime and sort them
-        List<LocalDateTime> orderedPassageDates = vehicle.getVehicleDateTimes().stream()
-                .map(date -> date.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime())
-                .sorted()
-                .collect(Collectors.toList());
+    /**
+     * Same as {@link #calculateDailyTolls(Vehicle)} for the passages of a vehicle type without a zone.
+     *
+     * @param vehicleType The type of the vehicle.
+     * @param passages    The passages of the vehicle.
+     * @return The total fee of every day with passages, in date order
+     */
+    @Override
+    public List<DailyTollFee> calculateDailyTolls(String vehicleType, Passages passages) {
+        return calculateDailyTolls(vehicleType, null, passages);
+    }
 
-        int totalFee = 0;
-        LocalDateTime intervalStart = orderedPassageDates.get(0);
+    /**
+     * Same as {@link #calculateDailyTolls(Vehicle)} for the passages of a vehicle type in a zone.
+     * The tariff of the zone and vehicle class is selected once for all days.
+     *
+     * @param vehicleType The type of the vehicle.
+     * @param zone        The zone of the passages, or null for no zone.
+     * @param passages    The passages of the vehicle.
+     * @return The total fee of every day with passages, in date order
+     */
+    @Override
+    public List<DailyTollFee> calculateDailyTolls(String vehicleType, String zone, Passages passages) {
+        int dayCount = passages.getDayCount();
 
-        for (LocalDateTime passageTime : orderedPassageDates) {
-            // Skip passage times that occurred before the current interval
-            if (passageTime.isBefore(intervalStart)) {
-                continue;
-            }
+        // Check if the vehicle type is toll-free, then the total fee of every day is 0
+        boolean isTollFreeVehicle = tollFreeValidator.isTollFreeVehicle(vehicleType);
+        TollTariff tariff = findTariff(zone, vehicleType);
 
-            // Set the current interval start time
-            intervalStart = passageTime;
+        int[] dailyFees = new int[dayCount];
+        IntStream days = IntStream.range(0, dayCount);
+        if (dayCount > 1 && passages.size() >= PARALLEL_PASSAGE_THRESHOLD) {
+            days = days.parallel();
+        }
+        days.forEach(day -> dailyFees[day] = isTollFreeVehicle ? 0 : calculateDayToll(tariff, passages, day));
+
+        List<DailyTollFee> dailyTollFees = new ArrayList<>(dayCount);
+        for (int day = 0; day < dayCount; day++) {
+            dailyTollFees.add(new DailyTollFee(passages.getDate(day), dailyFees[day]));
+            dailyFeeSummary.record(dailyFees[day]);
+        }
+        return dailyTollFees;
+    }
+
+    /**
+     * Selects the tariff of a vehicle type in a zone.
+     *
+     * @return The tariff, or null if the default toll fee schedule applies.
+     */
+    public TollTariff findTariff(String zone, String vehicleType) {
+        return tariffRegistry != null ? tariffRegistry.findTariff(zone, vehicleType) : null;
+    }
+
+    /**
+     * Calculates the fee for the passages of one day with the default toll fee schedule,
+     * which is 0 on a toll-free day.
+     *
+     * @param passages The passages of the vehicle.
+     * @param day      The index of the day within the passages.
+     * @return The total fee of the day.
+     */
+    @Override
+    public int calculateDayToll(Passages passages, int day) {
+        return calculateDayToll(null, passages, day);
+    }
+
+    /**
+     * Calculates the fee for the passages of one day with the given tariff, which is 0 on a toll-free day.
+     *
+     * @param tariff   The tariff, or null for the default toll fee schedule.
+     * @param passages The passages of the vehicle.
+     * @param day      The index of the day within the passages.
+     * @return The total fee of the day.
+     */
+    @Override
+    public int calculateDayToll(TollTariff tariff, Passages passages, int day) {
+        if (tollFreeValidator.isTollFreeDay(passages.getEpochDay(day))) {
+            return 0; // Toll-free, so the total fee of the day is 0
+        }
+        return calculateDailyToll(tariff, passages, passages.getDayStart(day), passages.getDayEnd(day));
+    }
 
-            // Calculate the end time of the current interval (1 hour later)
-            LocalDateTime intervalEnd = intervalStart.plusHours(1);
-            LocalDateTime finalIntervalStart = intervalStart;
+    /**
+     * Same as {@link #calculateDailyToll(TollTariff, Passages, int, int)} with the default
+     * toll fee schedule and a daily maximum of {@value #MAX_DAILY_FEE}.
+     */
+    @Override
+    public int calculateDailyToll(Passages passages, int fromIndex, int toIndex) {
+        return calculateDailyToll(null, passages, fromIndex, toIndex);
+    }
+
+    /**
+     * Calculates the fee for the passages of a single day in one pass.
+     * It starts with the first passage, takes the maximum fee of all passages
+     * during the hour that follows it, and continues with the first passage after
+     * that hour, until all passages are consumed or the daily maximum is reached.
+     *
+     * @param tariff    The tariff, or null for the default toll fee schedule.
+     * @param passages  The passages of the vehicle.
+     * @param fromIndex The first passage of the day, inclusive.
+     * @param toIndex   The last passage of the day, exclusive.
+     * @return The total fee of the day, at most the daily maximum of the tariff.
+     */
+    public int calculateDailyToll(TollTariff tariff, Passages passages, int fromIndex, int toIndex) {
+        TollFeeTable feeTable = tariff != null ? tariff.getFeeTable() : null;
+        int maxDailyFee = tariff != null ? tariff.getMaxDailyFee() : MAX_DAILY_FEE;
+        int totalFee = 0;
+        int index = fromIndex;
+
+        while (index < toIndex && totalFee < maxDailyFee) {
+            // The interval starts at the first passage not covered by the previous one
+            long intervalEnd = passages.getLocalEpochMillis(index) + MILLIS_PER_HOUR;
 
             // Select the highest fee within the current interval and add it to the totalFee
-            int intervalMaxFee = orderedPassageDates.stream()
-                    .filter(date -> !date.isBefore(finalIntervalStart) && date.isBefore(intervalEnd))
-                    .mapToInt(date -> tollFeeRetriever.getTollFeeAmount(date.toLocalTime()))
-                    .max()
-                    .orElse(0);
+            int intervalMaxFee = 0;
+            for (; index < toIndex && passages.getLocalEpochMillis(index) < intervalEnd; index++) {
+                int minuteOfDay = passages.getMinuteOfDay(index);
+                int fee = feeTable != null ? feeTable.getFeeAmount(minuteOfDay) : tollFeeRetriever.getTollFeeAmount(minuteOfDay);
+                intervalMaxFee = Math.max(intervalMaxFee, fee);
+            }
 
             totalFee += intervalMaxFee;
-
-            // Update intervalStart to the end of the current interval
-            intervalStart = intervalEnd;
         }
 
-        return Math.min(totalFee, 60);
+        feeLookups.increment(index - fromIndex);
+        return Math.min(totalFee, maxDailyFee);
     }
-}
\ No newline at end of file
+}
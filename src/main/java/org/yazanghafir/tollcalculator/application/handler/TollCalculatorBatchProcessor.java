@@ -0,0 +1,94 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorBatchResponse;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+@Service
+public class TollCalculatorBatchProcessor implements ITollCalculatorBatchProcessor {
+
+    private final ITollCalculatorRequestHandler requestHandler;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+
+    public TollCalculatorBatchProcessor(
+            ITollCalculatorRequestHandler requestHandler,
+            @Qualifier("tollCalculatorExecutor") ExecutorService executor,
+            @Value("${toll.batch.max-in-flight:1024}") int maxInFlight) {
+        this.requestHandler = requestHandler;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Calculates the toll for every vehicle in the batch concurrently and hands each
+     * result to the consumer as soon as it is finished, so results arrive in completion
+     * order rather than request order. At most maxInFlight vehicles are read ahead of
+     * the consumer, which keeps memory bounded for arbitrarily large batches.
+     * The consumer is always called from the thread invoking this method.
+     *
+     * A request that cannot be read produces an error result for its index and the
+     * batch continues with the next request.
+     *
+     * @param requests       The vehicle requests, typically read lazily from the request body.
+     * @param resultConsumer Receives one result per vehicle.
+     */
+    @Override
+    public void processBatch(Iterator<TollCalculatorRequest> requests, Consumer<TollCalculatorBatchResponse> resultConsumer) {
+        CompletionService<TollCalculatorBatchResponse> completionService = new ExecutorCompletionService<>(executor);
+        int inFlight = 0;
+        int index = 0;
+
+        try {
+            while (true) {
+                TollCalculatorRequest request;
+                try {
+                    if (!requests.hasNext()) {
+                        break;
+                    }
+                    request = requests.next();
+                    if (request == null) {
+                        throw new IllegalArgumentException("Expected a vehicle request, not null.");
+                    }
+                } catch (RuntimeException ex) {
+                    resultConsumer.accept(new TollCalculatorBatchResponse(index++, null, new TollCalculatorResponse(
+                            0, false, "Invalid batch item. Error: " + ex.getMessage())));
+                    continue;
+                }
+
+                int itemIndex = index++;
+                completionService.submit(() -> new TollCalculatorBatchResponse(
+                        itemIndex, request.getVehiclePlate(), requestHandler.handleRequest(request)));
+                inFlight++;
+
+                // Emit whatever has already finished, and wait once the read-ahead limit is reached
+                Future<TollCalculatorBatchResponse> completed;
+                while ((completed = inFlight >= maxInFlight ? completionService.take() : completionService.poll()) != null) {
+                    resultConsumer.accept(completed.get());
+                    inFlight--;
+                }
+            }
+
+            for (; inFlight > 0; inFlight--) {
+                resultConsumer.accept(completionService.take().get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch processing was interrupted.", ex);
+        } catch (ExecutionException ex) {
+            // The request handler reports its own failures, so this only happens on unexpected errors
+            throw new IllegalStateException("Batch processing failed. Error: " + ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+}
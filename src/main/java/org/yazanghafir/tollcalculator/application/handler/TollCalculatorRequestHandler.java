@@ -0,0 +1,119 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+import java.util.List;
+
+@Service
+public class TollCalculatorRequestHandler implements ITollCalculatorRequestHandler {
+
+    private final TollCalculatorRequestValidator requestValidator;
+    private final ITollCalculator tollCalculator;
+    private final ITollAuditLog auditLog;
+
+    /**
+     * Creates a handler whose calculations are not written to the audit log.
+     */
+    public TollCalculatorRequestHandler(TollCalculatorRequestValidator requestValidator, ITollCalculator tollCalculator) {
+        this(requestValidator, tollCalculator, null);
+    }
+
+    @Autowired
+    public TollCalculatorRequestHandler(TollCalculatorRequestValidator requestValidator, ITollCalculator tollCalculator,
+                                        ITollAuditLog auditLog) {
+        this.requestValidator = requestValidator;
+        this.tollCalculator = tollCalculator;
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Validates a single vehicle request and calculates its total toll fee.
+     * Failures are reported in the response instead of being thrown, so one bad
+     * vehicle never affects the handling of others.
+     *
+     * @param request The vehicle request.
+     * @return The toll calculation response.
+     */
+    @Override
+    public TollCalculatorResponse handleRequest(TollCalculatorRequest request) {
+        try
+        {
+            // Validate the vehicle type, the date times and the zone
+            String validationMessage = requestValidator.validateRequest(
+                    request.getVehicleType(), request.getVehicleDateTimes());
+            if (validationMessage == null) {
+                validationMessage = requestValidator.validateZone(request.getZone());
+            }
+            if (validationMessage != null) {
+                return new TollCalculatorResponse(0, false, validationMessage);
+            }
+
+            // Create a vehicle object from the request parameters, its passages are converted and sorted once here
+            Vehicle vehicle = new Vehicle(request.getVehiclePlate(), request.getVehicleType(),
+                    Passages.fromDates(request.getVehicleDateTimes()), request.getZone());
+
+            return calculateResponse(vehicle);
+        }
+        catch (Exception ex)
+        {
+            return new TollCalculatorResponse(
+                    0, false, "Error processing the request. Error: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Same as {@link #handleRequest(TollCalculatorRequest)} for a request whose passage times
+     * are epoch milliseconds, as read from a JSON or binary request body.
+     *
+     * @param request The vehicle request, its passage times array is converted in place.
+     * @return The toll calculation response.
+     */
+    @Override
+    public TollCalculatorResponse handleRequest(TollCalculatorPassagesRequest request) {
+        try
+        {
+            String validationMessage = requestValidator.validateRequest(
+                    request.getVehicleType(), request.getPassageTimes());
+            if (validationMessage == null) {
+                validationMessage = requestValidator.validateZone(request.getZone());
+            }
+            if (validationMessage != null) {
+                return new TollCalculatorResponse(0, false, validationMessage);
+            }
+
+            Vehicle vehicle = new Vehicle(request.getVehiclePlate(), request.getVehicleType(),
+                    Passages.fromEpochMillis(request.getPassageTimes()), request.getZone());
+            return calculateResponse(vehicle);
+        }
+        catch (Exception ex)
+        {
+            return new TollCalculatorResponse(
+                    0, false, "Error processing the request. Error: " + ex.getMessage());
+        }
+    }
+
+    private TollCalculatorResponse calculateResponse(Vehicle vehicle) {
+        // Calculate the toll fee of every day and the total toll fee for the vehicle
+        List<DailyTollFee> dailyTollFees = tollCalculator.calculateDailyTolls(vehicle);
+        int totalTollFee = 0;
+        for (DailyTollFee dailyTollFee : dailyTollFees) {
+            totalTollFee += dailyTollFee.getTollFee();
+        }
+
+        // Publish the calculation to the audit log, it is written by its own thread
+        if (auditLog != null) {
+            auditLog.record(vehicle, dailyTollFees);
+        }
+
+        // Return the total toll fee as a response, with the daily totals when there is more than one day
+        return TollCalculatorResponse.total(totalTollFee, dailyTollFees.size() > 1 ? dailyTollFees : null);
+    }
+}
@@ -0,0 +1,75 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.requests.TollPassageRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+import java.time.ZoneId;
+
+@Service
+public class TollPassageRequestHandler implements ITollPassageRequestHandler {
+
+    private final TollCalculatorRequestValidator requestValidator;
+    private final ITollAccumulator tollAccumulator;
+    private final ITollAuditLog auditLog;
+
+    /**
+     * Creates a handler whose passages are not written to the audit log.
+     */
+    public TollPassageRequestHandler(TollCalculatorRequestValidator requestValidator, ITollAccumulator tollAccumulator) {
+        this(requestValidator, tollAccumulator, null);
+    }
+
+    @Autowired
+    public TollPassageRequestHandler(TollCalculatorRequestValidator requestValidator, ITollAccumulator tollAccumulator,
+                                     ITollAuditLog auditLog) {
+        this.requestValidator = requestValidator;
+        this.tollAccumulator = tollAccumulator;
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Validates a single passage event and adds it to the running total of its vehicle and day.
+     * Failures are reported in the response instead of being thrown.
+     *
+     * @param request The passage event.
+     * @return The toll calculation response with the updated total fee of the day.
+     */
+    @Override
+    public TollCalculatorResponse handlePassage(TollPassageRequest request) {
+        try
+        {
+            // Validate the vehicle type and the date time
+            String validationMessage = requestValidator.validateVehicleType(request.getVehicleType());
+            if (validationMessage == null && request.getVehicleDateTime() == null) {
+                validationMessage = TollCalculatorRequestValidator.NO_DATE_TIME;
+            }
+            if (validationMessage != null) {
+                return new TollCalculatorResponse(0, false, validationMessage);
+            }
+
+            // Add the passage to the running total of the day
+            long localEpochMillis = Passages.toLocalEpochMillis(
+                    request.getVehicleDateTime().toInstant(), ZoneId.systemDefault().getRules());
+            DailyTollFee dailyTollFee = tollAccumulator.addPassage(
+                    request.getVehiclePlate(), request.getVehicleType(), localEpochMillis);
+
+            // Publish the passage and the running total to the audit log, it is written by its own thread
+            if (auditLog != null) {
+                auditLog.recordPassage(request.getVehiclePlate(), request.getVehicleType(), localEpochMillis, dailyTollFee);
+            }
+
+            return new TollCalculatorResponse(dailyTollFee.getTollFee(), true,
+                    "Total toll fee for " + dailyTollFee.getDate() + ": " + dailyTollFee.getTollFee() + " SEK");
+        }
+        catch (Exception ex)
+        {
+            return new TollCalculatorResponse(
+                    0, false, "Error processing the passage. Error: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import org.yazanghafir.tollcalculator.domain.entities.TariffIndex;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
+
+public interface ITariffRegistry {
+    TariffIndex getTariffIndex();
+
+    TollTariff findTariff(String zone, String vehicleType);
+}
@@ -1,6 +1,7 @@
 package org.yazanghafir.tollcalculator.application.query;
 
 import org.yazanghafir.tollcalculator.domain.entities.TollFeeRange;
+import org.yazanghafir.tollcalculator.domain.entities.TollFeeTable;
 
 import java.time.LocalTime;
 import java.util.List;
@@ -8,5 +9,9 @@ import java.util.List;
 public interface ITollFeeAmountRetriever {
     int getTollFeeAmount(LocalTime timeOfDay);
 
+    int getTollFeeAmount(int minuteOfDay);
+
+    TollFeeTable getTollFeeTable();
+
     List<TollFeeRange> loadTollFeeData();
 }
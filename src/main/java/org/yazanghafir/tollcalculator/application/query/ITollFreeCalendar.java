@@ -0,0 +1,9 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import java.time.LocalDate;
+
+public interface ITollFreeCalendar {
+    boolean isTollFreeDay(long epochDay);
+
+    boolean isTollFreeDate(LocalDate date);
+}
@@ -0,0 +1,7 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;
+
+public interface IVehicleTypeRegistry {
+    VehicleTypeIndex getVehicleTypeIndex();
+}
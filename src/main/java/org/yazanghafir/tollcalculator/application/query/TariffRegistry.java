@@ -0,0 +1,110 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.Tariffs;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
+import org.yazanghafir.tollcalculator.domain.entities.TariffIndex;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.GeneratedConfiguration;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
+import java.util.Optional;
+
+/**
+ * Keeps the tariffs by zone and vehicle class compiled into a {@link TariffIndex} and selects
+ * the tariff of a vehicle, its class taken from the configured vehicle types.
+ *
+ * The index is compiled on first use and again only when the tariffs are reloaded; a reloaded
+ * configuration with invalid schedules or conflicting tariffs is rejected and the current index
+ * kept. If the configuration cannot be loaded no index is kept, so the next lookup tries again.
+ * The index generated at build time is used instead while the bundled tariffs apply.
+ */
+@Service
+public class TariffRegistry implements ITariffRegistry, MeterBinder {
+
+    private final ConfigurationLoader<Tariffs> configLoader;
+    private final IVehicleTypeRegistry vehicleTypeRegistry;
+
+    private volatile TariffIndex tariffIndex;
+    private Timer compileTimer = TollMetrics.UNBOUND_TIMER;
+
+    public TariffRegistry(ConfigurationLoader<Tariffs> configLoader, IVehicleTypeRegistry vehicleTypeRegistry) {
+        this.configLoader = configLoader;
+        this.vehicleTypeRegistry = vehicleTypeRegistry;
+
+        configLoader.addReloadListener(ConfigurationFilePath.TARIFFS, Tariffs.class, tariffs -> {
+            TariffIndex index = compile(tariffs);
+            synchronized (this) {
+                tariffIndex = index;
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        compileTimer = Timer.builder("toll.tariff.compile")
+                .description("Compilation of the tariffs into shared tables by zone and vehicle class")
+                .register(registry);
+    }
+
+    /**
+     * Returns the tariffs compiled into an index by zone and vehicle class.
+     *
+     * @return The index, or null if the tariffs configuration could not be loaded.
+     */
+    @Override
+    public TariffIndex getTariffIndex() {
+        TariffIndex index = tariffIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = tariffIndex;
+                if (index == null) {
+                    index = configLoader.findGeneratedConfiguration(ConfigurationFilePath.TARIFFS)
+                            .map(GeneratedConfiguration::getTariffIndex)
+                            .orElseGet(this::loadTariffIndex);
+                    tariffIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Selects the tariff of a vehicle type in a zone.
+     *
+     * @param zone        The zone, or null for no zone.
+     * @param vehicleType The type of the vehicle.
+     * @return The tariff, or null if the default toll fee schedule applies.
+     */
+    @Override
+    public TollTariff findTariff(String zone, String vehicleType) {
+        TariffIndex index = getTariffIndex();
+        if (index == null) {
+            return null;
+        }
+
+        VehicleTypeIndex vehicleTypeIndex = vehicleTypeRegistry.getVehicleTypeIndex();
+        VehicleType type = vehicleTypeIndex != null ? vehicleTypeIndex.find(vehicleType) : null;
+        return index.find(zone, type != null ? type.getVehicleClass() : null);
+    }
+
+    private TariffIndex loadTariffIndex() {
+        Optional<Tariffs> tariffs = configLoader.loadConfiguration(ConfigurationFilePath.TARIFFS, Tariffs.class);
+        return tariffs.map(this::compile).orElse(null);
+    }
+
+    private TariffIndex compile(Tariffs tariffs) {
+        long startNanos = System.nanoTime();
+        try {
+            return TariffIndex.compile(tariffs.getTariffs());
+        } finally {
+            TollMetrics.recordSince(compileTimer, startNanos);
+        }
+    }
+}
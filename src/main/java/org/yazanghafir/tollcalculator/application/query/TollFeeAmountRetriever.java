@@ -1,11 +1,19 @@
 package org.yazanghafir.tollcalculator.application.query;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
 import org.yazanghafir.tollcalculator.domain.configuration.TollFee;
 import org.yazanghafir.tollcalculator.domain.configuration.TollFees;
 import org.yazanghafir.tollcalculator.domain.entities.TollFeeRange;
+import org.yazanghafir.tollcalculator.domain.entities.TollFeeTable;
 import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.GeneratedConfiguration;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
@@ -13,32 +21,92 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
-public class TollFeeAmountRetriever implements ITollFeeAmountRetriever {
+public class TollFeeAmountRetriever implements ITollFeeAmountRetriever, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TollFeeAmountRetriever.class);
 
     private final ConfigurationLoader<TollFees> configLoader;
 
+    private volatile TollFeeTable tollFeeTable;
+    private Timer compileTimer = TollMetrics.UNBOUND_TIMER;
+
     public TollFeeAmountRetriever(ConfigurationLoader<TollFees> configLoader) {
         this.configLoader = configLoader;
+
+        // Compile a reloaded schedule before it is published, an invalid one is rejected and the current table kept
+        configLoader.addReloadListener(ConfigurationFilePath.TOLL_FEES, TollFees.class, tollFees -> {
+            TollFeeTable table = compile(toTollFeeRanges(Optional.of(tollFees)));
+            synchronized (this) {
+                tollFeeTable = table;
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        compileTimer = Timer.builder("toll.fee.table.compile")
+                .description("Compilation of the toll fee schedule into a minute-of-day table")
+                .register(registry);
     }
 
     @Override
     public int getTollFeeAmount(LocalTime timeOfDay) {
-        List<TollFeeRange> tollFeeRanges = loadTollFeeData();
+        return getTollFeeTable().getFeeAmount(timeOfDay);
+    }
 
-        return tollFeeRanges.stream()
-                .filter(range -> !timeOfDay.isBefore(range.getStartTime()) && !timeOfDay.isAfter(range.getEndTime()))
-                .map(TollFeeRange::getFeeAmount)
-                .findFirst()
-                .orElse(0); // Default fee when no matching range is found.
+    @Override
+    public int getTollFeeAmount(int minuteOfDay) {
+        return getTollFeeTable().getFeeAmount(minuteOfDay);
+    }
+
+    /**
+     * Returns the toll fee schedule compiled into a minute-of-day table.
+     * The configuration is compiled on first use and again only when it is reloaded;
+     * a configuration with gaps or overlapping ranges is rejected instead of yielding 0 SEK later.
+     * The table generated at build time is used instead while the bundled schedule applies.
+     *
+     * @return The compiled toll fee table.
+     */
+    @Override
+    public TollFeeTable getTollFeeTable() {
+        TollFeeTable table = tollFeeTable;
+        if (table == null) {
+            synchronized (this) {
+                table = tollFeeTable;
+                if (table == null) {
+                    table = configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FEES)
+                            .map(GeneratedConfiguration::getTollFeeTable)
+                            .orElseGet(() -> compile(loadTollFeeData()));
+                    tollFeeTable = table;
+                }
+            }
+        }
+        return table;
     }
 
     @Override
     public List<TollFeeRange> loadTollFeeData() {
-        List<TollFeeRange> tollFeeRanges = new ArrayList<>();
+        try {
+            return toTollFeeRanges(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class));
+        } catch (Exception ex) {
+            LOGGER.error("Error processing time range. Error: {}", ex.getMessage());
+            return new ArrayList<>();
+        }
+    }
 
+    private TollFeeTable compile(List<TollFeeRange> tollFeeRanges) {
+        long startNanos = System.nanoTime();
         try {
-            Optional<TollFees> tollFeeData = configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class);
+            return TollFeeTable.compile(tollFeeRanges);
+        } finally {
+            TollMetrics.recordSince(compileTimer, startNanos);
+        }
+    }
 
+    private List<TollFeeRange> toTollFeeRanges(Optional<TollFees> tollFeeData) {
+        List<TollFeeRange> tollFeeRanges = new ArrayList<>();
+
+        try {
             if (tollFeeData.isPresent()) {
                 for (TollFee timePoint : tollFeeData.get().getTollFees()) {
                     for (String timeRangeStr : timePoint.getTimePoints()) {
@@ -50,15 +118,15 @@ public class TollFeeAmountRetriever implements ITollFeeAmountRetriever {
                             TollFeeRange range = new TollFeeRange(timePoint.getFeeAmount(), startTime, endTime);
                             tollFeeRanges.add(range);
                         } else {
-                            System.err.println("Invalid time range format: " + timeRangeStr);
+                            LOGGER.warn("Invalid time range format: {}", timeRangeStr);
                         }
                     }
                 }
             }
         } catch (Exception ex) {
-            System.err.println("Error processing time range. Error: " + ex.getMessage());
+            LOGGER.error("Error processing time range. Error: {}", ex.getMessage());
         }
 
         return tollFeeRanges;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import de.jollyday.Holiday;
+import de.jollyday.HolidayManager;
+import de.jollyday.ManagerParameters;
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.TollFreeDays;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Calendar of toll-free days stored as a bitmap with one bit per epoch day.
+ *
+ * The bitmap is split into blocks of 63 days held in a single long, where the top bit marks
+ * the block as computed. Blocks covering the configured years around today are filled at
+ * startup, any other block is filled on first use. Filling a block is deterministic, so two
+ * threads racing on the same block simply write the same value.
+ *
+ * A reloaded rule set is compiled into a new bitmap that replaces the current one at once.
+ */
+@Service
+public class TollFreeCalendar implements ITollFreeCalendar {
+
+    private static final int DAYS_PER_BLOCK = 63;
+    private static final long COMPUTED = 1L << 63;
+    private static final long FIRST_EPOCH_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final long LAST_EPOCH_DAY = LocalDate.of(2299, 12, 31).toEpochDay();
+
+    private volatile TollFreeDayBitmap bitmap;
+
+    public TollFreeCalendar(ConfigurationLoader<TollFreeDays> configLoader) {
+        TollFreeDays tollFreeDays = configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FREE_DAYS, TollFreeDays.class)
+                .orElseThrow(() -> new IllegalStateException("Toll-free days configuration could not be loaded."));
+        this.bitmap = new TollFreeDayBitmap(tollFreeDays);
+
+        configLoader.addReloadListener(ConfigurationFilePath.TOLL_FREE_DAYS, TollFreeDays.class,
+                reloaded -> bitmap = new TollFreeDayBitmap(reloaded));
+    }
+
+    /**
+     * Checks if the given epoch day is toll-free, i.e. a toll-free weekday or month,
+     * a public holiday or the day before a public holiday.
+     *
+     * @param epochDay The day to check, counted from 1970-01-01.
+     * @return true if no toll is levied on that day, false otherwise.
+     */
+    @Override
+    public boolean isTollFreeDay(long epochDay) {
+        return bitmap.isTollFreeDay(epochDay);
+    }
+
+    @Override
+    public boolean isTollFreeDate(LocalDate date) {
+        return isTollFreeDay(date.toEpochDay());
+    }
+
+    private static final class TollFreeDayBitmap {
+
+        private final HolidayManager holidayManager;
+        private final int tollFreeDaysOfWeek;
+        private final int tollFreeMonths;
+        private final boolean isHolidayTollFree;
+        private final boolean isDayBeforeHolidayTollFree;
+
+        private final AtomicLongArray tollFreeBlocks;
+        private final Map<Integer, Set<LocalDate>> holidaysByYear = new ConcurrentHashMap<>();
+
+        private TollFreeDayBitmap(TollFreeDays tollFreeDays) {
+            this.holidayManager = HolidayManager.getInstance(ManagerParameters.create(tollFreeDays.getHolidayCountry()));
+            this.tollFreeDaysOfWeek = toBitMask(tollFreeDays.getTollFreeDaysOfWeek(), day -> DayOfWeek.valueOf(day).getValue());
+            this.tollFreeMonths = toBitMask(tollFreeDays.getTollFreeMonths(), month -> Month.valueOf(month).getValue());
+            this.isHolidayTollFree = Boolean.TRUE.equals(tollFreeDays.getIsHolidayTollFree());
+            this.isDayBeforeHolidayTollFree = Boolean.TRUE.equals(tollFreeDays.getIsDayBeforeHolidayTollFree());
+
+            int blockCount = (int) ((LAST_EPOCH_DAY - FIRST_EPOCH_DAY) / DAYS_PER_BLOCK) + 1;
+            this.tollFreeBlocks = new AtomicLongArray(blockCount);
+
+            int currentYear = LocalDate.now().getYear();
+            precompute(currentYear - tollFreeDays.getPrecomputedYearsBefore(),
+                    currentYear + tollFreeDays.getPrecomputedYearsAfter());
+        }
+
+        private boolean isTollFreeDay(long epochDay) {
+            if (epochDay < FIRST_EPOCH_DAY || epochDay > LAST_EPOCH_DAY) {
+                return computeTollFree(LocalDate.ofEpochDay(epochDay));
+            }
+
+            long offset = epochDay - FIRST_EPOCH_DAY;
+            int block = (int) (offset / DAYS_PER_BLOCK);
+            long bits = tollFreeBlocks.get(block);
+            if ((bits & COMPUTED) == 0) {
+                bits = computeBlock(block);
+            }
+            return (bits & (1L << (offset % DAYS_PER_BLOCK))) != 0;
+        }
+
+        private void precompute(int firstYear, int lastYear) {
+            long firstDay = Math.max(LocalDate.of(firstYear, 1, 1).toEpochDay(), FIRST_EPOCH_DAY);
+            long lastDay = Math.min(LocalDate.of(lastYear, 12, 31).toEpochDay(), LAST_EPOCH_DAY);
+
+            for (long day = firstDay; day <= lastDay; day += DAYS_PER_BLOCK) {
+                computeBlock((int) ((day - FIRST_EPOCH_DAY) / DAYS_PER_BLOCK));
+            }
+        }
+
+        private long computeBlock(int block) {
+            long firstDay = FIRST_EPOCH_DAY + (long) block * DAYS_PER_BLOCK;
+            long bits = COMPUTED;
+
+            for (int i = 0; i < DAYS_PER_BLOCK && firstDay + i <= LAST_EPOCH_DAY; i++) {
+                if (computeTollFree(LocalDate.ofEpochDay(firstDay + i))) {
+                    bits |= 1L << i;
+                }
+            }
+
+            tollFreeBlocks.set(block, bits);
+            return bits;
+        }
+
+        private boolean computeTollFree(LocalDate date) {
+            if ((tollFreeDaysOfWeek & (1 << date.getDayOfWeek().getValue())) != 0
+                    || (tollFreeMonths & (1 << date.getMonthValue())) != 0) {
+                return true;
+            }
+
+            return (isHolidayTollFree && isHoliday(date))
+                    || (isDayBeforeHolidayTollFree && isHoliday(date.plusDays(1)));
+        }
+
+        private boolean isHoliday(LocalDate date) {
+            return holidaysByYear.computeIfAbsent(date.getYear(), year -> holidayManager.getHolidays(year).stream()
+                            .map(Holiday::getDate)
+                            .collect(Collectors.toSet()))
+                    .contains(date);
+        }
+
+        private static int toBitMask(List<String> values, ToIntFunction<String> bitIndex) {
+            int mask = 0;
+            if (values != null) {
+                for (String value : values) {
+                    mask |= 1 << bitIndex.applyAsInt(value.trim().toUpperCase());
+                }
+            }
+            return mask;
+        }
+    }
+}
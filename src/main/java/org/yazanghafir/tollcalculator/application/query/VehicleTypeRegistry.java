@@ -0,0 +1,65 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import org.springframework.stereotype.Service;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleTypes;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.GeneratedConfiguration;
+
+import java.util.Optional;
+
+/**
+ * Keeps the configured vehicle types compiled into a {@link VehicleTypeIndex}, shared by the
+ * request validation and the toll-free vehicle check.
+ *
+ * The index is compiled on first use and again only when the vehicle types are reloaded.
+ * If the configuration cannot be loaded no index is kept, so the next lookup tries again.
+ * The index generated at build time is used instead while the bundled types apply.
+ */
+@Service
+public class VehicleTypeRegistry implements IVehicleTypeRegistry {
+
+    private final ConfigurationLoader<VehicleTypes> configLoader;
+
+    private volatile VehicleTypeIndex vehicleTypeIndex;
+
+    public VehicleTypeRegistry(ConfigurationLoader<VehicleTypes> configLoader) {
+        this.configLoader = configLoader;
+
+        configLoader.addReloadListener(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class, vehicleTypes -> {
+            VehicleTypeIndex index = VehicleTypeIndex.compile(vehicleTypes.getVehicleTypes());
+            synchronized (this) {
+                vehicleTypeIndex = index;
+            }
+        });
+    }
+
+    /**
+     * Returns the vehicle types compiled into a case-insensitive index.
+     *
+     * @return The index, or null if the vehicle types configuration could not be loaded.
+     */
+    @Override
+    public VehicleTypeIndex getVehicleTypeIndex() {
+        VehicleTypeIndex index = vehicleTypeIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = vehicleTypeIndex;
+                if (index == null) {
+                    index = configLoader.findGeneratedConfiguration(ConfigurationFilePath.VEHICLE_TYPES)
+                            .map(GeneratedConfiguration::getVehicleTypeIndex)
+                            .orElseGet(this::loadVehicleTypeIndex);
+                    vehicleTypeIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private VehicleTypeIndex loadVehicleTypeIndex() {
+        Optional<VehicleTypes> vehicleTypes = configLoader.loadConfiguration(
+                ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class);
+        return vehicleTypes.map(types -> VehicleTypeIndex.compile(types.getVehicleTypes())).orElse(null);
+    }
+}
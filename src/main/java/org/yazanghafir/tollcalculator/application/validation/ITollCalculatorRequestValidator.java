@@ -6,7 +6,13 @@ import java.util.List;
 public interface ITollCalculatorRequestValidator {
     String validateRequest(String vehicleType, List<Date> vehicleDateTimes);
 
+    String validateRequest(String vehicleType, long[] passageTimes);
+
     String validateVehicleDateTimes(List<Date> vehicleDateTimes);
 
+    String validatePassageTimes(long[] passageTimes);
+
     String validateVehicleType(String vehicleType);
+
+    String validateZone(String zone);
 }
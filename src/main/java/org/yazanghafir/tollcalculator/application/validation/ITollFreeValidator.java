@@ -9,5 +9,7 @@ public interface ITollFreeValidator {
 
     boolean isTollFreeDate(LocalDate date);
 
+    boolean isTollFreeDay(long epochDay);
+
     boolean isTollFree(Vehicle vehicle);
 }
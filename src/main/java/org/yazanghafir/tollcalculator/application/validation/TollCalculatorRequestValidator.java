@@ -1,29 +1,50 @@
 package org.yazanghafir.tollcalculator.application.validation;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.stereotype.Service;
-import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
-import org.yazanghafir.tollcalculator.domain.configuration.TollFees;
-import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
-import org.yazanghafir.tollcalculator.domain.configuration.VehicleTypes;
-import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
-
-import java.time.LocalDate;
-import java.time.ZoneId;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.IVehicleTypeRegistry;
+import org.yazanghafir.tollcalculator.domain.entities.TariffIndex;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
 import java.util.Date;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
-public class TollCalculatorRequestValidator implements ITollCalculatorRequestValidator {
-    private final ConfigurationLoader<VehicleTypes> configLoader;
+public class TollCalculatorRequestValidator implements ITollCalculatorRequestValidator, MeterBinder {
+
+    public static final String NO_DATE_TIMES = "No date times provided.";
+    public static final String EMPTY_DATE_TIME = "Date times must not be empty.";
+    public static final String NO_DATE_TIME = "No date time provided.";
+    public static final String VEHICLE_TYPES_NOT_LOADED = "Vehicle types configuration could not be loaded.";
+    public static final String TARIFFS_NOT_LOADED = "Tariffs configuration could not be loaded.";
+
+    /**
+     * The validation messages that do not depend on the request or the configuration.
+     */
+    public static final List<String> FIXED_MESSAGES = List.of(
+            NO_DATE_TIMES, EMPTY_DATE_TIME, NO_DATE_TIME, VEHICLE_TYPES_NOT_LOADED, TARIFFS_NOT_LOADED);
+
+    private final IVehicleTypeRegistry vehicleTypeRegistry;
+    private final ITariffRegistry tariffRegistry;
+
+    private Timer validateRequestTimer = TollMetrics.UNBOUND_TIMER;
 
-    public TollCalculatorRequestValidator(ConfigurationLoader<VehicleTypes> configLoader) {
-        this.configLoader = configLoader;
+    public TollCalculatorRequestValidator(IVehicleTypeRegistry vehicleTypeRegistry, ITariffRegistry tariffRegistry) {
+        this.vehicleTypeRegistry = vehicleTypeRegistry;
+        this.tariffRegistry = tariffRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        validateRequestTimer = TollMetrics.stageTimer(registry, "validate-request");
     }
 
     /**
-     * Validates both the vehicle type and that all vehicleDateTimes are within the same day.
+     * Validates both the vehicle type and that vehicleDateTimes are provided.
      *
      * @param vehicleType      The type of the vehicle to validate.
      * @param vehicleDateTimes The list of vehicle date times to validate.
@@ -31,44 +52,81 @@ public class TollCalculatorRequestValidator implements ITollCalculatorRequestVal
      */
     @Override
     public String validateRequest(String vehicleType, List<Date> vehicleDateTimes) {
-        // Validate vehicle type
-        String typeValidationMessage = validateVehicleType(vehicleType);
-        if (typeValidationMessage != null) {
-            return typeValidationMessage;
-        }
+        long startNanos = System.nanoTime();
+        try {
+            // Validate vehicle type
+            String typeValidationMessage = validateVehicleType(vehicleType);
+            if (typeValidationMessage != null) {
+                return typeValidationMessage;
+            }
 
-        // Validate vehicle date times
-        String dateValidationMessage = validateVehicleDateTimes(vehicleDateTimes);
-        if (dateValidationMessage != null) {
-            return dateValidationMessage;
+            // Validate vehicle date times
+            String dateValidationMessage = validateVehicleDateTimes(vehicleDateTimes);
+            if (dateValidationMessage != null) {
+                return dateValidationMessage;
+            }
+
+            return null; // Valid if both checks pass
+        } finally {
+            TollMetrics.recordSince(validateRequestTimer, startNanos);
         }
+    }
 
-        return null; // Valid if both checks pass
+    /**
+     * Same as {@link #validateRequest(String, List)} for passage times in epoch milliseconds.
+     *
+     * @param vehicleType  The type of the vehicle to validate.
+     * @param passageTimes The passage times to validate.
+     * @return A validation message if either check fails, otherwise null.
+     */
+    @Override
+    public String validateRequest(String vehicleType, long[] passageTimes) {
+        long startNanos = System.nanoTime();
+        try {
+            String typeValidationMessage = validateVehicleType(vehicleType);
+            if (typeValidationMessage != null) {
+                return typeValidationMessage;
+            }
+            return validatePassageTimes(passageTimes);
+        } finally {
+            TollMetrics.recordSince(validateRequestTimer, startNanos);
+        }
     }
 
     /**
-     * Validates that all vehicleDateTimes are within the same day.
+     * Validates that vehicleDateTimes are provided. The passages may span any number of days,
+     * the toll is calculated per day.
      *
      * @param vehicleDateTimes The list of vehicle date times to validate.
-     * @return A validation message if the dates are not within the same day, otherwise null.
+     * @return A validation message if no date times are provided, otherwise null.
      */
     @Override
     public String validateVehicleDateTimes(List<Date> vehicleDateTimes) {
         if (vehicleDateTimes == null || vehicleDateTimes.isEmpty()) {
-            return "No date times provided.";
+            return NO_DATE_TIMES;
         }
 
-        LocalDate firstDate = vehicleDateTimes.get(0).toInstant()
-                .atZone(ZoneId.systemDefault()).toLocalDate();
-
         for (Date date : vehicleDateTimes) {
-            LocalDate localDate = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            if (!localDate.equals(firstDate)) {
-                return "All vehicle date times must be within the same day.";
+            if (date == null) {
+                return EMPTY_DATE_TIME;
             }
         }
 
-        return null; // Valid if all dates are within the same day
+        return null; // Valid if all date times are present
+    }
+
+    /**
+     * Validates that passage times are provided.
+     *
+     * @param passageTimes The passage times in epoch milliseconds.
+     * @return A validation message if no passage times are provided, otherwise null.
+     */
+    @Override
+    public String validatePassageTimes(long[] passageTimes) {
+        if (passageTimes == null || passageTimes.length == 0) {
+            return NO_DATE_TIMES;
+        }
+        return null;
     }
 
     /**
@@ -80,24 +138,13 @@ public class TollCalculatorRequestValidator implements ITollCalculatorRequestVal
     @Override
     public String validateVehicleType(String vehicleType) {
         try {
-            Optional<VehicleTypes> vehicleTypesOptional = configLoader.loadConfiguration(
-                    ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class);
-
-            if (vehicleTypesOptional.isPresent()) {
-                VehicleTypes vehicleTypes = vehicleTypesOptional.get();
-
-                if (vehicleTypes.getVehicleTypes() != null) {
-                    boolean isValidType = vehicleTypes.getVehicleTypes().stream()
-                            .anyMatch(type -> type.getVehicleType().equalsIgnoreCase(vehicleType));
-                    if (!isValidType) {
-                        String availableTypes = vehicleTypes.getVehicleTypes().stream()
-                                .map(VehicleType::getVehicleType)
-                                .collect(Collectors.joining(", "));
-                        return "Invalid vehicle type provided. Available types are: " + availableTypes + ".";
-                    }
-                }
-            } else {
-                return "Vehicle types configuration could not be loaded.";
+            VehicleTypeIndex vehicleTypeIndex = vehicleTypeRegistry.getVehicleTypeIndex();
+            if (vehicleTypeIndex == null) {
+                return VEHICLE_TYPES_NOT_LOADED;
+            }
+
+            if (!vehicleTypeIndex.isValid(vehicleType)) {
+                return vehicleTypeIndex.getInvalidVehicleTypeMessage();
             }
         } catch (Exception ex) {
             return "Error processing vehicle type validation. Error: " + ex.getMessage();
@@ -105,4 +152,33 @@ public class TollCalculatorRequestValidator implements ITollCalculatorRequestVal
 
         return null; // Valid if the vehicle type is in the list
     }
+
+    /**
+     * Validates that the zone is one of the configured tariff zones. No zone is always valid,
+     * the tariffs without a zone then apply.
+     *
+     * @param zone The zone to validate, or null.
+     * @return A validation message if the zone is not configured, otherwise null.
+     */
+    @Override
+    public String validateZone(String zone) {
+        if (zone == null || zone.isEmpty()) {
+            return null;
+        }
+
+        try {
+            TariffIndex tariffIndex = tariffRegistry.getTariffIndex();
+            if (tariffIndex == null) {
+                return TARIFFS_NOT_LOADED;
+            }
+
+            if (!tariffIndex.isValidZone(zone)) {
+                return tariffIndex.getInvalidZoneMessage();
+            }
+        } catch (Exception ex) {
+            return "Error processing zone validation. Error: " + ex.getMessage();
+        }
+
+        return null;
+    }
 }
@@ -1,25 +1,41 @@
 package org.yazanghafir.tollcalculator.application.validation;
 
-
-import de.jollyday.Holiday;
-import de.jollyday.HolidayManager;
-import de.jollyday.ManagerParameters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
-import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
-import org.yazanghafir.tollcalculator.domain.configuration.VehicleTypes;
+import org.yazanghafir.tollcalculator.application.query.ITollFreeCalendar;
+import org.yazanghafir.tollcalculator.application.query.IVehicleTypeRegistry;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
 import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
-import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
 
 import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Date;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
-public class TollFreeValidator implements ITollFreeValidator {
+public class TollFreeValidator implements ITollFreeValidator, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TollFreeValidator.class);
+
+    private final ITollFreeCalendar tollFreeCalendar;
+    private final IVehicleTypeRegistry vehicleTypeRegistry;
+
+    private Timer vehicleTypeTimer = TollMetrics.UNBOUND_TIMER;
+    private Timer dateTimer = TollMetrics.UNBOUND_TIMER;
+
+    public TollFreeValidator(ITollFreeCalendar tollFreeCalendar, IVehicleTypeRegistry vehicleTypeRegistry) {
+        this.tollFreeCalendar = tollFreeCalendar;
+        this.vehicleTypeRegistry = vehicleTypeRegistry;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        vehicleTypeTimer = TollMetrics.stageTimer(registry, "toll-free-vehicle-type");
+        dateTimer = TollMetrics.stageTimer(registry, "toll-free-date");
+    }
 
     /**
      * Checks if the vehicle type is toll-free based on the data from the Toll Vehicle Types JSON.
@@ -29,59 +45,44 @@ public class TollFreeValidator implements ITollFreeValidator {
      */
     @Override
     public boolean isTollFreeVehicle(String type) {
+        long startNanos = System.nanoTime();
         try {
-            ConfigurationLoader<VehicleTypes> configUploader = new ConfigurationLoader<>();
-            Optional<VehicleTypes> vehicleTypesOptional = configUploader.loadConfiguration(
-                    ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class);
-
-            if (vehicleTypesOptional.isPresent()) {
-                VehicleTypes vehicleTypes = vehicleTypesOptional.get();
-
-                if (vehicleTypes.getVehicleTypes() != null) {
-                    for (VehicleType vehicleType : vehicleTypes.getVehicleTypes()) {
-                        if (vehicleType.getVehicleType().equalsIgnoreCase(type)) {
-                            return vehicleType.getIsTollFreeVehicle();
-                        }
-                    }
-                }
-            }
-
-            return false;
+            VehicleTypeIndex vehicleTypeIndex = vehicleTypeRegistry.getVehicleTypeIndex();
+            return vehicleTypeIndex != null && vehicleTypeIndex.isTollFree(type);
         } catch (Exception ex) {
-            System.err.println("Error processing when checking the vehicle type for toll fee. Error: "
-                    + ex.getMessage());
+            LOGGER.error("Error processing when checking the vehicle type for toll fee. Error: {}", ex.getMessage());
             return false;
+        } finally {
+            TollMetrics.recordSince(vehicleTypeTimer, startNanos);
         }
     }
 
     /**
-     * Checks if the given date is a Swedish holiday or a weekend.
+     * Checks if the given date is toll-free, i.e. a weekend, a day in July,
+     * a Swedish public holiday or the day before one.
      *
      * @param date The date to check.
-     * @return true if the date is a holiday or a weekend, false otherwise.
+     * @return true if the date is toll-free, false otherwise.
      */
     @Override
     public boolean isTollFreeDate(LocalDate date) {
-        // Check if the date is a weekend
-        if (date.getDayOfWeek().getValue() == 6 || date.getDayOfWeek().getValue() == 7 || date.getMonthValue() == 7) {
-            return true;
-        }
-
-        // Check if the date is a Swedish public holiday
-        HolidayManager holidayManager = HolidayManager.getInstance(ManagerParameters.create("se"));
-        Set<Holiday> holidays = holidayManager.getHolidays(date.getYear(), "se");
-
-        // Convert the Set<Holiday> to Set<LocalDate>
-        Set<LocalDate> holidayDates = holidays.stream()
-                .map(Holiday::getDate)
-                .collect(Collectors.toSet());
+        return isTollFreeDay(date.toEpochDay());
+    }
 
-        // Check if the date or the day before is a holiday
-        if (holidayDates.contains(date) || holidayDates.contains(date.minusDays(1))) {
-            return true;
+    /**
+     * Same as {@link #isTollFreeDate(LocalDate)} for a day counted from 1970-01-01.
+     *
+     * @param epochDay The day to check.
+     * @return true if the day is toll-free, false otherwise.
+     */
+    @Override
+    public boolean isTollFreeDay(long epochDay) {
+        long startNanos = System.nanoTime();
+        try {
+            return tollFreeCalendar.isTollFreeDay(epochDay);
+        } finally {
+            TollMetrics.recordSince(dateTimer, startNanos);
         }
-
-        return false;
     }
 
     /**
@@ -97,10 +98,10 @@ public class TollFreeValidator implements ITollFreeValidator {
             return true;
         }
 
-        // Check if any of the dates the vehicle was used are toll-free
-        for (Date date : vehicle.getVehicleDateTimes()) {
-            LocalDate localDate = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            if (isTollFreeDate(localDate)) {
+        // Check if any of the days the vehicle was used are toll-free
+        Passages passages = vehicle.getPassages();
+        for (int day = 0; day < passages.getDayCount(); day++) {
+            if (isTollFreeDay(passages.getEpochDay(day))) {
                 return true;
             }
         }
@@ -5,7 +5,9 @@ import lombok.Getter;
 @Getter
 public enum ConfigurationFilePath {
     TOLL_FEES("TollFees.json"),
-    VEHICLE_TYPES("VehicleTypes.json");
+    VEHICLE_TYPES("VehicleTypes.json"),
+    TOLL_FREE_DAYS("TollFreeDays.json"),
+    TARIFFS("Tariffs.json");
 
     private final String filePath;
 
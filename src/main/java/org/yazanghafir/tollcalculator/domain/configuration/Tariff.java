@@ -0,0 +1,24 @@
+package org.yazanghafir.tollcalculator.domain.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A toll fee schedule with its own daily maximum, for the given zones and vehicle classes.
+ * Without zones it applies in every zone, without vehicle classes to every class.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class Tariff {
+    private String name;
+    private List<String> zones;
+    private List<String> vehicleClasses;
+    private int maxDailyFee;
+    private List<TollFee> tollFees;
+}
@@ -0,0 +1,15 @@
+package org.yazanghafir.tollcalculator.domain.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class Tariffs extends ConfigurationObject {
+    private List<Tariff> tariffs;
+}
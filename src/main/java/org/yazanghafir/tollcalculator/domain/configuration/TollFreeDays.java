@@ -0,0 +1,22 @@
+package org.yazanghafir.tollcalculator.domain.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TollFreeDays extends ConfigurationObject {
+    private String holidayCountry;
+    private List<String> tollFreeDaysOfWeek;
+    private List<String> tollFreeMonths;
+    private Boolean isHolidayTollFree;
+    private Boolean isDayBeforeHolidayTollFree;
+    private int precomputedYearsBefore;
+    private int precomputedYearsAfter;
+}
@@ -13,4 +13,9 @@ import java.util.List;
 public class VehicleType {
     private String vehicleType;
     private Boolean isTollFreeVehicle;
+    private String vehicleClass;
+
+    public VehicleType(String vehicleType, Boolean isTollFreeVehicle) {
+        this(vehicleType, isTollFreeVehicle, null);
+    }
 }
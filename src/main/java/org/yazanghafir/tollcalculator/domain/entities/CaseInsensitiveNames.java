@@ -0,0 +1,90 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable case-insensitive set of names, each with an id from 1 in the order they were added.
+ * Names are stored in an open-addressing table hashed on their case-folded characters, so a
+ * lookup neither lowercases the name nor scans the list.
+ */
+final class CaseInsensitiveNames {
+
+    private final String[] names;
+    private final int[] ids;
+    private final int mask;
+    private final List<String> orderedNames;
+
+    private CaseInsensitiveNames(int tableSize, List<String> orderedNames) {
+        this.names = new String[tableSize];
+        this.ids = new int[tableSize];
+        this.mask = tableSize - 1;
+        this.orderedNames = orderedNames;
+    }
+
+    /**
+     * Builds the set. Null names are skipped and names that only differ in case get one id,
+     * the first spelling is kept.
+     */
+    static CaseInsensitiveNames of(List<String> names) {
+        // At most half full, so probe sequences stay short
+        int tableSize = Integer.highestOneBit(Math.max(names.size(), 1) * 2) << 1;
+        CaseInsensitiveNames table = new CaseInsensitiveNames(tableSize, new ArrayList<>());
+        for (String name : names) {
+            if (name != null && table.idOf(name) == 0) {
+                table.add(name, table.orderedNames.size() + 1);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the id of the name, ignoring case.
+     *
+     * @return The id, or 0 if the name is null or not in the set.
+     */
+    int idOf(String name) {
+        if (name == null) {
+            return 0;
+        }
+        int slot = hash(name) & mask;
+        while (names[slot] != null) {
+            if (names[slot].equalsIgnoreCase(name)) {
+                return ids[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    int size() {
+        return orderedNames.size();
+    }
+
+    /**
+     * Returns the names in the order of their ids.
+     */
+    List<String> getNames() {
+        return Collections.unmodifiableList(orderedNames);
+    }
+
+    private void add(String name, int id) {
+        int slot = hash(name) & mask;
+        while (names[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        names[slot] = name;
+        ids[slot] = id;
+        orderedNames.add(name);
+    }
+
+    // Folds case the same way as String.equalsIgnoreCase, so equal names always share a hash
+    static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
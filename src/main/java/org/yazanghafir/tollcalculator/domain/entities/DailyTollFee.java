@@ -0,0 +1,13 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class DailyTollFee {
+    private final LocalDate date;
+    private final int tollFee;
+}
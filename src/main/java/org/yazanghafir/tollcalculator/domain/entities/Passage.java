@@ -0,0 +1,22 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A single passage read from a gantry log. The passage time is stored as milliseconds
+ * since 1970-01-01T00:00 in local wall-clock time, the same form the toll calculator uses.
+ * The gantry that reported it is optional and only used to recognise duplicate reports.
+ */
+@Getter
+@AllArgsConstructor
+public class Passage {
+    private final String vehiclePlate;
+    private final String vehicleType;
+    private final long localEpochMillis;
+    private final String gantry;
+
+    public Passage(String vehiclePlate, String vehicleType, long localEpochMillis) {
+        this(vehiclePlate, vehicleType, localEpochMillis, null);
+    }
+}
@@ -0,0 +1,161 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The passages of a vehicle in primitive arrays, sorted by time and split into days.
+ *
+ * Passage times are milliseconds since 1970-01-01T00:00 in local wall-clock time, so the
+ * one-hour rule and the day boundaries follow local time and sub-second passage times keep
+ * their order. The minute of the day of every passage and the first passage and epoch day
+ * of every day are computed once when the container is built, so validation, exemption
+ * checks and fee calculation read them without converting dates or looking up the zone again.
+ */
+public final class Passages {
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_DAY = 24 * 60 * MILLIS_PER_MINUTE;
+
+    private final long[] localEpochMillis;
+    private final short[] minutesOfDay;
+    private final int[] dayStarts;
+    private final long[] epochDays;
+
+    private Passages(long[] localEpochMillis) {
+        this.localEpochMillis = localEpochMillis;
+        this.minutesOfDay = new short[localEpochMillis.length];
+
+        // Count the days first, so the day arrays are allocated at their exact size
+        int dayCount = 0;
+        long currentDay = 0;
+        for (int i = 0; i < localEpochMillis.length; i++) {
+            long day = Math.floorDiv(localEpochMillis[i], MILLIS_PER_DAY);
+            if (dayCount == 0 || day != currentDay) {
+                dayCount++;
+                currentDay = day;
+            }
+            minutesOfDay[i] = (short) ((localEpochMillis[i] - day * MILLIS_PER_DAY) / MILLIS_PER_MINUTE);
+        }
+
+        this.dayStarts = new int[dayCount + 1];
+        this.epochDays = new long[dayCount];
+        int dayIndex = 0;
+        for (int i = 0; i < localEpochMillis.length; i++) {
+            long day = Math.floorDiv(localEpochMillis[i], MILLIS_PER_DAY);
+            if (dayIndex == 0 || day != epochDays[dayIndex - 1]) {
+                dayStarts[dayIndex] = i;
+                epochDays[dayIndex++] = day;
+            }
+        }
+        dayStarts[dayCount] = localEpochMillis.length;
+    }
+
+    /**
+     * Converts the passage dates to local time in the system time zone and sorts them.
+     *
+     * @param dates The passage dates, in any order.
+     * @return The passages.
+     */
+    public static Passages fromDates(List<Date> dates) {
+        ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+        long[] passageTimes = new long[dates.size()];
+
+        for (int i = 0; i < passageTimes.length; i++) {
+            passageTimes[i] = toLocalEpochMillis(dates.get(i).toInstant(), zoneRules);
+        }
+
+        Arrays.sort(passageTimes);
+        return new Passages(passageTimes);
+    }
+
+    /**
+     * Converts passage times in epoch milliseconds to local time in the system time zone and
+     * sorts them. The array is converted in place and must not be used afterwards.
+     *
+     * @param epochMillis The passage times, in any order.
+     * @return The passages.
+     */
+    public static Passages fromEpochMillis(long[] epochMillis) {
+        ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+        for (int i = 0; i < epochMillis.length; i++) {
+            epochMillis[i] = toLocalEpochMillis(Instant.ofEpochMilli(epochMillis[i]), zoneRules);
+        }
+
+        Arrays.sort(epochMillis);
+        return new Passages(epochMillis);
+    }
+
+    /**
+     * Wraps passage times that are already local epoch milliseconds in ascending order.
+     * The array is used as it is and must not be changed afterwards.
+     *
+     * @param orderedLocalEpochMillis The sorted passage times.
+     * @return The passages.
+     * @throws IllegalArgumentException if the passage times are not sorted.
+     */
+    public static Passages fromSortedLocalEpochMillis(long[] orderedLocalEpochMillis) {
+        for (int i = 1; i < orderedLocalEpochMillis.length; i++) {
+            if (orderedLocalEpochMillis[i] < orderedLocalEpochMillis[i - 1]) {
+                throw new IllegalArgumentException("Passage times must be sorted.");
+            }
+        }
+        return new Passages(orderedLocalEpochMillis);
+    }
+
+    /**
+     * Converts an instant to milliseconds since 1970-01-01T00:00 in the time zone of the given rules.
+     */
+    public static long toLocalEpochMillis(Instant instant, ZoneRules zoneRules) {
+        return instant.toEpochMilli() + zoneRules.getOffset(instant).getTotalSeconds() * 1000L;
+    }
+
+    public int size() {
+        return localEpochMillis.length;
+    }
+
+    public long getLocalEpochMillis(int index) {
+        return localEpochMillis[index];
+    }
+
+    /**
+     * Returns the minute of the day (0-1439) of the passage at the given index.
+     */
+    public int getMinuteOfDay(int index) {
+        return minutesOfDay[index];
+    }
+
+    public int getDayCount() {
+        return epochDays.length;
+    }
+
+    /**
+     * Returns the index of the first passage of the given day, inclusive.
+     */
+    public int getDayStart(int day) {
+        return dayStarts[day];
+    }
+
+    /**
+     * Returns the index after the last passage of the given day, exclusive.
+     */
+    public int getDayEnd(int day) {
+        return dayStarts[day + 1];
+    }
+
+    /**
+     * Returns the given day counted from 1970-01-01.
+     */
+    public long getEpochDay(int day) {
+        return epochDays[day];
+    }
+
+    public LocalDate getDate(int day) {
+        return LocalDate.ofEpochDay(epochDays[day]);
+    }
+}
@@ -0,0 +1,262 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import org.yazanghafir.tollcalculator.domain.configuration.Tariff;
+import org.yazanghafir.tollcalculator.domain.configuration.TollFee;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the configured tariffs by zone and vehicle class.
+ *
+ * Every combination of a configured zone and vehicle class, plus "no zone" and "any other class",
+ * has a slot in one dense array that holds its compiled {@link TollTariff}, so selecting the tariff
+ * of a vehicle is two name lookups and an array read. Tariffs are compiled once per configuration:
+ * identical fee schedules share one {@link TollFeeTable}, and tariffs with the same schedule and
+ * daily maximum share one instance, so adding zones with existing schedules only adds slots.
+ *
+ * When several tariffs cover a slot the most specific one applies: zone and class, then zone,
+ * then class, then a tariff without either. A slot no tariff covers is null and the default
+ * toll fee schedule applies.
+ */
+public final class TariffIndex {
+
+    private final CaseInsensitiveNames zones;
+    private final CaseInsensitiveNames vehicleClasses;
+    private final TollTariff[] tariffs;
+    private final int tariffCount;
+    private final int scheduleCount;
+    private final String invalidZoneMessage;
+
+    private TariffIndex(CaseInsensitiveNames zones, CaseInsensitiveNames vehicleClasses, TollTariff[] tariffs,
+                        int tariffCount, int scheduleCount) {
+        this.zones = zones;
+        this.vehicleClasses = vehicleClasses;
+        this.tariffs = tariffs;
+        this.tariffCount = tariffCount;
+        this.scheduleCount = scheduleCount;
+        this.invalidZoneMessage = zones.size() == 0
+                ? "Invalid zone provided. No zones are configured."
+                : "Invalid zone provided. Available zones are: " + String.join(", ", zones.getNames()) + ".";
+    }
+
+    /**
+     * Compiles the configured tariffs into an index.
+     *
+     * @param configuredTariffs The configured tariffs.
+     * @return The compiled index.
+     * @throws IllegalStateException if a schedule is invalid, a daily maximum is negative or two
+     *                               tariffs cover the same zone and vehicle class equally.
+     */
+    public static TariffIndex compile(List<Tariff> configuredTariffs) {
+        return compile(configuredTariffs, null);
+    }
+
+    /**
+     * Compiles the configured tariffs into an index, with their fee schedules already compiled,
+     * e.g. from the bundled tariffs at build time. The fee ranges of the tariffs are not read.
+     *
+     * @param configuredTariffs The configured tariffs.
+     * @param feeTables         The fee schedule of every tariff, in the same order, or null to
+     *                          compile them from the fee ranges of the tariffs.
+     * @return The compiled index.
+     * @throws IllegalStateException if a schedule is invalid, a daily maximum is negative or two
+     *                               tariffs cover the same zone and vehicle class equally.
+     */
+    public static TariffIndex compile(List<Tariff> configuredTariffs, List<TollFeeTable> feeTables) {
+        if (feeTables != null && (configuredTariffs == null || feeTables.size() != configuredTariffs.size())) {
+            throw new IllegalStateException("Every tariff needs one compiled fee schedule.");
+        }
+        List<Tariff> tariffConfigs = new ArrayList<>();
+        List<TollFeeTable> tariffFeeTables = new ArrayList<>();
+        if (configuredTariffs != null) {
+            for (int i = 0; i < configuredTariffs.size(); i++) {
+                if (configuredTariffs.get(i) != null) {
+                    tariffConfigs.add(configuredTariffs.get(i));
+                    tariffFeeTables.add(feeTables != null ? feeTables.get(i) : null);
+                }
+            }
+        }
+
+        List<String> problems = new ArrayList<>();
+        List<String> zoneNames = new ArrayList<>();
+        List<String> classNames = new ArrayList<>();
+        for (Tariff tariff : tariffConfigs) {
+            addAll(zoneNames, tariff.getZones());
+            addAll(classNames, tariff.getVehicleClasses());
+        }
+        CaseInsensitiveNames zones = CaseInsensitiveNames.of(zoneNames);
+        CaseInsensitiveNames vehicleClasses = CaseInsensitiveNames.of(classNames);
+
+        // Slot 0 of each dimension is "no zone" and "any other class"
+        int classStride = vehicleClasses.size() + 1;
+        TollTariff[] slots = new TollTariff[(zones.size() + 1) * classStride];
+        int[] slotSpecificity = new int[slots.length];
+        String[] slotSources = new String[slots.length];
+
+        Map<TollFeeTable, TollFeeTable> schedules = new HashMap<>();
+        Map<SharedTariffKey, TollTariff> compiledTariffs = new HashMap<>();
+        Set<String> reportedConflicts = new HashSet<>();
+
+        for (int i = 0; i < tariffConfigs.size(); i++) {
+            Tariff config = tariffConfigs.get(i);
+            String name = config.getName() != null ? config.getName() : "tariff " + (i + 1);
+
+            TollTariff tariff = compileTariff(name, config, tariffFeeTables.get(i), schedules, compiledTariffs, problems);
+            if (tariff == null) {
+                continue;
+            }
+
+            int[] zoneIds = idsOf(zones, config.getZones());
+            int[] classIds = idsOf(vehicleClasses, config.getVehicleClasses());
+            int specificity = (zoneIds != null ? 2 : 0) + (classIds != null ? 1 : 0);
+            for (int zoneId : zoneIds != null ? zoneIds : allIds(zones)) {
+                for (int classId : classIds != null ? classIds : allIds(vehicleClasses)) {
+                    int slot = zoneId * classStride + classId;
+                    if (slots[slot] == null || specificity > slotSpecificity[slot]) {
+                        slots[slot] = tariff;
+                        slotSpecificity[slot] = specificity;
+                        slotSources[slot] = name;
+                    } else if (specificity == slotSpecificity[slot] && slots[slot] != tariff
+                            && reportedConflicts.add(slotSources[slot] + "\n" + name)) {
+                        problems.add(describe(zones, vehicleClasses, zoneId, classId)
+                                + " are covered by both " + slotSources[slot] + " and " + name);
+                    }
+                }
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid tariff configuration: " + String.join("; ", problems) + ".");
+        }
+
+        return new TariffIndex(zones, vehicleClasses, slots, compiledTariffs.size(), schedules.size());
+    }
+
+    /**
+     * Finds the tariff of a zone and vehicle class, ignoring case. A zone or class that is not
+     * configured is treated as no zone or any other class.
+     *
+     * @param zone         The zone, or null for no zone.
+     * @param vehicleClass The vehicle class, or null for none.
+     * @return The tariff, or null if the default toll fee schedule applies.
+     */
+    public TollTariff find(String zone, String vehicleClass) {
+        return tariffs[zones.idOf(zone) * (vehicleClasses.size() + 1) + vehicleClasses.idOf(vehicleClass)];
+    }
+
+    /**
+     * Checks if the zone is configured, ignoring case. No zone is always valid.
+     */
+    public boolean isValidZone(String zone) {
+        return zone == null || zone.isEmpty() || zones.idOf(zone) != 0;
+    }
+
+    public String getInvalidZoneMessage() {
+        return invalidZoneMessage;
+    }
+
+    public List<String> getZones() {
+        return zones.getNames();
+    }
+
+    /**
+     * Returns the number of distinct compiled tariffs.
+     */
+    public int getTariffCount() {
+        return tariffCount;
+    }
+
+    /**
+     * Returns the number of distinct fee schedules the tariffs share.
+     */
+    public int getScheduleCount() {
+        return scheduleCount;
+    }
+
+    private static TollTariff compileTariff(String name, Tariff config, TollFeeTable compiledFeeTable,
+                                            Map<TollFeeTable, TollFeeTable> schedules,
+                                            Map<SharedTariffKey, TollTariff> compiledTariffs, List<String> problems) {
+        if (config.getMaxDailyFee() < 0) {
+            problems.add(name + " has a negative daily maximum");
+            return null;
+        }
+
+        TollFeeTable feeTable = compiledFeeTable;
+        if (feeTable == null) {
+            try {
+                feeTable = TollFeeTable.compile(toTollFeeRanges(config.getTollFees()));
+            } catch (RuntimeException ex) {
+                problems.add(name + ": " + ex.getMessage());
+                return null;
+            }
+        }
+
+        TollFeeTable schedule = schedules.computeIfAbsent(feeTable, table -> table);
+        return compiledTariffs.computeIfAbsent(new SharedTariffKey(schedule, config.getMaxDailyFee()),
+                key -> new TollTariff(name, schedule, config.getMaxDailyFee()));
+    }
+
+    private static List<TollFeeRange> toTollFeeRanges(List<TollFee> tollFees) {
+        List<TollFeeRange> ranges = new ArrayList<>();
+        if (tollFees == null) {
+            return ranges;
+        }
+        for (TollFee tollFee : tollFees) {
+            for (String timeRange : tollFee.getTimePoints()) {
+                String[] timeRangeParts = timeRange.split("-");
+                if (timeRangeParts.length != 2) {
+                    throw new IllegalStateException("Invalid time range format: " + timeRange);
+                }
+                ranges.add(new TollFeeRange(tollFee.getFeeAmount(),
+                        LocalTime.parse(timeRangeParts[0]), LocalTime.parse(timeRangeParts[1])));
+            }
+        }
+        return ranges;
+    }
+
+    private static void addAll(List<String> names, List<String> values) {
+        if (values != null) {
+            names.addAll(values);
+        }
+    }
+
+    // Null when the tariff lists no names, it then covers every slot of the dimension
+    private static int[] idsOf(CaseInsensitiveNames names, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String value : values) {
+            int id = names.idOf(value);
+            if (id != 0) {
+                ids.add(id);
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] allIds(CaseInsensitiveNames names) {
+        int[] ids = new int[names.size() + 1];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = id;
+        }
+        return ids;
+    }
+
+    private static String describe(CaseInsensitiveNames zones, CaseInsensitiveNames vehicleClasses,
+                                   int zoneId, int classId) {
+        String zone = zoneId == 0 ? "no zone" : "zone " + zones.getNames().get(zoneId - 1);
+        String vehicleClass = classId == 0 ? "other vehicle classes" : "vehicle class " + vehicleClasses.getNames().get(classId - 1);
+        return zone + " and " + vehicleClass;
+    }
+
+    private record SharedTariffKey(TollFeeTable feeTable, int maxDailyFee) {
+    }
+}
@@ -0,0 +1,139 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable toll fee schedule compiled into one fee slot per minute of the day.
+ * Every minute must be covered by exactly one configured range, so lookups never
+ * fall through to a default value.
+ */
+public final class TollFeeTable {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final int UNASSIGNED = -1;
+
+    private final int[] feeAmounts;
+
+    private TollFeeTable(int[] feeAmounts) {
+        this.feeAmounts = feeAmounts;
+    }
+
+    /**
+     * Compiles the given ranges into a minute-of-day table. Both ends of a range are
+     * inclusive, so "06:00-06:29" covers every passage from 06:00:00 to 06:29:59.
+     *
+     * @param tollFeeRanges The configured fee ranges.
+     * @return The compiled table.
+     * @throws IllegalStateException if the ranges leave a gap or overlap each other.
+     */
+    public static TollFeeTable compile(List<TollFeeRange> tollFeeRanges) {
+        if (tollFeeRanges == null || tollFeeRanges.isEmpty()) {
+            throw new IllegalStateException("No toll fee ranges are configured.");
+        }
+
+        int[] feeAmounts = new int[MINUTES_PER_DAY];
+        Arrays.fill(feeAmounts, UNASSIGNED);
+        boolean[] overlapping = new boolean[MINUTES_PER_DAY];
+        List<String> problems = new ArrayList<>();
+
+        for (TollFeeRange range : tollFeeRanges) {
+            int start = toMinuteOfDay(range.getStartTime());
+            int end = toMinuteOfDay(range.getEndTime());
+            if (end < start) {
+                problems.add("range " + range.getStartTime() + "-" + range.getEndTime() + " ends before it starts");
+                continue;
+            }
+            if (range.getFeeAmount() < 0) {
+                problems.add("range " + range.getStartTime() + "-" + range.getEndTime() + " has a negative fee");
+                continue;
+            }
+
+            for (int minute = start; minute <= end; minute++) {
+                if (feeAmounts[minute] != UNASSIGNED) {
+                    overlapping[minute] = true;
+                }
+                feeAmounts[minute] = range.getFeeAmount();
+            }
+        }
+
+        for (int minute = 0; minute < MINUTES_PER_DAY; ) {
+            int end = minute;
+            if (overlapping[minute]) {
+                while (end + 1 < MINUTES_PER_DAY && overlapping[end + 1]) {
+                    end++;
+                }
+                problems.add("overlapping ranges at " + describe(minute, end));
+            } else if (feeAmounts[minute] == UNASSIGNED) {
+                while (end + 1 < MINUTES_PER_DAY && feeAmounts[end + 1] == UNASSIGNED) {
+                    end++;
+                }
+                problems.add("no fee configured for " + describe(minute, end));
+            }
+            minute = end + 1;
+        }
+
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid toll fee configuration: " + String.join("; ", problems) + ".");
+        }
+
+        return new TollFeeTable(feeAmounts);
+    }
+
+    /**
+     * Wraps a fee per minute of the day that has already been compiled, e.g. from the bundled
+     * schedule at build time.
+     *
+     * @param feeAmounts The fee of every minute of the day.
+     * @return The table, with its own copy of the fees.
+     * @throws IllegalStateException if the fees do not cover the day or a fee is negative.
+     */
+    public static TollFeeTable of(int[] feeAmounts) {
+        if (feeAmounts.length != MINUTES_PER_DAY) {
+            throw new IllegalStateException("A toll fee table has a fee for each of the " + MINUTES_PER_DAY
+                    + " minutes of the day, not " + feeAmounts.length + ".");
+        }
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            if (feeAmounts[minute] < 0) {
+                throw new IllegalStateException("Invalid toll fee configuration: negative fee at " + describe(minute, minute) + ".");
+            }
+        }
+        return new TollFeeTable(feeAmounts.clone());
+    }
+
+    /**
+     * Returns the fee for a passage at the given minute of the day (0-1439).
+     */
+    public int getFeeAmount(int minuteOfDay) {
+        return feeAmounts[minuteOfDay];
+    }
+
+    public int getFeeAmount(LocalTime timeOfDay) {
+        return feeAmounts[toMinuteOfDay(timeOfDay)];
+    }
+
+    /**
+     * Two tables are equal when they charge the same fee in every minute, so identical
+     * schedules can share one table.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof TollFeeTable table && Arrays.equals(feeAmounts, table.feeAmounts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(feeAmounts);
+    }
+
+    private static int toMinuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static String describe(int startMinute, int endMinute) {
+        return LocalTime.of(startMinute / 60, startMinute % 60) + "-" + LocalTime.of(endMinute / 60, endMinute % 60);
+    }
+}
@@ -0,0 +1,38 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+/**
+ * A compiled tariff: a toll fee schedule and the daily maximum that applies with it.
+ * Tariffs are compiled once per configuration and shared, zones and vehicle classes with the
+ * same schedule and maximum use the same instance.
+ */
+public final class TollTariff {
+
+    private final String name;
+    private final TollFeeTable feeTable;
+    private final int maxDailyFee;
+
+    public TollTariff(String name, TollFeeTable feeTable, int maxDailyFee) {
+        this.name = name;
+        this.feeTable = feeTable;
+        this.maxDailyFee = maxDailyFee;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TollFeeTable getFeeTable() {
+        return feeTable;
+    }
+
+    /**
+     * Returns the fee for a passage at the given minute of the day (0-1439).
+     */
+    public int getFeeAmount(int minuteOfDay) {
+        return feeTable.getFeeAmount(minuteOfDay);
+    }
+
+    public int getMaxDailyFee() {
+        return maxDailyFee;
+    }
+}
@@ -4,9 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.time.LocalTime;
-import java.util.List;
 import java.util.Date;
+import java.util.List;
 
 @Setter
 @Getter
@@ -14,5 +13,14 @@ import java.util.Date;
 public class Vehicle {
     private String vehiclePlate;
     private String vehicleType;
-    private List<Date> vehicleDateTimes;
+    private Passages passages;
+    private String zone;
+
+    public Vehicle(String vehiclePlate, String vehicleType, Passages passages) {
+        this(vehiclePlate, vehicleType, passages, null);
+    }
+
+    public Vehicle(String vehiclePlate, String vehicleType, List<Date> vehicleDateTimes) {
+        this(vehiclePlate, vehicleType, Passages.fromDates(vehicleDateTimes));
+    }
 }
@@ -0,0 +1,15 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The passages of one vehicle day, as local epoch milliseconds in time order.
+ */
+@Getter
+@AllArgsConstructor
+public class VehicleDayPassages {
+    private final String vehiclePlate;
+    private final String vehicleType;
+    private final long[] localEpochMillis;
+}
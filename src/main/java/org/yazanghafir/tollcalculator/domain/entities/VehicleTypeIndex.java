@@ -0,0 +1,164 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable case-insensitive index of the configured vehicle types.
+ *
+ * The types are stored in an open-addressing table hashed on their case-folded characters,
+ * so a lookup neither lowercases the requested type nor scans the list. The message for an
+ * unknown type lists every configured type and is built once when the index is compiled.
+ * An index generated from the bundled types at build time uses a table size in which no two
+ * types share a slot, so every lookup, found or not, reads a single slot.
+ */
+public final class VehicleTypeIndex {
+
+    private final String[] names;
+    private final boolean[] tollFree;
+    private final VehicleType[] vehicleTypes;
+    private final int mask;
+    private final boolean perfect;
+    private final String invalidVehicleTypeMessage;
+
+    private VehicleTypeIndex(int tableSize, boolean perfect, String invalidVehicleTypeMessage) {
+        this.names = new String[tableSize];
+        this.tollFree = new boolean[tableSize];
+        this.vehicleTypes = new VehicleType[tableSize];
+        this.mask = tableSize - 1;
+        this.perfect = perfect;
+        this.invalidVehicleTypeMessage = invalidVehicleTypeMessage;
+    }
+
+    /**
+     * Compiles the configured vehicle types into an index. If a type is configured more than
+     * once, ignoring case, the first entry is used.
+     *
+     * @param configuredTypes The configured vehicle types.
+     * @return The compiled index.
+     */
+    public static VehicleTypeIndex compile(List<VehicleType> configuredTypes) {
+        List<VehicleType> types = nonNull(configuredTypes);
+
+        // At most half full, so probe sequences stay short
+        int tableSize = Integer.highestOneBit(Math.max(types.size(), 1) * 2) << 1;
+        VehicleTypeIndex index = new VehicleTypeIndex(tableSize, false, invalidVehicleTypeMessage(types));
+        for (VehicleType type : types) {
+            index.add(type);
+        }
+        return index;
+    }
+
+    /**
+     * Compiles the vehicle types into a table of the given size in which every type has a slot
+     * of its own, found at build time. Lookups then read one slot instead of probing.
+     *
+     * @param configuredTypes The configured vehicle types.
+     * @param tableSize       The table size, a power of two.
+     * @return The compiled index.
+     * @throws IllegalStateException if two types share a slot in a table of that size.
+     */
+    public static VehicleTypeIndex compilePerfect(List<VehicleType> configuredTypes, int tableSize) {
+        if (Integer.bitCount(tableSize) != 1) {
+            throw new IllegalStateException("The table size " + tableSize + " is not a power of two.");
+        }
+        List<VehicleType> types = nonNull(configuredTypes);
+
+        VehicleTypeIndex index = new VehicleTypeIndex(tableSize, true, invalidVehicleTypeMessage(types));
+        for (VehicleType type : types) {
+            String name = type.getVehicleType();
+            int slot = CaseInsensitiveNames.hash(name) & index.mask;
+            if (index.names[slot] == null) {
+                index.names[slot] = name;
+                index.tollFree[slot] = Boolean.TRUE.equals(type.getIsTollFreeVehicle());
+                index.vehicleTypes[slot] = type;
+            } else if (!index.names[slot].equalsIgnoreCase(name)) {
+                throw new IllegalStateException("Vehicle types " + index.names[slot] + " and " + name
+                        + " share a slot in a table of size " + tableSize + ".");
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Finds the configured vehicle type, ignoring case.
+     *
+     * @param vehicleType The requested vehicle type.
+     * @return The configured vehicle type, or null if it is not configured.
+     */
+    public VehicleType find(String vehicleType) {
+        int slot = slotOf(vehicleType);
+        return slot < 0 ? null : vehicleTypes[slot];
+    }
+
+    public boolean isValid(String vehicleType) {
+        return slotOf(vehicleType) >= 0;
+    }
+
+    /**
+     * Checks if the vehicle type is configured as toll-free, ignoring case.
+     *
+     * @return true if the type is configured and toll-free, false otherwise.
+     */
+    public boolean isTollFree(String vehicleType) {
+        int slot = slotOf(vehicleType);
+        return slot >= 0 && tollFree[slot];
+    }
+
+    public String getInvalidVehicleTypeMessage() {
+        return invalidVehicleTypeMessage;
+    }
+
+    private static List<VehicleType> nonNull(List<VehicleType> configuredTypes) {
+        List<VehicleType> types = new ArrayList<>();
+        if (configuredTypes != null) {
+            for (VehicleType type : configuredTypes) {
+                if (type != null && type.getVehicleType() != null) {
+                    types.add(type);
+                }
+            }
+        }
+        return types;
+    }
+
+    private static String invalidVehicleTypeMessage(List<VehicleType> types) {
+        List<String> availableTypes = new ArrayList<>();
+        for (VehicleType type : types) {
+            availableTypes.add(type.getVehicleType());
+        }
+        return "Invalid vehicle type provided. Available types are: " + String.join(", ", availableTypes) + ".";
+    }
+
+    private void add(VehicleType type) {
+        String name = type.getVehicleType();
+        int slot = CaseInsensitiveNames.hash(name) & mask;
+        while (names[slot] != null) {
+            if (names[slot].equalsIgnoreCase(name)) {
+                return; // The first entry wins
+            }
+            slot = (slot + 1) & mask;
+        }
+        names[slot] = name;
+        tollFree[slot] = Boolean.TRUE.equals(type.getIsTollFreeVehicle());
+        vehicleTypes[slot] = type;
+    }
+
+    private int slotOf(String vehicleType) {
+        if (vehicleType == null) {
+            return -1;
+        }
+        int slot = CaseInsensitiveNames.hash(vehicleType) & mask;
+        if (perfect) {
+            return names[slot] != null && names[slot].equalsIgnoreCase(vehicleType) ? slot : -1;
+        }
+        while (names[slot] != null) {
+            if (names[slot].equalsIgnoreCase(vehicleType)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,4 @@
+package org.yazanghafir.tollcalculator.domain.requests;
+
+public abstract class Request {
+}
@@ -0,0 +1,25 @@
+package org.yazanghafir.tollcalculator.domain.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A vehicle request with its passage times as epoch milliseconds, as sent in a JSON or
+ * binary request body instead of a list of date-time parameters.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TollCalculatorPassagesRequest extends Request {
+    private String vehiclePlate;
+    private String vehicleType;
+    private long[] passageTimes;
+    private String zone;
+
+    public TollCalculatorPassagesRequest(String vehiclePlate, String vehicleType, long[] passageTimes) {
+        this(vehiclePlate, vehicleType, passageTimes, null);
+    }
+}
@@ -0,0 +1,24 @@
+package org.yazanghafir.tollcalculator.domain.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TollCalculatorRequest extends Request {
+    private String vehiclePlate;
+    private String vehicleType;
+    private List<Date> vehicleDateTimes;
+    private String zone;
+
+    public TollCalculatorRequest(String vehiclePlate, String vehicleType, List<Date> vehicleDateTimes) {
+        this(vehiclePlate, vehicleType, vehicleDateTimes, null);
+    }
+}
@@ -0,0 +1,18 @@
+package org.yazanghafir.tollcalculator.domain.requests;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TollPassageRequest extends Request {
+    private String vehiclePlate;
+    private String vehicleType;
+    private Date vehicleDateTime;
+}
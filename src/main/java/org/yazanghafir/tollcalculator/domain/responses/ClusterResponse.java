@@ -0,0 +1,20 @@
+package org.yazanghafir.tollcalculator.domain.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ClusterResponse extends Response {
+    private String self;
+    private List<String> nodes;
+    private String routing;
+    private double ownedShare;
+    private int openVehicleDays;
+    private int handedOffVehicleDays;
+    private int failedVehicleDays;
+}
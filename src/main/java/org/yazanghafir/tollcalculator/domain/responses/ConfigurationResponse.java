@@ -0,0 +1,17 @@
+package org.yazanghafir.tollcalculator.domain.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ConfigurationResponse extends Response {
+    private String filePath;
+    private long version;
+    private Instant loadedAt;
+    private String source;
+}
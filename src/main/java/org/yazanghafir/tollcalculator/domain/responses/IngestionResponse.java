@@ -0,0 +1,23 @@
+package org.yazanghafir.tollcalculator.domain.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngestionResponse extends Response {
+    private boolean success;
+    private String message;
+    private long passages;
+    private long rejectedPassages;
+    private long rejectedRows;
+    private long duplicatePassages;
+    private long vehicleDays;
+    private int spilledRuns;
+    private long elapsedMillis;
+    private long passagesPerSecond;
+}
@@ -0,0 +1,25 @@
+package org.yazanghafir.tollcalculator.domain.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoicingResponse extends Response {
+    private boolean success;
+    private String message;
+    private long passages;
+    private long rejectedPassages;
+    private long rejectedRows;
+    private long invoiceLines;
+    private long vehicleDays;
+    private long totalTollFee;
+    private int partitions;
+    private int spilledRuns;
+    private long elapsedMillis;
+    private long passagesPerSecond;
+}
@@ -0,0 +1,14 @@
+package org.yazanghafir.tollcalculator.domain.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TollCalculatorBatchResponse extends Response {
+    private int index;
+    private String vehiclePlate;
+    private TollCalculatorResponse result;
+}
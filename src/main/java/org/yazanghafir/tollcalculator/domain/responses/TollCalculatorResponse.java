@@ -1,14 +1,64 @@
 package org.yazanghafir.tollcalculator.domain.responses;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+
+import java.util.List;
 
 @Getter
 @Setter
 @AllArgsConstructor
 public class TollCalculatorResponse extends Response {
+
+    /**
+     * The totals whose message is built once, every single-day total under the default daily
+     * maximum of 60 SEK is one of them. Higher totals of tariffs with a higher maximum, or of
+     * several days, are built per response.
+     */
+    public static final int COMMON_TOTALS = 61;
+
+    private static final String[] TOTAL_MESSAGES = new String[COMMON_TOTALS];
+
+    static {
+        for (int totalTollFee = 0; totalTollFee < COMMON_TOTALS; totalTollFee++) {
+            TOTAL_MESSAGES[totalTollFee] = "Total toll fee: " + totalTollFee + " SEK";
+        }
+    }
+
     private double tollFee;
     private boolean success;
     private String message;
+
+    // Only present when the passages span more than one day
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<DailyTollFee> dailyTollFees;
+
+    public TollCalculatorResponse(double tollFee, boolean success, String message) {
+        this(tollFee, success, message, null);
+    }
+
+    /**
+     * Creates the successful response for a total toll fee.
+     *
+     * @param totalTollFee  The total of all days.
+     * @param dailyTollFees The daily totals, or null when the passages are on a single day.
+     * @return The response.
+     */
+    public static TollCalculatorResponse total(int totalTollFee, List<DailyTollFee> dailyTollFees) {
+        return new TollCalculatorResponse(totalTollFee, true, totalMessage(totalTollFee), dailyTollFees);
+    }
+
+    /**
+     * Returns the message of a successful response, e.g. "Total toll fee: 60 SEK". The same
+     * instance is returned for each of the common totals.
+     */
+    public static String totalMessage(int totalTollFee) {
+        if (totalTollFee >= 0 && totalTollFee < COMMON_TOTALS) {
+            return TOTAL_MESSAGES[totalTollFee];
+        }
+        return "Total toll fee: " + totalTollFee + " SEK";
+    }
 }
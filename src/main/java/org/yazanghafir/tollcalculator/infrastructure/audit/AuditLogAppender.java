@@ -0,0 +1,249 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Hands events from the request threads to a single writer thread that appends them to an
+ * {@link AuditLogWriter} in batches.
+ *
+ * Publishing only places the event in an {@link AuditRingBuffer}; converting it to a record,
+ * encoding and writing happen on the writer thread. The writer takes up to a batch of events at
+ * a time, writes them with one FileChannel write, and makes everything written since the last
+ * fsync durable once the fsync interval has passed, so one fsync covers all batches of the
+ * interval. A publisher only wakes the writer when it is parked on an empty buffer. When the
+ * buffer is full the {@link AuditOverflowPolicy} decides whether the publisher waits or the
+ * event is discarded.
+ *
+ * Write errors are counted in toll.audit.errors. A failing disk fails every record, so at most
+ * one warning per {@value #ERROR_LOG_INTERVAL_SECONDS} seconds is logged, with the number of
+ * errors left out since the previous one.
+ *
+ * @param <E> The type of the published events.
+ */
+public class AuditLogAppender<E> implements Closeable, MeterBinder {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long ERROR_LOG_INTERVAL_SECONDS = 10;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogAppender.class);
+
+    private final AuditLogWriter writer;
+    private final Function<? super E, AuditRecord> toRecord;
+    private final AuditRingBuffer<E> ringBuffer;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long fsyncIntervalNanos;
+    private final Thread writerThread;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedSinceGap = new LongAdder();
+
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+
+    // Only used by the writer thread
+    private long lastErrorLogNanos;
+    private long unloggedErrors = -1; // -1 until the first warning is logged
+
+    // Bound after the writer thread has started, so they are volatile like the flags above
+    private volatile Counter recordsCounter = TollMetrics.UNBOUND_COUNTER;
+    private volatile Counter droppedCounter = TollMetrics.UNBOUND_COUNTER;
+    private volatile Counter errorsCounter = TollMetrics.UNBOUND_COUNTER;
+    private volatile DistributionSummary batchSummary = TollMetrics.UNBOUND_SUMMARY;
+    private volatile Timer fsyncTimer = TollMetrics.UNBOUND_TIMER;
+
+    /**
+     * Creates the appender and starts its writer thread.
+     *
+     * @param writer              The log the records are appended to, closed with the appender.
+     * @param toRecord            Converts an event to its record on the writer thread.
+     * @param bufferSize          The number of events the ring buffer holds.
+     * @param overflowPolicy      What happens to an event published while the buffer is full.
+     * @param batchSize           The highest number of events written at once.
+     * @param fsyncIntervalMillis The time after which written records are forced to the disk, 0 forces every batch.
+     */
+    public AuditLogAppender(AuditLogWriter writer, Function<? super E, AuditRecord> toRecord, int bufferSize,
+                            AuditOverflowPolicy overflowPolicy, int batchSize, long fsyncIntervalMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The audit batch size must be at least 1, not " + batchSize + ".");
+        }
+        this.writer = writer;
+        this.toRecord = toRecord;
+        this.ringBuffer = new AuditRingBuffer<>(bufferSize);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(fsyncIntervalMillis, 0));
+        this.writerThread = new Thread(this::writeRecords, "audit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        recordsCounter = Counter.builder("toll.audit.records")
+                .description("Toll calculations written to the audit log")
+                .register(registry);
+        droppedCounter = Counter.builder("toll.audit.dropped")
+                .description("Toll calculations not written to the audit log because its buffer was full")
+                .register(registry);
+        errorsCounter = Counter.builder("toll.audit.errors")
+                .description("Audit records and writes that failed, e.g. because the disk is full")
+                .register(registry);
+        batchSummary = DistributionSummary.builder("toll.audit.batch")
+                .description("Audit records written at once by the audit writer")
+                .baseUnit("records")
+                .register(registry);
+        fsyncTimer = Timer.builder("toll.audit.fsync")
+                .description("Forcing the written audit records to the disk")
+                .register(registry);
+    }
+
+    /**
+     * Publishes an event to be written, from any thread.
+     *
+     * @param event The event.
+     * @return Whether the event will be written, false if it was discarded because the buffer
+     *         was full or the appender is closed.
+     */
+    public boolean publish(E event) {
+        while (!closed) {
+            if (ringBuffer.offer(event)) {
+                if (writerParked) {
+                    writerParked = false;
+                    LockSupport.unpark(writerThread);
+                }
+                return true;
+            }
+            if (overflowPolicy != AuditOverflowPolicy.BLOCK) {
+                break;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+        }
+
+        dropped.increment();
+        if (overflowPolicy == AuditOverflowPolicy.COUNT) {
+            droppedSinceGap.increment();
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    /**
+     * Returns the number of events that were discarded.
+     */
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops accepting events, writes the ones already published and closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeRecords() {
+        long lastForce = System.nanoTime();
+        boolean unforced = false;
+        while (true) {
+            boolean stopping = closed;
+            int count = ringBuffer.drain(this::append, batchSize);
+            long droppedEvents = overflowPolicy == AuditOverflowPolicy.COUNT ? droppedSinceGap.sumThenReset() : 0;
+            if (droppedEvents > 0) {
+                appendGap(AuditRecord.gap(System.currentTimeMillis(), droppedEvents));
+            }
+
+            try {
+                if (count > 0 || droppedEvents > 0) {
+                    writer.flush();
+                    unforced = true;
+                    batchSummary.record(count);
+                }
+                if (unforced && (stopping || System.nanoTime() - lastForce >= fsyncIntervalNanos)) {
+                    long startNanos = System.nanoTime();
+                    writer.force();
+                    TollMetrics.recordSince(fsyncTimer, startNanos);
+                    lastForce = startNanos;
+                    unforced = false;
+                }
+            } catch (IOException ex) {
+                reportError("writing the audit log", ex);
+            }
+
+            if (count == 0) {
+                if (stopping) {
+                    break;
+                }
+                // Park until a publisher wakes the writer, or the written records are due to be forced
+                writerParked = true;
+                if (ringBuffer.isEmpty() && !closed) {
+                    LockSupport.parkNanos(unforced ? Math.max(fsyncIntervalNanos - (System.nanoTime() - lastForce), 1)
+                            : IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+            }
+        }
+
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            reportError("closing the audit log", ex);
+        }
+    }
+
+    private void append(E event) {
+        try {
+            writer.append(toRecord.apply(event));
+            recordsCounter.increment();
+        } catch (IOException | RuntimeException ex) {
+            reportError("writing an audit record", ex);
+        }
+    }
+
+    private void appendGap(AuditRecord gap) {
+        try {
+            writer.append(gap);
+        } catch (IOException | RuntimeException ex) {
+            reportError("writing an audit gap record", ex);
+        }
+    }
+
+    private void reportError(String action, Exception ex) {
+        errorsCounter.increment();
+        long now = System.nanoTime();
+        if (unloggedErrors >= 0 && now - lastErrorLogNanos < TimeUnit.SECONDS.toNanos(ERROR_LOG_INTERVAL_SECONDS)) {
+            unloggedErrors++;
+            return;
+        }
+        if (unloggedErrors > 0) {
+            LOGGER.warn("Error {}, {} more audit log errors since the last warning. Error: {}",
+                    action, unloggedErrors, ex.getMessage());
+        } else {
+            LOGGER.warn("Error {}. Error: {}", action, ex.getMessage());
+        }
+        lastErrorLogNanos = now;
+        unloggedErrors = 0;
+    }
+}
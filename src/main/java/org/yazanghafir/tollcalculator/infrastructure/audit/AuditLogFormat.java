@@ -0,0 +1,272 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The binary layout of the audit log segments, all values big-endian.
+ *
+ * A segment file is named after the sequence number of its first record and starts with a
+ * header of the magic "TAUD", the format version and that sequence number. The records follow
+ * back to back, each framed by the length and the CRC-32 of its body, so a record that was
+ * only partly written before a crash is recognised and the segment ends before it.
+ *
+ * A body starts with the kind, the sequence number and the timestamp. A calculation or a
+ * passage continues with the plate, type and zone as UTF-8 strings with a short length (-1 for
+ * null) and the days, each with its epoch day, total, flags (toll-free vehicle type or day),
+ * passages as milliseconds of the day and hour windows as pairs of start and fee. A gap
+ * continues with the number of discarded records.
+ */
+final class AuditLogFormat {
+
+    static final int MAGIC = 0x54415544; // "TAUD"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int FRAME_HEADER_SIZE = 8;
+    static final int MAX_BODY_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte CALCULATION = 1;
+    private static final byte GAP = 2;
+    private static final byte PASSAGE = 3;
+    private static final byte TOLL_FREE_VEHICLE_TYPE = 1;
+    private static final byte TOLL_FREE_DAY = 2;
+
+    private AuditLogFormat() {
+    }
+
+    static String segmentFileName(long baseSequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, baseSequence, SEGMENT_SUFFIX);
+    }
+
+    static boolean isSegment(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX);
+    }
+
+    static void writeHeader(ByteBuffer buffer, long baseSequence) {
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(baseSequence);
+    }
+
+    /**
+     * Returns the size of the framed record in bytes.
+     */
+    static int frameSize(EncodedRecord record) {
+        return FRAME_HEADER_SIZE + record.bodySize;
+    }
+
+    /**
+     * Converts the strings of a record to UTF-8 and measures its body.
+     */
+    static EncodedRecord prepare(AuditRecord record) {
+        byte[] plate = utf8(record.getVehiclePlate());
+        byte[] type = utf8(record.getVehicleType());
+        byte[] zone = utf8(record.getZone());
+        int size = 1 + 8 + 8;
+        if (record.getKind() == AuditRecord.Kind.GAP) {
+            size += 8;
+        } else {
+            size += stringSize(plate) + stringSize(type) + stringSize(zone) + 4;
+            for (AuditRecord.Day day : record.getDays()) {
+                size += 8 + 4 + 1 + 4 + 4 * day.getPassageMillisOfDay().length + 4 + 8 * day.getWindowFees().length;
+            }
+        }
+        if (size > MAX_BODY_SIZE) {
+            throw new IllegalArgumentException("The audit record of " + record.getVehiclePlate() + " is larger than "
+                    + MAX_BODY_SIZE + " bytes.");
+        }
+        return new EncodedRecord(record, plate, type, zone, size);
+    }
+
+    /**
+     * Writes the framed record at the position of the buffer, which must have room for it.
+     */
+    static void write(ByteBuffer buffer, EncodedRecord encoded, long sequence, CRC32 crc) {
+        AuditRecord record = encoded.record;
+        int frameStart = buffer.position();
+        buffer.position(frameStart + FRAME_HEADER_SIZE);
+        buffer.put(kind(record.getKind()))
+                .putLong(sequence)
+                .putLong(record.getTimestampMillis());
+        if (record.getKind() == AuditRecord.Kind.GAP) {
+            buffer.putLong(record.getDroppedRecords());
+        } else {
+            putString(buffer, encoded.plate);
+            putString(buffer, encoded.type);
+            putString(buffer, encoded.zone);
+            buffer.putInt(record.getDays().size());
+            for (AuditRecord.Day day : record.getDays()) {
+                buffer.putLong(day.getEpochDay())
+                        .putInt(day.getTollFee())
+                        .put(flags(day.getExemption()))
+                        .putInt(day.getPassageMillisOfDay().length);
+                for (int millisOfDay : day.getPassageMillisOfDay()) {
+                    buffer.putInt(millisOfDay);
+                }
+                buffer.putInt(day.getWindowFees().length);
+                for (int i = 0; i < day.getWindowFees().length; i++) {
+                    buffer.putInt(day.getWindowStartMillisOfDay()[i]).putInt(day.getWindowFees()[i]);
+                }
+            }
+        }
+        int frameEnd = buffer.position();
+
+        crc.reset();
+        crc.update(buffer.duplicate().position(frameStart + FRAME_HEADER_SIZE).limit(frameEnd));
+        buffer.putInt(frameStart, encoded.bodySize).putInt(frameStart + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Reads the framed record at the position of the buffer and moves past it.
+     *
+     * @return The record, or null if the rest of the buffer is not a complete, intact record.
+     */
+    static AuditRecord read(ByteBuffer buffer, CRC32 crc) {
+        if (buffer.remaining() < FRAME_HEADER_SIZE) {
+            return null;
+        }
+        int frameStart = buffer.position();
+        int bodySize = buffer.getInt(frameStart);
+        int checksum = buffer.getInt(frameStart + 4);
+        if (bodySize <= 0 || bodySize > MAX_BODY_SIZE || bodySize > buffer.remaining() - FRAME_HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer body = buffer.duplicate().position(frameStart + FRAME_HEADER_SIZE).limit(frameStart + FRAME_HEADER_SIZE + bodySize);
+        crc.reset();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+
+        try {
+            AuditRecord record = readBody(body);
+            buffer.position(frameStart + FRAME_HEADER_SIZE + bodySize);
+            return record;
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static AuditRecord readBody(ByteBuffer body) {
+        byte kind = body.get();
+        long sequence = body.getLong();
+        long timestampMillis = body.getLong();
+        if (kind == GAP) {
+            return new AuditRecord(AuditRecord.Kind.GAP, sequence, timestampMillis, null, null, null, List.of(), body.getLong());
+        }
+        if (kind != CALCULATION && kind != PASSAGE) {
+            throw new IllegalArgumentException("Unknown audit record kind " + kind + ".");
+        }
+
+        String plate = getString(body);
+        String type = getString(body);
+        String zone = getString(body);
+        int dayCount = count(body, 8 + 4 + 1 + 4 + 4);
+        List<AuditRecord.Day> days = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            long epochDay = body.getLong();
+            int tollFee = body.getInt();
+            AuditRecord.Exemption exemption = exemption(body.get());
+            int[] passages = new int[count(body, 4)];
+            for (int p = 0; p < passages.length; p++) {
+                passages[p] = body.getInt();
+            }
+            int windowCount = count(body, 8);
+            int[] windowStarts = new int[windowCount];
+            int[] windowFees = new int[windowCount];
+            for (int w = 0; w < windowCount; w++) {
+                windowStarts[w] = body.getInt();
+                windowFees[w] = body.getInt();
+            }
+            days.add(new AuditRecord.Day(epochDay, tollFee, exemption, passages, windowStarts, windowFees));
+        }
+        return new AuditRecord(kind == PASSAGE ? AuditRecord.Kind.PASSAGE : AuditRecord.Kind.CALCULATION,
+                sequence, timestampMillis, plate, type, zone, days, 0);
+    }
+
+    private static byte kind(AuditRecord.Kind kind) {
+        return switch (kind) {
+            case CALCULATION -> CALCULATION;
+            case PASSAGE -> PASSAGE;
+            case GAP -> GAP;
+        };
+    }
+
+    private static byte flags(AuditRecord.Exemption exemption) {
+        return switch (exemption) {
+            case VEHICLE_TYPE -> TOLL_FREE_VEHICLE_TYPE;
+            case DAY -> TOLL_FREE_DAY;
+            case NONE -> 0;
+        };
+    }
+
+    private static AuditRecord.Exemption exemption(byte flags) {
+        if ((flags & TOLL_FREE_VEHICLE_TYPE) != 0) {
+            return AuditRecord.Exemption.VEHICLE_TYPE;
+        }
+        return (flags & TOLL_FREE_DAY) != 0 ? AuditRecord.Exemption.DAY : AuditRecord.Exemption.NONE;
+    }
+
+    // Reads an element count and checks that the body can hold that many elements of the given size
+    private static int count(ByteBuffer body, int elementSize) {
+        int count = body.getInt();
+        if (count < 0 || (long) count * elementSize > body.remaining()) {
+            throw new IllegalArgumentException("Invalid element count " + count + ".");
+        }
+        return count;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int stringSize(byte[] value) {
+        if (value != null && value.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Audit record strings longer than " + Short.MAX_VALUE + " bytes are not supported.");
+        }
+        return 2 + (value != null ? value.length : 0);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) value.length).put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer body) {
+        int length = body.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        body.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A record with its strings converted to UTF-8 and the size of its body.
+     */
+    static final class EncodedRecord {
+        private final AuditRecord record;
+        private final byte[] plate;
+        private final byte[] type;
+        private final byte[] zone;
+        private final int bodySize;
+
+        private EncodedRecord(AuditRecord record, byte[] plate, byte[] type, byte[] zone, int bodySize) {
+            this.record = record;
+            this.plate = plate;
+            this.type = type;
+            this.zone = zone;
+            this.bodySize = bodySize;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Decodes the segments written by {@link AuditLogWriter}.
+ *
+ * A segment is mapped read-only and its records are decoded in order until the end, or until
+ * a record that is truncated or fails its checksum, which is where a crash stopped the writer.
+ * Nothing after such a record is read, since the writer continues in a new segment after a
+ * restart.
+ */
+public final class AuditLogReader {
+
+    private AuditLogReader() {
+    }
+
+    /**
+     * Returns the segment files of a directory in sequence order.
+     *
+     * @throws UncheckedIOException if the directory cannot be listed.
+     */
+    public static List<Path> listSegments(Path directory) {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // The names hold the zero-padded first sequence number, so they sort in sequence order
+            return files.filter(AuditLogFormat::isSegment).sorted().toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("The audit log directory " + directory + " could not be listed. Error: "
+                    + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Decodes the records of one segment.
+     *
+     * @param segment  The segment file.
+     * @param consumer Called with every intact record in order.
+     * @return Whether the segment ended cleanly, false if it ends with a damaged or incomplete record.
+     * @throws IOException           if the segment cannot be read.
+     * @throws IllegalStateException if the file is not an audit log segment.
+     */
+    public static boolean read(Path segment, Consumer<AuditRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < AuditLogFormat.HEADER_SIZE) {
+                return size == 0; // The header of a new segment was not written yet
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != AuditLogFormat.MAGIC) {
+                throw new IllegalStateException(segment + " is not an audit log segment.");
+            }
+            int version = buffer.getInt();
+            if (version != AuditLogFormat.FORMAT_VERSION) {
+                throw new IllegalStateException(segment + " has the unsupported audit log format version " + version + ".");
+            }
+            buffer.getLong(); // The sequence number of the first record
+
+            CRC32 crc = new CRC32();
+            while (buffer.hasRemaining()) {
+                AuditRecord record = AuditLogFormat.read(buffer, crc);
+                if (record == null) {
+                    return false;
+                }
+                consumer.accept(record);
+            }
+            return true;
+        }
+    }
+}
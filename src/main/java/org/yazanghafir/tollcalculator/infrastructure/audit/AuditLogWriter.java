@@ -0,0 +1,168 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Appends audit records to segment files in a directory, in the layout of {@link AuditLogFormat}.
+ *
+ * Records are encoded into a direct buffer and written to the segment with one FileChannel
+ * write per batch, and {@link #force()} makes them durable, so a whole batch shares a single
+ * fsync. A segment is closed when the next record would make it larger than the segment size,
+ * and the log continues in a new one. Segments are never rewritten: after a restart the
+ * sequence numbers continue from the last intact record and a new segment is started.
+ *
+ * Not thread-safe, the log is written by a single thread.
+ */
+public class AuditLogWriter implements Closeable {
+
+    private static final int BATCH_BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long segmentBytes;
+    private long nextSequence;
+
+    private AuditLogWriter(Path directory, long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the log in the given directory, which is created if needed, and starts a new segment.
+     *
+     * @param directory   The directory of the segment files.
+     * @param segmentSize The size in bytes after which a new segment is started.
+     * @return The open writer.
+     * @throws UncheckedIOException if the directory cannot be read or written.
+     */
+    public static AuditLogWriter open(Path directory, long segmentSize) {
+        if (segmentSize <= AuditLogFormat.HEADER_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The audit segment size must be between " + AuditLogFormat.HEADER_SIZE
+                    + " bytes and 2 GB, not " + segmentSize + ".");
+        }
+        AuditLogWriter writer = new AuditLogWriter(directory, segmentSize);
+        try {
+            Files.createDirectories(directory);
+            writer.openSegment(writer.recoverNextSequence());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("The audit log in " + directory + " could not be opened. Error: "
+                    + ex.getMessage(), ex);
+        }
+        return writer;
+    }
+
+    /**
+     * Appends a record to the current batch, which is written when it is full or flushed.
+     *
+     * @param record The record.
+     * @return The sequence number of the record.
+     * @throws IOException if a full batch cannot be written.
+     */
+    public long append(AuditRecord record) throws IOException {
+        AuditLogFormat.EncodedRecord encoded = AuditLogFormat.prepare(record);
+        int frameSize = AuditLogFormat.frameSize(encoded);
+        if (segmentBytes > AuditLogFormat.HEADER_SIZE && segmentBytes + frameSize > segmentSize) {
+            force();
+            channel.close();
+            openSegment(nextSequence);
+        }
+
+        if (frameSize > batch.remaining()) {
+            flush();
+        }
+        if (frameSize > batch.capacity()) {
+            // Larger than a whole batch, e.g. a year of passages, so it is written on its own
+            ByteBuffer buffer = ByteBuffer.allocate(frameSize);
+            AuditLogFormat.write(buffer, encoded, nextSequence, crc);
+            writeFully(buffer.flip());
+        } else {
+            AuditLogFormat.write(batch, encoded, nextSequence, crc);
+        }
+        segmentBytes += frameSize;
+        return nextSequence++;
+    }
+
+    /**
+     * Writes the current batch to the segment file, without waiting for it to reach the disk.
+     */
+    public void flush() throws IOException {
+        if (batch.position() > 0) {
+            writeFully(batch.flip());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes the current batch and waits until everything written so far is on the disk.
+     */
+    public void force() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    /**
+     * Returns the sequence number of the next record.
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Writes the current batch to the disk and closes the segment.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            try {
+                force();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // Continues after the last intact record, a last segment without records is started over
+    private long recoverNextSequence() throws IOException {
+        List<Path> segments = AuditLogReader.listSegments(directory);
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        Path lastSegment = segments.get(segments.size() - 1);
+        long[] lastSequence = {-1};
+        AuditLogReader.read(lastSegment, record -> lastSequence[0] = record.getSequence());
+        if (lastSequence[0] >= 0) {
+            return lastSequence[0] + 1;
+        }
+        String fileName = lastSegment.getFileName().toString();
+        long baseSequence = Long.parseLong(fileName.substring(fileName.indexOf('-') + 1, fileName.lastIndexOf('.')));
+        Files.delete(lastSegment);
+        return baseSequence;
+    }
+
+    private void openSegment(long baseSequence) throws IOException {
+        channel = FileChannel.open(directory.resolve(AuditLogFormat.segmentFileName(baseSequence)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        AuditLogFormat.writeHeader(batch, baseSequence);
+        segmentBytes = AuditLogFormat.HEADER_SIZE;
+        nextSequence = baseSequence;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
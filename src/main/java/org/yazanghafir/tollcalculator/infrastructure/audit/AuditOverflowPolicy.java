@@ -0,0 +1,21 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+/**
+ * What happens to an audit record that is published while the ring buffer is full.
+ */
+public enum AuditOverflowPolicy {
+    /**
+     * The publishing thread waits until the writer has made room, so no record is lost but a
+     * slow disk slows down the requests.
+     */
+    BLOCK,
+    /**
+     * The record is discarded and counted in the toll.audit.dropped metric.
+     */
+    DROP,
+    /**
+     * The record is discarded and counted, and the writer appends a gap record with the number
+     * of discarded records, so the loss is visible in the log itself.
+     */
+    COUNT
+}
@@ -0,0 +1,111 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * An entry of the audit log: a toll calculation with its passages, hour windows and totals, a
+ * live passage with the running total of its day after it, or a gap that stands for records
+ * that were discarded because the buffer was full.
+ *
+ * The sequence number is assigned by {@link AuditLogWriter#append(AuditRecord)} and is 0 until
+ * the record is written.
+ */
+@Getter
+@AllArgsConstructor
+public class AuditRecord {
+
+    public enum Kind {
+        CALCULATION,
+        PASSAGE,
+        GAP
+    }
+
+    /**
+     * Why a day was not charged: its vehicle type or the day itself is toll-free.
+     */
+    public enum Exemption {
+        NONE,
+        VEHICLE_TYPE,
+        DAY
+    }
+
+    private final Kind kind;
+    private final long sequence;
+    private final long timestampMillis;
+    private final String vehiclePlate;
+    private final String vehicleType;
+    private final String zone;
+    private final List<Day> days;
+    private final long droppedRecords;
+
+    public static AuditRecord calculation(long timestampMillis, String vehiclePlate, String vehicleType, String zone,
+                                          List<Day> days) {
+        return new AuditRecord(Kind.CALCULATION, 0, timestampMillis, vehiclePlate, vehicleType, zone, days, 0);
+    }
+
+    /**
+     * Creates the record of a live passage, its day holds the passage, the running total of the
+     * day and no windows, since the earlier passages of the day are in earlier records.
+     */
+    public static AuditRecord passage(long timestampMillis, String vehiclePlate, String vehicleType, Day day) {
+        return new AuditRecord(Kind.PASSAGE, 0, timestampMillis, vehiclePlate, vehicleType, null, List.of(day), 0);
+    }
+
+    public static AuditRecord gap(long timestampMillis, long droppedRecords) {
+        return new AuditRecord(Kind.GAP, 0, timestampMillis, null, null, null, List.of(), droppedRecords);
+    }
+
+    /**
+     * Returns the total fee of all days.
+     */
+    public int getTotalTollFee() {
+        int total = 0;
+        for (Day day : days) {
+            total += day.getTollFee();
+        }
+        return total;
+    }
+
+    /**
+     * The passages of one day in local time, the hour windows they were grouped into with the
+     * highest fee of each, and the charged total after the daily maximum. A toll-free day has
+     * no windows and records whether its vehicle type or the day was exempt.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Day {
+        private final long epochDay;
+        private final int tollFee;
+        private final Exemption exemption;
+        private final int[] passageMillisOfDay;
+        private final int[] windowStartMillisOfDay;
+        private final int[] windowFees;
+
+        public LocalDate getDate() {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+
+        public boolean isTollFree() {
+            return exemption != Exemption.NONE;
+        }
+
+        /**
+         * Describes the windows as e.g. "06:15=13 07:30=18".
+         */
+        public String describeWindows() {
+            StringBuilder windows = new StringBuilder();
+            for (int i = 0; i < windowFees.length; i++) {
+                if (i > 0) {
+                    windows.append(' ');
+                }
+                windows.append(LocalTime.ofNanoOfDay(windowStartMillisOfDay[i] * 1_000_000L)).append('=').append(windowFees[i]);
+            }
+            return windows.toString();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * A bounded, lock-free queue of many publishing threads and a single consumer.
+ *
+ * Every slot carries a sequence number that tells whose turn it is: a publisher claims the
+ * next position with a compare-and-set on the tail and may write the slot when its sequence
+ * equals the position, then publishes the element by advancing the sequence by one. The
+ * consumer takes the element when the sequence is one ahead of its position and hands the
+ * slot back to the publishers by advancing it to the position of the next lap. Publishers
+ * never wait for each other, and a full buffer is reported instead of waited for.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class AuditRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong(); // Only advanced by the consumer
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param capacity The number of elements, rounded up to a power of two.
+     */
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("The audit buffer size must be between 1 and 2^30, not " + capacity + ".");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room, from any thread.
+     *
+     * @param element The element, not null.
+     * @return Whether the element was added, false if the buffer is full.
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // The slot of the previous lap has not been consumed yet
+            } else {
+                position = tail.get(); // Another publisher claimed the position
+            }
+        }
+    }
+
+    /**
+     * Removes up to the given number of elements in the order they were added, only from the
+     * consumer thread.
+     *
+     * @param consumer    Called with every removed element.
+     * @param maxElements The highest number of elements to remove.
+     * @return The number of removed elements.
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> consumer, int maxElements) {
+        long position = head.get();
+        int count = 0;
+        for (; count < maxElements; count++, position++) {
+            int index = (int) position & mask;
+            if (sequences.getAcquire(index) != position + 1) {
+                break; // Empty, or the publisher of the slot has not finished writing it
+            }
+            E element = (E) elements[index];
+            elements[index] = null;
+            sequences.setRelease(index, position + elements.length);
+            head.lazySet(position + 1);
+            consumer.accept(element);
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether there are no elements, exact only on the consumer thread.
+     */
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    /**
+     * Returns the approximate number of elements.
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head.get(), elements.length));
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+}
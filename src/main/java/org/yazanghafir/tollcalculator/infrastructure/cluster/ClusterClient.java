@@ -0,0 +1,97 @@
+package org.yazanghafir.tollcalculator.infrastructure.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Sends requests to the other nodes of a partitioned deployment.
+ *
+ * A request sent by a node carries the {@value #FORWARDED_HEADER} header, and a node that receives
+ * it handles the request itself, so a request is forwarded at most once even while the nodes
+ * disagree about the owner during a node list change. Connections are kept alive between calls.
+ */
+@Component
+public class ClusterClient {
+
+    public static final String FORWARDED_HEADER = "X-Toll-Forwarded";
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
+            .withZone(ZoneOffset.UTC);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+
+    public ClusterClient(ObjectMapper objectMapper, @Value("${toll.cluster.timeout-ms:5000}") long timeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * Sends a request on to another node.
+     *
+     * @param node         The URL of the node.
+     * @param method       The HTTP method.
+     * @param pathAndQuery The path and query string of the request.
+     * @param contentType  The content type of the body, or null without a body.
+     * @param body         The request body.
+     * @return The response of the node.
+     */
+    public HttpResponse<byte[]> forward(String node, String method, String pathAndQuery, String contentType, byte[] body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + pathAndQuery))
+                .timeout(timeout)
+                .header(FORWARDED_HEADER, "1")
+                .method(method, body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Adds a passage to the running total on another node through its passage endpoint.
+     *
+     * @param node         The URL of the node.
+     * @param vehiclePlate The plate of the vehicle.
+     * @param vehicleType  The type of the vehicle.
+     * @param passageTime  The time of the passage.
+     * @throws IOException if the node cannot be reached or does not accept the passage.
+     */
+    public void sendPassage(String node, String vehiclePlate, String vehicleType, Instant passageTime)
+            throws IOException, InterruptedException {
+        String pathAndQuery = "/api/toll/passage?vehiclePlate=" + encode(vehiclePlate)
+                + "&vehicleType=" + encode(vehicleType)
+                + "&vehicleDateTime=" + encode(DATE_TIME.format(passageTime));
+        HttpResponse<byte[]> response = forward(node, "POST", pathAndQuery, null, new byte[0]);
+        if (response.statusCode() != 200) {
+            throw new IOException(node + " answered with status " + response.statusCode() + ".");
+        }
+        if (!objectMapper.readTree(response.body()).path("success").asBoolean()) {
+            throw new IOException(node + " did not accept the passage: " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,118 @@
+package org.yazanghafir.tollcalculator.infrastructure.cluster;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * The nodes of a partitioned deployment and the plates this node owns.
+ *
+ * Every node is started with the same toll.cluster.nodes list and its own URL in
+ * toll.cluster.self, so all nodes agree on the owner of a plate without a coordinator. The list
+ * can be replaced at runtime, which swaps the ring atomically. With no nodes configured the
+ * deployment is not partitioned and every plate is local.
+ */
+@Component
+public class ClusterMembership {
+
+    private final String self;
+    private final int virtualNodes;
+    private final RoutingMode routingMode;
+    private volatile ConsistentHashRing ring;
+
+    /**
+     * How a request for a plate owned by another node is answered.
+     */
+    public enum RoutingMode {
+        /** The request is sent on to the owner and its response is returned. */
+        FORWARD,
+        /** The client is redirected to the owner with a 307, so it can send the request there itself. */
+        REDIRECT
+    }
+
+    @Autowired
+    public ClusterMembership(@Value("${toll.cluster.nodes:}") List<String> nodes,
+                             @Value("${toll.cluster.self:}") String self,
+                             @Value("${toll.cluster.virtual-nodes:128}") int virtualNodes,
+                             @Value("${toll.cluster.routing:forward}") String routingMode) {
+        this.self = normalise(self);
+        this.virtualNodes = virtualNodes;
+        this.routingMode = RoutingMode.valueOf(routingMode.trim().toUpperCase());
+        this.ring = new ConsistentHashRing(normaliseAll(nodes), virtualNodes);
+    }
+
+    public boolean isPartitioned() {
+        return !ring.getNodes().isEmpty();
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public RoutingMode getRoutingMode() {
+        return routingMode;
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Returns the node that owns the plate, or null if the deployment is not partitioned.
+     */
+    public String ownerOf(String vehiclePlate) {
+        return ring.ownerOf(vehiclePlate);
+    }
+
+    /**
+     * Checks if this node owns the plate, which is always the case without partitioning.
+     */
+    public boolean isLocal(String vehiclePlate) {
+        String owner = ring.ownerOf(vehiclePlate);
+        return owner == null || owner.equals(self);
+    }
+
+    /**
+     * Checks if the given node list is the one in use, so replacing it would move no plates.
+     */
+    public boolean hasNodes(List<String> nodes) {
+        return new ArrayList<>(new LinkedHashSet<>(normaliseAll(nodes))).equals(ring.getNodes());
+    }
+
+    /**
+     * Replaces the node list.
+     *
+     * @param nodes The new node URLs.
+     * @return The ring that was in use before.
+     */
+    public synchronized ConsistentHashRing updateNodes(List<String> nodes) {
+        ConsistentHashRing previous = ring;
+        ring = new ConsistentHashRing(normaliseAll(nodes), virtualNodes);
+        return previous;
+    }
+
+    private static List<String> normaliseAll(List<String> nodes) {
+        List<String> normalised = new ArrayList<>();
+        if (nodes != null) {
+            for (String node : nodes) {
+                String url = normalise(node);
+                if (!url.isEmpty()) {
+                    normalised.add(url);
+                }
+            }
+        }
+        return normalised;
+    }
+
+    /**
+     * Trims a node URL and removes a trailing slash, so "http://a:8080/" and "http://a:8080" are the same node.
+     */
+    private static String normalise(String node) {
+        String url = node == null ? "" : node.trim();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
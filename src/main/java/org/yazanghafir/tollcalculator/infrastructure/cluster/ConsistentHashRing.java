@@ -0,0 +1,129 @@
+package org.yazanghafir.tollcalculator.infrastructure.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring that assigns vehicle plates to nodes.
+ *
+ * Every node is placed on the ring at a number of points (virtual nodes) hashed from its URL,
+ * and a plate belongs to the node of the first point at or after the hash of the plate. When a
+ * node joins or leaves, only the plates between its points and their predecessors change owner,
+ * about 1/N of all plates, and the virtual nodes spread that share evenly over the other nodes.
+ * The hashes depend only on the node URLs and the plate, so every node computes the same owners
+ * from the same node list.
+ */
+public final class ConsistentHashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * Builds the ring. Duplicate nodes are ignored.
+     *
+     * @param nodes        The node URLs, e.g. "http://localhost:8081".
+     * @param virtualNodes The number of points per node.
+     */
+    public ConsistentHashRing(List<String> nodes, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("The number of virtual nodes must be positive.");
+        }
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(nodes)));
+
+        List<Point> ring = new ArrayList<>(this.nodes.size() * virtualNodes);
+        for (int node = 0; node < this.nodes.size(); node++) {
+            for (int point = 0; point < virtualNodes; point++) {
+                ring.add(new Point(hash(this.nodes.get(node) + "#" + point), node));
+            }
+        }
+        // Unsigned order, ties are broken by the node so every node builds the same ring
+        ring.sort((a, b) -> {
+            int byHash = Long.compareUnsigned(a.hash(), b.hash());
+            return byHash != 0 ? byHash : Integer.compare(a.owner(), b.owner());
+        });
+
+        this.points = new long[ring.size()];
+        this.owners = new int[ring.size()];
+        for (int i = 0; i < ring.size(); i++) {
+            points[i] = ring.get(i).hash();
+            owners[i] = ring.get(i).owner();
+        }
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the node that owns the plate, or null if the ring has no nodes.
+     */
+    public String ownerOf(String vehiclePlate) {
+        if (points.length == 0) {
+            return null;
+        }
+        return nodes.get(owners[pointIndex(hash(vehiclePlate))]);
+    }
+
+    /**
+     * Returns the share of the hash space that the node owns, between 0 and 1.
+     */
+    public double getShare(String node) {
+        int nodeIndex = nodes.indexOf(node);
+        if (nodeIndex < 0) {
+            return 0;
+        }
+        double share = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (owners[i] == nodeIndex) {
+                // A point owns the hashes after its predecessor up to and including itself
+                long previous = i == 0 ? points[points.length - 1] : points[i - 1];
+                long length = points[i] - previous;
+                share += points.length == 1 ? 1.0 : unsignedToDouble(length) / 0x1p64;
+            }
+        }
+        return share;
+    }
+
+    private int pointIndex(long hash) {
+        int low = 0;
+        int high = points.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[middle], hash) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low == points.length ? 0 : low; // Past the last point wraps around to the first
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes, finished with the MurmurHash3 mixer so that
+     * similar plates land far apart on the ring.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private record Point(long hash, int owner) {
+    }
+
+    private static double unsignedToDouble(long value) {
+        return value >= 0 ? value : (value >>> 1) * 2.0 + (value & 1);
+    }
+}
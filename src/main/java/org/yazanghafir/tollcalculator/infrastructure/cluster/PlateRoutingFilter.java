@@ -0,0 +1,112 @@
+package org.yazanghafir.tollcalculator.infrastructure.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+
+/**
+ * Sends passage events to the node that owns their plate in a partitioned deployment, so the
+ * running total of a vehicle day is only kept on one node.
+ *
+ * A passage for a plate owned by another node is either forwarded there and its response
+ * returned, or answered with a 307 redirect to the owner, depending on toll.cluster.routing.
+ * The plate is read from the query string, so the request body is not parsed to route it.
+ * Requests that were already forwarded by a node, and every request when the deployment is not
+ * partitioned, are handled here.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PlateRoutingFilter extends OncePerRequestFilter implements MeterBinder {
+
+    static final String PASSAGE_PATH = "/api/toll/passage";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlateRoutingFilter.class);
+
+    private final ClusterMembership membership;
+    private final ClusterClient clusterClient;
+    private final ObjectMapper objectMapper;
+
+    private Counter forwardedCounter = TollMetrics.UNBOUND_COUNTER;
+    private Counter redirectedCounter = TollMetrics.UNBOUND_COUNTER;
+
+    public PlateRoutingFilter(ClusterMembership membership, ClusterClient clusterClient, ObjectMapper objectMapper) {
+        this.membership = membership;
+        this.clusterClient = clusterClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        forwardedCounter = routedCounter(registry, "forward");
+        redirectedCounter = routedCounter(registry, "redirect");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !membership.isPartitioned()
+                || request.getHeader(ClusterClient.FORWARDED_HEADER) != null
+                || !PASSAGE_PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String vehiclePlate = request.getParameter("vehiclePlate");
+        String owner = vehiclePlate == null ? null : membership.ownerOf(vehiclePlate);
+        if (owner == null || owner.equals(membership.getSelf())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String pathAndQuery = request.getRequestURI() + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        if (membership.getRoutingMode() == ClusterMembership.RoutingMode.REDIRECT) {
+            redirectedCounter.increment();
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, owner + pathAndQuery);
+            return;
+        }
+
+        forwardedCounter.increment();
+        try {
+            HttpResponse<byte[]> forwarded = clusterClient.forward(owner, request.getMethod(), pathAndQuery,
+                    request.getContentType(), request.getInputStream().readAllBytes());
+            response.setStatus(forwarded.statusCode());
+            forwarded.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+            response.getOutputStream().write(forwarded.body());
+        } catch (IOException | InterruptedException ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.warn("Error forwarding a passage to {}. Error: {}", owner, ex.getMessage());
+            response.setStatus(HttpStatus.BAD_GATEWAY.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new TollCalculatorResponse(0, false,
+                    "Error forwarding the passage to " + owner + ". Error: " + ex.getMessage()));
+        }
+    }
+
+    private static Counter routedCounter(MeterRegistry registry, String mode) {
+        return Counter.builder("toll.cluster.routed")
+                .description("Passages sent to the node that owns their plate")
+                .tag("mode", mode)
+                .register(registry);
+    }
+}
@@ -0,0 +1,31 @@
+package org.yazanghafir.tollcalculator.infrastructure.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfiguration {
+
+    /**
+     * Executor used to fan out toll calculations, e.g. the vehicles of a batch request.
+     * The calculation is CPU bound, so the pool defaults to one thread per core.
+     */
+    @Bean(name = "tollCalculatorExecutor", destroyMethod = "shutdown")
+    public ExecutorService tollCalculatorExecutor(
+            @Value("${toll.batch.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "toll-calculator-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+}
@@ -0,0 +1,12 @@
+package org.yazanghafir.tollcalculator.infrastructure.concurrency;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled housekeeping, e.g. the eviction of closed vehicle days.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
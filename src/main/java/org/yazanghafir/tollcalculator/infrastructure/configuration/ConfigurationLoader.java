@@ -1,33 +1,395 @@
 package org.yazanghafir.tollcalculator.infrastructure.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
 import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationObject;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
 
+/**
+ * Loads the JSON configuration files and keeps one snapshot per file, so each file is
+ * parsed once instead of on every request.
+ *
+ * Files are read from the classpath unless an external configuration directory is set,
+ * in which case a file present there takes precedence. The directory is watched and a
+ * changed file is parsed, passed to the registered reload listeners and only then swapped
+ * in. If parsing or a listener fails the previous snapshot stays active.
+ *
+ * When the application was built with the codegen profile, the lookup tables generated from
+ * the bundled files can be used instead of loading them, see {@link #findGeneratedConfiguration}.
+ * Generated tables in use are published as a snapshot with a version of their own, so they
+ * are versioned and reported like a loaded file.
+ */
 @Service
-public class ConfigurationLoader<T extends ConfigurationObject> {
+public class ConfigurationLoader<T extends ConfigurationObject> implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationLoader.class);
+
+    private static final long RELOAD_DELAY_MILLIS = 200;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path configurationDirectory;
+    private final boolean watchConfigurationDirectory;
+    private final Map<ConfigurationFilePath, ConfigurationSnapshot<?>> snapshots = new ConcurrentHashMap<>();
+    private final Map<ConfigurationFilePath, List<Consumer<Object>>> reloadListeners = new ConcurrentHashMap<>();
+    private final Map<ConfigurationFilePath, Class<?>> listenerValueTypes = new ConcurrentHashMap<>();
+    private final Map<ConfigurationFilePath, Boolean> generatedUpToDate = new ConcurrentHashMap<>();
+    private final Map<ConfigurationFilePath, ConfigurationSnapshot<?>> generatedSnapshots = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final GeneratedConfiguration generatedConfiguration;
+
+    private WatchService watchService;
+
+    // Bound after the watch thread may have started, so they are volatile
+    private volatile Map<ConfigurationFilePath, Timer> loadTimers = perFile(filePath -> TollMetrics.UNBOUND_TIMER);
+    private volatile Map<ConfigurationFilePath, Timer> parseTimers = perFile(filePath -> TollMetrics.UNBOUND_TIMER);
+    private volatile Map<ConfigurationFilePath, Counter> parseFailureCounters = perFile(filePath -> TollMetrics.UNBOUND_COUNTER);
+
+    public ConfigurationLoader() {
+        this("", false);
+    }
+
+    /**
+     * Creates a loader that always loads the files, without the generated tables.
+     */
+    public ConfigurationLoader(String configurationDirectory, boolean watchConfigurationDirectory) {
+        this(configurationDirectory, watchConfigurationDirectory, (GeneratedConfiguration) null);
+    }
+
+    @Autowired
+    public ConfigurationLoader(@Value("${toll.configuration.directory:}") String configurationDirectory,
+                               @Value("${toll.configuration.watch:true}") boolean watchConfigurationDirectory,
+                               @Value("${toll.configuration.generated-tables:true}") boolean useGeneratedTables) {
+        this(configurationDirectory, watchConfigurationDirectory, useGeneratedTables ? GeneratedTables.INSTANCE : null);
+    }
+
+    /**
+     * Creates a loader that uses the given generated tables, or none if null.
+     */
+    public ConfigurationLoader(String configurationDirectory, boolean watchConfigurationDirectory,
+                               GeneratedConfiguration generatedConfiguration) {
+        this.configurationDirectory = configurationDirectory.isBlank() ? null : Paths.get(configurationDirectory);
+        this.watchConfigurationDirectory = watchConfigurationDirectory;
+        this.generatedConfiguration = generatedConfiguration;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        loadTimers = perFile(filePath -> Timer.builder("toll.configuration.load")
+                .description("Lookups of the current configuration snapshot")
+                .tag("file", filePath.getFilePath())
+                .register(registry));
+        parseTimers = perFile(filePath -> Timer.builder("toll.configuration.parse")
+                .description("Parsing of a configuration file into a new snapshot")
+                .tag("file", filePath.getFilePath())
+                .register(registry));
+        parseFailureCounters = perFile(filePath -> Counter.builder("toll.configuration.parse.failures")
+                .description("Configuration files that could not be read or parsed")
+                .tag("file", filePath.getFilePath())
+                .register(registry));
+    }
 
     public Optional<T> loadConfiguration(ConfigurationFilePath filePathType, Class<T> valueType) {
+        long startNanos = System.nanoTime();
+        try {
+            return loadSnapshot(filePathType, valueType).map(ConfigurationSnapshot::getValue);
+        } finally {
+            TollMetrics.recordSince(loadTimers.get(filePathType), startNanos);
+        }
+    }
+
+    /**
+     * Returns the current snapshot of the configuration file, loading it on first use.
+     *
+     * @param filePathType The configuration file.
+     * @param valueType    The type the file is bound to.
+     * @return The current snapshot, or empty if the file could not be loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<ConfigurationSnapshot<T>> loadSnapshot(ConfigurationFilePath filePathType, Class<T> valueType) {
+        ConfigurationSnapshot<?> snapshot = snapshots.get(filePathType);
+        if (snapshot == null) {
+            snapshot = snapshots.computeIfAbsent(filePathType, path -> readSnapshot(path, valueType));
+        }
+        if (snapshot != null && snapshot.getValueType() != valueType) {
+            throw new IllegalArgumentException("Configuration " + filePathType.getFilePath()
+                    + " is bound to " + snapshot.getValueType().getSimpleName() + ", not " + valueType.getSimpleName() + ".");
+        }
+        return Optional.ofNullable((ConfigurationSnapshot<T>) snapshot);
+    }
+
+    /**
+     * Returns the version of the current snapshot of the configuration file. Every published
+     * snapshot has a new version, so a result derived from a configuration can be tied to it.
+     *
+     * @param filePathType The configuration file.
+     * @return The version, or 0 if neither the file nor its generated tables are in use yet.
+     */
+    public long getVersion(ConfigurationFilePath filePathType) {
+        ConfigurationSnapshot<?> snapshot = snapshots.get(filePathType);
+        if (snapshot == null) {
+            snapshot = generatedSnapshots.get(filePathType);
+        }
+        return snapshot != null ? snapshot.getVersion() : 0;
+    }
+
+    /**
+     * Returns the lookup tables generated from the bundled configuration file at build time.
+     * They are only returned while the file has not been loaded, no file in the external
+     * configuration directory overrides it and they were generated from the bundled file on the
+     * classpath, so tables left over from an earlier build of a changed file are not used. If a
+     * file is placed in the watched directory later, it is loaded and passed to the reload
+     * listeners like a changed file. The first time the tables of a file are returned they are
+     * published as a snapshot without a value, with a new version and "generated:" as the source.
+     *
+     * @param filePathType The configuration file.
+     * @return The generated tables, or empty if the file has to be loaded.
+     */
+    public Optional<GeneratedConfiguration> findGeneratedConfiguration(ConfigurationFilePath filePathType) {
+        if (generatedConfiguration == null || snapshots.containsKey(filePathType)) {
+            return Optional.empty();
+        }
+        if (configurationDirectory != null && Files.isRegularFile(configurationDirectory.resolve(filePathType.getFilePath()))) {
+            return Optional.empty();
+        }
+        boolean upToDate = generatedUpToDate.computeIfAbsent(filePathType, this::isGeneratedUpToDate);
+        if (!upToDate) {
+            return Optional.empty();
+        }
+        generatedSnapshots.computeIfAbsent(filePathType, path -> new ConfigurationSnapshot<>(path, null, null,
+                versions.incrementAndGet(), Instant.now(), "generated:" + path.getFilePath()));
+        return Optional.of(generatedConfiguration);
+    }
+
+    /**
+     * Returns the snapshots in use, e.g. to report their versions and load times. A file whose
+     * generated tables are in use is reported with their snapshot until the file is loaded.
+     */
+    public Collection<ConfigurationSnapshot<?>> getSnapshots() {
+        Map<ConfigurationFilePath, ConfigurationSnapshot<?>> inUse = new HashMap<>(generatedSnapshots);
+        inUse.putAll(snapshots);
+        return new ArrayList<>(inUse.values());
+    }
+
+    /**
+     * Registers a listener that is called with every reloaded configuration object before
+     * it is published. A listener rejects the new configuration by throwing an exception.
+     *
+     * @param filePathType The configuration file to listen to.
+     * @param valueType    The type the file is bound to.
+     * @param listener     Receives the new configuration object.
+     */
+    public <V extends ConfigurationObject> void addReloadListener(ConfigurationFilePath filePathType, Class<V> valueType,
+                                                                 Consumer<V> listener) {
+        reloadListeners.computeIfAbsent(filePathType, path -> new CopyOnWriteArrayList<>())
+                .add(value -> listener.accept(valueType.cast(value)));
+        listenerValueTypes.putIfAbsent(filePathType, valueType);
+    }
+
+    /**
+     * Re-reads a configuration file that has been loaded before, or has reload listeners, and
+     * publishes it as a new snapshot.
+     *
+     * @param filePathType The configuration file.
+     * @return true if a new snapshot was published, false if the previous one was kept.
+     */
+    public boolean reload(ConfigurationFilePath filePathType) {
+        ConfigurationSnapshot<?> current = snapshots.get(filePathType);
+        Class<?> valueType = current != null ? current.getValueType() : listenerValueTypes.get(filePathType);
+        if (valueType == null) {
+            return false; // Not in use yet, it will be loaded on first use
+        }
+
+        ConfigurationSnapshot<?> reloaded = readSnapshot(filePathType, valueType);
+        if (reloaded == null) {
+            return false;
+        }
+
+        try {
+            for (Consumer<Object> listener : reloadListeners.getOrDefault(filePathType, List.of())) {
+                listener.accept(reloaded.getValue());
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Rejected reloaded configuration {}: {}", reloaded.getSource(), ex.getMessage());
+            return false;
+        }
+
+        snapshots.put(filePathType, reloaded);
+        return true;
+    }
+
+    @PostConstruct
+    public void startWatching() {
+        if (configurationDirectory == null || !watchConfigurationDirectory) {
+            return;
+        }
+
+        try {
+            watchService = configurationDirectory.getFileSystem().newWatchService();
+            configurationDirectory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException ex) {
+            LOGGER.warn("Cannot watch configuration directory {}: {}", configurationDirectory, ex.getMessage());
+            return;
+        }
+
+        Thread watcher = new Thread(this::watchConfigurationDirectory, "configuration-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    public void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watchConfigurationDirectory() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                // Give writers a moment to finish, a half-written file is rejected and retried on its next event
+                Thread.sleep(RELOAD_DELAY_MILLIS);
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path changedFile) {
+                        for (ConfigurationFilePath filePathType : ConfigurationFilePath.values()) {
+                            if (filePathType.getFilePath().equals(changedFile.getFileName().toString())) {
+                                reload(filePathType);
+                            }
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ex) {
+            // Stopped
+        }
+    }
+
+    private ConfigurationSnapshot<?> readSnapshot(ConfigurationFilePath filePathType, Class<?> valueType) {
         String jsonFilePath = filePathType.getFilePath();
+        Path externalFile = configurationDirectory != null ? configurationDirectory.resolve(jsonFilePath) : null;
+        long startNanos = System.nanoTime();
+
+        try {
+            if (externalFile != null && Files.isRegularFile(externalFile)) {
+                try (InputStream inputStream = Files.newInputStream(externalFile)) {
+                    return createSnapshot(filePathType, valueType, inputStream, externalFile.toUri().toString());
+                }
+            }
+
+            try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(jsonFilePath)) {
+                if (inputStream != null) {
+                    return createSnapshot(filePathType, valueType, inputStream, "classpath:" + jsonFilePath);
+                } else {
+                    LOGGER.error("JSON file {} not found.", jsonFilePath);
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.error("Error occurred when loading data from the JSON file {}: {}", jsonFilePath, ex.getMessage());
+        } finally {
+            TollMetrics.recordSince(parseTimers.get(filePathType), startNanos);
+        }
 
-        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(jsonFilePath)) {
-            if (inputStream != null) {
-                T dataObj = objectMapper.readValue(inputStream, valueType);
-                return Optional.ofNullable(dataObj);
-            } else {
-                System.err.println("Error: JSON file " + jsonFilePath + " not found.");
+        parseFailureCounters.get(filePathType).increment();
+        return null;
+    }
+
+    private boolean isGeneratedUpToDate(ConfigurationFilePath filePathType) {
+        long generatedChecksum = generatedConfiguration.getChecksum(filePathType);
+        if (generatedChecksum < 0) {
+            return false;
+        }
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(filePathType.getFilePath())) {
+            if (inputStream == null) {
+                return false;
             }
+            CRC32 checksum = new CRC32();
+            checksum.update(inputStream.readAllBytes());
+            if (checksum.getValue() != generatedChecksum) {
+                LOGGER.warn("The generated tables of {} are out of date, rebuild with the codegen profile. "
+                        + "Loading the file instead.", filePathType.getFilePath());
+                return false;
+            }
+            return true;
         } catch (IOException ex) {
-            System.err.println("Error occurred when loading data from the JSON file " + jsonFilePath + ": " + ex.getMessage());
+            LOGGER.error("Error occurred when reading the JSON file {}: {}", filePathType.getFilePath(), ex.getMessage());
+            return false;
         }
+    }
 
-        return Optional.empty();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ConfigurationSnapshot<?> createSnapshot(ConfigurationFilePath filePathType, Class<?> valueType,
+                                                    InputStream inputStream, String source) throws IOException {
+        ConfigurationObject dataObj = (ConfigurationObject) objectMapper.readValue(inputStream, valueType);
+        if (dataObj == null) {
+            return null;
+        }
+        return new ConfigurationSnapshot(filePathType, valueType, dataObj, versions.incrementAndGet(), Instant.now(), source);
+    }
+
+    private static <M> Map<ConfigurationFilePath, M> perFile(Function<ConfigurationFilePath, M> meter) {
+        Map<ConfigurationFilePath, M> meters = new EnumMap<>(ConfigurationFilePath.class);
+        for (ConfigurationFilePath filePath : ConfigurationFilePath.values()) {
+            meters.put(filePath, meter.apply(filePath));
+        }
+        return meters;
+    }
+
+    // Looked up once, the generated tables are only on the classpath when built with the codegen profile
+    private static final class GeneratedTables {
+        static final GeneratedConfiguration INSTANCE = find();
+
+        private static GeneratedConfiguration find() {
+            try {
+                return ServiceLoader.load(GeneratedConfiguration.class, ConfigurationLoader.class.getClassLoader())
+                        .findFirst()
+                        .orElse(null);
+            } catch (ServiceConfigurationError ex) {
+                // A service file left over from an earlier codegen build whose class is gone
+                return null;
+            }
+        }
     }
 }
@@ -0,0 +1,25 @@
+package org.yazanghafir.tollcalculator.infrastructure.configuration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationObject;
+
+import java.time.Instant;
+
+/**
+ * One loaded version of a configuration file. A snapshot is never modified after it is
+ * published; a reload publishes a new snapshot instead, so readers holding the old one
+ * keep a consistent view. The configuration object must therefore be treated as read-only.
+ * The snapshot of tables generated at build time has no value and value type, only a version.
+ */
+@Getter
+@AllArgsConstructor
+public class ConfigurationSnapshot<T extends ConfigurationObject> {
+    private final ConfigurationFilePath filePathType;
+    private final Class<T> valueType;
+    private final T value;
+    private final long version;
+    private final Instant loadedAt;
+    private final String source;
+}
@@ -0,0 +1,40 @@
+package org.yazanghafir.tollcalculator.infrastructure.configuration;
+
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.entities.TariffIndex;
+import org.yazanghafir.tollcalculator.domain.entities.TollFeeTable;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;
+
+/**
+ * Lookup tables generated from the bundled configuration files at build time by the codegen
+ * profile, so they are built from constants at startup instead of parsing and binding the JSON.
+ *
+ * The generated implementation is found with {@link java.util.ServiceLoader}. It is only used
+ * through {@link ConfigurationLoader#findGeneratedConfiguration}, which checks that it was
+ * generated from the bundled files on the classpath and that no external file overrides them.
+ */
+public interface GeneratedConfiguration {
+
+    /**
+     * Returns the CRC-32 of the bundled file the tables were generated from.
+     *
+     * @param filePathType The configuration file.
+     * @return The checksum, or -1 if no tables were generated from the file.
+     */
+    long getChecksum(ConfigurationFilePath filePathType);
+
+    /**
+     * Returns the default toll fee schedule of TollFees.json.
+     */
+    TollFeeTable getTollFeeTable();
+
+    /**
+     * Returns the vehicle types of VehicleTypes.json in a table without collisions.
+     */
+    VehicleTypeIndex getVehicleTypeIndex();
+
+    /**
+     * Returns the tariffs of Tariffs.json with their fee schedules.
+     */
+    TariffIndex getTariffIndex();
+}
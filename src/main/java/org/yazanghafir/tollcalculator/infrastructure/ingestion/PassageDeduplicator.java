@@ -0,0 +1,251 @@
+package org.yazanghafir.tollcalculator.infrastructure.ingestion;
+
+import org.yazanghafir.tollcalculator.domain.entities.Passage;
+
+import java.util.Arrays;
+
+/**
+ * Recognises passages that a gantry reported more than once, in fixed memory.
+ *
+ * A passage is keyed by its plate, its gantry and the time bucket of the dedup window it falls
+ * in, and the keys of its own and the previous bucket are looked up, so a report less than one
+ * window after an earlier one always finds its key. It is a duplicate only when the time kept
+ * with that key is less than one window away, since two buckets span up to twice the window.
+ * Passages without a gantry are never duplicates: the plate alone cannot tell a repeated
+ * report from a second passage, e.g. at the next gantry of a road. Keys are added to Bloom
+ * filters, one per generation of passage time, held in a ring of {@value #GENERATIONS}
+ * filters: the filter of a new generation replaces the oldest one, so the filters never grow
+ * and passages older than the retained generations are passed through unchecked.
+ *
+ * A filter only answers "certainly new" or "maybe seen". A maybe is confirmed against a
+ * fixed-size, two-way associative table of the latest exact keys and their times, and a
+ * passage is dropped only when its key is found there within the window. A false positive of
+ * the filter, or a key whose entry was already replaced, therefore keeps the passage, so a
+ * genuine passage is never dropped.
+ *
+ * Not thread-safe, one instance checks the passages of one log in file order.
+ */
+public class PassageDeduplicator {
+
+    public static final int GENERATIONS = 4;
+
+    private static final long NO_GENERATION = Long.MIN_VALUE;
+
+    private final long windowMillis;
+    private final long generationMillis;
+    private final int filterBits;
+    private final int hashCount;
+    private final long[][] filters = new long[GENERATIONS][];
+    private final long[] filterGenerations = new long[GENERATIONS];
+
+    private final String[] exactPlates;
+    private final String[] exactGantries;
+    private final long[] exactBuckets;
+    private final long[] exactTimes;
+    private final int exactMask;
+
+    private long checked;
+    private long duplicates;
+    private long filterMatches;
+    private long unconfirmed;
+    private long late;
+
+    /**
+     * Creates an empty deduplicator.
+     *
+     * @param windowMillis          The dedup window, reports of the same plate and gantry closer than this are duplicates.
+     * @param generationMillis      The passage time covered by one filter, at least the window.
+     * @param passagesPerGeneration The passages one filter is sized for.
+     * @param falsePositiveRate     The false positive rate of a filter holding that many passages.
+     * @param exactEntries          The number of exact keys kept for confirming a match, rounded up to a power of two.
+     */
+    public PassageDeduplicator(long windowMillis, long generationMillis, int passagesPerGeneration,
+                               double falsePositiveRate, int exactEntries) {
+        if (windowMillis <= 0 || generationMillis < windowMillis) {
+            throw new IllegalArgumentException("The dedup window must be positive and at most one generation long.");
+        }
+        if (passagesPerGeneration <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || exactEntries < 2) {
+            throw new IllegalArgumentException("The dedup filter needs a positive size, a false positive rate between 0 "
+                    + "and 1 and at least 2 exact entries.");
+        }
+        this.windowMillis = windowMillis;
+        this.generationMillis = generationMillis;
+
+        // The optimal number of bits and hash functions for the expected passages and false positive rate
+        double bits = -passagesPerGeneration * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.filterBits = (int) Math.min(Math.max(64, Math.ceil(bits / 64) * 64), (1L << 31) - 64);
+        this.hashCount = Math.max(1, (int) Math.round(bits / passagesPerGeneration * Math.log(2)));
+        Arrays.fill(filterGenerations, NO_GENERATION);
+
+        int exactSize = Integer.highestOneBit(Math.max(exactEntries - 1, 1)) << 1;
+        this.exactPlates = new String[exactSize];
+        this.exactGantries = new String[exactSize];
+        this.exactBuckets = new long[exactSize];
+        this.exactTimes = new long[exactSize];
+        this.exactMask = exactSize - 1;
+    }
+
+    /**
+     * Checks whether the passage repeats one seen before, and remembers it if not.
+     *
+     * @param passage The passage.
+     * @return Whether the passage is a confirmed duplicate that can be dropped, always false without a gantry.
+     */
+    public boolean isDuplicate(Passage passage) {
+        String gantry = passage.getGantry();
+        if (gantry == null) {
+            return false;
+        }
+        checked++;
+        String plate = passage.getVehiclePlate();
+        long time = passage.getLocalEpochMillis();
+        long bucket = Math.floorDiv(time, windowMillis);
+        long keyHash = keyHash(plate, gantry);
+
+        if (seen(plate, gantry, bucket, keyHash, time) || seen(plate, gantry, bucket - 1, keyHash, time)) {
+            duplicates++;
+            return true;
+        }
+        remember(plate, gantry, bucket, keyHash, time);
+        return false;
+    }
+
+    /**
+     * Returns the passages with a gantry that were checked, passages without one are not counted.
+     */
+    public long getChecked() {
+        return checked;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Returns the passages that a filter matched, whether or not the match was confirmed.
+     */
+    public long getFilterMatches() {
+        return filterMatches;
+    }
+
+    /**
+     * Returns the filter matches that were not confirmed by an exact key and were kept: false
+     * positives of the filter, keys that were already replaced in the exact table, or reports
+     * at least one window after the kept one in the previous bucket.
+     */
+    public long getUnconfirmed() {
+        return unconfirmed;
+    }
+
+    /**
+     * Returns the passages older than the retained generations, which were kept unchecked.
+     */
+    public long getLate() {
+        return late;
+    }
+
+    /**
+     * Returns the share of checked passages that were dropped as duplicates.
+     */
+    public double getDuplicateRate() {
+        return checked == 0 ? 0 : (double) duplicates / checked;
+    }
+
+    private boolean seen(String plate, String gantry, long bucket, long keyHash, long time) {
+        long[] filter = filterOf(bucket, false);
+        if (filter == null || !mightContain(filter, bucketHash(keyHash, bucket))) {
+            return false;
+        }
+        filterMatches++;
+        if (findExact(plate, gantry, bucket, keyHash, time) >= 0) {
+            return true;
+        }
+        unconfirmed++;
+        return false;
+    }
+
+    private void remember(String plate, String gantry, long bucket, long keyHash, long time) {
+        long[] filter = filterOf(bucket, true);
+        if (filter == null) {
+            late++;
+            return;
+        }
+        long hash = bucketHash(keyHash, bucket);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, filterBits);
+            filter[bit >>> 6] |= 1L << bit;
+        }
+
+        // Two-way associative, a new key replaces the entry with the older bucket
+        int slot = (int) hash & exactMask & ~1;
+        if (exactPlates[slot + 1] == null
+                || exactPlates[slot] != null && exactBuckets[slot + 1] < exactBuckets[slot]) {
+            slot++;
+        }
+        exactPlates[slot] = plate;
+        exactGantries[slot] = gantry;
+        exactBuckets[slot] = bucket;
+        exactTimes[slot] = time;
+    }
+
+    private boolean mightContain(long[] filter, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, filterBits);
+            if ((filter[bit >>> 6] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int findExact(String plate, String gantry, long bucket, long keyHash, long time) {
+        int slot = (int) bucketHash(keyHash, bucket) & exactMask & ~1;
+        for (int i = slot; i < slot + 2; i++) {
+            if (exactBuckets[i] == bucket && Math.abs(time - exactTimes[i]) < windowMillis
+                    && plate.equals(exactPlates[i]) && gantry.equals(exactGantries[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the filter of the generation of a bucket. A newer generation replaces the oldest
+     * filter in the ring when it is added to.
+     *
+     * @return The filter, or null if the generation is not held (and, when adding, older than the ones held).
+     */
+    private long[] filterOf(long bucket, boolean create) {
+        long generation = Math.floorDiv(bucket * windowMillis, generationMillis);
+        int index = (int) Math.floorMod(generation, GENERATIONS);
+        if (filterGenerations[index] == generation) {
+            return filters[index];
+        }
+        if (!create || filterGenerations[index] != NO_GENERATION && filterGenerations[index] > generation) {
+            return null;
+        }
+        if (filters[index] == null) {
+            filters[index] = new long[filterBits / 64];
+        } else {
+            Arrays.fill(filters[index], 0);
+        }
+        filterGenerations[index] = generation;
+        return filters[index];
+    }
+
+    private static long keyHash(String plate, String gantry) {
+        return (long) plate.hashCode() << 32 ^ gantry.hashCode();
+    }
+
+    // A 64-bit mix of the key and the bucket, split into the two hashes of the filter
+    private static long bucketHash(long keyHash, long bucket) {
+        long hash = keyHash ^ bucket * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ hash >>> 33) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ hash >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+}
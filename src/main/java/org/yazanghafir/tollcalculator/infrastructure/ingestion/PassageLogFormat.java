@@ -0,0 +1,26 @@
+package org.yazanghafir.tollcalculator.infrastructure.ingestion;
+
+import java.nio.file.Path;
+
+/**
+ * The supported gantry log formats.
+ *
+ * CSV rows are "vehiclePlate,vehicleType,vehicleDateTime[,gantry]", an optional header row is skipped.
+ * NDJSON rows are objects with the fields vehiclePlate, vehicleType, vehicleDateTime and an optional gantry.
+ */
+public enum PassageLogFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * Picks the format from the file extension, .ndjson, .jsonl and .json are read as NDJSON
+     * and everything else as CSV.
+     */
+    public static PassageLogFormat fromPath(Path path) {
+        String fileName = path.getFileName().toString().toLowerCase();
+        if (fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl") || fileName.endsWith(".json")) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,426 @@
+package org.yazanghafir.tollcalculator.infrastructure.ingestion;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yazanghafir.tollcalculator.domain.entities.Passage;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reads gantry passage logs through memory-mapped windows of the file.
+ *
+ * The file is mapped window by window, so files larger than 2 GB and larger than the heap
+ * are read without copying them. A line that crosses the end of a window is read again at
+ * the start of the next one. Rows that cannot be parsed are counted and skipped, and only the
+ * first of them is kept with its reason, so the caller reports them once for all of its readers.
+ *
+ * A file can be split into byte ranges that start at a line, which separate readers read in
+ * parallel. Only a range that starts at the beginning of the file can hold a CSV header, a first
+ * row that names the vehiclePlate, vehicleType and vehicleDateTime columns and the optional
+ * gantry column.
+ *
+ * Timestamps are ISO-8601 date-times. A timestamp with an offset or "Z" is converted to local
+ * time, a timestamp without one is taken as local time as it is.
+ */
+public class PassageLogReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PassageLogReader.class);
+    private static final String[] CSV_COLUMNS = {"vehiclePlate", "vehicleType", "vehicleDateTime", "gantry"};
+    private static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final int SPLIT_BUFFER_SIZE = 8192;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+    private final int windowSize;
+
+    private long rows;
+    private long rejectedRows;
+    private String firstRejection;
+    private boolean headerAllowed; // Whether the next row is the first of the file
+    private byte[] lineBuffer = new byte[256];
+
+    public PassageLogReader() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    public PassageLogReader(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Reads every passage of the given file and hands it to the consumer in file order.
+     *
+     * @param path     The log file.
+     * @param format   The format of the rows.
+     * @param consumer Receives every passage that could be parsed.
+     * @throws IOException if the file cannot be read or a line is longer than a window.
+     */
+    public void read(Path path, PassageLogFormat format, Consumer<Passage> consumer) throws IOException {
+        read(path, format, 0, Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * Reads the passages of a byte range of the given file and hands them to the consumer in
+     * file order.
+     *
+     * @param path     The log file.
+     * @param format   The format of the rows.
+     * @param from     The first byte of the range, the start of a line, see {@link #split(Path, int)}.
+     * @param to       The end of the range, the start of a line or beyond the end of the file.
+     * @param consumer Receives every passage that could be parsed.
+     * @throws IOException if the file cannot be read or a line is longer than a window.
+     */
+    public void read(Path path, PassageLogFormat format, long from, long to, Consumer<Passage> consumer) throws IOException {
+        headerAllowed = from == 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = Math.min(to, channel.size());
+            long position = from;
+
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean lastWindow = position + length == size;
+
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        readLine(window, position, lineStart, i, format, consumer);
+                        lineStart = i + 1;
+                    }
+                }
+
+                if (lastWindow) {
+                    if (lineStart < length) {
+                        readLine(window, position, lineStart, length, format, consumer);
+                    }
+                    position = size;
+                } else if (lineStart == 0) {
+                    throw new IOException("Line at byte " + position + " is longer than " + windowSize + " bytes.");
+                } else {
+                    position += lineStart; // Continue with the line that crosses the end of the window
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a file into byte ranges of about the same size that start at a line, so they can
+     * be read in parallel. Fewer ranges are returned when the file has fewer lines.
+     *
+     * @param path   The log file.
+     * @param ranges The number of ranges to split the file into.
+     * @return The start of every range, followed by the size of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    public static long[] split(Path path, int ranges) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = new long[ranges + 1];
+            int count = 1;
+            ByteBuffer buffer = ByteBuffer.allocate(SPLIT_BUFFER_SIZE);
+            for (int range = 1; range < ranges; range++) {
+                long bound = Math.max(size / ranges * range, bounds[count - 1]);
+                bound = nextLineStart(channel, bound, size, buffer);
+                if (bound > bounds[count - 1] && bound < size) {
+                    bounds[count++] = bound;
+                }
+            }
+            bounds[count] = size;
+            return Arrays.copyOf(bounds, count + 1);
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    /**
+     * Returns the position and the reason of the first row that could not be parsed, e.g.
+     * "line at byte 1024: missing vehicleType", or null if every row was parsed.
+     */
+    public String getFirstRejection() {
+        return firstRejection;
+    }
+
+    /**
+     * Returns the start of the first line that begins at or after the given byte.
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer buffer) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        long offset = position - 1; // A line starts at the position if the byte before it ends a line
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private void readLine(MappedByteBuffer window, long position, int start, int end, PassageLogFormat format,
+                          Consumer<Passage> consumer) {
+        if (end > start && window.get(end - 1) == '\r') {
+            end--;
+        }
+        int length = end - start;
+        if (length == 0) {
+            return;
+        }
+
+        if (lineBuffer.length < length) {
+            lineBuffer = new byte[Math.max(length, lineBuffer.length * 2)];
+        }
+        window.get(start, lineBuffer, 0, length);
+
+        if (headerAllowed) {
+            headerAllowed = false;
+            if (format == PassageLogFormat.CSV && isCsvHeader(length)) {
+                return;
+            }
+        }
+
+        rows++;
+        try {
+            consumer.accept(format == PassageLogFormat.CSV ? parseCsv(length) : parseNdjson(length));
+        } catch (RuntimeException | IOException ex) {
+            rejectedRows++;
+            if (firstRejection == null) {
+                firstRejection = "line at byte " + (position + start) + ": " + ex.getMessage();
+            }
+            LOGGER.debug("Skipping the line at byte {}. Error: {}", position + start, ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether the line holds the names of the CSV columns, in their order.
+     */
+    private boolean isCsvHeader(int length) {
+        String[] columns = text(0, length).split(",", -1);
+        if (columns.length < CSV_COLUMNS.length - 1 || columns.length > CSV_COLUMNS.length) {
+            return false;
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (!columns[i].trim().equalsIgnoreCase(CSV_COLUMNS[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Passage parseCsv(int length) {
+        int firstComma = indexOf(',', 0, length);
+        int secondComma = firstComma < 0 ? -1 : indexOf(',', firstComma + 1, length);
+        if (secondComma < 0) {
+            throw new IllegalArgumentException("expected vehiclePlate,vehicleType,vehicleDateTime");
+        }
+
+        // An optional fourth column holds the gantry
+        int thirdComma = indexOf(',', secondComma + 1, length);
+        String vehiclePlate = text(0, firstComma);
+        String vehicleType = text(firstComma + 1, secondComma);
+        long localEpochMillis = toLocalEpochMillis(text(secondComma + 1, thirdComma < 0 ? length : thirdComma));
+        String gantry = thirdComma < 0 ? null : text(thirdComma + 1, length);
+        return toPassage(vehiclePlate, vehicleType, localEpochMillis, gantry);
+    }
+
+    private Passage parseNdjson(int length) throws IOException {
+        String vehiclePlate = null;
+        String vehicleType = null;
+        String vehicleDateTime = null;
+        String gantry = null;
+
+        try (JsonParser parser = jsonFactory.createParser(lineBuffer, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "vehiclePlate" -> vehiclePlate = parser.getValueAsString();
+                    case "vehicleType" -> vehicleType = parser.getValueAsString();
+                    case "vehicleDateTime" -> vehicleDateTime = parser.getValueAsString();
+                    case "gantry" -> {
+                        if (parser.currentToken().isScalarValue()) {
+                            gantry = parser.getValueAsString();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (vehicleDateTime == null) {
+            throw new IllegalArgumentException("missing vehicleDateTime");
+        }
+        return toPassage(vehiclePlate, vehicleType, toLocalEpochMillis(vehicleDateTime), gantry);
+    }
+
+    private Passage toPassage(String vehiclePlate, String vehicleType, long localEpochMillis, String gantry) {
+        if (vehiclePlate == null || vehiclePlate.isEmpty()) {
+            throw new IllegalArgumentException("missing vehiclePlate");
+        }
+        if (vehicleType == null || vehicleType.isEmpty()) {
+            throw new IllegalArgumentException("missing vehicleType");
+        }
+        return new Passage(vehiclePlate, vehicleType, localEpochMillis, gantry == null || gantry.isEmpty() ? null : gantry);
+    }
+
+    // Same wall-clock convention as the toll calculator: instant millis plus the local offset
+    private long toLocalEpochMillis(String vehicleDateTime) {
+        long localEpochMillis = parseIsoDateTime(vehicleDateTime);
+        if (localEpochMillis != Long.MIN_VALUE) {
+            return localEpochMillis;
+        }
+
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(
+                vehicleDateTime, OffsetDateTime::from, LocalDateTime::from);
+        if (parsed instanceof OffsetDateTime offsetDateTime) {
+            return toLocalEpochMillis(offsetDateTime.toInstant().toEpochMilli());
+        }
+        return ((LocalDateTime) parsed).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private long toLocalEpochMillis(long instantMillis) {
+        return Passages.toLocalEpochMillis(Instant.ofEpochMilli(instantMillis), zoneRules);
+    }
+
+    /**
+     * Parses the common "yyyy-MM-ddTHH:mm[:ss[.SSS]][Z|+HH:mm]" layout without going through
+     * a DateTimeFormatter, which dominates the cost of reading a row otherwise.
+     *
+     * @return The local epoch milliseconds, or Long.MIN_VALUE if the text has another layout.
+     */
+    private long parseIsoDateTime(String text) {
+        int length = text.length();
+        if (length < 16 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':') {
+            return Long.MIN_VALUE;
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 14, 16);
+        int second = 0;
+        int millis = 0;
+        int index = 16;
+
+        if (index < length && text.charAt(index) == ':') {
+            second = digits(text, index + 1, index + 3);
+            index += 3;
+            if (index < length && text.charAt(index) == '.') {
+                int fractionEnd = index + 1;
+                while (fractionEnd < length && Character.isDigit(text.charAt(fractionEnd))) {
+                    fractionEnd++;
+                }
+                int fractionDigits = Math.min(fractionEnd - index - 1, 3);
+                millis = fractionDigits == 0 ? -1 : digits(text, index + 1, index + 1 + fractionDigits);
+                for (int i = fractionDigits; i < 3 && millis >= 0; i++) {
+                    millis *= 10;
+                }
+                index = fractionEnd;
+            }
+        }
+
+        if ((year | month | day | hour | minute | second | millis) < 0
+                || month < 1 || month > 12 || day < 1 || day > 28 && day > lengthOfMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        long wallClockMillis = ((LocalDate.of(year, month, day).toEpochDay() * 24 + hour) * 60 + minute) * 60_000L
+                + second * 1000L + millis;
+
+        if (index == length) {
+            return wallClockMillis; // No offset, already local time
+        }
+        if (index == length - 1 && text.charAt(index) == 'Z') {
+            return toLocalEpochMillis(wallClockMillis);
+        }
+        if (index == length - 6 && (text.charAt(index) == '+' || text.charAt(index) == '-')
+                && text.charAt(index + 3) == ':') {
+            int offsetHours = digits(text, index + 1, index + 3);
+            int offsetMinutes = digits(text, index + 4, index + 6);
+            if (offsetHours < 0 || offsetMinutes < 0) {
+                return Long.MIN_VALUE;
+            }
+            long offsetMillis = (offsetHours * 60L + offsetMinutes) * 60_000L;
+            return toLocalEpochMillis(text.charAt(index) == '+'
+                    ? wallClockMillis - offsetMillis
+                    : wallClockMillis + offsetMillis);
+        }
+        return Long.MIN_VALUE;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return Month.of(month).length(Year.isLeap(year));
+    }
+
+    private static int digits(String text, int from, int to) {
+        if (to > text.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private int indexOf(char separator, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (lineBuffer[i] == separator) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String text(int from, int to) {
+        return new String(lineBuffer, from, to - from, StandardCharsets.UTF_8).trim();
+    }
+}
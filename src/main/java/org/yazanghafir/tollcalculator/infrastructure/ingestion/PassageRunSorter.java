@@ -0,0 +1,216 @@
+package org.yazanghafir.tollcalculator.infrastructure.ingestion;
+
+import org.yazanghafir.tollcalculator.domain.entities.Passage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Sorts passages by vehicle plate and time with bounded memory.
+ *
+ * Passages are collected in memory until the run size is reached, then the run is sorted
+ * and spilled to a temporary file. When all passages are added, the spilled runs and the
+ * run still in memory are merged in one pass, so at most one run plus one passage per
+ * spilled run is held in memory at a time. The temporary files are removed on close. Spilled
+ * runs do not keep the gantry of a passage, duplicates are removed before sorting.
+ *
+ * A sorter is used by one thread. Passages read in parallel are added to one sorter per
+ * thread, so every thread sorts its own runs, and the runs of all sorters are merged at once.
+ */
+public class PassageRunSorter implements Closeable {
+
+    public static final Comparator<Passage> PLATE_AND_TIME_ORDER = Comparator
+            .comparing(Passage::getVehiclePlate)
+            .thenComparingLong(Passage::getLocalEpochMillis);
+
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final int runSize;
+    private final Path spillDirectory;
+    private final List<Passage> currentRun;
+    private final List<Path> spilledRuns = new ArrayList<>();
+    private boolean currentRunSorted;
+
+    public PassageRunSorter(int runSize, Path spillDirectory) {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("The run size must be positive.");
+        }
+        this.runSize = runSize;
+        this.spillDirectory = spillDirectory;
+        this.currentRun = new ArrayList<>(Math.min(runSize, 1 << 16));
+    }
+
+    public void add(Passage passage) {
+        currentRun.add(passage);
+        currentRunSorted = false;
+        if (currentRun.size() >= runSize) {
+            spill();
+        }
+    }
+
+    public int getSpilledRuns() {
+        return spilledRuns.size();
+    }
+
+    /**
+     * Sorts the passages held in memory, so the thread that added them does the sorting
+     * instead of the one that merges the sorted runs.
+     */
+    public void sortCurrentRun() {
+        if (!currentRunSorted) {
+            currentRun.sort(PLATE_AND_TIME_ORDER);
+            currentRunSorted = true;
+        }
+    }
+
+    /**
+     * Hands every added passage to the consumer, ordered by plate and then time.
+     */
+    public void forEachSorted(Consumer<Passage> consumer) throws IOException {
+        forEachSorted(List.of(this), consumer);
+    }
+
+    /**
+     * Hands every passage added to any of the sorters to the consumer, ordered by plate and then time.
+     */
+    public static void forEachSorted(List<PassageRunSorter> sorters, Consumer<Passage> consumer) throws IOException {
+        for (PassageRunSorter sorter : sorters) {
+            sorter.sortCurrentRun();
+        }
+        if (sorters.size() == 1 && sorters.get(0).spilledRuns.isEmpty()) {
+            sorters.get(0).currentRun.forEach(consumer);
+            return;
+        }
+
+        List<RunCursor> cursors = new ArrayList<>();
+        try {
+            PriorityQueue<RunCursor> queue = new PriorityQueue<>(
+                    Comparator.comparing(RunCursor::current, PLATE_AND_TIME_ORDER));
+            for (PassageRunSorter sorter : sorters) {
+                for (Path run : sorter.spilledRuns) {
+                    RunCursor cursor = new FileRunCursor(run);
+                    cursors.add(cursor);
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                }
+                RunCursor memoryCursor = new MemoryRunCursor(sorter.currentRun);
+                if (memoryCursor.advance()) {
+                    queue.add(memoryCursor);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                consumer.accept(cursor.current());
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Path run : spilledRuns) {
+            Files.deleteIfExists(run);
+        }
+        spilledRuns.clear();
+        currentRun.clear();
+    }
+
+    private void spill() {
+        currentRun.sort(PLATE_AND_TIME_ORDER);
+        try {
+            Path run = Files.createTempFile(spillDirectory, "passages-", ".run");
+            spilledRuns.add(run);
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(run), IO_BUFFER_SIZE))) {
+                for (Passage passage : currentRun) {
+                    output.writeUTF(passage.getVehiclePlate());
+                    output.writeUTF(passage.getVehicleType());
+                    output.writeLong(passage.getLocalEpochMillis());
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not spill sorted passages to " + spillDirectory, ex);
+        }
+        currentRun.clear();
+        currentRunSorted = false;
+    }
+
+    private interface RunCursor extends Closeable {
+        boolean advance() throws IOException;
+
+        Passage current();
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    private static final class MemoryRunCursor implements RunCursor {
+        private final List<Passage> passages;
+        private int index = -1;
+
+        private MemoryRunCursor(List<Passage> passages) {
+            this.passages = passages;
+        }
+
+        @Override
+        public boolean advance() {
+            return ++index < passages.size();
+        }
+
+        @Override
+        public Passage current() {
+            return passages.get(index);
+        }
+    }
+
+    private static final class FileRunCursor implements RunCursor {
+        private final DataInputStream input;
+        private Passage current;
+
+        private FileRunCursor(Path run) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), IO_BUFFER_SIZE));
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            try {
+                current = new Passage(input.readUTF(), input.readUTF(), input.readLong());
+                return true;
+            } catch (EOFException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        public Passage current() {
+            return current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.yazanghafir.tollcalculator.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.noop.NoopCounter;
+import io.micrometer.core.instrument.noop.NoopDistributionSummary;
+import io.micrometer.core.instrument.noop.NoopTimer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helpers for the meters recorded by the toll calculation stages.
+ *
+ * Every component registers the meters it records itself, as a
+ * {@link io.micrometer.core.instrument.binder.MeterBinder}: Spring Boot binds all MeterBinder
+ * beans to its registry, which is exposed on /actuator/prometheus. Until a component is bound
+ * its meters are the unbound no-op meters below, so outside of Spring, e.g. in unit tests and
+ * benchmarks, recording is a no-op unless the test binds the component to a registry of its
+ * own. Recording a stage costs two System.nanoTime calls and no allocation; the per-passage fee
+ * lookups are counted in bulk per day instead of being timed one by one.
+ *
+ * The meters recorded by more than one component are defined here, so they are registered alike.
+ * Histogram buckets are configured with the management.metrics.distribution properties.
+ */
+public final class TollMetrics {
+
+    public static final Timer UNBOUND_TIMER = new NoopTimer(unboundId(Meter.Type.TIMER));
+    public static final Counter UNBOUND_COUNTER = new NoopCounter(unboundId(Meter.Type.COUNTER));
+    public static final DistributionSummary UNBOUND_SUMMARY = new NoopDistributionSummary(unboundId(Meter.Type.DISTRIBUTION_SUMMARY));
+
+    private TollMetrics() {
+    }
+
+    /**
+     * Records the time since the given System.nanoTime value.
+     */
+    public static void recordSince(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("toll.stage")
+                .description("Time spent in a stage of the toll calculation")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    public static DistributionSummary passagesPerRequest(MeterRegistry registry) {
+        return DistributionSummary.builder("toll.request.passages")
+                .description("Passages per vehicle request")
+                .baseUnit("passages")
+                .register(registry);
+    }
+
+    public static DistributionSummary dailyFee(MeterRegistry registry) {
+        return DistributionSummary.builder("toll.fee.daily")
+                .description("Total toll fee per vehicle and day")
+                .baseUnit("SEK")
+                .register(registry);
+    }
+
+    public static Counter responseWrites(MeterRegistry registry, String body) {
+        return Counter.builder("toll.response.writes")
+                .description("Toll responses written from precomputed bytes or serialized per request")
+                .tag("body", body)
+                .register(registry);
+    }
+
+    public static Counter rejectedRows(MeterRegistry registry, String handler) {
+        return Counter.builder("toll.log.rejected-rows")
+                .description("Passage log rows skipped because they could not be parsed")
+                .tag("handler", handler)
+                .register(registry);
+    }
+
+    private static Meter.Id unboundId(Meter.Type type) {
+        return new Meter.Id("toll.unbound", Tags.empty(), null, null, type);
+    }
+}
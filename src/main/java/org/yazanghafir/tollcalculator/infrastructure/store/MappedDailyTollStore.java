@@ -0,0 +1,648 @@
+package org.yazanghafir.tollcalculator.infrastructure.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Running toll totals per vehicle plate and day in a memory-mapped file.
+ *
+ * The file is an open-addressing hash table of fixed-size records keyed by plate and day, so
+ * the state of millions of vehicle days lives outside the heap and survives a restart. Every
+ * record holds the open one-hour interval, its highest fee and the total of the closed
+ * intervals, next to the latest passages of the day for replaying late arrivals. When more
+ * than {@value #RETAINED_PASSAGES} passages are held the oldest is folded into a checkpoint of
+ * the running state, and a passage older than a folded one is rejected.
+ *
+ * An update writes the new passage into a free passage slot and a folded checkpoint into the
+ * inactive one of two checkpoints, then commits both with a single int: the commit word of the
+ * record holds the active checkpoint and the slots of the retained passages. A process that
+ * stops before the commit word is written leaves the previous state of the record, one that
+ * stops after it leaves the new one. The running totals are derived from the active checkpoint
+ * and the retained passages and are replayed when a file is opened. Changes reach the disk when
+ * the operating system writes the mapped pages back, {@link #force()} writes them immediately.
+ *
+ * Records of different vehicle days are updated in parallel: a new record claims its slot
+ * with a compare-and-set and updates of the same record are serialised by a lock stripe.
+ * Compaction and growth rewrite the live records into a new file and swap it in atomically,
+ * while updates wait. Growth doubles the table when it is 70% full and runs on the thread of
+ * the update that fills it, so that update and all others wait while the whole file is
+ * copied, a 0.9 GB file into a 1.9 GB one for the last doubling. Size the store for the
+ * expected vehicle days with the initial capacity; every growth is logged with its duration.
+ *
+ * A file holds at most about six million vehicle days, the limit of one mapped buffer.
+ */
+public class MappedDailyTollStore implements Closeable {
+
+    public static final int MAX_PLATE_BYTES = 23;
+    public static final int RETAINED_PASSAGES = 16;
+
+    private static final int MAGIC = 0x544F4C44; // "TOLD"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+
+    // Record layout, all values are little-endian ints
+    private static final int STATUS = 0;
+    private static final int EPOCH_DAY = 4;
+    private static final int PLATE_LENGTH = 8;
+    static final int PLATE = 9;
+    private static final int FLAGS = 32;
+    private static final int MAX_DAILY_FEE = 36;
+    static final int COMMIT = 40; // The active checkpoint and the used passage slots
+    static final int RUNNING_STATE = 44; // Derived from the active checkpoint and the retained passages
+    private static final int CHECKPOINTS = 56; // Two states after the folded passages, one of them active
+    private static final int PASSAGES = 88; // Slots of pairs of millis of the day and fee
+    private static final int PASSAGE_SLOTS = RETAINED_PASSAGES + 1; // One is free when all passages are retained
+    private static final int RECORD_SIZE = PASSAGES + PASSAGE_SLOTS * 8;
+
+    // State layout, relative to the running state or a checkpoint
+    private static final int CLOSED_TOTAL = 0;
+    private static final int INTERVAL_MAX_FEE = 4;
+    private static final int INTERVAL_END = 8;
+    private static final int FOLDED_UNTIL = 12; // Only in a checkpoint
+    private static final int CHECKPOINT_SIZE = 16;
+
+    // Commit word layout
+    private static final int USED_SLOTS = (1 << PASSAGE_SLOTS) - 1;
+    private static final int SECOND_CHECKPOINT = 1 << PASSAGE_SLOTS;
+
+    private static final int EMPTY = 0;
+    private static final int CLAIMED = 1; // The key is being written
+    private static final int USED = 2;
+    private static final int TOLL_FREE = 1;
+
+    private static final int MILLIS_PER_HOUR = 60 * 60 * 1000;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.highestOneBit((Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE);
+    private static final int STRIPES = 256;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedDailyTollStore.class);
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final ReentrantReadWriteLock tableLock = new ReentrantReadWriteLock();
+    private final Object[] stripes = new Object[STRIPES];
+    private final AtomicInteger size = new AtomicInteger();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private volatile int capacity;
+
+    private MappedDailyTollStore(Path file) {
+        this.file = file;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Opens the store in the given file, or creates it with room for the given number of
+     * vehicle days. The table grows when it is more than 70% full.
+     *
+     * @param file            The store file.
+     * @param initialCapacity The number of vehicle days a new file has room for.
+     * @return The open store.
+     * @throws UncheckedIOException  if the file cannot be read or written.
+     * @throws IllegalStateException if the file is not a store file.
+     */
+    public static MappedDailyTollStore open(Path file, int initialCapacity) {
+        MappedDailyTollStore store = new MappedDailyTollStore(file);
+        try {
+            if (Files.notExists(file) || Files.size(file) == 0) {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                store.map(createFile(file, tableCapacity(initialCapacity)));
+            } else {
+                store.map(file);
+                store.recover();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("The toll store " + file + " could not be opened. Error: " + ex.getMessage(), ex);
+        }
+        return store;
+    }
+
+    /**
+     * Adds a passage to the running total of its vehicle day. The toll-free flag and the
+     * daily maximum are taken from the first passage of the day.
+     *
+     * @param vehiclePlate The plate of the vehicle, at most {@value #MAX_PLATE_BYTES} bytes in UTF-8.
+     * @param epochDay     The day of the passage counted from 1970-01-01.
+     * @param millisOfDay  The local time of the passage in milliseconds of the day.
+     * @param fee          The fee of the passage.
+     * @param isTollFree   Whether the vehicle day is toll-free.
+     * @param maxDailyFee  The highest total fee of the day.
+     * @return The updated total fee of the day.
+     * @throws IllegalArgumentException if the plate is too long, or the passage is older than
+     *                                  a passage that was already folded into the checkpoint.
+     */
+    public int addPassage(String vehiclePlate, long epochDay, int millisOfDay, int fee,
+                          boolean isTollFree, int maxDailyFee) {
+        byte[] plate = vehiclePlate.getBytes(StandardCharsets.UTF_8);
+        if (plate.length > MAX_PLATE_BYTES) {
+            throw new IllegalArgumentException("Vehicle plates longer than " + MAX_PLATE_BYTES + " bytes are not supported.");
+        }
+        int day = Math.toIntExact(epochDay);
+        int hash = hash(plate, day);
+
+        if (size.get() >= capacity * 7L / 10) {
+            grow();
+        }
+
+        tableLock.readLock().lock();
+        try {
+            int base = findOrCreate(plate, day, hash, isTollFree, maxDailyFee);
+            synchronized (stripes[hash & (STRIPES - 1)]) {
+                return add(base, millisOfDay, fee);
+            }
+        } finally {
+            tableLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the total fee of a vehicle day, or -1 if the store has no passages of it.
+     */
+    public int getTotal(String vehiclePlate, long epochDay) {
+        byte[] plate = vehiclePlate.getBytes(StandardCharsets.UTF_8);
+        int day = Math.toIntExact(epochDay);
+        int hash = hash(plate, day);
+
+        tableLock.readLock().lock();
+        try {
+            int base = find(plate, day, hash);
+            if (base < 0) {
+                return -1;
+            }
+            synchronized (stripes[hash & (STRIPES - 1)]) {
+                return total(base);
+            }
+        } finally {
+            tableLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the vehicle days before the given day by rewriting the live records into a new
+     * file, which replaces the current one once it is written to disk.
+     *
+     * The closed days are counted under the read lock first, so updates only wait while there
+     * is something to remove.
+     *
+     * @param oldestOpenDay The oldest day to keep, counted from 1970-01-01.
+     * @return The number of removed vehicle days.
+     */
+    public int compact(long oldestOpenDay) {
+        tableLock.readLock().lock();
+        try {
+            if (countClosed(oldestOpenDay) == 0) {
+                return 0;
+            }
+        } finally {
+            tableLock.readLock().unlock();
+        }
+
+        tableLock.writeLock().lock();
+        try {
+            // Counted again, the table may have been rebuilt before the write lock was taken
+            int removed = countClosed(oldestOpenDay);
+            if (removed > 0) {
+                rebuild(tableCapacity(size.get() - removed), oldestOpenDay);
+            }
+            return removed;
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes the changed pages to disk.
+     */
+    public void force() {
+        tableLock.readLock().lock();
+        try {
+            buffer.force();
+        } finally {
+            tableLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the changed pages to disk and closes the file. The mapping itself is released
+     * when the buffer is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        tableLock.writeLock().lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+    }
+
+    // Under the read lock a record that is being created may be missed, the next compaction removes it
+    private int countClosed(long oldestOpenDay) {
+        int closed = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = recordBase(slot);
+            if ((int) INT.getAcquire(buffer, base + STATUS) == USED && getInt(base + EPOCH_DAY) < oldestOpenDay) {
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    private int findOrCreate(byte[] plate, int day, int hash, boolean isTollFree, int maxDailyFee) {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < capacity; ) {
+            int base = recordBase(slot);
+            int status = (int) INT.getAcquire(buffer, base + STATUS);
+            if (status == EMPTY) {
+                if (INT.compareAndSet(buffer, base + STATUS, EMPTY, CLAIMED)) {
+                    initialise(base, plate, day, isTollFree, maxDailyFee);
+                    INT.setRelease(buffer, base + STATUS, USED);
+                    size.incrementAndGet();
+                    return base;
+                }
+                continue; // Claimed by another thread, read the slot again
+            }
+            if (status == CLAIMED) {
+                Thread.onSpinWait(); // The key is being written, it may be ours
+                continue;
+            }
+            if (matches(base, plate, day)) {
+                return base;
+            }
+            slot = (slot + 1) & mask;
+            probes++;
+        }
+        throw new IllegalStateException("The toll store " + file + " is full.");
+    }
+
+    private int find(byte[] plate, int day, int hash) {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < capacity; ) {
+            int base = recordBase(slot);
+            int status = (int) INT.getAcquire(buffer, base + STATUS);
+            if (status == EMPTY) {
+                return -1;
+            }
+            if (status == CLAIMED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (matches(base, plate, day)) {
+                return base;
+            }
+            slot = (slot + 1) & mask;
+            probes++;
+        }
+        return -1;
+    }
+
+    private void initialise(int base, byte[] plate, int day, boolean isTollFree, int maxDailyFee) {
+        putInt(base + EPOCH_DAY, day);
+        buffer.put(base + PLATE_LENGTH, (byte) plate.length);
+        buffer.put(base + PLATE, plate);
+        putInt(base + FLAGS, isTollFree ? TOLL_FREE : 0);
+        putInt(base + MAX_DAILY_FEE, maxDailyFee);
+        for (int offset = COMMIT; offset < PASSAGES; offset += 4) {
+            putInt(base + offset, 0);
+        }
+        putInt(base + CHECKPOINTS + FOLDED_UNTIL, -1);
+        putInt(base + CHECKPOINTS + CHECKPOINT_SIZE + FOLDED_UNTIL, -1);
+    }
+
+    private boolean matches(int base, byte[] plate, int day) {
+        if (getInt(base + EPOCH_DAY) != day || buffer.get(base + PLATE_LENGTH) != plate.length) {
+            return false;
+        }
+        for (int i = 0; i < plate.length; i++) {
+            if (buffer.get(base + PLATE + i) != plate[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a passage to a record, the caller holds the lock stripe of the record. Everything
+     * written before the commit word is outside the committed state of the record.
+     */
+    private int add(int base, int millisOfDay, int fee) {
+        if ((getInt(base + FLAGS) & TOLL_FREE) != 0) {
+            return 0; // Toll-free, so the total fee of the day stays 0
+        }
+
+        int commit = getInt(base + COMMIT);
+        int checkpoint = checkpoint(base, commit);
+        if (millisOfDay < getInt(checkpoint + FOLDED_UNTIL)) {
+            throw new IllegalArgumentException("The passage arrived after " + RETAINED_PASSAGES
+                    + " later passages of the same day and can no longer be applied.");
+        }
+
+        int usedSlots = commit & USED_SLOTS;
+        boolean inOrder = millisOfDay >= latestPassageTime(base, usedSlots);
+        int freeSlot = Integer.numberOfTrailingZeros(~usedSlots);
+
+        if (Integer.bitCount(usedSlots) < RETAINED_PASSAGES) {
+            putPassage(base, freeSlot, millisOfDay, fee);
+            commit(base, commit | 1 << freeSlot);
+        } else {
+            // Fold the oldest passage into the inactive checkpoint, which becomes the active one
+            int oldestSlot = oldestPassageSlot(base, usedSlots);
+            int nextCheckpoint = checkpoint(base, commit ^ SECOND_CHECKPOINT);
+            for (int offset = 0; offset < CHECKPOINT_SIZE; offset += 4) {
+                putInt(nextCheckpoint + offset, getInt(checkpoint + offset));
+            }
+            if (millisOfDay <= passageTime(base, oldestSlot)) {
+                // Older than every retained passage but not than the checkpoint, so it is folded in order
+                fold(nextCheckpoint, millisOfDay, fee);
+                commit(base, commit ^ SECOND_CHECKPOINT);
+                inOrder = false;
+            } else {
+                fold(nextCheckpoint, passageTime(base, oldestSlot), passageFee(base, oldestSlot));
+                putPassage(base, freeSlot, millisOfDay, fee);
+                commit(base, (commit ^ SECOND_CHECKPOINT) & ~(1 << oldestSlot) | 1 << freeSlot);
+            }
+        }
+
+        if (inOrder) {
+            apply(base + RUNNING_STATE, millisOfDay, fee);
+        } else {
+            replay(base); // A late passage can move every interval boundary after it
+        }
+        return total(base);
+    }
+
+    private void commit(int base, int commit) {
+        INT.setRelease(buffer, base + COMMIT, commit);
+    }
+
+    private void fold(int checkpoint, int millisOfDay, int fee) {
+        apply(checkpoint, millisOfDay, fee);
+        putInt(checkpoint + FOLDED_UNTIL, millisOfDay);
+    }
+
+    /**
+     * Recalculates the running state from the active checkpoint and the retained passages.
+     */
+    private void replay(int base) {
+        int commit = getInt(base + COMMIT);
+        int checkpoint = checkpoint(base, commit);
+        for (int offset = 0; offset < FOLDED_UNTIL; offset += 4) {
+            putInt(base + RUNNING_STATE + offset, getInt(checkpoint + offset));
+        }
+        // The slots are not in time order, so the passages are applied oldest first
+        for (int remaining = commit & USED_SLOTS; remaining != 0; ) {
+            int slot = oldestPassageSlot(base, remaining);
+            apply(base + RUNNING_STATE, passageTime(base, slot), passageFee(base, slot));
+            remaining &= ~(1 << slot);
+        }
+    }
+
+    private static int checkpoint(int base, int commit) {
+        return base + CHECKPOINTS + ((commit & SECOND_CHECKPOINT) != 0 ? CHECKPOINT_SIZE : 0);
+    }
+
+    private int oldestPassageSlot(int base, int slots) {
+        int oldest = -1;
+        for (int remaining = slots; remaining != 0; remaining &= remaining - 1) {
+            int slot = Integer.numberOfTrailingZeros(remaining);
+            if (oldest < 0 || passageTime(base, slot) < passageTime(base, oldest)) {
+                oldest = slot;
+            }
+        }
+        return oldest;
+    }
+
+    private int latestPassageTime(int base, int slots) {
+        int latest = Integer.MIN_VALUE;
+        for (int remaining = slots; remaining != 0; remaining &= remaining - 1) {
+            latest = Math.max(latest, passageTime(base, Integer.numberOfTrailingZeros(remaining)));
+        }
+        return latest;
+    }
+
+    /**
+     * Applies a passage to the running state at the given offset: closed total, highest fee of
+     * the open interval and its end. The first passage of a day always opens an interval,
+     * since an empty state ends at midnight.
+     */
+    private void apply(int state, int millisOfDay, int fee) {
+        int intervalMaxFee = getInt(state + INTERVAL_MAX_FEE);
+        if (millisOfDay >= getInt(state + INTERVAL_END)) {
+            // The passage opens a new interval, the current one is closed
+            putInt(state + CLOSED_TOTAL, getInt(state + CLOSED_TOTAL) + intervalMaxFee);
+            putInt(state + INTERVAL_END, millisOfDay + MILLIS_PER_HOUR);
+            putInt(state + INTERVAL_MAX_FEE, fee);
+        } else {
+            putInt(state + INTERVAL_MAX_FEE, Math.max(intervalMaxFee, fee));
+        }
+    }
+
+    private int total(int base) {
+        if ((getInt(base + FLAGS) & TOLL_FREE) != 0) {
+            return 0;
+        }
+        int state = base + RUNNING_STATE;
+        return Math.min(getInt(state + CLOSED_TOTAL) + getInt(state + INTERVAL_MAX_FEE), getInt(base + MAX_DAILY_FEE));
+    }
+
+    private int passageTime(int base, int index) {
+        return getInt(base + PASSAGES + index * 8);
+    }
+
+    private int passageFee(int base, int index) {
+        return getInt(base + PASSAGES + index * 8 + 4);
+    }
+
+    private void putPassage(int base, int index, int millisOfDay, int fee) {
+        putInt(base + PASSAGES + index * 8, millisOfDay);
+        putInt(base + PASSAGES + index * 8 + 4, fee);
+    }
+
+    private void grow() {
+        tableLock.writeLock().lock();
+        try {
+            if (size.get() >= capacity * 7L / 10) {
+                if (capacity >= MAX_CAPACITY) {
+                    throw new IllegalStateException("The toll store " + file + " is full.");
+                }
+                long startTime = System.nanoTime();
+                int previousCapacity = capacity;
+                rebuild(capacity * 2, Long.MIN_VALUE);
+                LOGGER.info("Grew the toll store {} from {} to {} records ({} MB) in {} ms, updates waited meanwhile.",
+                        file, previousCapacity, capacity, fileSize(capacity) >> 20, (System.nanoTime() - startTime) / 1_000_000);
+            }
+        } finally {
+            tableLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the records of the given day and later into a new file with the given capacity
+     * and replaces the current file with it. The caller holds the write lock.
+     */
+    private void rebuild(int newCapacity, long oldestOpenDay) {
+        Path newFile = file.resolveSibling(file.getFileName() + ".compacting");
+        try {
+            FileChannel newChannel = FileChannel.open(newFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(newCapacity));
+            writeHeader(newBuffer, newCapacity);
+
+            int live = 0;
+            int mask = newCapacity - 1;
+            byte[] record = new byte[RECORD_SIZE];
+            for (int slot = 0; slot < capacity; slot++) {
+                int base = recordBase(slot);
+                if (getInt(base + STATUS) != USED || getInt(base + EPOCH_DAY) < oldestOpenDay) {
+                    continue;
+                }
+                buffer.get(base, record);
+                int newSlot = hash(plateOf(base), getInt(base + EPOCH_DAY)) & mask;
+                while ((int) INT.get(newBuffer, HEADER_SIZE + newSlot * RECORD_SIZE + STATUS) != EMPTY) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+                newBuffer.put(HEADER_SIZE + newSlot * RECORD_SIZE, record);
+                live++;
+            }
+
+            newBuffer.force();
+            Files.move(newFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = newChannel;
+            buffer = newBuffer;
+            capacity = newCapacity;
+            size.set(live);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("The toll store " + file + " could not be rewritten. Error: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Releases the slots whose key was being written when the process stopped and replays the
+     * running state of every record from its stored passages.
+     */
+    private void recover() {
+        int live = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = recordBase(slot);
+            int status = getInt(base + STATUS);
+            if (status == CLAIMED) {
+                putInt(base + STATUS, EMPTY);
+            } else if (status == USED) {
+                replay(base);
+                live++;
+            }
+        }
+        size.set(live);
+    }
+
+    private static Path createFile(Path file, int capacity) throws IOException {
+        try (FileChannel newChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+            writeHeader(newBuffer, capacity);
+            newBuffer.force();
+        }
+        return file;
+    }
+
+    private void map(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            channel.close();
+            throw new IllegalStateException(path + " is not a toll store file.");
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        int storedCapacity = header.getInt(8);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION || header.getInt(12) != RECORD_SIZE
+                || Integer.bitCount(storedCapacity) != 1 || storedCapacity > MAX_CAPACITY
+                || channel.size() != fileSize(storedCapacity)) {
+            channel.close();
+            throw new IllegalStateException(path + " is not a toll store file of version " + FORMAT_VERSION + ".");
+        }
+        capacity = storedCapacity;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+    }
+
+    private static void writeHeader(MappedByteBuffer target, int capacity) {
+        INT.set(target, 0, MAGIC);
+        INT.set(target, 4, FORMAT_VERSION);
+        INT.set(target, 8, capacity);
+        INT.set(target, 12, RECORD_SIZE);
+    }
+
+    private static int tableCapacity(int vehicleDays) {
+        // At most half full after a rebuild, so probe sequences stay short until the next growth
+        long capacity = Long.highestOneBit(Math.max(vehicleDays, MIN_CAPACITY / 2) * 2L - 1) << 1;
+        return (int) Math.min(capacity, MAX_CAPACITY);
+    }
+
+    private static long fileSize(int capacity) {
+        return HEADER_SIZE + (long) capacity * RECORD_SIZE;
+    }
+
+    private static int recordBase(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private byte[] plateOf(int base) {
+        byte[] plate = new byte[buffer.get(base + PLATE_LENGTH)];
+        buffer.get(base + PLATE, plate);
+        return plate;
+    }
+
+    private static int hash(byte[] plate, int day) {
+        int h = day;
+        for (byte b : plate) {
+            h = 31 * h + b;
+        }
+        h *= 0x9E3779B9; // Spread similar plates over the table
+        return h ^ (h >>> 16);
+    }
+
+    private int getInt(int index) {
+        return (int) INT.get(buffer, index);
+    }
+
+    private void putInt(int index, int value) {
+        INT.set(buffer, index, value);
+    }
+}
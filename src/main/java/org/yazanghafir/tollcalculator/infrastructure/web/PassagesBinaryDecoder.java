@@ -0,0 +1,43 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDataBufferDecoder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.util.MimeType;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * The reactive counterpart of {@link PassagesBinaryHttpMessageConverter}. The body is joined
+ * into one buffer, bounded by the largest request with the accepted number of passages, and
+ * decoded with {@link PassagesBinaryFormat#read}.
+ */
+public class PassagesBinaryDecoder extends AbstractDataBufferDecoder<TollCalculatorPassagesRequest> {
+
+    private final int maxPassages;
+
+    public PassagesBinaryDecoder(int maxPassages) {
+        super(PassagesBinaryFormat.MEDIA_TYPE);
+        this.maxPassages = maxPassages;
+        setMaxInMemorySize((int) Math.min(PassagesBinaryFormat.maxLength(maxPassages), Integer.MAX_VALUE - 8));
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        return TollCalculatorPassagesRequest.class == elementType.toClass() && super.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public TollCalculatorPassagesRequest decode(DataBuffer buffer, ResolvableType targetType, MimeType mimeType,
+                                                Map<String, Object> hints) {
+        try (InputStream in = buffer.asInputStream(true)) {
+            return PassagesBinaryFormat.read(in, maxPassages);
+        } catch (IOException ex) {
+            throw new DecodingException("Malformed binary request body. Error: " + ex.getMessage(), ex);
+        }
+    }
+}
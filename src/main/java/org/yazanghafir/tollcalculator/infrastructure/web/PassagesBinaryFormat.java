@@ -0,0 +1,171 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import org.springframework.http.MediaType;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of a {@link TollCalculatorPassagesRequest}, for machine clients that
+ * send many passages per vehicle.
+ *
+ * A request is encoded as:
+ * <ul>
+ *     <li>the vehicle plate as an unsigned 16-bit big-endian byte length and UTF-8 bytes,</li>
+ *     <li>the vehicle type in the same way,</li>
+ *     <li>the number of passages as an unsigned varint,</li>
+ *     <li>every passage time as a zigzag varint of its difference to the previous one, the
+ *     first one relative to 0,</li>
+ *     <li>optionally the zone, as a length and UTF-8 bytes like the plate.</li>
+ * </ul>
+ * Passage times are epoch milliseconds. Sent in ascending order the differences are small, so
+ * a passage takes 3 to 4 bytes instead of the 29 characters of an ISO date-time parameter.
+ * Varints are 7 bits per byte, least significant group first, with the high bit set on every
+ * byte but the last.
+ */
+public final class PassagesBinaryFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.toll.passages";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final int MAX_STRING_LENGTH = 0xFFFF;
+
+    private PassagesBinaryFormat() {
+    }
+
+    /**
+     * Reads one request from the stream. The body is read in one go, bounded by the largest
+     * request with the given number of passages, and decoded from memory.
+     *
+     * @param in           The stream, positioned at the start of the request.
+     * @param maxPassages  The largest number of passages accepted.
+     * @return The request.
+     * @throws IOException if the stream cannot be read, ends early or the request is malformed.
+     */
+    public static TollCalculatorPassagesRequest read(InputStream in, int maxPassages) throws IOException {
+        long maxLength = maxLength(maxPassages);
+        byte[] body = in.readNBytes((int) Math.min(maxLength + 1, Integer.MAX_VALUE - 8));
+        if (body.length > maxLength) {
+            throw new IOException("Request body is too large, at most " + maxPassages + " passages are accepted.");
+        }
+        return new Decoder(body).readRequest(maxPassages);
+    }
+
+    /**
+     * Returns the length of the largest request with the given number of passages.
+     */
+    public static long maxLength(int maxPassages) {
+        // Three strings, the count and at most 10 bytes per passage time
+        return 3 * (2 + MAX_STRING_LENGTH) + 5 + 10L * maxPassages;
+    }
+
+    /**
+     * Writes one request to the stream.
+     *
+     * @param request The request, its plate and type at most 65535 UTF-8 bytes long.
+     * @param out     The stream.
+     * @throws IOException if the stream cannot be written.
+     * @throws IllegalArgumentException if the plate or type is too long.
+     */
+    public static void write(TollCalculatorPassagesRequest request, OutputStream out) throws IOException {
+        writeString(request.getVehiclePlate(), out);
+        writeString(request.getVehicleType(), out);
+
+        long[] passageTimes = request.getPassageTimes() != null ? request.getPassageTimes() : new long[0];
+        writeVarint(passageTimes.length, out);
+        long previous = 0;
+        for (long passageTime : passageTimes) {
+            long delta = passageTime - previous;
+            writeVarint((delta << 1) ^ (delta >> 63), out); // Zigzag encode
+            previous = passageTime;
+        }
+
+        if (request.getZone() != null) {
+            writeString(request.getZone(), out);
+        }
+    }
+
+    private static void writeString(String value, OutputStream out) throws IOException {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("Value is longer than " + MAX_STRING_LENGTH + " bytes.");
+        }
+        out.write(bytes.length >>> 8);
+        out.write(bytes.length & 0xFF);
+        out.write(bytes);
+    }
+
+    private static void writeVarint(long value, OutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Decoder {
+        private final byte[] bytes;
+        private int position;
+
+        private Decoder(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private TollCalculatorPassagesRequest readRequest(int maxPassages) throws IOException {
+            String vehiclePlate = readString();
+            String vehicleType = readString();
+
+            long count = readVarint();
+            if (count < 0 || count > maxPassages) {
+                throw new IOException("Too many passages: " + count + ", at most " + maxPassages + " are accepted.");
+            }
+
+            long[] passageTimes = new long[(int) count];
+            long previous = 0;
+            for (int i = 0; i < passageTimes.length; i++) {
+                long delta = readVarint();
+                previous += (delta >>> 1) ^ -(delta & 1); // Zigzag decode
+                passageTimes[i] = previous;
+            }
+
+            String zone = position < bytes.length ? readString() : null;
+            if (position != bytes.length) {
+                throw new IOException("Unexpected data after the zone.");
+            }
+            return new TollCalculatorPassagesRequest(vehiclePlate, vehicleType, passageTimes, zone);
+        }
+
+        private String readString() throws IOException {
+            int length = (readByte() << 8) | readByte();
+            if (length > bytes.length - position) {
+                throw new EOFException("Unexpected end of the request body.");
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in the request body.");
+        }
+
+        private int readByte() throws IOException {
+            if (position == bytes.length) {
+                throw new EOFException("Unexpected end of the request body.");
+            }
+            return bytes[position++] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+
+import java.io.IOException;
+
+/**
+ * Reads a {@link TollCalculatorPassagesRequest} sent as {@link PassagesBinaryFormat#MEDIA_TYPE_VALUE}.
+ * Requests are written with {@link PassagesBinaryFormat#write}, the converter itself only reads.
+ */
+public class PassagesBinaryHttpMessageConverter extends AbstractHttpMessageConverter<TollCalculatorPassagesRequest> {
+
+    private final int maxPassages;
+
+    public PassagesBinaryHttpMessageConverter(int maxPassages) {
+        super(PassagesBinaryFormat.MEDIA_TYPE);
+        this.maxPassages = maxPassages;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TollCalculatorPassagesRequest.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TollCalculatorPassagesRequest readInternal(Class<? extends TollCalculatorPassagesRequest> clazz,
+                                                         HttpInputMessage inputMessage) throws IOException {
+        try {
+            return PassagesBinaryFormat.read(inputMessage.getBody(), maxPassages);
+        } catch (IOException ex) {
+            throw new HttpMessageNotReadableException("Malformed binary request body. Error: " + ex.getMessage(),
+                    ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(TollCalculatorPassagesRequest request, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("Binary toll requests are only read.");
+    }
+}
@@ -0,0 +1,122 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads a {@link TollCalculatorPassagesRequest} from a JSON body such as
+ * <pre>
+ * {"vehiclePlate": "ABC123", "vehicleType": "Car", "passageTimes": [1724649300000, 1724652900000], "zone": "Gothenburg"}
+ * </pre>
+ * with Jackson's streaming parser, so the passage times go straight into a long array without
+ * boxing them or binding a list first. The zone is optional and unknown fields are skipped. It only handles this request
+ * type, every other JSON body is left to the standard Jackson converter.
+ */
+public class PassagesJsonHttpMessageConverter extends AbstractHttpMessageConverter<TollCalculatorPassagesRequest> {
+
+    private final JsonFactory jsonFactory;
+    private final int maxPassages;
+
+    public PassagesJsonHttpMessageConverter(JsonFactory jsonFactory, int maxPassages) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+        this.maxPassages = maxPassages;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TollCalculatorPassagesRequest.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TollCalculatorPassagesRequest readInternal(Class<? extends TollCalculatorPassagesRequest> clazz,
+                                                         HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            return read(parser);
+        } catch (IOException ex) {
+            throw new HttpMessageNotReadableException("Malformed JSON request body. Error: " + ex.getMessage(),
+                    ex, inputMessage);
+        }
+    }
+
+    private TollCalculatorPassagesRequest read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object.");
+        }
+
+        TollCalculatorPassagesRequest request = new TollCalculatorPassagesRequest();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (fieldName) {
+                case "vehiclePlate" -> request.setVehiclePlate(readString(parser, value));
+                case "vehicleType" -> request.setVehicleType(readString(parser, value));
+                case "passageTimes" -> request.setPassageTimes(readPassageTimes(parser, value));
+                case "zone" -> request.setZone(readString(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw new IOException("Unexpected end of the JSON object.");
+        }
+        return request;
+    }
+
+    private static String readString(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            throw new IOException("Expected a string for " + parser.currentName() + ".");
+        }
+        return parser.getText();
+    }
+
+    private long[] readPassageTimes(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.START_ARRAY) {
+            throw new IOException("Expected an array of epoch milliseconds for passageTimes.");
+        }
+
+        long[] passageTimes = new long[16];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.VALUE_NUMBER_INT) {
+            if (count == maxPassages) {
+                throw new IOException("Too many passages, at most " + maxPassages + " are accepted.");
+            }
+            if (count == passageTimes.length) {
+                passageTimes = Arrays.copyOf(passageTimes, Math.min(count * 2, maxPassages));
+            }
+            passageTimes[count++] = parser.getLongValue();
+        }
+
+        if (token != JsonToken.END_ARRAY) {
+            throw new IOException("Expected an array of epoch milliseconds for passageTimes.");
+        }
+        return count == passageTimes.length ? passageTimes : Arrays.copyOf(passageTimes, count);
+    }
+
+    @Override
+    protected void writeInternal(TollCalculatorPassagesRequest request, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("JSON toll requests are only read.");
+    }
+}
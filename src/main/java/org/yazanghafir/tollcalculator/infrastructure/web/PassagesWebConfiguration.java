@@ -0,0 +1,48 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+
+import java.util.List;
+
+/**
+ * Registers the JSON and binary readers of {@link org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest}
+ * ahead of the standard converters, so they are used for that request type on the servlet API.
+ * Both reject bodies with more than toll.request.max-passages passages. With
+ * toll.response.precomputed, toll responses are written by
+ * {@link TollCalculatorResponseHttpMessageConverter} from their precomputed bytes.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PassagesWebConfiguration implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int maxPassages;
+    private final boolean precomputedResponses;
+
+    public PassagesWebConfiguration(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                    @Value("${toll.request.max-passages:100000}") int maxPassages,
+                                    @Value("${toll.response.precomputed:true}") boolean precomputedResponses) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxPassages = maxPassages;
+        this.precomputedResponses = precomputedResponses;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new PassagesJsonHttpMessageConverter(objectMapper.getFactory(), maxPassages));
+        converters.add(1, new PassagesBinaryHttpMessageConverter(maxPassages));
+        if (precomputedResponses) {
+            converters.add(2, new TollCalculatorResponseHttpMessageConverter(objectMapper,
+                    new TollCalculatorResponseCache(objectMapper, TollCalculatorRequestValidator.FIXED_MESSAGES), meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.infrastructure.cluster.ClusterMembership;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Server and scheduler of the reactive API, active with spring.main.web-application-type=reactive.
+ *
+ * Tomcat is on the classpath for the servlet API, so Netty is chosen explicitly here. Toll
+ * calculations are moved off the Netty event loop onto the same tollCalculatorExecutor the
+ * servlet batch endpoint uses, so both APIs share one pool. With toll.response.precomputed, toll
+ * responses are written by {@link TollCalculatorResponseEncoder} from their precomputed bytes.
+ * Binary vehicle requests are read by {@link PassagesBinaryDecoder}, which rejects bodies with
+ * more than toll.request.max-passages passages.
+ *
+ * Plate routing and the cluster endpoints are only served by the servlet API, so a partitioned
+ * deployment (toll.cluster.nodes) refuses to start in reactive mode instead of keeping the
+ * running totals of other nodes' plates.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfiguration implements WebFluxConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int maxPassages;
+    private final boolean precomputedResponses;
+
+    public ReactiveWebConfiguration(ObjectMapper objectMapper, MeterRegistry meterRegistry, ClusterMembership membership,
+                                    @Value("${toll.request.max-passages:100000}") int maxPassages,
+                                    @Value("${toll.response.precomputed:true}") boolean precomputedResponses) {
+        if (membership.isPartitioned()) {
+            throw new IllegalStateException("A partitioned deployment is only supported on the servlet API, "
+                    + "remove toll.cluster.nodes or start without spring.main.web-application-type=reactive.");
+        }
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxPassages = maxPassages;
+        this.precomputedResponses = precomputedResponses;
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // The executor is shut down by its own bean, so the scheduler has nothing to dispose
+    @Bean(name = "tollCalculatorScheduler", destroyMethod = "")
+    public Scheduler tollCalculatorScheduler(@Qualifier("tollCalculatorExecutor") ExecutorService executor) {
+        return Schedulers.fromExecutorService(executor, "toll-calculator");
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new PassagesBinaryDecoder(maxPassages));
+        if (precomputedResponses) {
+            configurer.customCodecs().register(new TollCalculatorResponseEncoder(new Jackson2JsonEncoder(objectMapper),
+                    new TollCalculatorResponseCache(objectMapper, TollCalculatorRequestValidator.FIXED_MESSAGES), meterRegistry));
+        }
+    }
+}
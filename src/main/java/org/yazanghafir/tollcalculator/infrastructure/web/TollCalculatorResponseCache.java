@@ -0,0 +1,71 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The serialized JSON of the toll responses that recur on every request: the successful
+ * single-day responses of the common totals and the responses of the fixed validation
+ * messages. They are serialized once with the application's ObjectMapper, so the bytes are the
+ * same as Jackson would write for the response, and are then written as they are.
+ *
+ * A response with daily totals, another total or another message is not held and is left to
+ * Jackson. The match is checked on the response being written, so a response that was changed
+ * after it was created is never answered with stale bytes.
+ */
+public class TollCalculatorResponseCache {
+
+    private final byte[][] totals = new byte[TollCalculatorResponse.COMMON_TOTALS][];
+    private final Map<String, byte[]> failures;
+
+    /**
+     * Serializes the responses.
+     *
+     * @param objectMapper  The mapper the responses are otherwise written with.
+     * @param fixedMessages The validation messages of failed responses to hold.
+     */
+    public TollCalculatorResponseCache(ObjectMapper objectMapper, Collection<String> fixedMessages) {
+        try {
+            for (int totalTollFee = 0; totalTollFee < totals.length; totalTollFee++) {
+                totals[totalTollFee] = objectMapper.writeValueAsBytes(TollCalculatorResponse.total(totalTollFee, null));
+            }
+            Map<String, byte[]> failures = new HashMap<>();
+            for (String message : fixedMessages) {
+                failures.put(message, objectMapper.writeValueAsBytes(new TollCalculatorResponse(0, false, message)));
+            }
+            this.failures = Map.copyOf(failures);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException("The toll responses could not be serialized. Error: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Returns the serialized JSON of a response.
+     *
+     * @param response The response.
+     * @return The bytes to write, or null if the response is not held and has to be serialized.
+     */
+    public byte[] get(TollCalculatorResponse response) {
+        if (response.getClass() != TollCalculatorResponse.class || response.getDailyTollFees() != null
+                || response.getMessage() == null) {
+            return null;
+        }
+
+        double tollFee = response.getTollFee();
+        if (response.isSuccess()) {
+            int totalTollFee = (int) tollFee;
+            if (totalTollFee == tollFee && totalTollFee >= 0 && totalTollFee < totals.length
+                    && TollCalculatorResponse.totalMessage(totalTollFee).equals(response.getMessage())) {
+                return totals[totalTollFee];
+            }
+            return null;
+        }
+        return tollFee == 0 ? failures.get(response.getMessage()) : null;
+    }
+}
@@ -0,0 +1,67 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * The reactive counterpart of {@link TollCalculatorResponseHttpMessageConverter}: a single
+ * {@link TollCalculatorResponse} held in the {@link TollCalculatorResponseCache} is wrapped
+ * in a buffer as it is, everything else, including a stream of responses, is left to the
+ * Jackson encoder.
+ */
+public class TollCalculatorResponseEncoder extends AbstractEncoder<TollCalculatorResponse> {
+
+    private final Jackson2JsonEncoder jsonEncoder;
+    private final TollCalculatorResponseCache responseCache;
+    private final Counter precomputedCounter;
+    private final Counter serializedCounter;
+
+    public TollCalculatorResponseEncoder(Jackson2JsonEncoder jsonEncoder, TollCalculatorResponseCache responseCache,
+                                         MeterRegistry meterRegistry) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonEncoder = jsonEncoder;
+        this.responseCache = responseCache;
+        this.precomputedCounter = TollMetrics.responseWrites(meterRegistry, "precomputed");
+        this.serializedCounter = TollMetrics.responseWrites(meterRegistry, "serialized");
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return TollCalculatorResponse.class == elementType.toClass() && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends TollCalculatorResponse> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<? extends TollCalculatorResponse> response) {
+            return response.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        return jsonEncoder.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+    }
+
+    @Override
+    public DataBuffer encodeValue(TollCalculatorResponse response, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        byte[] body = responseCache.get(response);
+        if (body == null) {
+            serializedCounter.increment();
+            return jsonEncoder.encodeValue(response, bufferFactory, valueType, mimeType, hints);
+        }
+        precomputedCounter.increment();
+        return bufferFactory.wrap(body);
+    }
+}
@@ -0,0 +1,71 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+import org.yazanghafir.tollcalculator.infrastructure.metrics.TollMetrics;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link TollCalculatorResponse} as JSON, from the precomputed bytes of
+ * {@link TollCalculatorResponseCache} when the response is held there, so the common responses
+ * skip Jackson's serialization and go to the output stream with a known content length. Any
+ * other response is serialized with the ObjectMapper, as the standard Jackson converter would.
+ */
+public class TollCalculatorResponseHttpMessageConverter extends AbstractHttpMessageConverter<TollCalculatorResponse> {
+
+    private final ObjectMapper objectMapper;
+    private final TollCalculatorResponseCache responseCache;
+    private final Counter precomputedCounter;
+    private final Counter serializedCounter;
+
+    public TollCalculatorResponseHttpMessageConverter(ObjectMapper objectMapper, TollCalculatorResponseCache responseCache,
+                                                      MeterRegistry meterRegistry) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.precomputedCounter = TollMetrics.responseWrites(meterRegistry, "precomputed");
+        this.serializedCounter = TollMetrics.responseWrites(meterRegistry, "serialized");
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TollCalculatorResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Long getContentLength(TollCalculatorResponse response, MediaType contentType) {
+        byte[] body = responseCache.get(response);
+        return body != null ? (long) body.length : null;
+    }
+
+    @Override
+    protected TollCalculatorResponse readInternal(Class<? extends TollCalculatorResponse> clazz,
+                                                  HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("Toll responses are only written.");
+    }
+
+    @Override
+    protected void writeInternal(TollCalculatorResponse response, HttpOutputMessage outputMessage) throws IOException {
+        byte[] body = responseCache.get(response);
+        if (body != null) {
+            outputMessage.getBody().write(body);
+            precomputedCounter.increment();
+        } else {
+            objectMapper.writeValue(StreamUtils.nonClosing(outputMessage.getBody()), response);
+            serializedCounter.increment();
+        }
+    }
+}
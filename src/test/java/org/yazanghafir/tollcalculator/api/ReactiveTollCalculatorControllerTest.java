@@ -0,0 +1,146 @@
+package org.yazanghafir.tollcalculator.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.reactivestreams.Subscription;
+import org.springframework.core.codec.DecodingException;
+import org.yazanghafir.tollcalculator.application.handler.ITollCalculatorRequestHandler;
+import org.yazanghafir.tollcalculator.application.handler.ITollPassageRequestHandler;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorBatchResponse;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class ReactiveTollCalculatorControllerTest {
+
+    private static final int MAX_IN_FLIGHT = 4;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Mock
+    private ITollCalculatorRequestHandler requestHandler;
+
+    @Mock
+    private ITollPassageRequestHandler passageRequestHandler;
+
+    private ReactiveTollCalculatorController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        controller = new ReactiveTollCalculatorController(requestHandler, passageRequestHandler, OBJECT_MAPPER,
+                Schedulers.immediate(), MAX_IN_FLIGHT);
+        when(requestHandler.handleRequest(any(TollCalculatorRequest.class)))
+                .thenReturn(new TollCalculatorResponse(18, true, "Total toll fee: 18 SEK"));
+    }
+
+    @Test
+    void testCalculateTollBatch_OneResultPerRequest() {
+        // Arrange
+        Flux<JsonNode> requests = Flux.just(request("ABC123"), request("DEF456"), request("GHI789"));
+
+        // Act
+        List<TollCalculatorBatchResponse> results = controller.calculateTollBatch(requests).collectList().block();
+
+        // Assert
+        assertEquals(3, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(18, results.get(i).getResult().getTollFee());
+        }
+        assertEquals("DEF456", results.get(1).getVehiclePlate());
+    }
+
+    @Test
+    void testCalculateTollBatch_ReadsAtMostMaxInFlightAhead() {
+        // Arrange
+        AtomicLong requested = new AtomicLong();
+        Flux<JsonNode> requests = Flux.range(0, 100)
+                .map(i -> request("ABC" + i))
+                .doOnRequest(requested::addAndGet);
+
+        // Act
+        BaseSubscriber<TollCalculatorBatchResponse> slowConsumer = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+        };
+        controller.calculateTollBatch(requests).subscribe(slowConsumer);
+
+        // Assert
+        assertTrue(requested.get() <= MAX_IN_FLIGHT + 1, "requested " + requested.get());
+        slowConsumer.dispose();
+    }
+
+    @Test
+    void testCalculateTollBatch_InvalidItemsFailOnTheirOwn() {
+        // Arrange
+        Flux<JsonNode> requests = Flux.just(request("ABC123"), NullNode.getInstance(),
+                OBJECT_MAPPER.createObjectNode().put("vehicleDateTimes", "not a date"), request("DEF456"));
+
+        // Act
+        List<TollCalculatorBatchResponse> results = controller.calculateTollBatch(requests).collectList().block();
+
+        // Assert
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).getResult().isSuccess());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals("Invalid batch item. Error: Expected a vehicle request object, not null.",
+                results.get(1).getResult().getMessage());
+        assertEquals(2, results.get(2).getIndex());
+        assertFalse(results.get(2).getResult().isSuccess());
+        assertEquals("DEF456", results.get(3).getVehiclePlate());
+        assertTrue(results.get(3).getResult().isSuccess());
+    }
+
+    @Test
+    void testCalculateTollBatch_DecodingErrorEndsBatchWithErrorResult() {
+        // Arrange
+        Flux<JsonNode> requests = Flux.just(request("ABC123"))
+                .concatWith(Flux.error(new DecodingException("JSON decoding error")));
+
+        // Act
+        List<TollCalculatorBatchResponse> results = controller.calculateTollBatch(requests).collectList().block();
+
+        // Assert
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).getResult().isSuccess());
+        assertEquals(1, results.get(1).getIndex());
+        assertNull(results.get(1).getVehiclePlate());
+        assertFalse(results.get(1).getResult().isSuccess());
+        assertEquals("Invalid batch item. Error: JSON decoding error", results.get(1).getResult().getMessage());
+    }
+
+    @Test
+    void testCalculateToll_UsesRequestHandler() {
+        // Act
+        TollCalculatorResponse response = controller.calculateToll("ABC123", "Car", Arrays.asList(new Date()), null).block();
+
+        // Assert
+        assertEquals(18, response.getTollFee());
+    }
+
+    private static JsonNode request(String vehiclePlate) {
+        return OBJECT_MAPPER.valueToTree(new TollCalculatorRequest(vehiclePlate, "Car", Arrays.asList(new Date())));
+    }
+}
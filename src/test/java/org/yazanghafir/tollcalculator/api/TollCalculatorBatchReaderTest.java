@@ -0,0 +1,86 @@
+package org.yazanghafir.tollcalculator.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.yazanghafir.tollcalculator.application.handler.ITollCalculatorRequestHandler;
+import org.yazanghafir.tollcalculator.application.handler.TollCalculatorBatchProcessor;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorBatchResponse;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TollCalculatorBatchReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testNext_NullAndNonObjectItemsFailOnTheirOwn() throws IOException {
+        // Arrange
+        TollCalculatorBatchReader reader = reader("[null, 42, \"ABC123\", {\"vehiclePlate\": \"DEF456\", \"vehicleType\": \"Car\"}]");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals("DEF456", reader.next().getVehiclePlate());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void testNext_NullLineInNdjson() throws IOException {
+        // Arrange
+        TollCalculatorBatchReader reader = reader("{\"vehiclePlate\": \"ABC123\"}\nnull\n{\"vehiclePlate\": \"DEF456\"}\n");
+
+        // Act & Assert
+        assertEquals("ABC123", reader.next().getVehiclePlate());
+        assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals("DEF456", reader.next().getVehiclePlate());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void testProcessBatch_NullItemDoesNotAbortTheBatch() throws IOException {
+        // Arrange
+        ITollCalculatorRequestHandler requestHandler = mock(ITollCalculatorRequestHandler.class);
+        when(requestHandler.handleRequest(any(TollCalculatorRequest.class)))
+                .thenReturn(new TollCalculatorResponse(18, true, "Total toll fee: 18 SEK"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<TollCalculatorBatchResponse> results = new ArrayList<>();
+
+        try {
+            // Act
+            new TollCalculatorBatchProcessor(requestHandler, executor, 2).processBatch(
+                    reader("[{\"vehiclePlate\": \"ABC123\"}, null, {\"vehiclePlate\": \"DEF456\"}]"), results::add);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(3, results.size());
+        results.sort(Comparator.comparingInt(TollCalculatorBatchResponse::getIndex));
+        assertTrue(results.get(0).getResult().isSuccess());
+        assertFalse(results.get(1).getResult().isSuccess());
+        assertTrue(results.get(1).getResult().getMessage().startsWith("Invalid batch item."));
+        assertEquals("DEF456", results.get(2).getVehiclePlate());
+    }
+
+    private TollCalculatorBatchReader reader(String body) throws IOException {
+        return new TollCalculatorBatchReader(objectMapper, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
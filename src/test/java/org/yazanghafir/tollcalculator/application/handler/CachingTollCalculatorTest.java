@@ -0,0 +1,252 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.query.TollFreeCalendar;
+import org.yazanghafir.tollcalculator.application.query.VehicleTypeRegistry;
+import org.yazanghafir.tollcalculator.application.validation.ITollFreeValidator;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationObject;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.GeneratedConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingTollCalculatorTest {
+
+    @Mock
+    private ITollCalculator tollCalculator;
+
+    @Mock
+    private ITollFreeValidator tollFreeValidator;
+
+    @Mock
+    private ITariffRegistry tariffRegistry;
+
+    @Mock
+    private ConfigurationLoader<ConfigurationObject> configLoader;
+
+    private CachingTollCalculator cachingTollCalculator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cachingTollCalculator = new CachingTollCalculator(tollCalculator, tollFreeValidator, tariffRegistry, configLoader, 100, 10);
+        when(tollCalculator.calculateDayToll(any(), any(Passages.class), anyInt())).thenReturn(18);
+        when(configLoader.getVersion(any())).thenReturn(1L);
+    }
+
+    @Test
+    void testCalculateDailyTolls_ResubmittedDayIsCached() {
+        // Arrange
+        Vehicle first = vehicle(localMillis(2024, 8, 26, 7, 15, 0));
+        Vehicle resubmitted = vehicle(localMillis(2024, 8, 26, 7, 15, 0));
+
+        // Act
+        List<DailyTollFee> firstFees = cachingTollCalculator.calculateDailyTolls(first);
+        List<DailyTollFee> resubmittedFees = cachingTollCalculator.calculateDailyTolls(resubmitted);
+
+        // Assert
+        assertEquals(18, firstFees.get(0).getTollFee());
+        assertEquals(18, resubmittedFees.get(0).getTollFee());
+        assertEquals(firstFees.get(0).getDate(), resubmittedFees.get(0).getDate());
+        verify(tollCalculator, times(1)).calculateDayToll(any(), any(Passages.class), anyInt());
+    }
+
+    @Test
+    void testCalculateDailyTolls_DifferentPassageTimesAreNotShared() {
+        // Arrange, the same minute but a different second may change the one-hour intervals
+        Vehicle first = vehicle(localMillis(2024, 8, 26, 7, 0, 30), localMillis(2024, 8, 26, 8, 0, 10));
+        Vehicle second = vehicle(localMillis(2024, 8, 26, 7, 0, 0), localMillis(2024, 8, 26, 8, 0, 10));
+
+        // Act
+        cachingTollCalculator.calculateToll(first);
+        cachingTollCalculator.calculateToll(second);
+
+        // Assert
+        verify(tollCalculator, times(2)).calculateDayToll(any(), any(Passages.class), anyInt());
+    }
+
+    @Test
+    void testCalculateDailyTolls_MultiDayRequestReusesCachedDays() {
+        // Arrange
+        Vehicle monday = vehicle(localMillis(2024, 8, 26, 7, 15, 0));
+        Vehicle mondayAndTuesday = vehicle(localMillis(2024, 8, 26, 7, 15, 0), localMillis(2024, 8, 27, 7, 15, 0));
+
+        // Act
+        cachingTollCalculator.calculateToll(monday);
+        int totalFee = cachingTollCalculator.calculateToll(mondayAndTuesday);
+
+        // Assert
+        assertEquals(36, totalFee);
+        verify(tollCalculator, times(2)).calculateDayToll(any(), any(Passages.class), anyInt());
+    }
+
+    @Test
+    void testCalculateDailyTolls_ConfigurationReloadInvalidates() {
+        // Arrange
+        Vehicle vehicle = vehicle(localMillis(2024, 8, 26, 7, 15, 0));
+        cachingTollCalculator.calculateToll(vehicle);
+        when(configLoader.getVersion(ConfigurationFilePath.TOLL_FEES)).thenReturn(2L);
+
+        // Act
+        cachingTollCalculator.calculateToll(vehicle);
+
+        // Assert
+        verify(tollCalculator, times(2)).calculateDayToll(any(), any(Passages.class), anyInt());
+    }
+
+    @Test
+    void testCalculateDailyTolls_TollFreeVehicle() {
+        // Arrange
+        when(tollFreeValidator.isTollFreeVehicle("Emergency")).thenReturn(true);
+        Vehicle vehicle = new Vehicle("ABC123", "Emergency",
+                Passages.fromSortedLocalEpochMillis(new long[]{localMillis(2024, 8, 26, 7, 15, 0)}));
+
+        // Act
+        int totalFee = cachingTollCalculator.calculateToll(vehicle);
+
+        // Assert
+        assertEquals(0, totalFee);
+        verify(tollCalculator, never()).calculateDayToll(any(), any(Passages.class), anyInt());
+    }
+
+    @Test
+    void testCalculateDailyTolls_LargeRequestIsNotCached() {
+        // Arrange
+        long[] passageTimes = new long[11];
+        for (int i = 0; i < passageTimes.length; i++) {
+            passageTimes[i] = localMillis(2024, 8, 26, 6 + i, 0, 0);
+        }
+        Vehicle vehicle = new Vehicle("ABC123", "Car", Passages.fromSortedLocalEpochMillis(passageTimes));
+
+        // Act
+        cachingTollCalculator.calculateDailyTolls(vehicle);
+
+        // Assert
+        verify(tollCalculator).calculateDailyTolls(vehicle);
+        verify(tollCalculator, never()).calculateDayToll(any(), any(Passages.class), anyInt());
+    }
+
+    @Test
+    void testCalculateDailyTolls_ZonesWithDifferentTariffsAreNotShared() {
+        // Arrange
+        TollTariff stockholm = new TollTariff("Stockholm", null, 135);
+        when(tariffRegistry.findTariff("Stockholm", "Car")).thenReturn(stockholm);
+        when(tollCalculator.calculateDayToll(eq(stockholm), any(Passages.class), anyInt())).thenReturn(45);
+        Passages passages = Passages.fromSortedLocalEpochMillis(new long[]{localMillis(2024, 8, 26, 7, 15, 0)});
+
+        // Act
+        int gothenburgFee = cachingTollCalculator.calculateToll(new Vehicle("ABC123", "Car", passages, "Gothenburg"));
+        int stockholmFee = cachingTollCalculator.calculateToll(new Vehicle("ABC123", "Car", passages, "Stockholm"));
+        int stockholmAgainFee = cachingTollCalculator.calculateToll(new Vehicle("ABC123", "Car", passages, "Stockholm"));
+
+        // Assert
+        assertEquals(18, gothenburgFee);
+        assertEquals(45, stockholmFee);
+        assertEquals(45, stockholmAgainFee);
+        verify(tollCalculator, times(1)).calculateDayToll(eq(stockholm), any(Passages.class), anyInt());
+    }
+
+    private static Vehicle vehicle(long... localEpochMillis) {
+        return new Vehicle("ABC123", "Car", Passages.fromSortedLocalEpochMillis(localEpochMillis));
+    }
+
+    @Test
+    void testCalculateDailyTolls_GeneratedTablesAreCached() throws IOException {
+        // Arrange, generated tables built from the bundled files as the codegen profile does
+        ConfigurationLoader<ConfigurationObject> bundledLoader = new ConfigurationLoader<>();
+        GeneratedConfiguration generated = mock(GeneratedConfiguration.class);
+        for (ConfigurationFilePath filePathType : List.of(ConfigurationFilePath.TOLL_FEES,
+                ConfigurationFilePath.VEHICLE_TYPES, ConfigurationFilePath.TARIFFS)) {
+            when(generated.getChecksum(filePathType)).thenReturn(bundledChecksum(filePathType));
+        }
+        VehicleTypeRegistry bundledTypes = new VehicleTypeRegistry(loader(bundledLoader));
+        when(generated.getTollFeeTable()).thenReturn(new TollFeeAmountRetriever(loader(bundledLoader)).getTollFeeTable());
+        when(generated.getVehicleTypeIndex()).thenReturn(bundledTypes.getVehicleTypeIndex());
+        when(generated.getTariffIndex()).thenReturn(new TariffRegistry(loader(bundledLoader), bundledTypes).getTariffIndex());
+
+        // Act & Assert
+        assertGeneratedTablesAreCached(new ConfigurationLoader<>("", false, generated));
+    }
+
+    @Test
+    void testCalculateDailyTolls_CodegenTablesAreCached() {
+        // Arrange, only with the tables of a build with the codegen profile on the classpath
+        ConfigurationLoader<ConfigurationObject> configLoader = new ConfigurationLoader<>("", false, true);
+        assumeTrue(configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FEES).isPresent());
+
+        // Act & Assert
+        assertGeneratedTablesAreCached(configLoader);
+    }
+
+    private static void assertGeneratedTablesAreCached(ConfigurationLoader<ConfigurationObject> configLoader) {
+        VehicleTypeRegistry vehicleTypeRegistry = new VehicleTypeRegistry(loader(configLoader));
+        TariffRegistry tariffRegistry = new TariffRegistry(loader(configLoader), vehicleTypeRegistry);
+        TollFreeValidator tollFreeValidator = new TollFreeValidator(new TollFreeCalendar(loader(configLoader)), vehicleTypeRegistry);
+        TollCalculator tollCalculator = spy(new TollCalculator(tollFreeValidator,
+                new TollFeeAmountRetriever(loader(configLoader)), tariffRegistry));
+        CachingTollCalculator cachingTollCalculator = new CachingTollCalculator(tollCalculator, tollFreeValidator,
+                tariffRegistry, configLoader, 100, 10);
+        Vehicle vehicle = vehicle(localMillis(2024, 8, 26, 7, 15, 0));
+
+        cachingTollCalculator.calculateToll(vehicle); // Uses the generated tables, which publishes their versions
+        clearInvocations(tollCalculator);
+        int firstFee = cachingTollCalculator.calculateToll(vehicle);
+        int cachedFee = cachingTollCalculator.calculateToll(vehicle);
+
+        assertEquals(18, firstFee);
+        assertEquals(18, cachedFee);
+        assertTrue(configLoader.getVersion(ConfigurationFilePath.TOLL_FEES) > 0);
+        assertTrue(configLoader.getVersion(ConfigurationFilePath.VEHICLE_TYPES) > 0);
+        assertTrue(configLoader.getSnapshots().stream().anyMatch(snapshot -> snapshot.getSource().startsWith("generated:")));
+        verify(tollCalculator, times(1)).calculateDayToll(any(), any(Passages.class), anyInt());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T extends ConfigurationObject> ConfigurationLoader<T> loader(ConfigurationLoader<ConfigurationObject> configLoader) {
+        return (ConfigurationLoader) configLoader; // One loader serves every configuration type, as the bean does
+    }
+
+    private static long bundledChecksum(ConfigurationFilePath filePathType) throws IOException {
+        CRC32 checksum = new CRC32();
+        try (InputStream inputStream = CachingTollCalculatorTest.class.getClassLoader()
+                .getResourceAsStream(filePathType.getFilePath())) {
+            checksum.update(inputStream.readAllBytes());
+        }
+        return checksum.getValue();
+    }
+
+    private static long localMillis(int year, int month, int day, int hour, int minute, int second) {
+        return LocalDateTime.of(year, month, day, hour, minute, second).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
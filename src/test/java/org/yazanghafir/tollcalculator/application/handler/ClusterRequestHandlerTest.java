@@ -0,0 +1,143 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleDayPassages;
+import org.yazanghafir.tollcalculator.domain.responses.ClusterResponse;
+import org.yazanghafir.tollcalculator.infrastructure.cluster.ClusterClient;
+import org.yazanghafir.tollcalculator.infrastructure.cluster.ClusterMembership;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ClusterRequestHandlerTest {
+
+    private static final String SELF = "http://localhost:8081";
+    private static final String OTHER = "http://localhost:8082";
+
+    @Mock
+    private ClusterClient clusterClient;
+
+    @Mock
+    private IHandOffTollAccumulator tollAccumulator;
+
+    @Mock
+    private ITollAccumulator persistentAccumulator;
+
+    private ClusterMembership membership;
+    private ClusterRequestHandler clusterRequestHandler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        membership = new ClusterMembership(List.of(SELF), SELF, 128, "forward");
+        clusterRequestHandler = new ClusterRequestHandler(membership, clusterClient, tollAccumulator);
+    }
+
+    @Test
+    void testUpdateNodes_HandsOffMovedVehicleDays() throws Exception {
+        // Arrange
+        String movedPlate = plateOwnedBy(List.of(SELF, OTHER), OTHER);
+        when(tollAccumulator.removeVehicleDays(any())).thenAnswer(invocation -> {
+            Predicate<String> filter = invocation.getArgument(0);
+            assertFalse(filter.test(plateOwnedBy(List.of(SELF, OTHER), SELF)));
+            return filter.test(movedPlate)
+                    ? List.of(new VehicleDayPassages(movedPlate, "Car", new long[]{1724656500000L, 1724661000000L}))
+                    : List.of();
+        });
+
+        // Act
+        ClusterResponse response = clusterRequestHandler.updateNodes(List.of(SELF, OTHER));
+
+        // Assert
+        assertEquals(1, response.getHandedOffVehicleDays());
+        assertEquals(List.of(SELF, OTHER), response.getNodes());
+        verify(clusterClient, times(2)).sendPassage(eq(OTHER), eq(movedPlate), eq("Car"), any(Instant.class));
+    }
+
+    @Test
+    void testUpdateNodes_ReportsVehicleDayWhenOwnerIsUnreachable() throws Exception {
+        // Arrange
+        String movedPlate = plateOwnedBy(List.of(SELF, OTHER), OTHER);
+        when(tollAccumulator.removeVehicleDays(any()))
+                .thenReturn(List.of(new VehicleDayPassages(movedPlate, "Car", new long[]{1724656500000L})));
+        doThrow(new IOException("Connection refused"))
+                .when(clusterClient).sendPassage(eq(OTHER), eq(movedPlate), eq("Car"), any(Instant.class));
+
+        // Act
+        ClusterResponse response = clusterRequestHandler.updateNodes(List.of(SELF, OTHER));
+
+        // Assert
+        assertEquals(0, response.getHandedOffVehicleDays());
+        assertEquals(1, response.getFailedVehicleDays());
+        verify(tollAccumulator).addPassage(movedPlate, "Car", 1724656500000L);
+    }
+
+    @Test
+    void testUpdateNodes_RetriesFailedHandOffWithSameNodes() throws Exception {
+        // Arrange
+        String movedPlate = plateOwnedBy(List.of(SELF, OTHER), OTHER);
+        when(tollAccumulator.removeVehicleDays(any()))
+                .thenReturn(List.of(new VehicleDayPassages(movedPlate, "Car", new long[]{1724656500000L})));
+        doThrow(new IOException("Connection refused")).doNothing()
+                .when(clusterClient).sendPassage(eq(OTHER), eq(movedPlate), eq("Car"), any(Instant.class));
+        clusterRequestHandler.updateNodes(List.of(SELF, OTHER));
+
+        // Act
+        ClusterResponse response = clusterRequestHandler.updateNodes(List.of(SELF, OTHER));
+
+        // Assert
+        assertEquals(1, response.getHandedOffVehicleDays());
+        assertEquals(0, response.getFailedVehicleDays());
+    }
+
+    @Test
+    void testUpdateNodes_RefusesChangeWhenVehicleDaysCannotBeHandedOff() {
+        // Arrange
+        clusterRequestHandler = new ClusterRequestHandler(membership, clusterClient, persistentAccumulator);
+        when(persistentAccumulator.getOpenVehicleDays()).thenReturn(3);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> clusterRequestHandler.updateNodes(List.of(SELF, OTHER)));
+        assertEquals(List.of(SELF), membership.getRing().getNodes());
+    }
+
+    @Test
+    void testUpdateNodes_ChangesEmptyStoreThatCannotHandOff() {
+        // Arrange
+        clusterRequestHandler = new ClusterRequestHandler(membership, clusterClient, persistentAccumulator);
+        when(persistentAccumulator.getOpenVehicleDays()).thenReturn(0);
+
+        // Act
+        ClusterResponse response = clusterRequestHandler.updateNodes(List.of(SELF + "/", OTHER));
+
+        // Assert
+        assertEquals(List.of(SELF, OTHER), response.getNodes());
+        verify(persistentAccumulator, never()).addPassage(any(), any(), anyLong());
+    }
+
+    private static String plateOwnedBy(List<String> nodes, String node) {
+        ClusterMembership ring = new ClusterMembership(nodes, node, 128, "forward");
+        for (int i = 0; ; i++) {
+            if (ring.isLocal("ABC" + i)) {
+                return "ABC" + i;
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.responses.InvoicingResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class InvoicingHandlerTest {
+
+    @Mock
+    private TollCalculatorRequestValidator requestValidator;
+
+    @Mock
+    private ITollCalculator tollCalculator;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(requestValidator.validateVehicleType("Car")).thenReturn(null);
+        when(requestValidator.validateVehicleType("Tram")).thenReturn("Invalid vehicle type.");
+
+        // 8 SEK per passage, except on Sundays
+        when(tollCalculator.calculateDailyTolls(eq("Car"), any(Passages.class))).thenAnswer(invocation -> {
+            Passages passages = invocation.getArgument(1);
+            List<DailyTollFee> dailyTollFees = new ArrayList<>();
+            for (int day = 0; day < passages.getDayCount(); day++) {
+                boolean sunday = passages.getDate(day).getDayOfWeek().getValue() == 7;
+                dailyTollFees.add(new DailyTollFee(passages.getDate(day),
+                        sunday ? 0 : 8 * (passages.getDayEnd(day) - passages.getDayStart(day))));
+            }
+            return dailyTollFees;
+        });
+    }
+
+    @Test
+    void testInvoice_WritesOneLinePerPlateAndMonth() throws IOException {
+        // Arrange
+        InvoicingHandler invoicingHandler = new InvoicingHandler(requestValidator, tollCalculator, 2,
+                directory.toString(), 2, 1000);
+        Path input = directory.resolve("passages.csv");
+        Path output = directory.resolve("invoices.csv");
+        Files.writeString(input, "vehiclePlate,vehicleType,vehicleDateTime\n"
+                + "XYZ789,Car,2024-08-27T07:15\n"
+                + "ABC123,Car,2024-08-26T16:15\n"
+                + "ABC123,Car,2024-09-02T07:15\n"
+                + "ABC123,Car,2024-08-26T07:15\n"
+                + "ABC123,Car,2024-08-25T07:15\n" // A Sunday
+                + "TRAM01,Tram,2024-08-26T07:15\n"
+                + "ABC123,Car,2024-08-31T07:15\n");
+
+        // Act
+        InvoicingResponse response = invoicingHandler.invoice(input, output);
+
+        // Assert
+        assertTrue(response.isSuccess(), response.getMessage());
+        assertEquals(List.of("vehiclePlate,vehicleType,month,tollDays,tollFee",
+                "ABC123,Car,2024-08,2,24",
+                "ABC123,Car,2024-09,1,8",
+                "XYZ789,Car,2024-08,1,8"), Files.readAllLines(output));
+        assertEquals(7, response.getPassages());
+        assertEquals(1, response.getRejectedPassages());
+        assertEquals(0, response.getRejectedRows()); // The header is not a rejected row
+        assertEquals(3, response.getInvoiceLines());
+        assertEquals(5, response.getVehicleDays());
+        assertEquals(40, response.getTotalTollFee());
+        assertTrue(response.getSpilledRuns() > 0);
+    }
+
+    @Test
+    void testInvoice_PartitionsAreWrittenInOrder() throws IOException {
+        // Arrange
+        InvoicingHandler invoicingHandler = new InvoicingHandler(requestValidator, tollCalculator, 1000,
+                directory.toString(), 4, 10);
+        Path input = directory.resolve("passages.csv");
+        Path output = directory.resolve("invoices.csv");
+        StringBuilder passages = new StringBuilder();
+        List<String> expected = new ArrayList<>(List.of("vehiclePlate,vehicleType,month,tollDays,tollFee"));
+        for (int plate = 0; plate < 500; plate++) {
+            for (int day = 5; day <= 7; day++) { // Monday to Wednesday
+                passages.append(String.format("P%04d,Car,2024-08-%02dT07:15%n", plate, day));
+                passages.append(String.format("P%04d,Car,2024-08-%02dT16:15%n", plate, day));
+            }
+            expected.add(String.format("P%04d,Car,2024-08,3,48", plate));
+        }
+        Files.writeString(input, passages.toString());
+
+        // Act
+        InvoicingResponse response = invoicingHandler.invoice(input, output);
+
+        // Assert
+        assertTrue(response.isSuccess(), response.getMessage());
+        assertEquals(expected, Files.readAllLines(output));
+        assertEquals(500, response.getInvoiceLines());
+        assertEquals(1500, response.getVehicleDays());
+        assertEquals(24_000, response.getTotalTollFee());
+        assertEquals(250, response.getPartitions()); // Two plate months of six passages fill a partition of ten
+    }
+
+    @Test
+    void testInvoice_ParallelReadMatchesSingleRead() throws IOException {
+        // Arrange
+        Path input = directory.resolve("passages.csv");
+        StringBuilder passages = new StringBuilder("vehiclePlate,vehicleType,vehicleDateTime\n");
+        for (int i = 0; i < 3000; i++) {
+            passages.append(String.format("P%03d,Car,2024-%02d-%02dT%02d:15%n", i % 97, 7 + i % 3, 1 + i % 28, 6 + i % 12));
+        }
+        Files.writeString(input, passages.toString());
+        Path single = directory.resolve("single.csv");
+        Path parallel = directory.resolve("parallel.csv");
+
+        // Act
+        InvoicingResponse singleResponse = new InvoicingHandler(requestValidator, tollCalculator, 500,
+                directory.toString(), 1, 100).invoice(input, single);
+        InvoicingResponse parallelResponse = new InvoicingHandler(requestValidator, tollCalculator, 500,
+                directory.toString(), 4, 100).invoice(input, parallel);
+
+        // Assert
+        assertTrue(parallelResponse.isSuccess(), parallelResponse.getMessage());
+        assertEquals(Files.readAllLines(single), Files.readAllLines(parallel));
+        assertEquals(3000, parallelResponse.getPassages());
+        assertEquals(0, parallelResponse.getRejectedPassages());
+        assertEquals(singleResponse.getTotalTollFee(), parallelResponse.getTotalTollFee());
+        assertTrue(parallelResponse.getSpilledRuns() >= 4); // Every range spills runs of 125 passages
+    }
+
+    @Test
+    void testInvoice_RejectedRowsOfAllRangesAreReportedOnce() throws IOException {
+        // Arrange
+        InvoicingHandler invoicingHandler = new InvoicingHandler(requestValidator, tollCalculator, 500,
+                directory.toString(), 4, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        invoicingHandler.bindTo(registry);
+        Path input = directory.resolve("passages.csv");
+        StringBuilder passages = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            passages.append(i % 100 == 0 ? "not a passage\n" : String.format("P%03d,Car,2024-08-05T07:15%n", i));
+        }
+        Files.writeString(input, passages.toString());
+
+        // Act
+        InvoicingResponse response = invoicingHandler.invoice(input, directory.resolve("invoices.csv"));
+
+        // Assert
+        assertTrue(response.isSuccess(), response.getMessage());
+        assertEquals(990, response.getPassages());
+        assertEquals(10, response.getRejectedRows()); // Summed over the readers of every range
+        assertEquals(10, response.getRejectedPassages());
+        assertEquals(10, registry.get("toll.log.rejected-rows").tag("handler", "invoicing").counter().count());
+    }
+
+    @Test
+    void testInvoice_MissingInput() {
+        // Arrange
+        InvoicingHandler invoicingHandler = new InvoicingHandler(requestValidator, tollCalculator, 2,
+                directory.toString(), 1, 1000);
+
+        // Act
+        InvoicingResponse response = invoicingHandler.invoice(directory.resolve("missing.csv"),
+                directory.resolve("invoices.csv"));
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().startsWith("Error invoicing"));
+    }
+}
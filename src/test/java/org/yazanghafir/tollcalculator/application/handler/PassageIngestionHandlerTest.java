@@ -0,0 +1,123 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.responses.IngestionResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PassageIngestionHandlerTest {
+
+    @Mock
+    private TollCalculatorRequestValidator requestValidator;
+
+    @Mock
+    private ITollCalculator tollCalculator;
+
+    @TempDir
+    Path directory;
+
+    private PassageIngestionHandler ingestionHandler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ingestionHandler = new PassageIngestionHandler(requestValidator, tollCalculator, 2, directory.toString());
+    }
+
+    @Test
+    void testIngest_WritesOneTotalPerPlateAndDay() throws IOException {
+        // Arrange
+        Path input = directory.resolve("passages.csv");
+        Path output = directory.resolve("totals.csv");
+        Files.writeString(input, "vehiclePlate,vehicleType,vehicleDateTime\n"
+                + "XYZ789,Car,2024-08-27T07:15\n"
+                + "ABC123,Car,2024-08-26T16:15\n"
+                + "ABC123,Car,2024-08-26T07:15\n"
+                + "ABC123,Car,2024-08-27T07:15\n"
+                + "ABC123,Car,tomorrow\n"
+                + "TRAM01,Tram,2024-08-26T07:15\n");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ingestionHandler.bindTo(registry);
+        when(requestValidator.validateVehicleType("Car")).thenReturn(null);
+        when(requestValidator.validateVehicleType("Tram")).thenReturn("Invalid vehicle type.");
+        when(tollCalculator.calculateDailyTolls(eq("Car"), any(Passages.class))).thenAnswer(invocation -> {
+            Passages passages = invocation.getArgument(1);
+            return List.of(new DailyTollFee(passages.getDate(0), 18 * passages.size()));
+        });
+
+        // Act
+        IngestionResponse response = ingestionHandler.ingest(input, output);
+
+        // Assert
+        assertTrue(response.isSuccess(), response.getMessage());
+        assertEquals(5, response.getPassages());
+        assertEquals(2, response.getRejectedPassages());
+        assertEquals(1, response.getRejectedRows());
+        assertEquals(1, registry.get("toll.log.rejected-rows").tag("handler", "ingestion").counter().count());
+        assertEquals(3, response.getVehicleDays());
+        assertEquals(2, response.getSpilledRuns()); // Runs of 2 passages, the fifth stays in memory
+        assertEquals(List.of(
+                "vehiclePlate,vehicleType,date,tollFee",
+                "ABC123,Car,2024-08-26,36",
+                "ABC123,Car,2024-08-27,18",
+                "XYZ789,Car,2024-08-27,18"), Files.readAllLines(output));
+        verify(requestValidator, times(1)).validateVehicleType("Car"); // Validated once per vehicle type
+    }
+
+    @Test
+    void testIngest_DropsDuplicateGantryReports() throws IOException {
+        // Arrange
+        ingestionHandler = new PassageIngestionHandler(requestValidator, tollCalculator, 1000, directory.toString(),
+                5000, 60_000, 1000, 0.01, 1024);
+        Path input = directory.resolve("passages.csv");
+        Path output = directory.resolve("totals.csv");
+        Files.writeString(input, "ABC123,Car,2024-08-26T07:15:00,G1\n"
+                + "ABC123,Car,2024-08-26T07:15:02,G1\n" // Reported twice by the same gantry
+                + "ABC123,Car,2024-08-26T07:15:02,G2\n"
+                + "ABC123,Car,2024-08-26T07:15:30,G1\n");
+        when(requestValidator.validateVehicleType("Car")).thenReturn(null);
+        when(tollCalculator.calculateDailyTolls(eq("Car"), any(Passages.class))).thenAnswer(invocation -> {
+            Passages passages = invocation.getArgument(1);
+            return List.of(new DailyTollFee(passages.getDate(0), passages.size()));
+        });
+
+        // Act
+        IngestionResponse response = ingestionHandler.ingest(input, output);
+
+        // Assert
+        assertTrue(response.isSuccess(), response.getMessage());
+        assertEquals(3, response.getPassages());
+        assertEquals(1, response.getDuplicatePassages());
+        assertEquals(List.of("vehiclePlate,vehicleType,date,tollFee", "ABC123,Car,2024-08-26,3"), Files.readAllLines(output));
+    }
+
+    @Test
+    void testIngest_MissingInput() {
+        // Act
+        IngestionResponse response = ingestionHandler.ingest(directory.resolve("missing.csv"), directory.resolve("totals.csv"));
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().startsWith("Error ingesting"));
+    }
+}
@@ -0,0 +1,139 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+import org.yazanghafir.tollcalculator.infrastructure.store.MappedDailyTollStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+public class PersistentTollAccumulatorTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 8, 26);
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    @Mock
+    private TollFreeValidator tollFreeValidator;
+
+    @Mock
+    private ITariffRegistry tariffRegistry;
+
+    @TempDir
+    Path directory;
+
+    private TollFeeAmountRetriever tollFeeRetriever;
+    private TollCalculator tollCalculator;
+    private MappedDailyTollStore store;
+    private PersistentTollAccumulator tollAccumulator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tollFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+        tollCalculator = new TollCalculator(tollFreeValidator, tollFeeRetriever);
+        store = MappedDailyTollStore.open(directory.resolve("daily-tolls.dat"), 1024);
+        tollAccumulator = new PersistentTollAccumulator(tollFreeValidator, tollFeeRetriever, tariffRegistry, store, 1,
+                clockAt(MONDAY));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void testAddPassage_SurvivesRestart() throws IOException {
+        // Arrange
+        tollAccumulator.addPassage("ABC123", "Car", millis(7, 15)); // 18 SEK
+        tollAccumulator.close();
+        store = MappedDailyTollStore.open(directory.resolve("daily-tolls.dat"), 1024);
+        tollAccumulator = new PersistentTollAccumulator(tollFreeValidator, tollFeeRetriever, tariffRegistry, store, 1,
+                clockAt(MONDAY));
+
+        // Act
+        int total = tollAccumulator.addPassage("ABC123", "Car", millis(8, 30)).getTollFee(); // 8 SEK
+
+        // Assert
+        assertEquals(26, total);
+        assertEquals(1, tollAccumulator.getOpenVehicleDays());
+    }
+
+    @Test
+    void testAddPassage_TollFreeVehicle() {
+        // Arrange
+        when(tollFreeValidator.isTollFreeVehicle("Emergency")).thenReturn(true);
+
+        // Act & Assert
+        assertEquals(0, tollAccumulator.addPassage("AMB001", "Emergency", millis(7, 15)).getTollFee());
+    }
+
+    @Test
+    void testAddPassage_MatchesFullCalculation() {
+        // Arrange
+        Random random = new Random(42);
+
+        for (int run = 0; run < 200; run++) {
+            String plate = "ABC" + run;
+            int passages = 1 + random.nextInt(MappedDailyTollStore.RETAINED_PASSAGES);
+            long[] passageTimes = new long[passages];
+            int total = 0;
+
+            // Act
+            for (int i = 0; i < passages; i++) {
+                passageTimes[i] = millis(0, 0) + (long) (random.nextDouble() * DAY_MILLIS);
+                total = tollAccumulator.addPassage(plate, "Car", passageTimes[i]).getTollFee();
+            }
+
+            // Assert
+            Arrays.sort(passageTimes);
+            assertEquals(tollCalculator.calculateDailyToll(Passages.fromSortedLocalEpochMillis(passageTimes), 0, passages), total);
+        }
+    }
+
+    @Test
+    void testEvictClosedDays() {
+        // Arrange
+        tollAccumulator.addPassage("ABC123", "Car", millis(7, 15) - DAY_MILLIS); // Sunday
+        tollAccumulator.addPassage("ABC123", "Car", millis(7, 15));              // Monday
+        PersistentTollAccumulator nextDay = new PersistentTollAccumulator(tollFreeValidator, tollFeeRetriever,
+                tariffRegistry, store, 1, clockAt(MONDAY.plusDays(1)));
+
+        // Act
+        nextDay.evictClosedDays();
+
+        // Assert
+        assertEquals(1, nextDay.getOpenVehicleDays()); // Monday is kept for late passages
+        assertEquals(36, nextDay.addPassage("ABC123", "Car", millis(16, 0)).getTollFee());
+        assertThrows(IllegalArgumentException.class,
+                () -> nextDay.addPassage("ABC123", "Car", millis(7, 15) - DAY_MILLIS));
+    }
+
+    private static long millis(int hour, int minute) {
+        return LocalDateTime.of(MONDAY.getYear(), MONDAY.getMonth(), MONDAY.getDayOfMonth(), hour, minute)
+                .toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static Clock clockAt(LocalDate date) {
+        return Clock.fixed(date.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    }
+}
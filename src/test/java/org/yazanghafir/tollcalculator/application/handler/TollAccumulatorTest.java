@@ -0,0 +1,232 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleDayPassages;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+public class TollAccumulatorTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 8, 26);
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    @Mock
+    private TollFreeValidator tollFreeValidator;
+
+    @Mock
+    private ITariffRegistry tariffRegistry;
+
+    private TollFeeAmountRetriever tollFeeRetriever;
+    private TollCalculator tollCalculator;
+    private TollAccumulator tollAccumulator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tollFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+        tollCalculator = new TollCalculator(tollFreeValidator, tollFeeRetriever);
+        tollAccumulator = new TollAccumulator(tollFreeValidator, tollFeeRetriever, tariffRegistry, 1, clockAt(MONDAY));
+    }
+
+    @Test
+    void testAddPassage_RunningTotal() {
+        // Act & Assert
+        assertEquals(18, tollAccumulator.addPassage("ABC123", "Car", millis(7, 15)).getTollFee()); // 07:15 (18 SEK)
+        assertEquals(18, tollAccumulator.addPassage("ABC123", "Car", millis(7, 45)).getTollFee()); // Same hour
+        assertEquals(26, tollAccumulator.addPassage("ABC123", "Car", millis(8, 30)).getTollFee()); // 08:30 (8 SEK)
+        assertEquals(1, tollAccumulator.getOpenVehicleDays());
+    }
+
+    @Test
+    void testAddPassage_LatePassageMovesIntervals() {
+        // Arrange
+        tollAccumulator.addPassage("ABC123", "Car", millis(7, 15));  // 18 SEK
+        tollAccumulator.addPassage("ABC123", "Car", millis(8, 30));  // 8 SEK in a new interval
+
+        // Act
+        DailyTollFee dailyTollFee = tollAccumulator.addPassage("ABC123", "Car", millis(6, 45)); // 13 SEK, arrives late
+
+        // Assert
+        assertEquals(MONDAY, dailyTollFee.getDate());
+        assertEquals(26, dailyTollFee.getTollFee()); // 06:45-07:44 takes 18 SEK, 08:30 opens the next interval
+    }
+
+    @Test
+    void testAddPassage_CappedAt60SEK() {
+        // Arrange
+        int total = 0;
+
+        // Act
+        for (int hour = 6; hour < 18; hour++) {
+            total = tollAccumulator.addPassage("ABC123", "Car", millis(hour, 30)).getTollFee();
+        }
+
+        // Assert
+        assertEquals(60, total);
+    }
+
+    @Test
+    void testAddPassage_TollFreeVehicleAndDay() {
+        // Arrange
+        when(tollFreeValidator.isTollFreeVehicle("Emergency")).thenReturn(true);
+        when(tollFreeValidator.isTollFreeDay(MONDAY.plusDays(5).toEpochDay())).thenReturn(true); // Saturday
+        long saturdayMillis = millis(7, 15) + 5 * DAY_MILLIS;
+
+        // Act & Assert
+        assertEquals(0, tollAccumulator.addPassage("AMB001", "Emergency", millis(7, 15)).getTollFee());
+        assertEquals(0, tollAccumulator.addPassage("ABC123", "Car", saturdayMillis).getTollFee());
+    }
+
+    @Test
+    void testAddPassage_MatchesFullCalculation() {
+        // Arrange
+        Random random = new Random(42);
+
+        for (int run = 0; run < 200; run++) {
+            TollAccumulator accumulator = new TollAccumulator(tollFreeValidator, tollFeeRetriever, tariffRegistry, 1, clockAt(MONDAY));
+            int passages = 1 + random.nextInt(30);
+            long[] passageTimes = new long[passages];
+            int total = 0;
+
+            // Act
+            for (int i = 0; i < passages; i++) {
+                passageTimes[i] = millis(0, 0) + (long) (random.nextDouble() * 24 * 60 * 60 * 1000);
+                total = accumulator.addPassage("ABC123", "Car", passageTimes[i]).getTollFee();
+            }
+
+            // Assert
+            Arrays.sort(passageTimes);
+            assertEquals(tollCalculator.calculateDailyToll(Passages.fromSortedLocalEpochMillis(passageTimes), 0, passages), total);
+        }
+    }
+
+    @Test
+    void testAddPassage_ConcurrentGantries() throws Exception {
+        // Arrange
+        Random random = new Random(7);
+        long[] passageTimes = new long[2000];
+        for (int i = 0; i < passageTimes.length; i++) {
+            passageTimes[i] = millis(0, 0) + (long) (random.nextDouble() * 24 * 60 * 60 * 1000);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int gantry = 0; gantry < 8; gantry++) {
+                int first = gantry;
+                futures.add(executor.submit(() -> {
+                    for (int i = first; i < passageTimes.length; i += 8) {
+                        tollAccumulator.addPassage("ABC123", "Car", passageTimes[i]);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        Arrays.sort(passageTimes);
+        long latest = passageTimes[passageTimes.length - 1];
+        int expected = tollCalculator.calculateDailyToll(Passages.fromSortedLocalEpochMillis(passageTimes), 0, passageTimes.length);
+        assertEquals(expected, tollAccumulator.addPassage("ABC123", "Car", latest).getTollFee());
+    }
+
+    @Test
+    void testEvictClosedDays() {
+        // Arrange
+        MutableClock clock = new MutableClock(MONDAY);
+        TollAccumulator accumulator = new TollAccumulator(tollFreeValidator, tollFeeRetriever, tariffRegistry, 1, clock);
+        accumulator.addPassage("ABC123", "Car", millis(7, 15) - DAY_MILLIS); // Sunday
+        accumulator.addPassage("ABC123", "Car", millis(7, 15));              // Monday
+        clock.date = MONDAY.plusDays(1);
+
+        // Act
+        accumulator.evictClosedDays();
+
+        // Assert
+        assertEquals(1, accumulator.getOpenVehicleDays()); // Monday is kept for late passages
+        assertEquals(36, accumulator.addPassage("ABC123", "Car", millis(16, 0)).getTollFee());
+        assertThrows(IllegalArgumentException.class,
+                () -> accumulator.addPassage("ABC123", "Car", millis(7, 15) - DAY_MILLIS));
+    }
+
+    @Test
+    void testRemoveVehicleDays() {
+        // Arrange
+        tollAccumulator.addPassage("ABC123", "Car", millis(8, 30));
+        tollAccumulator.addPassage("ABC123", "Car", millis(7, 15));
+        tollAccumulator.addPassage("XYZ789", "Car", millis(7, 15));
+
+        // Act
+        List<VehicleDayPassages> removed = tollAccumulator.removeVehicleDays(plate -> plate.equals("ABC123"));
+
+        // Assert
+        assertEquals(1, removed.size());
+        assertEquals("Car", removed.get(0).getVehicleType());
+        assertArrayEquals(new long[]{millis(7, 15), millis(8, 30)}, removed.get(0).getLocalEpochMillis());
+        assertEquals(1, tollAccumulator.getOpenVehicleDays());
+        assertEquals(8, tollAccumulator.addPassage("ABC123", "Car", millis(8, 30)).getTollFee()); // A new day
+    }
+
+    private static long millis(int hour, int minute) {
+        return LocalDateTime.of(MONDAY.getYear(), MONDAY.getMonth(), MONDAY.getDayOfMonth(), hour, minute)
+                .toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static Clock clockAt(LocalDate date) {
+        return Clock.fixed(date.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile LocalDate date;
+
+        private MutableClock(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return date.atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.validation.ITollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
+import org.yazanghafir.tollcalculator.domain.entities.TollFeeTable;
+import org.yazanghafir.tollcalculator.domain.entities.TollTariff;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditLogReader;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditLogWriter;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditOverflowPolicy;
+import org.yazanghafir.tollcalculator.infrastructure.audit.AuditRecord;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+public class TollAuditLogTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 8, 26);
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    @Mock
+    private ITariffRegistry tariffRegistry;
+
+    @Mock
+    private ITollFreeValidator tollFreeValidator;
+
+    @TempDir
+    Path directory;
+
+    private TollFeeAmountRetriever tollFeeRetriever;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tollFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+    }
+
+    @Test
+    void testRecord_WindowsAndTotals() throws IOException {
+        // Arrange
+        TollAuditLog auditLog = auditLog();
+        Passages passages = Passages.fromSortedLocalEpochMillis(new long[]{
+                millis(MONDAY, 6, 15), millis(MONDAY, 6, 45), millis(MONDAY, 7, 30), // 13 and 18 SEK
+                millis(MONDAY.plusDays(5), 7, 30)}); // Saturday
+        List<DailyTollFee> dailyTollFees = List.of(new DailyTollFee(MONDAY, 31), new DailyTollFee(MONDAY.plusDays(5), 0));
+        when(tollFreeValidator.isTollFreeDate(MONDAY.plusDays(5))).thenReturn(true);
+
+        // Act
+        auditLog.record(new Vehicle("ABC123", "Car", passages, "Gothenburg"), dailyTollFees);
+        auditLog.close();
+
+        // Assert
+        List<AuditRecord> records = readAll();
+        assertEquals(1, records.size());
+        AuditRecord record = records.get(0);
+        assertEquals("ABC123", record.getVehiclePlate());
+        assertEquals("Gothenburg", record.getZone());
+        assertEquals(31, record.getTotalTollFee());
+        AuditRecord.Day monday = record.getDays().get(0);
+        assertEquals(MONDAY, monday.getDate());
+        assertEquals(3, monday.getPassageMillisOfDay().length);
+        assertEquals("06:15=13 07:30=18", monday.describeWindows());
+        assertFalse(monday.isTollFree());
+        AuditRecord.Day saturday = record.getDays().get(1);
+        assertEquals(AuditRecord.Exemption.DAY, saturday.getExemption()); // Charged 0 although the passage has a fee
+        assertEquals(0, saturday.getWindowFees().length);
+        assertEquals(1, saturday.getPassageMillisOfDay().length);
+    }
+
+    @Test
+    void testRecord_TollFreeVehicleType() throws IOException {
+        // Arrange
+        when(tollFreeValidator.isTollFreeVehicle("Emergency")).thenReturn(true);
+        TollAuditLog auditLog = auditLog();
+        Passages passages = Passages.fromSortedLocalEpochMillis(new long[]{millis(MONDAY, 7, 30)});
+
+        // Act
+        auditLog.record(new Vehicle("ABC123", "Emergency", passages), List.of(new DailyTollFee(MONDAY, 0)));
+        auditLog.close();
+
+        // Assert
+        AuditRecord.Day monday = readAll().get(0).getDays().get(0);
+        assertEquals(AuditRecord.Exemption.VEHICLE_TYPE, monday.getExemption()); // A weekday, so not a toll-free day
+        assertEquals(0, monday.getWindowFees().length);
+    }
+
+    @Test
+    void testRecordPassage_RunningTotal() throws IOException {
+        // Arrange
+        TollAuditLog auditLog = auditLog();
+
+        // Act
+        auditLog.recordPassage("ABC123", "Car", millis(MONDAY, 7, 30), new DailyTollFee(MONDAY, 31));
+        auditLog.close();
+
+        // Assert
+        AuditRecord record = readAll().get(0);
+        assertEquals(AuditRecord.Kind.PASSAGE, record.getKind());
+        assertEquals("ABC123", record.getVehiclePlate());
+        AuditRecord.Day monday = record.getDays().get(0);
+        assertEquals(MONDAY, monday.getDate());
+        assertEquals(31, monday.getTollFee());
+        assertEquals(AuditRecord.Exemption.NONE, monday.getExemption());
+        assertEquals(1, monday.getPassageMillisOfDay().length);
+        assertEquals(0, monday.getWindowFees().length);
+    }
+
+    @Test
+    void testRecord_TariffScheduleAndDailyMaximum() throws IOException {
+        // Arrange
+        int[] fees = new int[24 * 60];
+        Arrays.fill(fees, 50);
+        when(tariffRegistry.findTariff("Gothenburg", "Truck")).thenReturn(new TollTariff("Heavy", TollFeeTable.of(fees), 120));
+        TollAuditLog auditLog = auditLog();
+        Passages passages = Passages.fromSortedLocalEpochMillis(new long[]{
+                millis(MONDAY, 6, 0), millis(MONDAY, 8, 0), millis(MONDAY, 10, 0), millis(MONDAY, 12, 0)});
+
+        // Act
+        auditLog.record(new Vehicle("ABC123", "Truck", passages, "Gothenburg"), List.of(new DailyTollFee(MONDAY, 120)));
+        auditLog.close();
+
+        // Assert
+        AuditRecord.Day monday = readAll().get(0).getDays().get(0);
+        assertEquals(120, monday.getTollFee());
+        assertEquals("06:00=50 08:00=50 10:00=50", monday.describeWindows()); // The maximum is reached at 10:00
+    }
+
+    @Test
+    void testRecord_DisabledWithoutWriter() throws IOException {
+        // Arrange
+        TollAuditLog auditLog = new TollAuditLog(tollFeeRetriever, tariffRegistry, tollFreeValidator, null, 16,
+                AuditOverflowPolicy.COUNT, 16, 0);
+
+        // Act
+        auditLog.record(new Vehicle("ABC123", "Car", Passages.fromSortedLocalEpochMillis(new long[]{millis(MONDAY, 7, 0)})),
+                List.of(new DailyTollFee(MONDAY, 18)));
+        auditLog.close();
+
+        // Assert
+        assertTrue(AuditLogReader.listSegments(directory).isEmpty());
+    }
+
+    private TollAuditLog auditLog() {
+        return new TollAuditLog(tollFeeRetriever, tariffRegistry, tollFreeValidator, AuditLogWriter.open(directory, 1024 * 1024),
+                16, AuditOverflowPolicy.BLOCK, 16, 0);
+    }
+
+    private List<AuditRecord> readAll() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path segment : AuditLogReader.listSegments(directory)) {
+            AuditLogReader.read(segment, records::add);
+        }
+        return records;
+    }
+
+    private static long millis(LocalDate date, int hour, int minute) {
+        return date.toEpochDay() * DAY_MILLIS + (hour * 60L + minute) * 60_000L;
+    }
+}
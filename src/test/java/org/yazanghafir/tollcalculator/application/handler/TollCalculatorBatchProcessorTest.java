@@ -0,0 +1,108 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorBatchResponse;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class TollCalculatorBatchProcessorTest {
+
+    @Mock
+    private ITollCalculatorRequestHandler requestHandler;
+
+    private ExecutorService executor;
+
+    private TollCalculatorBatchProcessor batchProcessor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(4);
+        batchProcessor = new TollCalculatorBatchProcessor(requestHandler, executor, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testProcessBatch_OneResultPerVehicle() {
+        // Arrange
+        List<TollCalculatorRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(new TollCalculatorRequest("ABC" + i, "Car", null));
+        }
+        when(requestHandler.handleRequest(any(TollCalculatorRequest.class)))
+                .thenReturn(new TollCalculatorResponse(18, true, "Total toll fee: 18 SEK"));
+
+        // Act
+        List<TollCalculatorBatchResponse> results = new ArrayList<>();
+        batchProcessor.processBatch(requests.iterator(), results::add);
+
+        // Assert
+        assertEquals(10, results.size());
+        results.sort(Comparator.comparingInt(TollCalculatorBatchResponse::getIndex));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals("ABC" + i, results.get(i).getVehiclePlate());
+            assertEquals(18, results.get(i).getResult().getTollFee());
+        }
+    }
+
+    @Test
+    void testProcessBatch_UnreadableItemDoesNotFailBatch() {
+        // Arrange
+        Iterator<TollCalculatorRequest> requests = new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < 3;
+            }
+
+            @Override
+            public TollCalculatorRequest next() {
+                if (position++ == 1) {
+                    throw new IllegalArgumentException("Cannot deserialize vehicleDateTimes.");
+                }
+                return new TollCalculatorRequest("ABC" + position, "Car", null);
+            }
+        };
+        when(requestHandler.handleRequest(any(TollCalculatorRequest.class)))
+                .thenReturn(new TollCalculatorResponse(8, true, "Total toll fee: 8 SEK"));
+
+        // Act
+        List<TollCalculatorBatchResponse> results = new ArrayList<>();
+        batchProcessor.processBatch(requests, results::add);
+
+        // Assert
+        assertEquals(3, results.size());
+        TollCalculatorBatchResponse failed = results.stream()
+                .filter(result -> result.getIndex() == 1)
+                .findFirst()
+                .orElseThrow();
+        assertNull(failed.getVehiclePlate());
+        assertFalse(failed.getResult().isSuccess());
+        assertEquals("Invalid batch item. Error: Cannot deserialize vehicleDateTimes.", failed.getResult().getMessage());
+        assertTrue(results.stream().filter(result -> result.getIndex() != 1).allMatch(result -> result.getResult().isSuccess()));
+    }
+}
@@ -0,0 +1,162 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TollCalculatorRequestHandlerTest {
+
+    @Mock
+    private TollCalculatorRequestValidator requestValidator;
+
+    @Mock
+    private TollCalculator tollCalculator;
+
+    @Mock
+    private ITollAuditLog auditLog;
+
+    @InjectMocks
+    private TollCalculatorRequestHandler requestHandler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testHandleRequest_ValidRequest() {
+        // Arrange
+        List<Date> dates = Arrays.asList(Date.from(LocalDateTime.of(2024, 8, 26, 7, 15)
+                .atZone(ZoneId.systemDefault()).toInstant()));
+        when(requestValidator.validateRequest("Car", dates)).thenReturn(null);
+        when(tollCalculator.calculateDailyTolls(any(Vehicle.class)))
+                .thenReturn(List.of(new DailyTollFee(LocalDate.of(2024, 8, 26), 18)));
+
+        // Act
+        TollCalculatorResponse response = requestHandler.handleRequest(new TollCalculatorRequest("ABC123", "Car", dates));
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals(18, response.getTollFee());
+        assertEquals("Total toll fee: 18 SEK", response.getMessage());
+        assertNull(response.getDailyTollFees()); // A single day has no breakdown
+    }
+
+    @Test
+    void testHandleRequest_MultipleDays() {
+        // Arrange
+        List<Date> dates = Arrays.asList(
+                Date.from(LocalDateTime.of(2024, 8, 26, 7, 15).atZone(ZoneId.systemDefault()).toInstant()),
+                Date.from(LocalDateTime.of(2024, 8, 27, 7, 15).atZone(ZoneId.systemDefault()).toInstant()));
+        when(requestValidator.validateRequest("Car", dates)).thenReturn(null);
+        when(tollCalculator.calculateDailyTolls(any(Vehicle.class))).thenReturn(List.of(
+                new DailyTollFee(LocalDate.of(2024, 8, 26), 18),
+                new DailyTollFee(LocalDate.of(2024, 8, 27), 60)));
+
+        // Act
+        TollCalculatorResponse response = requestHandler.handleRequest(new TollCalculatorRequest("ABC123", "Car", dates));
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals(78, response.getTollFee());
+        assertEquals("Total toll fee: 78 SEK", response.getMessage());
+        assertEquals(2, response.getDailyTollFees().size());
+        assertEquals(60, response.getDailyTollFees().get(1).getTollFee());
+        verify(auditLog).record(any(Vehicle.class), any());
+    }
+
+    @Test
+    void testHandleRequest_InvalidRequest() {
+        // Arrange
+        when(requestValidator.validateRequest("Car", (List<Date>) null)).thenReturn("No date times provided.");
+
+        // Act
+        TollCalculatorResponse response = requestHandler.handleRequest(new TollCalculatorRequest("ABC123", "Car", null));
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("No date times provided.", response.getMessage());
+        verify(tollCalculator, never()).calculateDailyTolls(any(Vehicle.class));
+        verify(auditLog, never()).record(any(Vehicle.class), any());
+    }
+
+    @Test
+    void testHandleRequest_CalculationFailure() {
+        // Arrange
+        List<Date> dates = Arrays.asList(new Date());
+        when(requestValidator.validateRequest("Car", dates)).thenReturn(null);
+        when(tollCalculator.calculateDailyTolls(any(Vehicle.class))).thenThrow(new IllegalStateException("Broken tariff."));
+
+        // Act
+        TollCalculatorResponse response = requestHandler.handleRequest(new TollCalculatorRequest("ABC123", "Car", dates));
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("Error processing the request. Error: Broken tariff.", response.getMessage());
+    }
+
+    @Test
+    void testHandleRequest_PassageTimes() {
+        // Arrange
+        long[] passageTimes = {
+                LocalDateTime.of(2024, 8, 27, 7, 15).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                LocalDateTime.of(2024, 8, 26, 7, 15).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()};
+        when(requestValidator.validateRequest("Car", passageTimes)).thenReturn(null);
+        when(tollCalculator.calculateDailyTolls(any(Vehicle.class))).thenReturn(List.of(
+                new DailyTollFee(LocalDate.of(2024, 8, 26), 18),
+                new DailyTollFee(LocalDate.of(2024, 8, 27), 18)));
+
+        // Act
+        TollCalculatorResponse response = requestHandler.handleRequest(
+                new TollCalculatorPassagesRequest("ABC123", "Car", passageTimes));
+
+        // Assert
+        ArgumentCaptor<Vehicle> vehicle = ArgumentCaptor.forClass(Vehicle.class);
+        verify(tollCalculator).calculateDailyTolls(vehicle.capture());
+        assertEquals(LocalDate.of(2024, 8, 26), vehicle.getValue().getPassages().getDate(0)); // Sorted
+        assertEquals(2, vehicle.getValue().getPassages().getDayCount());
+        assertTrue(response.isSuccess());
+        assertEquals(36, response.getTollFee());
+    }
+
+    @Test
+    void testHandleRequest_NoPassageTimes() {
+        // Arrange
+        long[] passageTimes = new long[0];
+        when(requestValidator.validateRequest("Car", passageTimes)).thenReturn("No date times provided.");
+
+        // Act
+        TollCalculatorResponse response = requestHandler.handleRequest(
+                new TollCalculatorPassagesRequest("ABC123", "Car", passageTimes));
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("No date times provided.", response.getMessage());
+        verify(tollCalculator, never()).calculateDailyTolls(any(Vehicle.class));
+    }
+}
@@ -5,18 +5,32 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.yazanghafir.tollcalculator.application.handler.TollCalculator;
+import org.yazanghafir.tollcalculator.application.query.TariffRegistry;
 import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.query.VehicleTypeRegistry;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
 import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.entities.Passages;
 import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TollCalculatorTest {
@@ -41,8 +55,8 @@ public class TollCalculatorTest {
         Date date1 = Date.from(LocalDateTime.of(2024, 8, 26, 5, 30)
                 .atZone(ZoneId.systemDefault()).toInstant()); // 05:30 (Toll-free time)
         Vehicle vehicle = new Vehicle("ABC123", "Car", Arrays.asList(date1));
-        when(tollFreeValidator.isTollFree(vehicle)).thenReturn(false);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(5, 30))).thenReturn(0);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFeeRetriever.getTollFeeAmount(5 * 60 + 30)).thenReturn(0);
 
         // Act
         int totalFee = tollCalculator.calculateToll(vehicle);
@@ -57,8 +71,8 @@ public class TollCalculatorTest {
         Date date1 = Date.from(LocalDateTime.of(2024, 8, 26, 6, 15)
                 .atZone(ZoneId.systemDefault()).toInstant()); // 06:15 (8 SEK)
         Vehicle vehicle = new Vehicle("ABC123", "Car", Arrays.asList(date1));
-        when(tollFreeValidator.isTollFree(vehicle)).thenReturn(false);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(6, 15))).thenReturn(8);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFeeRetriever.getTollFeeAmount(6 * 60 + 15)).thenReturn(8);
 
         // Act
         int totalFee = tollCalculator.calculateToll(vehicle);
@@ -73,8 +87,8 @@ public class TollCalculatorTest {
         Date date1 = Date.from(LocalDateTime.of(2024, 8, 26, 7, 30)
                 .atZone(ZoneId.systemDefault()).toInstant()); // 07:30 (18 SEK)
         Vehicle vehicle = new Vehicle("ABC123", "Car", Arrays.asList(date1));
-        when(tollFreeValidator.isTollFree(vehicle)).thenReturn(false);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(7, 30))).thenReturn(18);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFeeRetriever.getTollFeeAmount(7 * 60 + 30)).thenReturn(18);
 
         // Act
         int totalFee = tollCalculator.calculateToll(vehicle);
@@ -91,9 +105,9 @@ public class TollCalculatorTest {
         Date date2 = Date.from(LocalDateTime.of(2024, 8, 26, 7, 45)
                 .atZone(ZoneId.systemDefault()).toInstant()); // 07:45 (18 SEK)
         Vehicle vehicle = new Vehicle("ABC123", "Car", Arrays.asList(date1, date2));
-        when(tollFreeValidator.isTollFree(vehicle)).thenReturn(false);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(7, 15))).thenReturn(18);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(7, 45))).thenReturn(18);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFeeRetriever.getTollFeeAmount(7 * 60 + 15)).thenReturn(18);
+        when(tollFeeRetriever.getTollFeeAmount(7 * 60 + 45)).thenReturn(18);
 
         // Act
         int totalFee = tollCalculator.calculateToll(vehicle);
@@ -110,9 +124,9 @@ public class TollCalculatorTest {
         Date date2 = Date.from(LocalDateTime.of(2024, 8, 26, 8, 15)
                 .atZone(ZoneId.systemDefault()).toInstant()); // 08:15 (13 SEK)
         Vehicle vehicle = new Vehicle("ABC123", "Car", Arrays.asList(date1, date2));
-        when(tollFreeValidator.isTollFree(vehicle)).thenReturn(false);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(6, 45))).thenReturn(13);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(8, 15))).thenReturn(13);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFeeRetriever.getTollFeeAmount(6 * 60 + 45)).thenReturn(13);
+        when(tollFeeRetriever.getTollFeeAmount(8 * 60 + 15)).thenReturn(13);
 
         // Act
         int totalFee = tollCalculator.calculateToll(vehicle);
@@ -133,11 +147,11 @@ public class TollCalculatorTest {
         Date date4 = Date.from(LocalDateTime.of(2024, 8, 26, 16, 45)
                 .atZone(ZoneId.systemDefault()).toInstant()); // 16:45 (18 SEK)
         Vehicle vehicle = new Vehicle("ABC123", "Car", Arrays.asList(date1, date2, date3, date4));
-        when(tollFreeValidator.isTollFree(vehicle)).thenReturn(false);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(6, 15))).thenReturn(8);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(7, 15))).thenReturn(18);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(15, 45))).thenReturn(18);
-        when(tollFeeRetriever.getTollFeeAmount(LocalTime.of(16, 45))).thenReturn(18);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFeeRetriever.getTollFeeAmount(6 * 60 + 15)).thenReturn(8);
+        when(tollFeeRetriever.getTollFeeAmount(7 * 60 + 15)).thenReturn(18);
+        when(tollFeeRetriever.getTollFeeAmount(15 * 60 + 45)).thenReturn(18);
+        when(tollFeeRetriever.getTollFeeAmount(16 * 60 + 45)).thenReturn(18);
 
         // Act
         int totalFee = tollCalculator.calculateToll(vehicle);
@@ -145,5 +159,199 @@ public class TollCalculatorTest {
         // Assert
         assertEquals(60, totalFee); // Total fee should be capped at 60 SEK
     }
-}
 
+    @Test
+    void testCalculateToll_StopsLookingUpFeesOnceCapped() {
+        // Arrange
+        List<Date> dates = new ArrayList<>();
+        for (int hour = 6; hour < 18; hour++) {
+            dates.add(Date.from(LocalDateTime.of(2024, 8, 26, hour, 30)
+                    .atZone(ZoneId.systemDefault()).toInstant()));
+        }
+        Vehicle vehicle = new Vehicle("ABC123", "Car", dates);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFeeRetriever.getTollFeeAmount(anyInt())).thenReturn(18);
+
+        // Act
+        int totalFee = tollCalculator.calculateToll(vehicle);
+
+        // Assert
+        assertEquals(60, totalFee);
+        verify(tollFeeRetriever, times(4)).getTollFeeAmount(anyInt()); // 4 x 18 SEK reaches the cap
+    }
+
+    @Test
+    void testCalculateToll_HeavyVehicleTariff() {
+        // Arrange
+        VehicleTypeRegistry vehicleTypeRegistry = new VehicleTypeRegistry(new ConfigurationLoader<>());
+        TollCalculator calculator = new TollCalculator(tollFreeValidator,
+                new TollFeeAmountRetriever(new ConfigurationLoader<>()),
+                new TariffRegistry(new ConfigurationLoader<>(), vehicleTypeRegistry));
+        List<Date> dates = Arrays.asList(
+                Date.from(LocalDateTime.of(2024, 8, 26, 7, 15).atZone(ZoneId.systemDefault()).toInstant()),  // 36 SEK
+                Date.from(LocalDateTime.of(2024, 8, 26, 8, 30).atZone(ZoneId.systemDefault()).toInstant()),  // 16 SEK
+                Date.from(LocalDateTime.of(2024, 8, 26, 15, 45).atZone(ZoneId.systemDefault()).toInstant()), // 36 SEK
+                Date.from(LocalDateTime.of(2024, 8, 26, 17, 15).atZone(ZoneId.systemDefault()).toInstant())); // 26 SEK
+
+        // Act
+        int exampleZoneTruckFee = calculator.calculateToll(new Vehicle("ABC123", "Truck", Passages.fromDates(dates), "Example"));
+        int exampleZoneCarFee = calculator.calculateToll(new Vehicle("ABC123", "Car", Passages.fromDates(dates), "Example"));
+        int truckFee = calculator.calculateToll(new Vehicle("ABC123", "Truck", dates));
+
+        // Assert
+        assertEquals(114, exampleZoneTruckFee); // Heavy vehicles have their own schedule and a daily maximum of 120
+        assertEquals(57, exampleZoneCarFee);
+        assertEquals(57, truckFee); // Outside the example zone trucks pay the default schedule
+    }
+
+    @Test
+    void testCalculateToll_MatchesIntervalByIntervalCalculation() {
+        // Arrange
+        TollFeeAmountRetriever realFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+        TollCalculator calculator = new TollCalculator(tollFreeValidator, realFeeRetriever);
+        Random random = new Random(42);
+
+        for (int run = 0; run < 500; run++) {
+            List<Date> dates = new ArrayList<>();
+            int passages = 1 + random.nextInt(30);
+            for (int i = 0; i < passages; i++) {
+                long millisOfDay = (long) (random.nextDouble() * 24 * 60 * 60 * 1000);
+                dates.add(Date.from(LocalDateTime.of(2024, 8, 26, 0, 0)
+                        .atZone(ZoneId.systemDefault()).toInstant().plusMillis(millisOfDay)));
+            }
+            Vehicle vehicle = new Vehicle("ABC123", "Car", dates);
+            when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+
+            // Act
+            int totalFee = calculator.calculateToll(vehicle);
+
+            // Assert
+            assertEquals(calculateIntervalByInterval(dates, realFeeRetriever), totalFee);
+        }
+    }
+
+    @Test
+    void testCalculateDailyTolls_CapsEveryDaySeparately() {
+        // Arrange
+        List<Date> dates = new ArrayList<>();
+        for (int day = 26; day <= 27; day++) {
+            for (int hour = 6; hour < 18; hour++) {
+                dates.add(Date.from(LocalDateTime.of(2024, 8, day, hour, 30)
+                        .atZone(ZoneId.systemDefault()).toInstant()));
+            }
+        }
+        Collections.shuffle(dates, new Random(7));
+        Vehicle vehicle = new Vehicle("ABC123", "Car", dates);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFeeRetriever.getTollFeeAmount(anyInt())).thenReturn(18);
+
+        // Act
+        List<DailyTollFee> dailyTollFees = tollCalculator.calculateDailyTolls(vehicle);
+        int totalFee = tollCalculator.calculateToll(vehicle);
+
+        // Assert
+        assertEquals(2, dailyTollFees.size());
+        assertEquals(LocalDate.of(2024, 8, 26), dailyTollFees.get(0).getDate());
+        assertEquals(60, dailyTollFees.get(0).getTollFee());
+        assertEquals(LocalDate.of(2024, 8, 27), dailyTollFees.get(1).getDate());
+        assertEquals(60, dailyTollFees.get(1).getTollFee());
+        assertEquals(120, totalFee); // The daily maximum applies to each day, not to the whole request
+    }
+
+    @Test
+    void testCalculateDailyTolls_TollFreeDayIsZero() {
+        // Arrange
+        Date weekday = Date.from(LocalDateTime.of(2024, 8, 23, 7, 30)
+                .atZone(ZoneId.systemDefault()).toInstant()); // Friday 07:30 (18 SEK)
+        Date saturday = Date.from(LocalDateTime.of(2024, 8, 24, 7, 30)
+                .atZone(ZoneId.systemDefault()).toInstant()); // Saturday 07:30 (toll-free)
+        Vehicle vehicle = new Vehicle("ABC123", "Car", Arrays.asList(saturday, weekday));
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+        when(tollFreeValidator.isTollFreeDay(LocalDate.of(2024, 8, 24).toEpochDay())).thenReturn(true);
+        when(tollFeeRetriever.getTollFeeAmount(7 * 60 + 30)).thenReturn(18);
+
+        // Act
+        List<DailyTollFee> dailyTollFees = tollCalculator.calculateDailyTolls(vehicle);
+
+        // Assert
+        assertEquals(2, dailyTollFees.size());
+        assertEquals(18, dailyTollFees.get(0).getTollFee());
+        assertEquals(0, dailyTollFees.get(1).getTollFee());
+        verify(tollFeeRetriever, times(1)).getTollFeeAmount(anyInt()); // No fee lookups on a toll-free day
+    }
+
+    @Test
+    void testCalculateDailyTolls_TollFreeVehicleIsZeroOnEveryDay() {
+        // Arrange
+        Date date1 = Date.from(LocalDateTime.of(2024, 8, 26, 7, 30)
+                .atZone(ZoneId.systemDefault()).toInstant());
+        Date date2 = Date.from(LocalDateTime.of(2024, 8, 27, 7, 30)
+                .atZone(ZoneId.systemDefault()).toInstant());
+        Vehicle vehicle = new Vehicle("ABC123", "Emergency", Arrays.asList(date1, date2));
+        when(tollFreeValidator.isTollFreeVehicle("Emergency")).thenReturn(true);
+
+        // Act
+        int totalFee = tollCalculator.calculateToll(vehicle);
+
+        // Assert
+        assertEquals(0, totalFee);
+        verify(tollFeeRetriever, times(0)).getTollFeeAmount(anyInt());
+    }
+
+    @Test
+    void testCalculateDailyTolls_ManyPassagesMatchPerDayCalculation() {
+        // Arrange
+        TollFeeAmountRetriever realFeeRetriever = new TollFeeAmountRetriever(new ConfigurationLoader<>());
+        TollCalculator calculator = new TollCalculator(tollFreeValidator, realFeeRetriever);
+        Random random = new Random(42);
+        LocalDateTime firstDay = LocalDateTime.of(2024, 8, 1, 0, 0);
+
+        List<Date> dates = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) { // Enough passages to calculate the days in parallel
+            long millis = (long) (random.nextDouble() * 30 * 24 * 60 * 60 * 1000);
+            dates.add(Date.from(firstDay.atZone(ZoneId.systemDefault()).toInstant().plusMillis(millis)));
+        }
+        Vehicle vehicle = new Vehicle("ABC123", "Car", dates);
+        when(tollFreeValidator.isTollFreeVehicle("Car")).thenReturn(false);
+
+        // Act
+        List<DailyTollFee> dailyTollFees = calculator.calculateDailyTolls(vehicle);
+
+        // Assert
+        Map<LocalDate, List<Date>> datesByDay = dates.stream().collect(Collectors.groupingBy(
+                date -> date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate(), TreeMap::new, Collectors.toList()));
+        assertEquals(datesByDay.size(), dailyTollFees.size());
+        int day = 0;
+        for (Map.Entry<LocalDate, List<Date>> entry : datesByDay.entrySet()) {
+            assertEquals(entry.getKey(), dailyTollFees.get(day).getDate());
+            assertEquals(calculateIntervalByInterval(entry.getValue(), realFeeRetriever), dailyTollFees.get(day).getTollFee());
+            day++;
+        }
+    }
+
+    /**
+     * Straightforward interval-by-interval version of the calculation, used as a reference.
+     */
+    private int calculateIntervalByInterval(List<Date> dates, TollFeeAmountRetriever feeRetriever) {
+        List<LocalDateTime> orderedPassageDates = dates.stream()
+                .map(date -> date.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime())
+                .sorted()
+                .collect(Collectors.toList());
+
+        int totalFee = 0;
+        LocalDateTime intervalStart = orderedPassageDates.get(0);
+        for (LocalDateTime passageTime : orderedPassageDates) {
+            if (passageTime.isBefore(intervalStart)) {
+                continue;
+            }
+            LocalDateTime intervalEnd = passageTime.plusHours(1);
+            totalFee += orderedPassageDates.stream()
+                    .filter(date -> !date.isBefore(passageTime) && date.isBefore(intervalEnd))
+                    .mapToInt(date -> feeRetriever.getTollFeeAmount(date.toLocalTime()))
+                    .max()
+                    .orElse(0);
+            intervalStart = intervalEnd;
+        }
+        return Math.min(totalFee, 60);
+    }
+}
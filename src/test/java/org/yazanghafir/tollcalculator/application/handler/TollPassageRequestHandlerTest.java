@@ -0,0 +1,95 @@
+package org.yazanghafir.tollcalculator.application.handler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.requests.TollPassageRequest;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TollPassageRequestHandlerTest {
+
+    @Mock
+    private TollCalculatorRequestValidator requestValidator;
+
+    @Mock
+    private ITollAccumulator tollAccumulator;
+
+    @Mock
+    private ITollAuditLog auditLog;
+
+    @InjectMocks
+    private TollPassageRequestHandler passageRequestHandler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testHandlePassage_ValidPassage() {
+        // Arrange
+        LocalDateTime passageTime = LocalDateTime.of(2024, 8, 26, 7, 15);
+        Date date = Date.from(passageTime.atZone(ZoneId.systemDefault()).toInstant());
+        long localEpochMillis = passageTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+        when(requestValidator.validateVehicleType("Car")).thenReturn(null);
+        DailyTollFee dailyTollFee = new DailyTollFee(LocalDate.of(2024, 8, 26), 26);
+        when(tollAccumulator.addPassage("ABC123", "Car", localEpochMillis)).thenReturn(dailyTollFee);
+
+        // Act
+        TollCalculatorResponse response = passageRequestHandler.handlePassage(new TollPassageRequest("ABC123", "Car", date));
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals(26, response.getTollFee());
+        assertEquals("Total toll fee for 2024-08-26: 26 SEK", response.getMessage());
+        verify(auditLog).recordPassage("ABC123", "Car", localEpochMillis, dailyTollFee);
+    }
+
+    @Test
+    void testHandlePassage_MissingDateTime() {
+        // Arrange
+        when(requestValidator.validateVehicleType("Car")).thenReturn(null);
+
+        // Act
+        TollCalculatorResponse response = passageRequestHandler.handlePassage(new TollPassageRequest("ABC123", "Car", null));
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("No date time provided.", response.getMessage());
+        verify(tollAccumulator, never()).addPassage(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void testHandlePassage_ClosedDay() {
+        // Arrange
+        when(requestValidator.validateVehicleType("Car")).thenReturn(null);
+        when(tollAccumulator.addPassage(anyString(), anyString(), anyLong()))
+                .thenThrow(new IllegalArgumentException("Passages on 2024-08-20 are no longer accepted."));
+
+        // Act
+        TollCalculatorResponse response = passageRequestHandler.handlePassage(new TollPassageRequest("ABC123", "Car", new Date()));
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("Error processing the passage. Error: Passages on 2024-08-20 are no longer accepted.", response.getMessage());
+    }
+}
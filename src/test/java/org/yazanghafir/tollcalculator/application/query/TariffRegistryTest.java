@@ -0,0 +1,95 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.Tariff;
+import org.yazanghafir.tollcalculator.domain.configuration.Tariffs;
+import org.yazanghafir.tollcalculator.domain.configuration.TollFee;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
+import org.yazanghafir.tollcalculator.domain.entities.TariffIndex;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TariffRegistryTest {
+
+    @Mock
+    private ConfigurationLoader<Tariffs> configLoader;
+
+    @Mock
+    private IVehicleTypeRegistry vehicleTypeRegistry;
+
+    private TariffRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new TariffRegistry(configLoader, vehicleTypeRegistry);
+        when(vehicleTypeRegistry.getVehicleTypeIndex()).thenReturn(VehicleTypeIndex.compile(List.of(
+                new VehicleType("Car", false), new VehicleType("Truck", false, "Heavy"))));
+    }
+
+    @Test
+    void testFindTariff_ByVehicleClass() {
+        // Arrange
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TARIFFS, Tariffs.class))
+                .thenReturn(Optional.of(new Tariffs(List.of(heavyTariff(120)))));
+
+        // Act & Assert
+        assertEquals(120, registry.findTariff(null, "truck").getMaxDailyFee());
+        assertNull(registry.findTariff(null, "Car")); // The default schedule applies
+        assertNull(registry.findTariff(null, "Boat"));
+    }
+
+    @Test
+    void testFindTariff_ConfigurationNotLoaded() {
+        // Arrange
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TARIFFS, Tariffs.class)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertNull(registry.getTariffIndex());
+        assertNull(registry.findTariff(null, "Truck"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReload_ReplacesIndexOrRejectsInvalidTariffs() {
+        // Arrange
+        ArgumentCaptor<Consumer<Tariffs>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(configLoader).addReloadListener(eq(ConfigurationFilePath.TARIFFS), eq(Tariffs.class), listener.capture());
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TARIFFS, Tariffs.class))
+                .thenReturn(Optional.of(new Tariffs(List.of(heavyTariff(120)))));
+        registry.getTariffIndex();
+
+        // Act
+        listener.getValue().accept(new Tariffs(List.of(heavyTariff(150))));
+        TariffIndex reloaded = registry.getTariffIndex();
+        assertThrows(IllegalStateException.class,
+                () -> listener.getValue().accept(new Tariffs(List.of(heavyTariff(150), heavyTariff(200)))));
+
+        // Assert
+        assertSame(reloaded, registry.getTariffIndex());
+        assertEquals(150, registry.findTariff(null, "Truck").getMaxDailyFee());
+    }
+
+    private static Tariff heavyTariff(int maxDailyFee) {
+        return new Tariff("Heavy " + maxDailyFee, null, List.of("Heavy"), maxDailyFee,
+                List.of(new TollFee(16, List.of("00:00-23:59"))));
+    }
+}
@@ -10,7 +10,9 @@ import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath
 import org.yazanghafir.tollcalculator.domain.configuration.TollFee;
 import org.yazanghafir.tollcalculator.domain.configuration.TollFees;
 import org.yazanghafir.tollcalculator.domain.entities.TollFeeRange;
+import org.yazanghafir.tollcalculator.domain.entities.TollFeeTable;
 import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.GeneratedConfiguration;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
@@ -19,6 +21,13 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TollFeeAmountRetrieverTest {
@@ -97,11 +106,103 @@ public class TollFeeAmountRetrieverTest {
         when(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class))
                 .thenReturn(Optional.of(new TollFees(new ArrayList<>())));
 
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> tollFeeAmountRetriever.getTollFeeAmount(LocalTime.of(6, 15))); // No ranges, nothing to compile
+    }
+
+    @Test
+    void testGetTollFeeAmount_WithinLastMinuteOfRange() {
+        // Arrange
+        TollFeeRange range1 = new TollFeeRange(8, LocalTime.of(18, 0), LocalTime.of(18, 29));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class))
+                .thenReturn(Optional.of(createMockTollFees(range1)));
+
         // Act
-        int fee = tollFeeAmountRetriever.getTollFeeAmount(LocalTime.of(6, 15));
+        int fee = tollFeeAmountRetriever.getTollFeeAmount(LocalTime.of(18, 29, 30));
+
+        // Assert
+        assertEquals(8, fee); // The end minute of a range is covered up to its last second
+    }
+
+    @Test
+    void testGetTollFeeAmount_ByMinuteOfDay() {
+        // Arrange
+        TollFeeRange range1 = new TollFeeRange(18, LocalTime.of(7, 0), LocalTime.of(7, 59));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class))
+                .thenReturn(Optional.of(createMockTollFees(range1)));
+
+        // Act
+        int fee = tollFeeAmountRetriever.getTollFeeAmount(7 * 60 + 30);
+
+        // Assert
+        assertEquals(18, fee);
+    }
+
+    @Test
+    void testGetTollFeeAmount_ConfigurationCompiledOnce() {
+        // Arrange
+        TollFeeRange range1 = new TollFeeRange(8, LocalTime.of(6, 0), LocalTime.of(6, 29));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class))
+                .thenReturn(Optional.of(createMockTollFees(range1)));
+
+        // Act
+        tollFeeAmountRetriever.getTollFeeAmount(LocalTime.of(6, 15));
+        tollFeeAmountRetriever.getTollFeeAmount(LocalTime.of(12, 0));
+        tollFeeAmountRetriever.getTollFeeAmount(LocalTime.of(23, 59));
 
         // Assert
-        assertEquals(0, fee); // No ranges, should return 0
+        verify(configLoader, times(1)).loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class);
+    }
+
+    @Test
+    void testGetTollFeeTable_GeneratedTableUsed() {
+        // Arrange
+        int[] fees = new int[TollFeeTable.MINUTES_PER_DAY];
+        Arrays.fill(fees, 7 * 60, 8 * 60, 18);
+        GeneratedConfiguration generated = mock(GeneratedConfiguration.class);
+        when(generated.getTollFeeTable()).thenReturn(TollFeeTable.of(fees));
+        when(configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FEES)).thenReturn(Optional.of(generated));
+
+        // Act
+        int fee = tollFeeAmountRetriever.getTollFeeAmount(LocalTime.of(7, 30));
+
+        // Assert
+        assertEquals(18, fee);
+        assertEquals(0, tollFeeAmountRetriever.getTollFeeAmount(LocalTime.of(8, 0)));
+        verify(configLoader, never()).loadConfiguration(any(), any());
+    }
+
+    @Test
+    void testGetTollFeeTable_GapInRanges() {
+        // Arrange
+        TollFee tollFee1 = new TollFee(0, Arrays.asList("00:00-05:59", "06:30-23:59"));
+        TollFee tollFee2 = new TollFee(8, Arrays.asList("06:00-06:14"));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class))
+                .thenReturn(Optional.of(new TollFees(Arrays.asList(tollFee1, tollFee2))));
+
+        // Act
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> tollFeeAmountRetriever.getTollFeeTable());
+
+        // Assert
+        assertTrue(ex.getMessage().contains("no fee configured for 06:15-06:29"));
+    }
+
+    @Test
+    void testGetTollFeeTable_OverlappingRanges() {
+        // Arrange
+        TollFee tollFee1 = new TollFee(0, Arrays.asList("00:00-05:59", "06:30-23:59"));
+        TollFee tollFee2 = new TollFee(8, Arrays.asList("06:00-06:35"));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class))
+                .thenReturn(Optional.of(new TollFees(Arrays.asList(tollFee1, tollFee2))));
+
+        // Act
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> tollFeeAmountRetriever.getTollFeeTable());
+
+        // Assert
+        assertTrue(ex.getMessage().contains("overlapping ranges at 06:30-06:35"));
     }
 
     @Test
@@ -141,14 +242,36 @@ public class TollFeeAmountRetrieverTest {
         assertEquals(0, tollFeeRanges.size()); // Invalid time range, no valid TollFeeRange created
     }
 
+    /**
+     * Builds a configuration from the given ranges and charges 0 SEK for every
+     * remaining minute of the day, since the compiled table requires full coverage.
+     */
     private TollFees createMockTollFees(TollFeeRange... ranges) {
         List<TollFee> tollFees = new ArrayList<>();
+        boolean[] covered = new boolean[24 * 60];
         for (TollFeeRange range : ranges) {
             TollFee tollFee = new TollFee(
                     range.getFeeAmount(),
                     Arrays.asList(range.getStartTime().toString() + "-" + range.getEndTime().toString())
             );
             tollFees.add(tollFee);
+            int start = range.getStartTime().getHour() * 60 + range.getStartTime().getMinute();
+            int end = range.getEndTime().getHour() * 60 + range.getEndTime().getMinute();
+            Arrays.fill(covered, start, end + 1, true);
+        }
+
+        List<String> freeTimePoints = new ArrayList<>();
+        for (int minute = 0; minute < covered.length; minute++) {
+            if (!covered[minute]) {
+                int start = minute;
+                while (minute + 1 < covered.length && !covered[minute + 1]) {
+                    minute++;
+                }
+                freeTimePoints.add(LocalTime.of(start / 60, start % 60) + "-" + LocalTime.of(minute / 60, minute % 60));
+            }
+        }
+        if (!freeTimePoints.isEmpty()) {
+            tollFees.add(new TollFee(0, freeTimePoints));
         }
         return new TollFees(tollFees);
     }
@@ -0,0 +1,145 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.TollFreeDays;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+public class TollFreeCalendarTest {
+
+    @Mock
+    private ConfigurationLoader<TollFreeDays> configLoader;
+
+    private TollFreeCalendar tollFreeCalendar;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        tollFreeCalendar = new TollFreeCalendar(new ConfigurationLoader<>());
+    }
+
+    @Test
+    void testIsTollFreeDate_Weekend() {
+        assertTrue(tollFreeCalendar.isTollFreeDate(LocalDate.of(2024, 8, 24))); // Saturday
+        assertTrue(tollFreeCalendar.isTollFreeDate(LocalDate.of(2024, 8, 25))); // Sunday
+    }
+
+    @Test
+    void testIsTollFreeDate_July() {
+        assertTrue(tollFreeCalendar.isTollFreeDate(LocalDate.of(2024, 7, 10))); // A Wednesday in July
+    }
+
+    @Test
+    void testIsTollFreeDate_Holiday() {
+        assertTrue(tollFreeCalendar.isTollFreeDate(LocalDate.of(2024, 5, 1))); // Labour Day, a Wednesday
+    }
+
+    @Test
+    void testIsTollFreeDate_DayBeforeHoliday() {
+        assertTrue(tollFreeCalendar.isTollFreeDate(LocalDate.of(2024, 4, 30))); // Tuesday before Labour Day
+        assertTrue(tollFreeCalendar.isTollFreeDate(LocalDate.of(2025, 12, 30))); // Day before New Year's Eve
+    }
+
+    @Test
+    void testIsTollFreeDate_DayAfterHoliday() {
+        assertFalse(tollFreeCalendar.isTollFreeDate(LocalDate.of(2024, 5, 2))); // Thursday after Labour Day
+    }
+
+    @Test
+    void testIsTollFreeDate_RegularWeekday() {
+        assertFalse(tollFreeCalendar.isTollFreeDate(LocalDate.of(2024, 8, 26))); // A Monday
+    }
+
+    @Test
+    void testIsTollFreeDate_OutsidePrecomputedYears() {
+        assertTrue(tollFreeCalendar.isTollFreeDate(LocalDate.of(1950, 12, 25))); // Christmas Day
+        assertFalse(tollFreeCalendar.isTollFreeDate(LocalDate.of(1950, 12, 27))); // A Wednesday
+        assertTrue(tollFreeCalendar.isTollFreeDate(LocalDate.of(2500, 5, 1))); // Beyond the bitmap
+    }
+
+    @Test
+    void testIsTollFreeDay_MatchesDateLookup() {
+        LocalDate date = LocalDate.of(2024, 8, 1);
+        for (int i = 0; i < 400; i++) {
+            assertEquals(tollFreeCalendar.isTollFreeDate(date.plusDays(i)),
+                    tollFreeCalendar.isTollFreeDay(date.plusDays(i).toEpochDay()));
+        }
+    }
+
+    @Test
+    void testIsTollFreeDay_ConcurrentLazyFill() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        long firstDay = LocalDate.of(1960, 1, 1).toEpochDay();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tasks.add(() -> {
+                int tollFreeDays = 0;
+                for (long day = firstDay; day < firstDay + 365; day++) {
+                    if (tollFreeCalendar.isTollFreeDay(day)) {
+                        tollFreeDays++;
+                    }
+                }
+                return tollFreeDays;
+            });
+        }
+
+        // Act
+        List<Future<Integer>> results = executor.invokeAll(tasks);
+        executor.shutdown();
+
+        // Assert
+        int expected = results.get(0).get();
+        for (Future<Integer> result : results) {
+            assertEquals(expected, result.get());
+        }
+    }
+
+    @Test
+    void testIsTollFreeDate_ConfiguredRules() {
+        // Arrange
+        TollFreeDays tollFreeDays = new TollFreeDays("se", Arrays.asList("SUNDAY"), new ArrayList<>(),
+                true, false, 0, 0);
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FREE_DAYS, TollFreeDays.class))
+                .thenReturn(Optional.of(tollFreeDays));
+
+        // Act
+        TollFreeCalendar calendar = new TollFreeCalendar(configLoader);
+
+        // Assert
+        assertFalse(calendar.isTollFreeDate(LocalDate.of(2024, 8, 24))); // Saturday is charged
+        assertTrue(calendar.isTollFreeDate(LocalDate.of(2024, 8, 25))); // Sunday
+        assertFalse(calendar.isTollFreeDate(LocalDate.of(2024, 7, 10))); // July is charged
+        assertFalse(calendar.isTollFreeDate(LocalDate.of(2024, 4, 30))); // Day before a holiday is charged
+        assertTrue(calendar.isTollFreeDate(LocalDate.of(2024, 5, 1))); // Labour Day
+    }
+
+    @Test
+    void testConstructor_ConfigurationLoadFailure() {
+        // Arrange
+        when(configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FREE_DAYS, TollFreeDays.class))
+                .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new TollFreeCalendar(configLoader));
+    }
+}
@@ -0,0 +1,135 @@
+package org.yazanghafir.tollcalculator.application.query;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleTypes;
+import org.yazanghafir.tollcalculator.domain.entities.VehicleTypeIndex;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VehicleTypeRegistryTest {
+
+    @Mock
+    private ConfigurationLoader<VehicleTypes> configLoader;
+
+    private VehicleTypeRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new VehicleTypeRegistry(configLoader);
+    }
+
+    @Test
+    void testGetVehicleTypeIndex_CaseInsensitiveLookup() {
+        // Arrange
+        VehicleTypes vehicleTypes = new VehicleTypes(Arrays.asList(
+                new VehicleType("Car", false), new VehicleType("Emergency", true)));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class))
+                .thenReturn(Optional.of(vehicleTypes));
+
+        // Act
+        VehicleTypeIndex index = registry.getVehicleTypeIndex();
+
+        // Assert
+        assertTrue(index.isValid("car"));
+        assertTrue(index.isValid("CAR"));
+        assertFalse(index.isTollFree("Car"));
+        assertTrue(index.isTollFree("eMeRgEnCy"));
+        assertEquals("Emergency", index.find("EMERGENCY").getVehicleType());
+        assertFalse(index.isValid("Truck"));
+        assertFalse(index.isTollFree("Truck"));
+        assertNull(index.find(null));
+        assertEquals("Invalid vehicle type provided. Available types are: Car, Emergency.",
+                index.getInvalidVehicleTypeMessage());
+    }
+
+    @Test
+    void testGetVehicleTypeIndex_FirstDuplicateWins() {
+        // Arrange
+        VehicleTypes vehicleTypes = new VehicleTypes(Arrays.asList(
+                new VehicleType("Car", false), new VehicleType("CAR", true)));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class))
+                .thenReturn(Optional.of(vehicleTypes));
+
+        // Act
+        VehicleTypeIndex index = registry.getVehicleTypeIndex();
+
+        // Assert
+        assertFalse(index.isTollFree("car"));
+    }
+
+    @Test
+    void testGetVehicleTypeIndex_CompiledOnce() {
+        // Arrange
+        VehicleTypes vehicleTypes = new VehicleTypes(Arrays.asList(new VehicleType("Car", false)));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class))
+                .thenReturn(Optional.of(vehicleTypes));
+
+        // Act
+        VehicleTypeIndex first = registry.getVehicleTypeIndex();
+        VehicleTypeIndex second = registry.getVehicleTypeIndex();
+
+        // Assert
+        assertSame(first, second);
+        verify(configLoader, times(1)).loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class);
+    }
+
+    @Test
+    void testGetVehicleTypeIndex_ConfigurationLoadFailureIsRetried() {
+        // Arrange
+        VehicleTypes vehicleTypes = new VehicleTypes(Arrays.asList(new VehicleType("Car", false)));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(vehicleTypes));
+
+        // Act
+        VehicleTypeIndex failed = registry.getVehicleTypeIndex();
+        VehicleTypeIndex loaded = registry.getVehicleTypeIndex();
+
+        // Assert
+        assertNull(failed);
+        assertNotNull(loaded);
+        assertTrue(loaded.isValid("Car"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReload_ReplacesIndex() {
+        // Arrange
+        ArgumentCaptor<Consumer<VehicleTypes>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(configLoader).addReloadListener(eq(ConfigurationFilePath.VEHICLE_TYPES), eq(VehicleTypes.class),
+                listener.capture());
+        when(configLoader.loadConfiguration(any(), any()))
+                .thenReturn(Optional.of(new VehicleTypes(Arrays.asList(new VehicleType("Car", false)))));
+        registry.getVehicleTypeIndex();
+
+        // Act
+        listener.getValue().accept(new VehicleTypes(Arrays.asList(new VehicleType("Tractor", true))));
+
+        // Assert
+        VehicleTypeIndex index = registry.getVehicleTypeIndex();
+        assertFalse(index.isValid("Car"));
+        assertTrue(index.isTollFree("tractor"));
+    }
+}
@@ -2,22 +2,28 @@ package org.yazanghafir.tollcalculator.application.validation;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.query.ITariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.VehicleTypeRegistry;
 import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
 import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.Tariff;
+import org.yazanghafir.tollcalculator.domain.configuration.TollFee;
 import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
 import org.yazanghafir.tollcalculator.domain.configuration.VehicleTypes;
+import org.yazanghafir.tollcalculator.domain.entities.TariffIndex;
 import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.when;
 
 public class TollCalculatorRequestValidatorTest {
@@ -25,12 +31,15 @@ public class TollCalculatorRequestValidatorTest {
     @Mock
     private ConfigurationLoader<VehicleTypes> configLoader;
 
-    @InjectMocks
+    @Mock
+    private ITariffRegistry tariffRegistry;
+
     private TollCalculatorRequestValidator validator;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        validator = new TollCalculatorRequestValidator(new VehicleTypeRegistry(configLoader), tariffRegistry);
     }
 
     @Test
@@ -70,7 +79,7 @@ public class TollCalculatorRequestValidatorTest {
     }
 
     @Test
-    void testValidateRequest_InvalidVehicleDateTimes() {
+    void testValidateRequest_MultipleDays() {
         // Arrange
         VehicleType validVehicleType = new VehicleType("Car", false);
         VehicleTypes vehicleTypes = new VehicleTypes(Arrays.asList(validVehicleType));
@@ -86,7 +95,7 @@ public class TollCalculatorRequestValidatorTest {
         String validationMessage = validator.validateRequest("Car", Arrays.asList(vehicleDateTime1, vehicleDateTime2));
 
         // Assert
-        assertEquals("All vehicle date times must be within the same day.", validationMessage);
+        assertNull(validationMessage); // Passages on several days are calculated per day
     }
 
     @Test
@@ -147,7 +156,7 @@ public class TollCalculatorRequestValidatorTest {
     }
 
     @Test
-    void testValidateVehicleDateTimes_DifferentDays() {
+    void testValidateVehicleDateTimes_MultipleDays() {
         // Arrange
         LocalDate date1 = LocalDate.of(2024, 8, 26);
         LocalDate date2 = LocalDate.of(2024, 8, 27); // A different day
@@ -158,6 +167,34 @@ public class TollCalculatorRequestValidatorTest {
         String validationMessage = validator.validateVehicleDateTimes(Arrays.asList(vehicleDateTime1, vehicleDateTime2));
 
         // Assert
-        assertEquals("All vehicle date times must be within the same day.", validationMessage);
+        assertNull(validationMessage); // Passages on several days are calculated per day
+    }
+
+    @Test
+    void testValidateRequest_PassageTimes() {
+        // Arrange
+        VehicleTypes vehicleTypes = new VehicleTypes(Arrays.asList(new VehicleType("Car", false)));
+        when(configLoader.loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class))
+                .thenReturn(Optional.of(vehicleTypes));
+
+        // Act & Assert
+        assertNull(validator.validateRequest("Car", new long[]{1724649300000L}));
+        assertEquals("No date times provided.", validator.validateRequest("Car", new long[0]));
+        assertEquals("No date times provided.", validator.validateRequest("Car", (long[]) null));
+        assertEquals("Invalid vehicle type provided. Available types are: Car.",
+                validator.validateRequest("Boat", new long[]{1724649300000L}));
+    }
+
+    @Test
+    void testValidateZone() {
+        // Arrange
+        Tariff tariff = new Tariff("Gothenburg", List.of("Gothenburg"), null, 60,
+                List.of(new TollFee(8, List.of("00:00-23:59"))));
+        when(tariffRegistry.getTariffIndex()).thenReturn(TariffIndex.compile(List.of(tariff)));
+
+        // Act & Assert
+        assertNull(validator.validateZone(null));
+        assertNull(validator.validateZone("gothenburg"));
+        assertEquals("Invalid zone provided. Available zones are: Gothenburg.", validator.validateZone("Stockholm"));
     }
 }
@@ -6,9 +6,10 @@ import de.jollyday.HolidayType;
 import de.jollyday.ManagerParameters;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.yazanghafir.tollcalculator.application.query.TollFreeCalendar;
+import org.yazanghafir.tollcalculator.application.query.VehicleTypeRegistry;
 import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
 import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
 import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
@@ -32,12 +33,12 @@ public class TollFreeValidatorTest {
     @Mock
     private HolidayManager holidayManager;
 
-    @InjectMocks
     private TollFreeValidator tollFreeValidator;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        tollFreeValidator = new TollFreeValidator(new TollFreeCalendar(new ConfigurationLoader<>()), new VehicleTypeRegistry(configLoader));
     }
 
     @Test
@@ -0,0 +1,60 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PassagesTest {
+
+    @Test
+    void testFromDates_SortedAndSplitIntoDays() {
+        // Arrange
+        Date mondayEvening = toDate(LocalDateTime.of(2024, 8, 26, 18, 29, 59, 999_000_000));
+        Date mondayMorning = toDate(LocalDateTime.of(2024, 8, 26, 6, 0));
+        Date tuesday = toDate(LocalDateTime.of(2024, 8, 27, 0, 0));
+
+        // Act
+        Passages passages = Passages.fromDates(Arrays.asList(tuesday, mondayEvening, mondayMorning));
+
+        // Assert
+        assertEquals(3, passages.size());
+        assertEquals(2, passages.getDayCount());
+        assertEquals(LocalDate.of(2024, 8, 26), passages.getDate(0));
+        assertEquals(0, passages.getDayStart(0));
+        assertEquals(2, passages.getDayEnd(0));
+        assertEquals(LocalDate.of(2024, 8, 27).toEpochDay(), passages.getEpochDay(1));
+        assertEquals(6 * 60, passages.getMinuteOfDay(0));
+        assertEquals(18 * 60 + 29, passages.getMinuteOfDay(1));
+        assertEquals(0, passages.getMinuteOfDay(2));
+        assertEquals(LocalDateTime.of(2024, 8, 26, 18, 29, 59, 999_000_000).toInstant(ZoneOffset.UTC).toEpochMilli(),
+                passages.getLocalEpochMillis(1));
+    }
+
+    @Test
+    void testFromDates_Empty() {
+        // Act
+        Passages passages = Passages.fromDates(Arrays.asList());
+
+        // Assert
+        assertEquals(0, passages.size());
+        assertEquals(0, passages.getDayCount());
+    }
+
+    @Test
+    void testFromSortedLocalEpochMillis_RejectsUnsortedTimes() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> Passages.fromSortedLocalEpochMillis(new long[]{2, 1}));
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
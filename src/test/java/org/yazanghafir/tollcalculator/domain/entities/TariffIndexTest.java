@@ -0,0 +1,106 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import org.junit.jupiter.api.Test;
+import org.yazanghafir.tollcalculator.domain.configuration.Tariff;
+import org.yazanghafir.tollcalculator.domain.configuration.TollFee;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TariffIndexTest {
+
+    @Test
+    void testFind_MostSpecificTariffApplies() {
+        // Arrange
+        TariffIndex index = TariffIndex.compile(List.of(
+                tariff("Heavy", null, List.of("Heavy"), 120, 16),
+                tariff("Stockholm", List.of("Stockholm"), null, 135, 45),
+                tariff("Stockholm heavy", List.of("Stockholm"), List.of("Heavy"), 270, 90)));
+
+        // Act & Assert
+        assertNull(index.find(null, null)); // The default schedule applies
+        assertNull(index.find("Gothenburg", "Standard"));
+        assertEquals(16, index.find(null, "heavy").getFeeAmount(7 * 60));
+        assertEquals(120, index.find(null, "Heavy").getMaxDailyFee());
+        assertEquals(45, index.find("STOCKHOLM", null).getFeeAmount(7 * 60));
+        assertEquals(135, index.find("Stockholm", "Standard").getMaxDailyFee());
+        assertEquals(90, index.find("Stockholm", "Heavy").getFeeAmount(7 * 60));
+        assertEquals(270, index.find("Stockholm", "Heavy").getMaxDailyFee());
+    }
+
+    @Test
+    void testCompile_IdenticalSchedulesAreShared() {
+        // Arrange
+        List<Tariff> tariffs = new ArrayList<>();
+        for (int zone = 0; zone < 50; zone++) {
+            tariffs.add(tariff("Zone " + zone, List.of("Zone " + zone), null, 60, 8 + zone % 2));
+        }
+        tariffs.add(tariff("Zone 0 heavy", List.of("Zone 0"), List.of("Heavy"), 120, 8));
+
+        // Act
+        TariffIndex index = TariffIndex.compile(tariffs);
+
+        // Assert
+        assertEquals(2, index.getScheduleCount());
+        assertEquals(3, index.getTariffCount()); // Two schedules with a cap of 60 and one with 120
+        assertSame(index.find("Zone 0", null), index.find("Zone 48", null));
+        assertSame(index.find("Zone 0", null).getFeeTable(), index.find("Zone 0", "Heavy").getFeeTable());
+        assertEquals(50, index.getZones().size());
+    }
+
+    @Test
+    void testIsValidZone() {
+        // Arrange
+        TariffIndex index = TariffIndex.compile(List.of(tariff("Stockholm", List.of("Stockholm"), null, 135, 45)));
+
+        // Act & Assert
+        assertTrue(index.isValidZone(null));
+        assertTrue(index.isValidZone("stockholm"));
+        assertFalse(index.isValidZone("Malmö"));
+        assertEquals("Invalid zone provided. Available zones are: Stockholm.", index.getInvalidZoneMessage());
+        assertEquals("Invalid zone provided. No zones are configured.",
+                TariffIndex.compile(List.of()).getInvalidZoneMessage());
+    }
+
+    @Test
+    void testCompile_ConflictingTariffsAreRejected() {
+        // Arrange
+        List<Tariff> tariffs = List.of(
+                tariff("Heavy", null, List.of("Heavy"), 120, 16),
+                tariff("Trucks", null, List.of("Heavy"), 150, 20));
+
+        // Act
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> TariffIndex.compile(tariffs));
+
+        // Assert
+        assertEquals("Invalid tariff configuration: no zone and vehicle class Heavy are covered by both Heavy and Trucks.",
+                ex.getMessage());
+    }
+
+    @Test
+    void testCompile_InvalidScheduleIsRejected() {
+        // Arrange
+        Tariff gap = new Tariff("Gap", List.of("Stockholm"), null, 60,
+                List.of(new TollFee(8, List.of("00:00-11:59"))));
+
+        // Act
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> TariffIndex.compile(List.of(gap)));
+
+        // Assert
+        assertTrue(ex.getMessage().contains("Gap: Invalid toll fee configuration: no fee configured for 12:00-23:59"));
+    }
+
+    private static Tariff tariff(String name, List<String> zones, List<String> vehicleClasses, int maxDailyFee, int fee) {
+        return new Tariff(name, zones, vehicleClasses, maxDailyFee, List.of(
+                new TollFee(0, List.of("00:00-05:59", "18:30-23:59")),
+                new TollFee(fee, List.of("06:00-18:29"))));
+    }
+}
@@ -0,0 +1,61 @@
+package org.yazanghafir.tollcalculator.domain.entities;
+
+import org.junit.jupiter.api.Test;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VehicleTypeIndexTest {
+
+    private static final List<VehicleType> VEHICLE_TYPES = List.of(
+            new VehicleType("Car", false),
+            new VehicleType("Truck", false, "Heavy"),
+            new VehicleType("Motorbike", true),
+            new VehicleType("Diplomat", true),
+            new VehicleType("car", true));
+
+    @Test
+    void testCompilePerfect_FindsTypesLikeCompile() {
+        // Arrange
+        VehicleTypeIndex compiled = VehicleTypeIndex.compile(VEHICLE_TYPES);
+
+        // Act
+        VehicleTypeIndex perfect = VehicleTypeIndex.compilePerfect(VEHICLE_TYPES, perfectTableSize());
+
+        // Assert
+        for (String vehicleType : List.of("Car", "CAR", "truck", "Motorbike", "DIPLOMAT", "Bus", "")) {
+            assertEquals(compiled.isValid(vehicleType), perfect.isValid(vehicleType), vehicleType);
+            assertEquals(compiled.isTollFree(vehicleType), perfect.isTollFree(vehicleType), vehicleType);
+        }
+        assertFalse(perfect.isTollFree("car")); // The first duplicate wins
+        assertEquals("Heavy", perfect.find("TRUCK").getVehicleClass());
+        assertNull(perfect.find(null));
+        assertEquals(compiled.getInvalidVehicleTypeMessage(), perfect.getInvalidVehicleTypeMessage());
+    }
+
+    @Test
+    void testCompilePerfect_CollisionIsRejected() {
+        // Act & Assert
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> VehicleTypeIndex.compilePerfect(VEHICLE_TYPES, 1));
+        assertTrue(ex.getMessage().contains("share a slot"));
+        assertThrows(IllegalStateException.class, () -> VehicleTypeIndex.compilePerfect(VEHICLE_TYPES, 12));
+    }
+
+    private static int perfectTableSize() {
+        for (int tableSize = 8; ; tableSize <<= 1) {
+            try {
+                VehicleTypeIndex.compilePerfect(VEHICLE_TYPES, tableSize);
+                return tableSize;
+            } catch (IllegalStateException ex) {
+                // Try a larger table
+            }
+        }
+    }
+}
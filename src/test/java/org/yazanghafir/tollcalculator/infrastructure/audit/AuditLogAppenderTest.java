@@ -0,0 +1,179 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuditLogAppenderTest {
+
+    @TempDir
+    Path directory;
+
+    private final CountDownLatch writerBusy = new CountDownLatch(1);
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+
+    @Test
+    void testPublish_WrittenOnClose() throws IOException {
+        // Arrange
+        AuditLogAppender<String> appender = appender(AuditOverflowPolicy.COUNT, 1024, 60_000, this::toRecord);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            assertTrue(appender.publish("ABC" + i));
+        }
+        appender.close();
+
+        // Assert
+        List<AuditRecord> records = readAll();
+        assertEquals(100, records.size());
+        assertEquals("ABC99", records.get(99).getVehiclePlate());
+        assertFalse(appender.publish("DEF456")); // Closed
+    }
+
+    @Test
+    void testPublish_DropPolicyDiscards() throws Exception {
+        // Arrange
+        AuditLogAppender<String> appender = appender(AuditOverflowPolicy.DROP, 2, 0, this::blockFirstRecord);
+        fillBuffer(appender);
+
+        // Act
+        boolean published = appender.publish("DEF456");
+        releaseWriter.countDown();
+        appender.close();
+
+        // Assert
+        assertFalse(published);
+        assertEquals(1, appender.getDroppedEvents());
+        List<AuditRecord> records = readAll();
+        assertEquals(List.of("ABC0", "ABC1", "ABC2"), records.stream().map(AuditRecord::getVehiclePlate).toList());
+    }
+
+    @Test
+    void testPublish_CountPolicyWritesGap() throws Exception {
+        // Arrange
+        AuditLogAppender<String> appender = appender(AuditOverflowPolicy.COUNT, 2, 0, this::blockFirstRecord);
+        fillBuffer(appender);
+
+        // Act
+        assertFalse(appender.publish("DEF456"));
+        assertFalse(appender.publish("DEF789"));
+        releaseWriter.countDown();
+        appender.close();
+
+        // Assert
+        assertEquals(2, appender.getDroppedEvents());
+        List<AuditRecord> records = readAll();
+        assertEquals(4, records.size());
+        AuditRecord gap = records.stream().filter(record -> record.getKind() == AuditRecord.Kind.GAP).findFirst().orElseThrow();
+        assertEquals(2, gap.getDroppedRecords());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void testPublish_BlockPolicyWaits() throws Exception {
+        // Arrange
+        AuditLogAppender<String> appender = appender(AuditOverflowPolicy.BLOCK, 2, 0, this::blockFirstRecord);
+        fillBuffer(appender);
+
+        // Act
+        CompletableFuture<Boolean> published = CompletableFuture.supplyAsync(() -> appender.publish("DEF456"));
+        Thread.sleep(100);
+        boolean doneWhileFull = published.isDone();
+        releaseWriter.countDown();
+
+        // Assert
+        assertFalse(doneWhileFull);
+        assertTrue(published.get(5, TimeUnit.SECONDS));
+        appender.close();
+        assertEquals(0, appender.getDroppedEvents());
+        assertEquals(4, readAll().size());
+    }
+
+    @Test
+    void testPublish_FailedRecordsCounted() throws IOException {
+        // Arrange
+        AuditLogAppender<String> appender = appender(AuditOverflowPolicy.COUNT, 1024, 60_000, vehiclePlate -> {
+            if (vehiclePlate.startsWith("BAD")) {
+                throw new IllegalStateException("Unreadable record");
+            }
+            return toRecord(vehiclePlate);
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        appender.bindTo(registry);
+
+        // Act
+        for (String vehiclePlate : List.of("BAD1", "ABC123", "BAD2", "BAD3")) {
+            assertTrue(appender.publish(vehiclePlate));
+        }
+        appender.close();
+
+        // Assert
+        assertEquals(3, registry.get("toll.audit.errors").counter().count());
+        assertEquals(List.of("ABC123"), readAll().stream().map(AuditRecord::getVehiclePlate).toList());
+    }
+
+    @Test
+    void testConstructor_InvalidBatchSize() throws IOException {
+        // Arrange
+        AuditLogWriter writer = AuditLogWriter.open(directory, 1024 * 1024);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new AuditLogAppender<String>(writer, this::toRecord, 16, AuditOverflowPolicy.DROP, 0, 10));
+        writer.close();
+    }
+
+    // Publishes one record that the writer takes and blocks on, and then two that fill the buffer
+    private void fillBuffer(AuditLogAppender<String> appender) throws InterruptedException {
+        assertTrue(appender.publish("ABC0"));
+        assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+        assertTrue(appender.publish("ABC1"));
+        assertTrue(appender.publish("ABC2"));
+    }
+
+    private AuditLogAppender<String> appender(AuditOverflowPolicy overflowPolicy, int bufferSize, long fsyncIntervalMillis,
+                                              Function<String, AuditRecord> toRecord) {
+        return new AuditLogAppender<>(AuditLogWriter.open(directory, 1024 * 1024), toRecord, bufferSize, overflowPolicy,
+                16, fsyncIntervalMillis);
+    }
+
+    private AuditRecord blockFirstRecord(String vehiclePlate) {
+        if (writerBusy.getCount() > 0) {
+            writerBusy.countDown();
+            try {
+                releaseWriter.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return toRecord(vehiclePlate);
+    }
+
+    private AuditRecord toRecord(String vehiclePlate) {
+        return AuditRecord.calculation(1_724_656_500_000L, vehiclePlate, "Car", null, List.of());
+    }
+
+    private List<AuditRecord> readAll() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path segment : AuditLogReader.listSegments(directory)) {
+            assertTrue(AuditLogReader.read(segment, records::add));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,181 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuditLogWriterTest {
+
+    private static final long MONDAY = 19961; // 2024-08-26
+    private static final int HOUR = 60 * 60 * 1000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppend_RoundTrip() throws IOException {
+        // Arrange
+        AuditRecord calculation = AuditRecord.calculation(1_724_656_500_000L, "ÅBC123", "Truck", null, List.of(
+                new AuditRecord.Day(MONDAY, 31, AuditRecord.Exemption.NONE, new int[]{6 * HOUR, 6 * HOUR + 1800_000, 7 * HOUR + 1800_000},
+                        new int[]{6 * HOUR, 7 * HOUR + 1800_000}, new int[]{13, 18}),
+                new AuditRecord.Day(MONDAY + 5, 0, AuditRecord.Exemption.DAY, new int[]{8 * HOUR}, new int[0], new int[0])));
+
+        // Act
+        try (AuditLogWriter writer = AuditLogWriter.open(directory, 1024 * 1024)) {
+            assertEquals(0, writer.append(calculation));
+            assertEquals(1, writer.append(AuditRecord.gap(1_724_656_600_000L, 42)));
+        }
+        List<AuditRecord> records = readAll();
+
+        // Assert
+        assertEquals(2, records.size());
+        AuditRecord read = records.get(0);
+        assertEquals(AuditRecord.Kind.CALCULATION, read.getKind());
+        assertEquals(0, read.getSequence());
+        assertEquals(1_724_656_500_000L, read.getTimestampMillis());
+        assertEquals("ÅBC123", read.getVehiclePlate());
+        assertEquals("Truck", read.getVehicleType());
+        assertNull(read.getZone());
+        assertEquals(31, read.getTotalTollFee());
+        assertEquals(2, read.getDays().size());
+        AuditRecord.Day day = read.getDays().get(0);
+        assertEquals(MONDAY, day.getEpochDay());
+        assertFalse(day.isTollFree());
+        assertArrayEquals(new int[]{6 * HOUR, 6 * HOUR + 1800_000, 7 * HOUR + 1800_000}, day.getPassageMillisOfDay());
+        assertEquals("06:00=13 07:30=18", day.describeWindows());
+        assertEquals(AuditRecord.Exemption.DAY, read.getDays().get(1).getExemption());
+
+        AuditRecord gap = records.get(1);
+        assertEquals(AuditRecord.Kind.GAP, gap.getKind());
+        assertEquals(1, gap.getSequence());
+        assertEquals(42, gap.getDroppedRecords());
+    }
+
+    @Test
+    void testAppend_RotatesSegments() throws IOException {
+        // Act
+        try (AuditLogWriter writer = AuditLogWriter.open(directory, 256)) {
+            for (int i = 0; i < 20; i++) {
+                writer.append(calculation("ABC" + i));
+            }
+        }
+
+        // Assert
+        List<Path> segments = AuditLogReader.listSegments(directory);
+        assertTrue(segments.size() > 1);
+        for (Path segment : segments) {
+            assertTrue(Files.size(segment) <= 256);
+        }
+        List<AuditRecord> records = readAll();
+        assertEquals(20, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i, records.get(i).getSequence());
+            assertEquals("ABC" + i, records.get(i).getVehiclePlate());
+        }
+    }
+
+    @Test
+    void testOpen_ContinuesAfterTornRecord() throws IOException {
+        // Arrange
+        try (AuditLogWriter writer = AuditLogWriter.open(directory, 1024 * 1024)) {
+            for (int i = 0; i < 3; i++) {
+                writer.append(calculation("ABC" + i));
+            }
+        }
+        Path segment = AuditLogReader.listSegments(directory).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 5); // The last record was only partly written
+        }
+
+        // Act
+        List<AuditRecord> beforeRestart = new ArrayList<>();
+        boolean complete = AuditLogReader.read(segment, beforeRestart::add);
+        try (AuditLogWriter writer = AuditLogWriter.open(directory, 1024 * 1024)) {
+            assertEquals(2, writer.getNextSequence());
+            writer.append(calculation("DEF456"));
+        }
+
+        // Assert
+        assertFalse(complete);
+        assertEquals(2, beforeRestart.size());
+        List<Path> segments = AuditLogReader.listSegments(directory);
+        assertEquals(2, segments.size());
+        List<AuditRecord> records = new ArrayList<>(beforeRestart);
+        assertTrue(AuditLogReader.read(segments.get(1), records::add));
+        assertEquals(List.of("ABC0", "ABC1", "DEF456"), records.stream().map(AuditRecord::getVehiclePlate).toList());
+        assertEquals(2, records.get(2).getSequence());
+    }
+
+    @Test
+    void testRead_CorruptRecordEndsSegment() throws IOException {
+        // Arrange
+        try (AuditLogWriter writer = AuditLogWriter.open(directory, 1024 * 1024)) {
+            for (int i = 0; i < 3; i++) {
+                writer.append(calculation("ABC" + i));
+            }
+        }
+        Path segment = AuditLogReader.listSegments(directory).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int lastByte = file.read();
+            file.seek(file.length() - 1);
+            file.write(lastByte ^ 0xFF);
+        }
+
+        // Act
+        List<AuditRecord> records = new ArrayList<>();
+        boolean complete = AuditLogReader.read(segment, records::add);
+
+        // Assert
+        assertFalse(complete);
+        assertEquals(2, records.size());
+    }
+
+    @Test
+    void testOpen_SegmentWithoutRecordsIsStartedOver() throws IOException {
+        // Arrange
+        AuditLogWriter.open(directory, 1024 * 1024).close();
+
+        // Act
+        AuditLogWriter.open(directory, 1024 * 1024).close();
+
+        // Assert
+        assertEquals(1, AuditLogReader.listSegments(directory).size());
+        assertTrue(readAll().isEmpty());
+    }
+
+    @Test
+    void testRead_NotASegment() throws IOException {
+        // Arrange
+        Path file = Files.write(directory.resolve("audit-00000000000000000000.log"), new byte[32]);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> AuditLogReader.read(file, record -> { }));
+    }
+
+    private List<AuditRecord> readAll() throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path segment : AuditLogReader.listSegments(directory)) {
+            assertTrue(AuditLogReader.read(segment, records::add));
+        }
+        return records;
+    }
+
+    private static AuditRecord calculation(String vehiclePlate) {
+        return AuditRecord.calculation(1_724_656_500_000L, vehiclePlate, "Car", "Gothenburg", List.of(
+                new AuditRecord.Day(MONDAY, 18, AuditRecord.Exemption.NONE, new int[]{7 * HOUR}, new int[]{7 * HOUR}, new int[]{18})));
+    }
+}
@@ -0,0 +1,105 @@
+package org.yazanghafir.tollcalculator.infrastructure.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AuditRingBufferTest {
+
+    @Test
+    void testOffer_FullBufferRejects() {
+        // Arrange
+        AuditRingBuffer<Integer> ringBuffer = new AuditRingBuffer<>(3); // Rounded up to 4
+
+        // Act & Assert
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ringBuffer.offer(i));
+        }
+        assertFalse(ringBuffer.offer(4));
+        assertEquals(4, ringBuffer.size());
+        assertEquals(4, ringBuffer.capacity());
+    }
+
+    @Test
+    void testDrain_InOrderAndReusesSlots() {
+        // Arrange
+        AuditRingBuffer<Integer> ringBuffer = new AuditRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        // Act
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                ringBuffer.offer(lap * 4 + i);
+            }
+            assertEquals(2, ringBuffer.drain(drained::add, 2));
+            assertEquals(2, ringBuffer.drain(drained::add, 10));
+        }
+
+        // Assert
+        assertEquals(0, ringBuffer.drain(drained::add, 10));
+        assertTrue(ringBuffer.isEmpty());
+        assertEquals(12, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+
+    @Test
+    void testOffer_ConcurrentPublishers() throws Exception {
+        // Arrange
+        int publishers = 4;
+        int perPublisher = 20_000;
+        AuditRingBuffer<long[]> ringBuffer = new AuditRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(publishers);
+        List<Future<?>> futures = new ArrayList<>();
+        long[] lastSeen = new long[publishers];
+        Arrays.fill(lastSeen, -1);
+        boolean[] inOrder = {true};
+
+        // Act
+        for (int p = 0; p < publishers; p++) {
+            long publisher = p;
+            futures.add(executor.submit(() -> {
+                for (long i = 0; i < perPublisher; i++) {
+                    while (!ringBuffer.offer(new long[]{publisher, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+        int received = 0;
+        while (received < publishers * perPublisher) {
+            received += ringBuffer.drain(element -> {
+                inOrder[0] &= element[1] == lastSeen[(int) element[0]] + 1;
+                lastSeen[(int) element[0]] = element[1];
+            }, 32);
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertTrue(inOrder[0]); // Every publisher's elements arrive in the order it published them
+        for (long last : lastSeen) {
+            assertEquals(perPublisher - 1, last);
+        }
+        assertTrue(ringBuffer.isEmpty());
+    }
+
+    @Test
+    void testConstructor_InvalidCapacity() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer<>(0));
+    }
+}
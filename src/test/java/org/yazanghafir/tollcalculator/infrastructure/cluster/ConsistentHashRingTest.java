@@ -0,0 +1,77 @@
+package org.yazanghafir.tollcalculator.infrastructure.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConsistentHashRingTest {
+
+    private static final List<String> THREE_NODES = List.of("http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+    private static final int PLATES = 100_000;
+
+    @Test
+    void testOwnerOf_SpreadsPlatesEvenly() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(THREE_NODES, 128);
+        Map<String, Integer> platesPerNode = new HashMap<>();
+
+        // Act
+        for (int i = 0; i < PLATES; i++) {
+            platesPerNode.merge(ring.ownerOf("ABC" + i), 1, Integer::sum);
+        }
+
+        // Assert
+        for (String node : THREE_NODES) {
+            double share = platesPerNode.get(node) / (double) PLATES;
+            assertTrue(Math.abs(share - 1.0 / 3) < 0.05, node + " owns " + share);
+            assertEquals(share, ring.getShare(node), 0.02);
+        }
+    }
+
+    @Test
+    void testOwnerOf_AddingNodeMovesFewPlates() {
+        // Arrange
+        ConsistentHashRing before = new ConsistentHashRing(THREE_NODES, 128);
+        ConsistentHashRing after = new ConsistentHashRing(
+                List.of("http://localhost:8081", "http://localhost:8082", "http://localhost:8083", "http://localhost:8084"), 128);
+        int moved = 0;
+
+        // Act
+        for (int i = 0; i < PLATES; i++) {
+            String plate = "ABC" + i;
+            if (!before.ownerOf(plate).equals(after.ownerOf(plate))) {
+                moved++;
+                assertEquals("http://localhost:8084", after.ownerOf(plate)); // Plates only move to the new node
+            }
+        }
+
+        // Assert
+        double movedShare = moved / (double) PLATES;
+        assertTrue(movedShare > 0.2 && movedShare < 0.3, "Moved " + movedShare);
+    }
+
+    @Test
+    void testOwnerOf_SameOnEveryNode() {
+        // Arrange, the node list in another order on another node
+        ConsistentHashRing ring = new ConsistentHashRing(THREE_NODES, 128);
+        ConsistentHashRing otherNode = new ConsistentHashRing(List.of(THREE_NODES.get(2), THREE_NODES.get(0), THREE_NODES.get(1)), 128);
+
+        // Act & Assert
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.ownerOf("ABC" + i), otherNode.ownerOf("ABC" + i));
+        }
+    }
+
+    @Test
+    void testOwnerOf_NoNodes() {
+        // Act & Assert
+        assertNull(new ConsistentHashRing(List.of(), 128).ownerOf("ABC123"));
+        assertEquals(1.0, new ConsistentHashRing(List.of("http://localhost:8081"), 1).getShare("http://localhost:8081"));
+    }
+}
@@ -0,0 +1,86 @@
+package org.yazanghafir.tollcalculator.infrastructure.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PlateRoutingFilterTest {
+
+    private static final List<String> NODES = List.of("http://localhost:8081", "http://localhost:8082");
+
+    @Test
+    void testRedirectsToOwner() throws Exception {
+        // Arrange
+        ClusterMembership membership = new ClusterMembership(NODES, "http://localhost:8081", 128, "redirect");
+        PlateRoutingFilter filter = new PlateRoutingFilter(membership, new ClusterClient(new ObjectMapper(), 1000), new ObjectMapper());
+        String remotePlate = plateOwnedBy(membership, "http://localhost:8082");
+        MockHttpServletRequest request = passageRequest(remotePlate);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, response, chain);
+
+        // Assert
+        assertEquals(307, response.getStatus());
+        assertEquals("http://localhost:8082/api/toll/passage?" + request.getQueryString(), response.getHeader("Location"));
+        assertNull(chain.getRequest()); // Not handled here
+    }
+
+    @Test
+    void testHandlesLocalAndForwardedPassages() throws Exception {
+        // Arrange
+        ClusterMembership membership = new ClusterMembership(NODES, "http://localhost:8081/", 128, "forward");
+        PlateRoutingFilter filter = new PlateRoutingFilter(membership, new ClusterClient(new ObjectMapper(), 1000), new ObjectMapper());
+        MockHttpServletRequest local = passageRequest(plateOwnedBy(membership, "http://localhost:8081"));
+        MockHttpServletRequest forwarded = passageRequest(plateOwnedBy(membership, "http://localhost:8082"));
+        forwarded.addHeader(ClusterClient.FORWARDED_HEADER, "1");
+        MockFilterChain localChain = new MockFilterChain();
+        MockFilterChain forwardedChain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(local, new MockHttpServletResponse(), localChain);
+        filter.doFilter(forwarded, new MockHttpServletResponse(), forwardedChain);
+
+        // Assert
+        assertNotNull(localChain.getRequest());
+        assertNotNull(forwardedChain.getRequest()); // Forwarded by a node, so never forwarded again
+    }
+
+    @Test
+    void testNotPartitioned() throws Exception {
+        // Arrange
+        ClusterMembership membership = new ClusterMembership(List.of(), "", 128, "forward");
+        PlateRoutingFilter filter = new PlateRoutingFilter(membership, new ClusterClient(new ObjectMapper(), 1000), new ObjectMapper());
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(passageRequest("ABC123"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest passageRequest(String vehiclePlate) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PlateRoutingFilter.PASSAGE_PATH);
+        request.setQueryString("vehiclePlate=" + vehiclePlate + "&vehicleType=Car&vehicleDateTime=2024-08-26T07:15:00.000Z");
+        request.addParameter("vehiclePlate", vehiclePlate);
+        return request;
+    }
+
+    private static String plateOwnedBy(ClusterMembership membership, String node) {
+        for (int i = 0; ; i++) {
+            if (membership.ownerOf("ABC" + i).equals(node)) {
+                return "ABC" + i;
+            }
+        }
+    }
+}
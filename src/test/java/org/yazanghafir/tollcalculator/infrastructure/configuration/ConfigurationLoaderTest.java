@@ -0,0 +1,237 @@
+package org.yazanghafir.tollcalculator.infrastructure.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.TollFees;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleTypes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConfigurationLoaderTest {
+
+    private static final String SINGLE_FEE_TEMPLATE =
+            "{\"tollFees\": [{\"feeAmount\": \"%d\", \"timePoints\": [\"00:00-23:59\"]}]}";
+
+    @TempDir
+    Path configurationDirectory;
+
+    private ConfigurationLoader<TollFees> configLoader;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (configLoader != null) {
+            configLoader.stopWatching();
+        }
+    }
+
+    @Test
+    void testLoadSnapshot_ParsedOnce() {
+        // Arrange
+        configLoader = new ConfigurationLoader<>();
+
+        // Act
+        Optional<ConfigurationSnapshot<TollFees>> first = configLoader.loadSnapshot(ConfigurationFilePath.TOLL_FEES, TollFees.class);
+        Optional<ConfigurationSnapshot<TollFees>> second = configLoader.loadSnapshot(ConfigurationFilePath.TOLL_FEES, TollFees.class);
+
+        // Assert
+        assertTrue(first.isPresent());
+        assertSame(first.get(), second.get());
+        assertEquals("classpath:TollFees.json", first.get().getSource());
+    }
+
+    @Test
+    void testLoadSnapshot_ExternalFileOverridesClasspath() throws IOException {
+        // Arrange
+        Files.writeString(configurationDirectory.resolve("TollFees.json"), String.format(SINGLE_FEE_TEMPLATE, 5));
+        configLoader = new ConfigurationLoader<>(configurationDirectory.toString(), false);
+
+        // Act
+        ConfigurationSnapshot<TollFees> snapshot = configLoader.loadSnapshot(ConfigurationFilePath.TOLL_FEES, TollFees.class).get();
+
+        // Assert
+        assertEquals(5, snapshot.getValue().getTollFees().get(0).getFeeAmount());
+        assertTrue(snapshot.getSource().startsWith("file:"));
+    }
+
+    @Test
+    void testReload_PublishesNewVersion() throws IOException {
+        // Arrange
+        Path file = configurationDirectory.resolve("TollFees.json");
+        Files.writeString(file, String.format(SINGLE_FEE_TEMPLATE, 5));
+        configLoader = new ConfigurationLoader<>(configurationDirectory.toString(), false);
+        ConfigurationSnapshot<TollFees> before = configLoader.loadSnapshot(ConfigurationFilePath.TOLL_FEES, TollFees.class).get();
+
+        // Act
+        Files.writeString(file, String.format(SINGLE_FEE_TEMPLATE, 7));
+        boolean reloaded = configLoader.reload(ConfigurationFilePath.TOLL_FEES);
+
+        // Assert
+        ConfigurationSnapshot<TollFees> after = configLoader.loadSnapshot(ConfigurationFilePath.TOLL_FEES, TollFees.class).get();
+        assertTrue(reloaded);
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(7, after.getValue().getTollFees().get(0).getFeeAmount());
+        assertEquals(5, before.getValue().getTollFees().get(0).getFeeAmount()); // The old snapshot is untouched
+    }
+
+    @Test
+    void testReload_MalformedFileKeepsCurrentSnapshot() throws IOException {
+        // Arrange
+        Path file = configurationDirectory.resolve("TollFees.json");
+        Files.writeString(file, String.format(SINGLE_FEE_TEMPLATE, 5));
+        configLoader = new ConfigurationLoader<>(configurationDirectory.toString(), false);
+        ConfigurationSnapshot<TollFees> before = configLoader.loadSnapshot(ConfigurationFilePath.TOLL_FEES, TollFees.class).get();
+
+        // Act
+        Files.writeString(file, "{\"tollFees\": [");
+        boolean reloaded = configLoader.reload(ConfigurationFilePath.TOLL_FEES);
+
+        // Assert
+        assertFalse(reloaded);
+        assertSame(before, configLoader.loadSnapshot(ConfigurationFilePath.TOLL_FEES, TollFees.class).get());
+    }
+
+    @Test
+    void testReload_RejectedByListenerKeepsCurrentTariff() throws IOException {
+        // Arrange
+        Path file = configurationDirectory.resolve("TollFees.json");
+        Files.writeString(file, String.format(SINGLE_FEE_TEMPLATE, 5));
+        configLoader = new ConfigurationLoader<>(configurationDirectory.toString(), false);
+        TollFeeAmountRetriever tollFeeRetriever = new TollFeeAmountRetriever(configLoader);
+        tollFeeRetriever.getTollFeeAmount(LocalTime.NOON);
+
+        // Act
+        Files.writeString(file, "{\"tollFees\": [{\"feeAmount\": \"9\", \"timePoints\": [\"00:00-11:59\"]}]}");
+        boolean reloaded = configLoader.reload(ConfigurationFilePath.TOLL_FEES);
+
+        // Assert
+        assertFalse(reloaded); // 12:00-23:59 is not covered
+        assertEquals(5, tollFeeRetriever.getTollFeeAmount(LocalTime.NOON));
+        assertEquals(5, configLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class)
+                .get().getTollFees().get(0).getFeeAmount());
+    }
+
+    @Test
+    void testWatch_ChangedFileIsReloaded() throws Exception {
+        // Arrange
+        Path file = configurationDirectory.resolve("TollFees.json");
+        Files.writeString(file, String.format(SINGLE_FEE_TEMPLATE, 5));
+        configLoader = new ConfigurationLoader<>(configurationDirectory.toString(), true);
+        configLoader.startWatching();
+        TollFeeAmountRetriever tollFeeRetriever = new TollFeeAmountRetriever(configLoader);
+        assertEquals(5, tollFeeRetriever.getTollFeeAmount(LocalTime.NOON));
+
+        // Act
+        Files.writeString(file, String.format(SINGLE_FEE_TEMPLATE, 7));
+
+        // Assert
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (tollFeeRetriever.getTollFeeAmount(LocalTime.NOON) != 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(7, tollFeeRetriever.getTollFeeAmount(LocalTime.NOON));
+    }
+
+    @Test
+    void testFindGeneratedConfiguration_UsedForBundledFile() throws IOException {
+        // Arrange
+        GeneratedConfiguration generated = mock(GeneratedConfiguration.class);
+        when(generated.getChecksum(ConfigurationFilePath.TOLL_FEES)).thenReturn(bundledChecksum("TollFees.json"));
+        configLoader = new ConfigurationLoader<>(configurationDirectory.toString(), false, generated);
+
+        // Act
+        Optional<GeneratedConfiguration> found = configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FEES);
+
+        // Assert
+        assertSame(generated, found.get());
+        assertTrue(configLoader.getVersion(ConfigurationFilePath.TOLL_FEES) > 0); // Versioned like a loaded file
+        assertEquals(List.of("generated:TollFees.json"),
+                configLoader.getSnapshots().stream().map(ConfigurationSnapshot::getSource).toList());
+    }
+
+    @Test
+    void testFindGeneratedConfiguration_ExternalFileTakesPrecedence() throws IOException {
+        // Arrange
+        Files.writeString(configurationDirectory.resolve("TollFees.json"), String.format(SINGLE_FEE_TEMPLATE, 5));
+        GeneratedConfiguration generated = mock(GeneratedConfiguration.class);
+        when(generated.getChecksum(ConfigurationFilePath.TOLL_FEES)).thenReturn(bundledChecksum("TollFees.json"));
+        configLoader = new ConfigurationLoader<>(configurationDirectory.toString(), false, generated);
+
+        // Act
+        Optional<GeneratedConfiguration> found = configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FEES);
+
+        // Assert
+        assertTrue(found.isEmpty());
+    }
+
+    @Test
+    void testFindGeneratedConfiguration_OutOfDateTablesAreNotUsed() throws IOException {
+        // Arrange
+        GeneratedConfiguration generated = mock(GeneratedConfiguration.class);
+        when(generated.getChecksum(ConfigurationFilePath.TOLL_FEES)).thenReturn(bundledChecksum("TollFees.json") ^ 1);
+        when(generated.getChecksum(ConfigurationFilePath.TOLL_FREE_DAYS)).thenReturn(-1L);
+        configLoader = new ConfigurationLoader<>("", false, generated);
+
+        // Act & Assert
+        assertTrue(configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FEES).isEmpty());
+        assertTrue(configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FREE_DAYS).isEmpty());
+    }
+
+    @Test
+    void testReload_FileAddedWhileGeneratedTablesAreUsed() throws IOException {
+        // Arrange
+        GeneratedConfiguration generated = mock(GeneratedConfiguration.class);
+        when(generated.getChecksum(ConfigurationFilePath.TOLL_FEES)).thenReturn(bundledChecksum("TollFees.json"));
+        configLoader = new ConfigurationLoader<>(configurationDirectory.toString(), false, generated);
+        AtomicInteger reloadedFee = new AtomicInteger(-1);
+        configLoader.addReloadListener(ConfigurationFilePath.TOLL_FEES, TollFees.class,
+                tollFees -> reloadedFee.set(tollFees.getTollFees().get(0).getFeeAmount()));
+        assertTrue(configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FEES).isPresent());
+        long generatedVersion = configLoader.getVersion(ConfigurationFilePath.TOLL_FEES);
+
+        // Act
+        Files.writeString(configurationDirectory.resolve("TollFees.json"), String.format(SINGLE_FEE_TEMPLATE, 7));
+        boolean reloaded = configLoader.reload(ConfigurationFilePath.TOLL_FEES);
+
+        // Assert
+        assertTrue(reloaded);
+        assertEquals(7, reloadedFee.get());
+        assertTrue(configLoader.findGeneratedConfiguration(ConfigurationFilePath.TOLL_FEES).isEmpty());
+        assertTrue(configLoader.getVersion(ConfigurationFilePath.TOLL_FEES) > generatedVersion);
+        assertEquals(1, configLoader.getSnapshots().size());
+    }
+
+    @Test
+    void testLoadSnapshot_MissingFile() {
+        // Arrange
+        ConfigurationLoader<VehicleTypes> loader = new ConfigurationLoader<>(configurationDirectory.toString(), false);
+
+        // Act
+        Optional<VehicleTypes> vehicleTypes = loader.loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class);
+
+        // Assert
+        assertTrue(vehicleTypes.isPresent()); // Not in the directory, so the bundled file is used
+    }
+
+    private static long bundledChecksum(String file) throws IOException {
+        CRC32 checksum = new CRC32();
+        checksum.update(ConfigurationLoaderTest.class.getClassLoader().getResourceAsStream(file).readAllBytes());
+        return checksum.getValue();
+    }
+}
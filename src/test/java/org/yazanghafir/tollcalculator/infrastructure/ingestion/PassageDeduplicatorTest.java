@@ -0,0 +1,101 @@
+package org.yazanghafir.tollcalculator.infrastructure.ingestion;
+
+import org.junit.jupiter.api.Test;
+import org.yazanghafir.tollcalculator.domain.entities.Passage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PassageDeduplicatorTest {
+
+    private static final long SECOND = 1000;
+    private static final long MONDAY_0715 = (19961 * 24 * 60 + 7 * 60 + 15) * 60 * SECOND; // 2024-08-26T07:15
+
+    @Test
+    void testIsDuplicate_SameGantryWithinWindow() {
+        // Arrange
+        PassageDeduplicator deduplicator = new PassageDeduplicator(5 * SECOND, 60 * SECOND, 1000, 0.01, 1024);
+
+        // Act & Assert
+        assertFalse(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + 4 * SECOND)));
+        assertTrue(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + 6 * SECOND))); // Previous bucket
+        assertTrue(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + 4 * SECOND)));
+        assertFalse(deduplicator.isDuplicate(passage("ABC123", "G2", MONDAY_0715 + 4 * SECOND))); // Another gantry
+        assertFalse(deduplicator.isDuplicate(passage("XYZ789", "G1", MONDAY_0715 + 4 * SECOND))); // Another plate
+        assertFalse(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + 20 * SECOND))); // Two windows later
+        assertEquals(6, deduplicator.getChecked());
+        assertEquals(2, deduplicator.getDuplicates());
+        assertEquals(2.0 / 6, deduplicator.getDuplicateRate(), 1e-9);
+    }
+
+    @Test
+    void testIsDuplicate_PreviousBucketOutsideWindow() {
+        // Arrange
+        PassageDeduplicator deduplicator = new PassageDeduplicator(5 * SECOND, 60 * SECOND, 1000, 0.01, 1024);
+
+        // Act & Assert
+        assertFalse(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + SECOND)));
+        assertFalse(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + 9 * SECOND))); // Next bucket, 8 s later
+        assertTrue(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + 13 * SECOND))); // 4 s after the kept one
+        assertEquals(1, deduplicator.getDuplicates());
+    }
+
+    @Test
+    void testIsDuplicate_WithoutGantry() {
+        // Arrange
+        PassageDeduplicator deduplicator = new PassageDeduplicator(5 * SECOND, 60 * SECOND, 1000, 0.01, 1024);
+
+        // Act & Assert
+        assertFalse(deduplicator.isDuplicate(new Passage("ABC123", "Car", MONDAY_0715)));
+        assertFalse(deduplicator.isDuplicate(new Passage("ABC123", "Car", MONDAY_0715 + SECOND)));
+        assertFalse(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + SECOND)));
+        assertEquals(1, deduplicator.getChecked());
+    }
+
+    @Test
+    void testIsDuplicate_FilterMatchesAreConfirmed() {
+        // Arrange
+        PassageDeduplicator deduplicator = new PassageDeduplicator(5 * SECOND, 60 * SECOND, 1, 0.5, 2); // An overfull filter
+
+        // Act
+        int dropped = 0;
+        for (int i = 0; i < 1000; i++) {
+            dropped += deduplicator.isDuplicate(passage("PLATE" + i, "G1", MONDAY_0715)) ? 1 : 0;
+        }
+
+        // Assert
+        assertEquals(0, dropped); // Distinct plates are never dropped, however full the filter is
+        assertTrue(deduplicator.getFilterMatches() > 0);
+        assertEquals(deduplicator.getFilterMatches(), deduplicator.getUnconfirmed());
+    }
+
+    @Test
+    void testIsDuplicate_OldGenerationsRotateOut() {
+        // Arrange
+        PassageDeduplicator deduplicator = new PassageDeduplicator(5 * SECOND, 60 * SECOND, 1000, 0.01, 1024);
+        deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715));
+
+        // Act
+        for (int minute = 1; minute <= PassageDeduplicator.GENERATIONS; minute++) {
+            deduplicator.isDuplicate(passage("XYZ789", "G1", MONDAY_0715 + minute * 60 * SECOND));
+        }
+
+        // Assert
+        assertFalse(deduplicator.isDuplicate(passage("ABC123", "G1", MONDAY_0715 + SECOND))); // Too old to be checked
+        assertEquals(1, deduplicator.getLate());
+    }
+
+    @Test
+    void testConstructor_InvalidSettings() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new PassageDeduplicator(0, 60 * SECOND, 1000, 0.01, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new PassageDeduplicator(5 * SECOND, SECOND, 1000, 0.01, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new PassageDeduplicator(5 * SECOND, 60 * SECOND, 1000, 1, 1024));
+    }
+
+    private static Passage passage(String vehiclePlate, String gantry, long localEpochMillis) {
+        return new Passage(vehiclePlate, "Car", localEpochMillis, gantry);
+    }
+}
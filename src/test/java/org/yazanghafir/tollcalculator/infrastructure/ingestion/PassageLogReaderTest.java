@@ -0,0 +1,222 @@
+package org.yazanghafir.tollcalculator.infrastructure.ingestion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yazanghafir.tollcalculator.domain.entities.Passage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PassageLogReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRead_CsvWithHeader() throws IOException {
+        // Arrange
+        Path log = directory.resolve("passages.csv");
+        Files.writeString(log, "vehiclePlate,vehicleType,vehicleDateTime\r\n"
+                + "ABC123,Car,2024-08-26T07:15:00\r\n"
+                + "XYZ789,Motorbike,2024-08-26T16:45:30.250\r\n");
+        List<Passage> passages = new ArrayList<>();
+        PassageLogReader reader = new PassageLogReader();
+
+        // Act
+        reader.read(log, PassageLogFormat.CSV, passages::add);
+
+        // Assert
+        assertEquals(2, reader.getRows());
+        assertEquals(0, reader.getRejectedRows());
+        assertEquals("ABC123", passages.get(0).getVehiclePlate());
+        assertEquals("Car", passages.get(0).getVehicleType());
+        assertEquals(localMillis(LocalDateTime.of(2024, 8, 26, 7, 15)), passages.get(0).getLocalEpochMillis());
+        assertEquals(localMillis(LocalDateTime.of(2024, 8, 26, 16, 45, 30, 250_000_000)),
+                passages.get(1).getLocalEpochMillis());
+    }
+
+    @Test
+    void testRead_NdjsonWithOffset() throws IOException {
+        // Arrange
+        Path log = directory.resolve("passages.ndjson");
+        LocalDateTime local = LocalDateTime.of(2024, 8, 26, 7, 15);
+        String utc = local.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toOffsetDateTime().toString();
+        Files.writeString(log, "{\"vehiclePlate\":\"ABC123\",\"vehicleType\":\"Car\",\"vehicleDateTime\":\"" + utc + "\"}\n"
+                + "{\"vehiclePlate\":\"ABC123\",\"vehicleType\":\"Car\",\"vehicleDateTime\":\"2024-08-26T09:15:00+02:00\",\"gantry\":{\"id\":7}}\n");
+        List<Passage> passages = new ArrayList<>();
+        PassageLogReader reader = new PassageLogReader();
+
+        // Act
+        reader.read(log, PassageLogFormat.fromPath(log), passages::add);
+
+        // Assert
+        assertEquals(2, passages.size());
+        assertEquals(localMillis(local), passages.get(0).getLocalEpochMillis());
+        LocalDateTime second = LocalDateTime.of(2024, 8, 26, 7, 15).atOffset(ZoneOffset.UTC)
+                .atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        assertEquals(localMillis(second), passages.get(1).getLocalEpochMillis());
+    }
+
+    @Test
+    void testRead_OptionalGantry() throws IOException {
+        // Arrange
+        Path csv = Files.writeString(directory.resolve("passages.csv"), "vehiclePlate,vehicleType,vehicleDateTime,gantry\n"
+                + "ABC123,Car,2024-08-26T07:15:00,G12\n"
+                + "ABC123,Car,2024-08-26T07:15:03\n");
+        Path ndjson = Files.writeString(directory.resolve("passages.ndjson"),
+                "{\"vehiclePlate\":\"ABC123\",\"vehicleType\":\"Car\",\"vehicleDateTime\":\"2024-08-26T07:15\",\"gantry\":12}\n");
+        List<Passage> passages = new ArrayList<>();
+        PassageLogReader reader = new PassageLogReader();
+
+        // Act
+        reader.read(csv, PassageLogFormat.CSV, passages::add);
+        reader.read(ndjson, PassageLogFormat.NDJSON, passages::add);
+
+        // Assert
+        assertEquals(3, passages.size());
+        assertEquals("G12", passages.get(0).getGantry());
+        assertEquals(localMillis(LocalDateTime.of(2024, 8, 26, 7, 15)), passages.get(0).getLocalEpochMillis());
+        assertNull(passages.get(1).getGantry());
+        assertEquals("12", passages.get(2).getGantry());
+    }
+
+    @Test
+    void testRead_LinesCrossingWindows() throws IOException {
+        // Arrange
+        Path log = directory.resolve("passages.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append("PLATE").append(i).append(",Car,2024-08-26T07:").append(String.format("%02d", i % 60)).append('\n');
+        }
+        Files.writeString(log, content.toString());
+        List<Passage> passages = new ArrayList<>();
+        PassageLogReader reader = new PassageLogReader(64); // About two lines per window
+
+        // Act
+        reader.read(log, PassageLogFormat.CSV, passages::add);
+
+        // Assert
+        assertEquals(100, passages.size());
+        assertEquals("PLATE99", passages.get(99).getVehiclePlate());
+        assertEquals(localMillis(LocalDateTime.of(2024, 8, 26, 7, 39)), passages.get(99).getLocalEpochMillis());
+    }
+
+    @Test
+    void testRead_InvalidRowsAreSkipped() throws IOException {
+        // Arrange
+        Path log = directory.resolve("passages.csv");
+        Files.writeString(log, "ABC123,Car,2024-08-26T07:15\n"
+                + "ABC123,Car\n"
+                + "ABC123,Car,yesterday\n"
+                + ",Car,2024-08-26T07:15\n"
+                + "ABC123,Car,2024-02-30T07:15\n"
+                + "XYZ789,Car,2024-08-26T08:15");
+        List<Passage> passages = new ArrayList<>();
+        PassageLogReader reader = new PassageLogReader();
+
+        // Act
+        reader.read(log, PassageLogFormat.CSV, passages::add);
+
+        // Assert
+        assertEquals(6, reader.getRows());
+        assertEquals(4, reader.getRejectedRows());
+        assertEquals("line at byte 28: expected vehiclePlate,vehicleType,vehicleDateTime", reader.getFirstRejection());
+        assertEquals(2, passages.size());
+        assertEquals("XYZ789", passages.get(1).getVehiclePlate());
+    }
+
+    @Test
+    void testRead_OnlyColumnNamesAreAHeader() throws IOException {
+        // Arrange
+        Path header = Files.writeString(directory.resolve("header.csv"),
+                "VehiclePlate, vehicleType, vehicleDateTime, gantry\n"
+                + "ABC123,Car,2024-08-26T07:15\n");
+        Path garbled = Files.writeString(directory.resolve("garbled.csv"), "ABC123,Car,2024-08-26T07:1\n"
+                + "ABC123,Car,2024-08-26T07:15\n");
+        PassageLogReader headerReader = new PassageLogReader();
+        PassageLogReader garbledReader = new PassageLogReader();
+
+        // Act
+        headerReader.read(header, PassageLogFormat.CSV, passage -> { });
+        garbledReader.read(garbled, PassageLogFormat.CSV, passage -> { });
+
+        // Assert
+        assertEquals(1, headerReader.getRows());
+        assertEquals(0, headerReader.getRejectedRows());
+        assertNull(headerReader.getFirstRejection());
+        assertEquals(2, garbledReader.getRows());
+        assertEquals(1, garbledReader.getRejectedRows()); // A first row that does not parse is not skipped as a header
+        assertTrue(garbledReader.getFirstRejection().startsWith("line at byte 0: "));
+    }
+
+    @Test
+    void testRead_SplitRangesReadEveryLineOnce() throws IOException {
+        // Arrange
+        Path log = directory.resolve("passages.csv");
+        StringBuilder rows = new StringBuilder("vehiclePlate,vehicleType,vehicleDateTime\n");
+        for (int i = 0; i < 100; i++) {
+            rows.append("PLATE").append(i).append(",Car,2024-08-26T07:").append(String.format("%02d", i % 60)).append('\n');
+        }
+        rows.append("not a passage\n");
+        Files.writeString(log, rows.toString());
+        List<Passage> passages = new ArrayList<>();
+        long rejectedRows = 0;
+
+        // Act
+        long[] ranges = PassageLogReader.split(log, 7);
+        for (int i = 0; i < ranges.length - 1; i++) {
+            PassageLogReader reader = new PassageLogReader();
+            reader.read(log, PassageLogFormat.CSV, ranges[i], ranges[i + 1], passages::add);
+            rejectedRows += reader.getRejectedRows();
+        }
+
+        // Assert
+        assertEquals(8, ranges.length);
+        assertEquals(Files.size(log), ranges[ranges.length - 1]);
+        assertEquals(100, passages.size());
+        assertEquals(1, rejectedRows); // Only the first range can start with a header
+        for (int i = 0; i < 100; i++) {
+            assertEquals("PLATE" + i, passages.get(i).getVehiclePlate());
+        }
+    }
+
+    @Test
+    void testSplit_FewerLinesThanRanges() throws IOException {
+        // Arrange
+        Path log = directory.resolve("passages.csv");
+        Files.writeString(log, "ABC123,Car,2024-08-26T07:15\nXYZ789,Car,2024-08-26T08:15\n");
+
+        // Act
+        long[] ranges = PassageLogReader.split(log, 8);
+
+        // Assert
+        assertArrayEquals(new long[]{0, 28, Files.size(log)}, ranges);
+    }
+
+    @Test
+    void testRead_LineLongerThanWindow() throws IOException {
+        // Arrange
+        Path log = directory.resolve("passages.csv");
+        Files.writeString(log, "ABC123,Car,2024-08-26T07:15:00\nABC123,Car,2024-08-26T08:15:00\n");
+        PassageLogReader reader = new PassageLogReader(16);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> reader.read(log, PassageLogFormat.CSV, passage -> { }));
+    }
+
+    private static long localMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,73 @@
+package org.yazanghafir.tollcalculator.infrastructure.ingestion;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yazanghafir.tollcalculator.domain.entities.Passage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PassageRunSorterTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void testForEachSorted_InMemory() throws IOException {
+        // Arrange
+        List<Passage> sorted = new ArrayList<>();
+        try (PassageRunSorter sorter = new PassageRunSorter(100, spillDirectory)) {
+            sorter.add(new Passage("B", "Car", 2));
+            sorter.add(new Passage("A", "Car", 5));
+            sorter.add(new Passage("B", "Car", 1));
+
+            // Act
+            sorter.forEachSorted(sorted::add);
+
+            // Assert
+            assertEquals(0, sorter.getSpilledRuns());
+        }
+        assertEquals("A", sorted.get(0).getVehiclePlate());
+        assertEquals(1, sorted.get(1).getLocalEpochMillis());
+        assertEquals(2, sorted.get(2).getLocalEpochMillis());
+    }
+
+    @Test
+    void testForEachSorted_MergesSpilledRuns() throws IOException {
+        // Arrange
+        Random random = new Random(42);
+        List<Passage> passages = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            passages.add(new Passage("PLATE" + random.nextInt(50), "Car", random.nextInt(1_000_000)));
+        }
+        List<Passage> sorted = new ArrayList<>();
+
+        try (PassageRunSorter sorter = new PassageRunSorter(64, spillDirectory)) {
+            passages.forEach(sorter::add);
+
+            // Act
+            sorter.forEachSorted(sorted::add);
+
+            // Assert
+            assertEquals(15, sorter.getSpilledRuns()); // 1000 passages in runs of 64, the last 40 stay in memory
+        }
+
+        passages.sort(PassageRunSorter.PLATE_AND_TIME_ORDER);
+        assertEquals(passages.size(), sorted.size());
+        for (int i = 0; i < passages.size(); i++) {
+            assertEquals(passages.get(i).getVehiclePlate(), sorted.get(i).getVehiclePlate());
+            assertEquals(passages.get(i).getLocalEpochMillis(), sorted.get(i).getLocalEpochMillis());
+        }
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertTrue(files.findAny().isEmpty()); // Spilled runs are removed on close
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.yazanghafir.tollcalculator.infrastructure.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yazanghafir.tollcalculator.application.handler.TollCalculator;
+import org.yazanghafir.tollcalculator.application.query.TariffRegistry;
+import org.yazanghafir.tollcalculator.application.query.TollFeeAmountRetriever;
+import org.yazanghafir.tollcalculator.application.query.TollFreeCalendar;
+import org.yazanghafir.tollcalculator.application.query.VehicleTypeRegistry;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.application.validation.TollFreeValidator;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationFilePath;
+import org.yazanghafir.tollcalculator.domain.configuration.ConfigurationObject;
+import org.yazanghafir.tollcalculator.domain.configuration.TollFees;
+import org.yazanghafir.tollcalculator.domain.configuration.VehicleTypes;
+import org.yazanghafir.tollcalculator.domain.entities.Vehicle;
+import org.yazanghafir.tollcalculator.infrastructure.configuration.ConfigurationLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TollMetricsTest {
+
+    @TempDir
+    Path configurationDirectory;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testCalculation_RecordsEveryStage() {
+        // Arrange
+        VehicleTypeRegistry vehicleTypeRegistry = new VehicleTypeRegistry(boundLoader());
+        TollFreeValidator tollFreeValidator = new TollFreeValidator(
+                new TollFreeCalendar(boundLoader()), vehicleTypeRegistry);
+        TariffRegistry tariffRegistry = new TariffRegistry(boundLoader(), vehicleTypeRegistry);
+        TollFeeAmountRetriever tollFeeRetriever = new TollFeeAmountRetriever(boundLoader());
+        TollCalculator tollCalculator = new TollCalculator(tollFreeValidator, tollFeeRetriever, tariffRegistry);
+        TollCalculatorRequestValidator requestValidator = new TollCalculatorRequestValidator(vehicleTypeRegistry, tariffRegistry);
+        tollFreeValidator.bindTo(registry);
+        tariffRegistry.bindTo(registry);
+        tollFeeRetriever.bindTo(registry);
+        tollCalculator.bindTo(registry);
+        requestValidator.bindTo(registry);
+        List<Date> dates = Arrays.asList(
+                Date.from(LocalDateTime.of(2024, 8, 26, 7, 15).atZone(ZoneId.systemDefault()).toInstant()),  // 18 SEK
+                Date.from(LocalDateTime.of(2024, 8, 26, 15, 15).atZone(ZoneId.systemDefault()).toInstant()), // 13 SEK
+                Date.from(LocalDateTime.of(2024, 8, 27, 7, 15).atZone(ZoneId.systemDefault()).toInstant()));  // 18 SEK
+
+        // Act
+        requestValidator.validateRequest("Car", dates);
+        tollCalculator.calculateToll(new Vehicle("ABC123", "Car", dates));
+
+        // Assert
+        assertEquals(1, registry.get("toll.stage").tag("stage", "validate-request").timer().count());
+        assertEquals(1, registry.get("toll.stage").tag("stage", "calculate-toll").timer().count());
+        assertEquals(1, registry.get("toll.stage").tag("stage", "toll-free-vehicle-type").timer().count());
+        assertEquals(2, registry.get("toll.stage").tag("stage", "toll-free-date").timer().count());
+        assertEquals(3, registry.get("toll.fee.lookups").counter().count());
+        assertEquals(1, registry.get("toll.fee.table.compile").timer().count());
+        assertEquals(1, registry.get("toll.tariff.compile").timer().count());
+        assertEquals(3, registry.get("toll.request.passages").summary().totalAmount());
+        assertEquals(2, registry.get("toll.fee.daily").summary().count());
+        assertEquals(49, registry.get("toll.fee.daily").summary().totalAmount());
+        assertEquals(1, registry.get("toll.configuration.load").tag("file", "VehicleTypes.json").timer().count()); // Compiled once, shared by both validators
+    }
+
+    @Test
+    void testConfigurationParse_CountsParsesAndFailures() throws IOException {
+        // Arrange
+        Files.writeString(configurationDirectory.resolve("TollFees.json"), "{\"tollFees\": [");
+        ConfigurationLoader<TollFees> brokenLoader = new ConfigurationLoader<>(configurationDirectory.toString(), false);
+        ConfigurationLoader<VehicleTypes> validLoader = new ConfigurationLoader<>();
+        brokenLoader.bindTo(registry);
+        validLoader.bindTo(registry);
+
+        // Act
+        brokenLoader.loadConfiguration(ConfigurationFilePath.TOLL_FEES, TollFees.class);
+        validLoader.loadConfiguration(ConfigurationFilePath.VEHICLE_TYPES, VehicleTypes.class);
+
+        // Assert
+        assertEquals(1, registry.get("toll.configuration.parse").tag("file", "TollFees.json").timer().count());
+        assertEquals(1, registry.get("toll.configuration.parse.failures").tag("file", "TollFees.json").counter().count());
+        assertEquals(1, registry.get("toll.configuration.parse").tag("file", "VehicleTypes.json").timer().count());
+        assertEquals(0, registry.get("toll.configuration.parse.failures").tag("file", "VehicleTypes.json").counter().count());
+    }
+
+    @Test
+    void testCalculation_UnboundRecordsNothing() {
+        // Arrange
+        VehicleTypeRegistry vehicleTypeRegistry = new VehicleTypeRegistry(new ConfigurationLoader<>());
+        TollCalculator tollCalculator = new TollCalculator(new TollFreeValidator(
+                new TollFreeCalendar(new ConfigurationLoader<>()), vehicleTypeRegistry),
+                new TollFeeAmountRetriever(new ConfigurationLoader<>()));
+        List<Date> dates = List.of(
+                Date.from(LocalDateTime.of(2024, 8, 26, 7, 15).atZone(ZoneId.systemDefault()).toInstant()));
+
+        // Act
+        tollCalculator.calculateToll(new Vehicle("ABC123", "Car", dates));
+
+        // Assert
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    private <T extends ConfigurationObject> ConfigurationLoader<T> boundLoader() {
+        ConfigurationLoader<T> configLoader = new ConfigurationLoader<>();
+        configLoader.bindTo(registry);
+        return configLoader;
+    }
+}
@@ -0,0 +1,289 @@
+package org.yazanghafir.tollcalculator.infrastructure.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedDailyTollStoreTest {
+
+    private static final long MONDAY = 19961; // 2024-08-26
+    private static final int HOUR = 60 * 60 * 1000;
+    private static final int MINUTE = 60 * 1000;
+    private static final int MAX_DAILY_FEE = 60;
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private MappedDailyTollStore store;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("daily-tolls.dat");
+        store = MappedDailyTollStore.open(file, 1024);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void testAddPassage_RunningTotal() {
+        // Act & Assert
+        assertEquals(18, store.addPassage("ABC123", MONDAY, 7 * HOUR + 15 * MINUTE, 18, false, MAX_DAILY_FEE));
+        assertEquals(18, store.addPassage("ABC123", MONDAY, 7 * HOUR + 45 * MINUTE, 13, false, MAX_DAILY_FEE)); // Same hour
+        assertEquals(26, store.addPassage("ABC123", MONDAY, 8 * HOUR + 30 * MINUTE, 8, false, MAX_DAILY_FEE));
+        assertEquals(8, store.addPassage("ABC123", MONDAY + 1, 8 * HOUR + 30 * MINUTE, 8, false, MAX_DAILY_FEE));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testAddPassage_LatePassageMovesIntervals() {
+        // Arrange
+        store.addPassage("ABC123", MONDAY, 7 * HOUR + 15 * MINUTE, 18, false, MAX_DAILY_FEE);
+        store.addPassage("ABC123", MONDAY, 8 * HOUR + 30 * MINUTE, 8, false, MAX_DAILY_FEE);
+
+        // Act
+        int total = store.addPassage("ABC123", MONDAY, 6 * HOUR + 45 * MINUTE, 13, false, MAX_DAILY_FEE);
+
+        // Assert
+        assertEquals(26, total); // 06:45-07:44 takes 18 SEK, 08:30 opens the next interval
+    }
+
+    @Test
+    void testAddPassage_TollFreeAndCapped() {
+        // Act
+        int total = 0;
+        for (int hour = 6; hour < 18; hour++) {
+            total = store.addPassage("ABC123", MONDAY, hour * HOUR + 30 * MINUTE, 18, false, MAX_DAILY_FEE);
+        }
+
+        // Assert
+        assertEquals(60, total);
+        assertEquals(0, store.addPassage("AMB001", MONDAY, 7 * HOUR, 18, true, MAX_DAILY_FEE));
+    }
+
+    @Test
+    void testAddPassage_FoldsOldestPassages() {
+        // Arrange, 20 passages 40 minutes apart with alternating fees
+        int total = 0;
+        for (int i = 0; i < 20; i++) {
+            total = store.addPassage("ABC123", MONDAY, i * 40 * MINUTE, i % 2 == 0 ? 8 : 13, false, 1000);
+        }
+
+        // Act
+        int withLatePassage = store.addPassage("ABC123", MONDAY, 10 * 40 * MINUTE + MINUTE, 18, false, 1000);
+
+        // Assert
+        assertEquals(130, total); // Intervals open at 0, 80, 160 ... minutes and take the 13 SEK fee of their second passage
+        assertEquals(total + 5, withLatePassage); // The interval that opens at 400 minutes takes 18 SEK instead of 13 SEK
+        assertThrows(IllegalArgumentException.class,
+                () -> store.addPassage("ABC123", MONDAY, 0, 8, false, 1000)); // Older than a folded passage
+    }
+
+    @Test
+    void testOpen_SurvivesRestart() throws IOException {
+        // Arrange
+        store.addPassage("ABC123", MONDAY, 7 * HOUR + 15 * MINUTE, 18, false, MAX_DAILY_FEE);
+        store.addPassage("XYZ789", MONDAY, 8 * HOUR + 30 * MINUTE, 8, false, MAX_DAILY_FEE);
+        store.close();
+
+        // Act
+        store = MappedDailyTollStore.open(file, 1024);
+
+        // Assert
+        assertEquals(2, store.size());
+        assertEquals(18, store.getTotal("ABC123", MONDAY));
+        assertEquals(26, store.addPassage("ABC123", MONDAY, 8 * HOUR + 30 * MINUTE, 8, false, MAX_DAILY_FEE));
+        assertEquals(-1, store.getTotal("ABC123", MONDAY + 1));
+    }
+
+    @Test
+    void testOpen_InterruptedUpdateLeavesOldOrNewTotal() throws IOException {
+        // Arrange, a full record, so the next passage folds the oldest into the other checkpoint
+        for (int i = 0; i < MappedDailyTollStore.RETAINED_PASSAGES; i++) {
+            store.addPassage("ABC123", MONDAY, 6 * HOUR + i * 40 * MINUTE, i % 2 == 0 ? 8 : 13, false, 1000);
+        }
+        int oldTotal = store.getTotal("ABC123", MONDAY);
+        store.close();
+        byte[] before = Files.readAllBytes(file);
+        store = MappedDailyTollStore.open(file, 1024);
+        int newTotal = store.addPassage("ABC123", MONDAY, 6 * HOUR + 17 * 40 * MINUTE, 18, false, 1000);
+        store.close();
+        byte[] after = Files.readAllBytes(file);
+
+        int base = indexOf(after, "ABC123".getBytes(StandardCharsets.UTF_8)) - MappedDailyTollStore.PLATE;
+        int commit = -1;
+        List<Integer> changedInts = new ArrayList<>();
+        for (int i = 0; i < before.length; i += 4) {
+            if (!Arrays.equals(before, i, i + 4, after, i, i + 4)) {
+                if (i == base + MappedDailyTollStore.COMMIT) {
+                    commit = changedInts.size();
+                }
+                changedInts.add(i);
+            }
+        }
+        int committedWrites = 0; // The passage and checkpoint ints, written before the commit word
+        for (int i = 0; i < changedInts.size(); i++) {
+            int offset = changedInts.get(i) - base;
+            if (i != commit && (offset < MappedDailyTollStore.RUNNING_STATE || offset >= MappedDailyTollStore.RUNNING_STATE + 12)) {
+                committedWrites |= 1 << i;
+            }
+        }
+
+        // Act & Assert, the process stops after any combination of writes that keeps the commit word after its data
+        assertTrue(commit >= 0 && changedInts.size() <= 12, "Changed ints: " + changedInts.size());
+        for (int written = 0; written < 1 << changedInts.size(); written++) {
+            boolean committed = (written & 1 << commit) != 0;
+            if (committed && (written & committedWrites) != committedWrites) {
+                continue;
+            }
+            byte[] image = before.clone();
+            for (int i = 0; i < changedInts.size(); i++) {
+                if ((written & 1 << i) != 0) {
+                    System.arraycopy(after, changedInts.get(i), image, changedInts.get(i), 4);
+                }
+            }
+            Files.write(file, image);
+            store = MappedDailyTollStore.open(file, 1024);
+            int total = store.getTotal("ABC123", MONDAY);
+            store.close();
+            assertEquals(committed ? newTotal : oldTotal, total, "Total after writing " + Integer.toBinaryString(written));
+        }
+        store = MappedDailyTollStore.open(file, 1024);
+    }
+
+    @Test
+    void testOpen_RejectsOtherFiles() throws IOException {
+        // Arrange
+        Path otherFile = directory.resolve("other.dat");
+        try (RandomAccessFile other = new RandomAccessFile(otherFile.toFile(), "rw")) {
+            other.setLength(4096);
+        }
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> MappedDailyTollStore.open(otherFile, 1024));
+    }
+
+    @Test
+    void testCompact_RemovesClosedDays() throws IOException {
+        // Arrange
+        for (int i = 0; i < 500; i++) {
+            store.addPassage("OLD" + i, MONDAY - 1, 7 * HOUR, 18, false, MAX_DAILY_FEE);
+            store.addPassage("NEW" + i, MONDAY, 7 * HOUR, 18, false, MAX_DAILY_FEE);
+        }
+
+        // Act
+        int removed = store.compact(MONDAY);
+
+        // Assert
+        assertEquals(500, removed);
+        assertEquals(500, store.size());
+        assertEquals(-1, store.getTotal("OLD1", MONDAY - 1));
+        assertEquals(26, store.addPassage("NEW1", MONDAY, 8 * HOUR + 30 * MINUTE, 8, false, MAX_DAILY_FEE));
+        assertTrue(Files.notExists(directory.resolve("daily-tolls.dat.compacting")));
+
+        store.close();
+        store = MappedDailyTollStore.open(file, 1024);
+        assertEquals(500, store.size());
+        assertEquals(26, store.getTotal("NEW1", MONDAY));
+    }
+
+    @Test
+    void testCompact_KeepsFileWithoutClosedDays() throws IOException {
+        // Arrange
+        store.addPassage("NEW1", MONDAY, 7 * HOUR, 18, false, MAX_DAILY_FEE);
+        Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+
+        // Act
+        int removed = store.compact(MONDAY);
+
+        // Assert
+        assertEquals(0, removed);
+        assertEquals(fileKey, Files.readAttributes(file, BasicFileAttributes.class).fileKey()); // Not rewritten
+        assertEquals(18, store.getTotal("NEW1", MONDAY));
+    }
+
+    @Test
+    void testAddPassage_GrowsTable() {
+        // Arrange
+        int initialCapacity = store.getCapacity();
+
+        // Act
+        for (int i = 0; i < initialCapacity * 2; i++) {
+            store.addPassage("ABC" + i, MONDAY, 7 * HOUR, 18, false, MAX_DAILY_FEE);
+        }
+
+        // Assert
+        assertTrue(store.getCapacity() > initialCapacity);
+        assertEquals(initialCapacity * 2, store.size());
+        for (int i = 0; i < initialCapacity * 2; i++) {
+            assertEquals(18, store.getTotal("ABC" + i, MONDAY));
+        }
+    }
+
+    @Test
+    void testAddPassage_ConcurrentUpdates() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act, every plate passes once an hour between 06:00 and 17:00, spread over the threads
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int first = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = first; i < 3000 * 12; i += 8) {
+                        store.addPassage("P" + (i % 3000), MONDAY, (6 + i / 3000) * HOUR, 5, false, 1000);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(3000, store.size());
+        for (int plate = 0; plate < 3000; plate++) {
+            assertEquals(60, store.getTotal("P" + plate, MONDAY));
+        }
+    }
+
+    @Test
+    void testAddPassage_PlateTooLong() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> store.addPassage("A".repeat(24), MONDAY, 7 * HOUR, 18, false, MAX_DAILY_FEE));
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int i = 0; i + part.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
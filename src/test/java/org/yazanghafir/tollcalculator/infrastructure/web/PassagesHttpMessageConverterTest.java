@@ -0,0 +1,189 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorPassagesRequest;
+import org.yazanghafir.tollcalculator.domain.requests.TollCalculatorRequest;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PassagesHttpMessageConverterTest {
+
+    private final PassagesJsonHttpMessageConverter jsonConverter =
+            new PassagesJsonHttpMessageConverter(new ObjectMapper().getFactory(), 1000);
+    private final PassagesBinaryHttpMessageConverter binaryConverter = new PassagesBinaryHttpMessageConverter(1000);
+
+    @Test
+    void testJson_ReadsRequest() throws IOException {
+        // Arrange
+        String body = "{\"vehiclePlate\": \"ABC123\", \"extra\": {\"nested\": [1, 2]}, \"vehicleType\": \"Car\", "
+                + "\"passageTimes\": [1724656500000, 1724649300000, 1724652900000], \"zone\": \"Gothenburg\"}";
+
+        // Act
+        TollCalculatorPassagesRequest request = jsonConverter.read(TollCalculatorPassagesRequest.class, json(body));
+
+        // Assert
+        assertEquals("ABC123", request.getVehiclePlate());
+        assertEquals("Car", request.getVehicleType());
+        assertArrayEquals(new long[]{1724656500000L, 1724649300000L, 1724652900000L}, request.getPassageTimes());
+        assertEquals("Gothenburg", request.getZone());
+    }
+
+    @Test
+    void testJson_MissingPassageTimes() throws IOException {
+        // Act
+        TollCalculatorPassagesRequest request = jsonConverter.read(TollCalculatorPassagesRequest.class,
+                json("{\"vehiclePlate\": \"ABC123\", \"vehicleType\": \"Car\"}"));
+
+        // Assert
+        assertNull(request.getPassageTimes()); // Reported by the validator
+    }
+
+    @Test
+    void testJson_MalformedBody() {
+        // Act & Assert
+        assertThrows(HttpMessageNotReadableException.class, () -> jsonConverter.read(
+                TollCalculatorPassagesRequest.class, json("{\"passageTimes\": [\"2024-08-26T07:15:00Z\"]}")));
+        assertThrows(HttpMessageNotReadableException.class, () -> jsonConverter.read(
+                TollCalculatorPassagesRequest.class, json("{\"passageTimes\": [1, 2")));
+        assertThrows(HttpMessageNotReadableException.class, () -> jsonConverter.read(
+                TollCalculatorPassagesRequest.class, json("[1, 2]")));
+    }
+
+    @Test
+    void testJson_TooManyPassages() {
+        // Arrange
+        long[] passageTimes = new long[1001];
+        Arrays.fill(passageTimes, 1724649300000L);
+        String body = "{\"passageTimes\": " + Arrays.toString(passageTimes) + "}";
+
+        // Act
+        HttpMessageNotReadableException ex = assertThrows(HttpMessageNotReadableException.class,
+                () -> jsonConverter.read(TollCalculatorPassagesRequest.class, json(body)));
+
+        // Assert
+        assertTrue(ex.getMessage().contains("at most 1000"));
+    }
+
+    @Test
+    void testBinary_RoundTrip() throws IOException {
+        // Arrange
+        long[] passageTimes = {1724649300000L, 1724652900000L, 1724649299999L, -1L}; // Negative deltas too
+        byte[] body = binary(new TollCalculatorPassagesRequest("ÅBC123", "Car", passageTimes.clone()));
+
+        // Act
+        TollCalculatorPassagesRequest request = binaryConverter.read(TollCalculatorPassagesRequest.class,
+                binaryMessage(body));
+
+        // Assert
+        assertEquals("ÅBC123", request.getVehiclePlate());
+        assertEquals("Car", request.getVehicleType());
+        assertArrayEquals(passageTimes, request.getPassageTimes());
+        assertNull(request.getZone());
+        assertTrue(body.length < 40); // 2 + 7, 2 + 3, 1 and a handful of bytes per passage
+    }
+
+    @Test
+    void testBinary_Zone() throws IOException {
+        // Arrange
+        byte[] body = binary(new TollCalculatorPassagesRequest("ABC123", "Truck", new long[]{1724649300000L}, "Göteborg"));
+
+        // Act
+        TollCalculatorPassagesRequest request = binaryConverter.read(TollCalculatorPassagesRequest.class,
+                binaryMessage(body));
+
+        // Assert
+        assertEquals("Göteborg", request.getZone());
+        assertArrayEquals(new long[]{1724649300000L}, request.getPassageTimes());
+    }
+
+    @Test
+    void testBinary_TruncatedBody() throws IOException {
+        // Arrange
+        byte[] body = binary(new TollCalculatorPassagesRequest("ABC123", "Car", new long[]{1724649300000L}));
+
+        // Act & Assert
+        assertThrows(HttpMessageNotReadableException.class, () -> binaryConverter.read(
+                TollCalculatorPassagesRequest.class, binaryMessage(Arrays.copyOf(body, body.length - 1))));
+    }
+
+    @Test
+    void testBinary_TooManyPassages() throws IOException {
+        // Arrange
+        byte[] body = binary(new TollCalculatorPassagesRequest("ABC123", "Car", new long[1001]));
+
+        // Act & Assert
+        assertThrows(HttpMessageNotReadableException.class, () -> binaryConverter.read(
+                TollCalculatorPassagesRequest.class, binaryMessage(body)));
+    }
+
+    @Test
+    void testDecoder_ReadsBinaryRequest() throws IOException {
+        // Arrange
+        PassagesBinaryDecoder decoder = new PassagesBinaryDecoder(1000);
+        byte[] body = binary(new TollCalculatorPassagesRequest("ABC123", "Car", new long[]{1724649300000L}, "Göteborg"));
+        ResolvableType type = ResolvableType.forClass(TollCalculatorPassagesRequest.class);
+
+        // Act
+        TollCalculatorPassagesRequest request = decoder.decodeToMono(Flux.just(
+                        DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOf(body, 4)),
+                        DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(body, 4, body.length))),
+                type, PassagesBinaryFormat.MEDIA_TYPE, Map.of()).block();
+
+        // Assert
+        assertEquals("ABC123", request.getVehiclePlate());
+        assertArrayEquals(new long[]{1724649300000L}, request.getPassageTimes());
+        assertEquals("Göteborg", request.getZone());
+        assertTrue(decoder.canDecode(type, PassagesBinaryFormat.MEDIA_TYPE));
+        assertFalse(decoder.canDecode(type, MediaType.APPLICATION_JSON));
+        assertThrows(DecodingException.class, () -> decoder.decodeToMono(Flux.just(
+                        DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOf(body, body.length - 1))),
+                type, PassagesBinaryFormat.MEDIA_TYPE, Map.of()).block());
+    }
+
+    @Test
+    void testConverters_OnlyReadPassagesRequests() {
+        // Assert
+        assertTrue(jsonConverter.canRead(TollCalculatorPassagesRequest.class, MediaType.APPLICATION_JSON));
+        assertFalse(jsonConverter.canRead(TollCalculatorRequest.class, MediaType.APPLICATION_JSON));
+        assertFalse(jsonConverter.canWrite(TollCalculatorPassagesRequest.class, MediaType.APPLICATION_JSON));
+        assertTrue(binaryConverter.canRead(TollCalculatorPassagesRequest.class, PassagesBinaryFormat.MEDIA_TYPE));
+        assertFalse(binaryConverter.canRead(TollCalculatorPassagesRequest.class, MediaType.APPLICATION_JSON));
+    }
+
+    private static MockHttpInputMessage json(String body) {
+        MockHttpInputMessage message = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return message;
+    }
+
+    private static MockHttpInputMessage binaryMessage(byte[] body) {
+        MockHttpInputMessage message = new MockHttpInputMessage(body);
+        message.getHeaders().setContentType(PassagesBinaryFormat.MEDIA_TYPE);
+        return message;
+    }
+
+    private static byte[] binary(TollCalculatorPassagesRequest request) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PassagesBinaryFormat.write(request, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,35 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.yazanghafir.tollcalculator.infrastructure.cluster.ClusterMembership;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ReactiveWebConfigurationTest {
+
+    @Test
+    void testPartitionedDeployment_Refused() {
+        // Arrange
+        ClusterMembership membership = new ClusterMembership(
+                List.of("http://localhost:8081", "http://localhost:8082"), "http://localhost:8081", 128, "forward");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () ->
+                new ReactiveWebConfiguration(new ObjectMapper(), new SimpleMeterRegistry(), membership, 1000, true));
+    }
+
+    @Test
+    void testSingleNode_Started() {
+        // Arrange
+        ClusterMembership membership = new ClusterMembership(List.of(), "", 128, "forward");
+
+        // Act & Assert
+        assertDoesNotThrow(() ->
+                new ReactiveWebConfiguration(new ObjectMapper(), new SimpleMeterRegistry(), membership, 1000, true));
+    }
+}
@@ -0,0 +1,140 @@
+package org.yazanghafir.tollcalculator.infrastructure.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.yazanghafir.tollcalculator.application.validation.TollCalculatorRequestValidator;
+import org.yazanghafir.tollcalculator.domain.entities.DailyTollFee;
+import org.yazanghafir.tollcalculator.domain.responses.TollCalculatorResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TollCalculatorResponseHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final TollCalculatorResponseCache responseCache =
+            new TollCalculatorResponseCache(objectMapper, TollCalculatorRequestValidator.FIXED_MESSAGES);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TollCalculatorResponseHttpMessageConverter converter =
+            new TollCalculatorResponseHttpMessageConverter(objectMapper, responseCache, registry);
+
+    @Test
+    void testCache_HoldsTotalsAndFixedMessages() throws IOException {
+        // Arrange
+        TollCalculatorResponse total = TollCalculatorResponse.total(60, null);
+        TollCalculatorResponse failure = new TollCalculatorResponse(0, false, TollCalculatorRequestValidator.NO_DATE_TIMES);
+
+        // Act
+        byte[] totalBody = responseCache.get(total);
+        byte[] failureBody = responseCache.get(failure);
+
+        // Assert
+        assertArrayEquals(objectMapper.writeValueAsBytes(total), totalBody);
+        assertArrayEquals(objectMapper.writeValueAsBytes(failure), failureBody);
+        assertSame(totalBody, responseCache.get(new TollCalculatorResponse(60, true, "Total toll fee: 60 SEK")));
+    }
+
+    @Test
+    void testCache_LeavesOtherResponsesToJackson() {
+        // Arrange
+        List<DailyTollFee> dailyTollFees = List.of(new DailyTollFee(LocalDate.of(2024, 8, 26), 18),
+                new DailyTollFee(LocalDate.of(2024, 8, 27), 8));
+        TollCalculatorResponse changed = TollCalculatorResponse.total(18, null);
+        changed.setTollFee(13);
+
+        // Act & Assert
+        assertNull(responseCache.get(TollCalculatorResponse.total(26, dailyTollFees)));
+        assertNull(responseCache.get(TollCalculatorResponse.total(TollCalculatorResponse.COMMON_TOTALS, null)));
+        assertNull(responseCache.get(new TollCalculatorResponse(0, false, "Error processing the request. Error: boom")));
+        assertNull(responseCache.get(new TollCalculatorResponse(18.5, true, "Total toll fee: 18 SEK")));
+        assertNull(responseCache.get(changed)); // The message no longer matches the fee
+    }
+
+    @Test
+    void testWrite_PrecomputedBodyWithLength() throws IOException {
+        // Arrange
+        TollCalculatorResponse response = TollCalculatorResponse.total(18, null);
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+
+        // Assert
+        assertEquals("{\"tollFee\":18.0,\"success\":true,\"message\":\"Total toll fee: 18 SEK\"}",
+                outputMessage.getBodyAsString());
+        assertEquals(outputMessage.getBodyAsBytes().length, outputMessage.getHeaders().getContentLength());
+    }
+
+    @Test
+    void testWrite_SerializesOtherResponses() throws IOException {
+        // Arrange
+        TollCalculatorResponse response = TollCalculatorResponse.total(26, List.of(
+                new DailyTollFee(LocalDate.of(2024, 8, 26), 18), new DailyTollFee(LocalDate.of(2024, 8, 27), 8)));
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+
+        // Assert
+        assertArrayEquals(objectMapper.writeValueAsBytes(response), outputMessage.getBodyAsBytes());
+        assertEquals(-1, outputMessage.getHeaders().getContentLength());
+    }
+
+    @Test
+    void testCanWrite_OnlyTollResponses() {
+        // Act & Assert
+        assertTrue(converter.canWrite(TollCalculatorResponse.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Object.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(TollCalculatorResponse.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testEncoder_PrecomputedAndSerializedBodies() throws IOException {
+        // Arrange
+        TollCalculatorResponseEncoder encoder =
+                new TollCalculatorResponseEncoder(new Jackson2JsonEncoder(objectMapper), responseCache, registry);
+        ResolvableType type = ResolvableType.forClass(TollCalculatorResponse.class);
+        TollCalculatorResponse failure = new TollCalculatorResponse(0, false, "Error processing the request. Error: boom");
+
+        // Act
+        DataBuffer total = encoder.encode(Mono.just(TollCalculatorResponse.total(8, null)),
+                DefaultDataBufferFactory.sharedInstance, type, MediaType.APPLICATION_JSON, Map.of()).blockFirst();
+        DataBuffer serialized = encoder.encodeValue(failure, DefaultDataBufferFactory.sharedInstance, type,
+                MediaType.APPLICATION_JSON, Map.of());
+
+        // Assert
+        assertTrue(encoder.canEncode(type, MediaType.APPLICATION_JSON));
+        assertNotNull(total);
+        assertArrayEquals(objectMapper.writeValueAsBytes(TollCalculatorResponse.total(8, null)), bytes(total));
+        assertArrayEquals(objectMapper.writeValueAsBytes(failure), bytes(serialized));
+        assertEquals(1, registry.get("toll.response.writes").tag("body", "precomputed").counter().count());
+        assertEquals(1, registry.get("toll.response.writes").tag("body", "serialized").counter().count());
+    }
+
+    private static byte[] bytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+}